@@ -3,6 +3,7 @@ package it.cavallium.datagen.plugin;
 import com.palantir.javapoet.ClassName;
 import com.palantir.javapoet.ParameterizedTypeName;
 import com.palantir.javapoet.TypeName;
+import java.util.List;
 import java.util.Objects;
 import java.util.stream.Stream;
 
@@ -13,6 +14,7 @@ public final class ComputedTypeCustom implements ComputedType {
 	private final String javaClass;
 	private final String codec;
 	private final Integer fixedSize;
+	private final List<String> stringEnum;
 	private final ComputedTypeSupplier computedTypeSupplier;
 	private final TypeName typeName;
 
@@ -20,6 +22,7 @@ public final class ComputedTypeCustom implements ComputedType {
 			String javaClass,
 			String codec,
 			Integer fixedSize,
+			List<String> stringEnum,
 			ComputedTypeSupplier computedTypeSupplier,
 			ComputedVersion latestVersion) {
 		this.type = type;
@@ -27,6 +30,7 @@ public final class ComputedTypeCustom implements ComputedType {
 		this.javaClass = javaClass;
 		this.codec = codec;
 		this.fixedSize = fixedSize;
+		this.stringEnum = stringEnum == null ? null : List.copyOf(stringEnum);
 		this.computedTypeSupplier = computedTypeSupplier;
 		{
 			int indexOfGeneric;
@@ -62,6 +66,11 @@ public final class ComputedTypeCustom implements ComputedType {
 		return fixedSize;
 	}
 
+	/** Returns the declared string enum values, or {@code null} for an ordinary custom codec. */
+	public List<String> getStringEnum() {
+		return stringEnum;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -79,7 +88,8 @@ public final class ComputedTypeCustom implements ComputedType {
 		if (!Objects.equals(javaClass, that.javaClass)) {
 			return false;
 		}
-		return Objects.equals(codec, that.codec) && Objects.equals(fixedSize, that.fixedSize);
+		return Objects.equals(codec, that.codec) && Objects.equals(fixedSize, that.fixedSize)
+				&& Objects.equals(stringEnum, that.stringEnum);
 	}
 
 	@Override
@@ -88,6 +98,7 @@ public final class ComputedTypeCustom implements ComputedType {
 		result = 31 * result + (javaClass != null ? javaClass.hashCode() : 0);
 		result = 31 * result + (codec != null ? codec.hashCode() : 0);
 		result = 31 * result + (fixedSize != null ? fixedSize.hashCode() : 0);
+		result = 31 * result + (stringEnum != null ? stringEnum.hashCode() : 0);
 		return result;
 	}
 
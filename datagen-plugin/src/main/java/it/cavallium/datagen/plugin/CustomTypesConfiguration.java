@@ -1,5 +1,6 @@
 package it.cavallium.datagen.plugin;
 
+import java.util.List;
 import java.util.Objects;
 
 public final class CustomTypesConfiguration {
@@ -9,6 +10,13 @@ public final class CustomTypesConfiguration {
 	public String codec;
 	/** Optional exact serialized width. Variable-width codecs leave this unset. */
 	public Integer fixedSize;
+	/**
+	 * Optional closed set of expected values for a {@code String} field. The type then uses
+	 * {@link #STRING_ENUM_CODEC} and needs neither {@code javaClass} nor {@code codec}.
+	 */
+	public List<String> stringEnum;
+
+	public static final String STRING_ENUM_CODEC = "it.cavallium.datagen.nativedata.EnumeratedStringCodec";
 
 	public void setJavaClass(String javaClass) {
 		this.javaClass = javaClass;
@@ -18,6 +26,16 @@ public final class CustomTypesConfiguration {
 		return javaClass;
 	}
 
+	/** Returns the declared Java class, defaulting to {@code java.lang.String} for a string enum. */
+	public String resolvedJavaClass() {
+		return stringEnum != null && (javaClass == null || javaClass.isBlank()) ? "java.lang.String" : javaClass;
+	}
+
+	/** Returns the declared codec, defaulting to {@link #STRING_ENUM_CODEC} for a string enum. */
+	public String resolvedCodec() {
+		return stringEnum != null && (codec == null || codec.isBlank()) ? STRING_ENUM_CODEC : codec;
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) {
@@ -28,7 +46,7 @@ public final class CustomTypesConfiguration {
 		}
 		CustomTypesConfiguration that = (CustomTypesConfiguration) o;
 		return Objects.equals(javaClass, that.javaClass) && Objects.equals(codec, that.codec)
-				&& Objects.equals(fixedSize, that.fixedSize);
+				&& Objects.equals(fixedSize, that.fixedSize) && Objects.equals(stringEnum, that.stringEnum);
 	}
 
 	@Override
@@ -37,6 +55,7 @@ public final class CustomTypesConfiguration {
 		hash += ConfigUtils.hashCode(javaClass);
 		hash += ConfigUtils.hashCode(codec);
 		hash += ConfigUtils.hashCode(fixedSize);
+		hash += ConfigUtils.hashCode(stringEnum);
 		return hash;
 	}
 
@@ -45,6 +64,7 @@ public final class CustomTypesConfiguration {
 		c.javaClass = this.javaClass;
 		c.codec = this.codec;
 		c.fixedSize = this.fixedSize;
+		c.stringEnum = this.stringEnum == null ? null : List.copyOf(this.stringEnum);
 		return c;
 	}
 }
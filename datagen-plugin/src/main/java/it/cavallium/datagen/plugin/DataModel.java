@@ -185,10 +185,13 @@ public class DataModel {
             if (configuration == null) {
                 throw new IllegalArgumentException("Custom type " + name + " has no configuration");
             }
-            if (configuration.getJavaClassString() == null || configuration.getJavaClassString().isBlank()) {
+            if (configuration.stringEnum != null) {
+                validateStringEnum(name, configuration);
+            }
+            if (configuration.resolvedJavaClass() == null || configuration.resolvedJavaClass().isBlank()) {
                 throw new IllegalArgumentException("customTypesData." + name + ".javaClass is required");
             }
-            if (configuration.codec == null || configuration.codec.isBlank()) {
+            if (configuration.resolvedCodec() == null || configuration.resolvedCodec().isBlank()) {
                 throw new IllegalArgumentException("customTypesData." + name + ".codec is required");
             }
             if (configuration.fixedSize != null && configuration.fixedSize < 0) {
@@ -431,8 +434,8 @@ public class DataModel {
                             }).collect(Collectors.toList());
                     // Compute custom types
                     customTypesData.forEach((name, data) -> versionBaseTypes.add(new ComputedTypeCustom(name,
-                            data.getJavaClassString(), data.codec, data.fixedSize, computedTypeSupplier,
-                            computedVersions.get(latestVersion))));
+                            data.resolvedJavaClass(), data.resolvedCodec(), data.fixedSize, data.stringEnum,
+                            computedTypeSupplier, computedVersions.get(latestVersion))));
                     // Compute super types
                     superTypesData.forEach((key, data) -> {
                         List<VersionedType> subTypes = data.stream().map(x -> new VersionedType(x, version)).toList();
@@ -696,6 +699,35 @@ public class DataModel {
         return new IllegalArgumentException("Found many root versions: " + String.join(", ", rootVersions));
     }
 
+    private static void validateStringEnum(String name, CustomTypesConfiguration configuration) {
+        var values = configuration.stringEnum;
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("customTypesData." + name + ".stringEnum must not be empty");
+        }
+        var seen = new java.util.HashSet<String>();
+        for (String value : values) {
+            if (value == null) {
+                throw new IllegalArgumentException("customTypesData." + name + ".stringEnum contains null");
+            }
+            if (!seen.add(value)) {
+                throw new IllegalArgumentException("customTypesData." + name + ".stringEnum contains duplicate "
+                        + value);
+            }
+        }
+        String javaClass = configuration.resolvedJavaClass();
+        if (!javaClass.equals("java.lang.String") && !javaClass.equals("String")) {
+            throw new IllegalArgumentException("customTypesData." + name + ".stringEnum requires javaClass "
+                    + "java.lang.String, found " + javaClass);
+        }
+        if (!CustomTypesConfiguration.STRING_ENUM_CODEC.equals(configuration.resolvedCodec())) {
+            throw new IllegalArgumentException("customTypesData." + name + ".stringEnum cannot declare a codec");
+        }
+        if (configuration.fixedSize != null) {
+            throw new IllegalArgumentException("customTypesData." + name + ".stringEnum is variable-width and "
+                    + "cannot declare fixedSize");
+        }
+    }
+
     private static void validateStringRepresenters(String versionName, Map<String, ParsedClass> classConfig) {
         classConfig.forEach((typeName, typeConfig) -> {
             if (typeConfig.stringRepresenter != null && !typeConfig.stringRepresenter.isBlank()
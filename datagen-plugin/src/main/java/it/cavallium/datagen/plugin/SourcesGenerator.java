@@ -18,11 +18,13 @@ import it.cavallium.datagen.plugin.classgen.GenIVersion;
 import it.cavallium.datagen.plugin.classgen.GenNullableX;
 import it.cavallium.datagen.plugin.classgen.GenProjection;
 import it.cavallium.datagen.plugin.classgen.GenReadPlan;
+import it.cavallium.datagen.plugin.classgen.GenReusableRecord;
 import it.cavallium.datagen.plugin.classgen.GenSerializerArrayX;
 import it.cavallium.datagen.plugin.classgen.GenSerializerBaseX;
 import it.cavallium.datagen.plugin.classgen.GenSerializerNullableX;
 import it.cavallium.datagen.plugin.classgen.GenSerializerSuperX;
 import it.cavallium.datagen.plugin.classgen.GenSuperType;
+import it.cavallium.datagen.plugin.classgen.GenUnionReadPlan;
 import it.cavallium.datagen.plugin.classgen.GenUpgraderBaseX;
 import it.cavallium.datagen.plugin.classgen.GenUpgraderSuperX;
 import it.cavallium.datagen.plugin.classgen.GenVersion;
@@ -162,6 +164,10 @@ public class SourcesGenerator {
 
 		new GenReadPlan(genParams).run();
 
+		new GenReusableRecord(genParams).run();
+
+		new GenUnionReadPlan(genParams).run();
+
         new GenVersion(genParams).run();
 
         new GenIBaseType(genParams).run();
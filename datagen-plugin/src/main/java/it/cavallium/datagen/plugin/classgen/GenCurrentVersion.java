@@ -13,16 +13,22 @@ import com.palantir.javapoet.TypeVariableName;
 import com.palantir.javapoet.WildcardTypeName;
 import it.cavallium.datagen.plugin.ClassGenerator;
 import it.cavallium.datagen.plugin.ComputedType;
+import it.cavallium.datagen.plugin.ComputedTypeBase;
+import it.cavallium.datagen.plugin.ComputedTypeSuper;
 import it.cavallium.datagen.plugin.ComputedVersion;
 import it.cavallium.buffer.Buf;
 import it.cavallium.buffer.BufDataCursor;
 import it.cavallium.buffer.FallbackBufDataCursor;
 import it.cavallium.buffer.HeapBufDataCursor;
 import it.cavallium.buffer.MemorySegmentBufDataCursor;
+import it.cavallium.datagen.BudgetedReader;
 import it.cavallium.datagen.DecodeBudget;
 import it.cavallium.datagen.DecodeLimits;
 import it.cavallium.datagen.MalformedDataException;
 import it.cavallium.stream.SafeDataInput;
+import java.lang.foreign.MemorySegment;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -187,6 +193,8 @@ public class GenCurrentVersion extends ClassGenerator {
 
 		generateReader(currentVersionClass, currentVersionPackage);
 
+		generateUnionReader(currentVersionClass, currentVersionPackage);
+
 		generateGetClass(dataModel.getCurrentVersion(), currentVersionClass);
 
 		return Stream.of(new GeneratedClass(dataModel.getCurrentVersion().getPackage(basePackageName), currentVersionClass));
@@ -203,6 +211,7 @@ public class GenCurrentVersion extends ClassGenerator {
 
 		var reader = TypeSpec.interfaceBuilder("Reader")
 				.addModifiers(Modifier.PUBLIC)
+				.addSuperinterface(BudgetedReader.class)
 				.addTypeVariable(TypeVariableName.get("U", iBaseType))
 				.addJavadoc("Reusable thread-confined reader. Implementations retain no source after a read returns.\n")
 				.addMethod(MethodSpec.methodBuilder("read")
@@ -219,11 +228,22 @@ public class GenCurrentVersion extends ClassGenerator {
 						.addParameter(TypeName.INT, "offset")
 						.addParameter(TypeName.INT, "length")
 						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.addJavadoc("Reads the record at a long {@code offset} of {@code source}, such as a mapped file\n"
+								+ "larger than 2 GB, without slicing the segment.\n")
+						.returns(TypeVariableName.get("U"))
+						.addParameter(TypeName.INT, "version")
+						.addParameter(MemorySegment.class, "source")
+						.addParameter(TypeName.LONG, "offset")
+						.addParameter(TypeName.INT, "length")
+						.build())
 				.build();
 		currentVersionClass.addType(reader);
 
 		var boundReader = TypeSpec.interfaceBuilder("BoundReader")
 				.addModifiers(Modifier.PUBLIC)
+				.addSuperinterface(BudgetedReader.class)
 				.addTypeVariable(TypeVariableName.get("U", iBaseType))
 				.addJavadoc("Reusable thread-confined reader with type and serialized version selected once.\n")
 				.addMethod(MethodSpec.methodBuilder("read")
@@ -238,6 +258,15 @@ public class GenCurrentVersion extends ClassGenerator {
 						.addParameter(TypeName.INT, "offset")
 						.addParameter(TypeName.INT, "length")
 						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.addJavadoc("Reads the record at a long {@code offset} of {@code source}, such as a mapped file\n"
+								+ "larger than 2 GB, without slicing the segment.\n")
+						.returns(TypeVariableName.get("U"))
+						.addParameter(MemorySegment.class, "source")
+						.addParameter(TypeName.LONG, "offset")
+						.addParameter(TypeName.INT, "length")
+						.build())
 				.build();
 		currentVersionClass.addType(boundReader);
 
@@ -265,6 +294,12 @@ public class GenCurrentVersion extends ClassGenerator {
 						.addStatement("this.segmentCursor = new $T(budget)", segmentCursorType)
 						.addStatement("this.fallbackCursor = new $T(budget)", fallbackCursorType)
 						.build())
+				.addMethod(MethodSpec.methodBuilder("decodeBudget")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(DecodeBudget.class)
+						.addStatement("return budget")
+						.build())
 				.addMethod(MethodSpec.methodBuilder("readHeapValue")
 						.addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
 						.returns(TypeVariableName.get("U"))
@@ -307,6 +342,17 @@ public class GenCurrentVersion extends ClassGenerator {
 						.addStatement("case FALLBACK -> readFallback(version)")
 						.addCode("$<};\n")
 						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC)
+						.returns(TypeVariableName.get("U"))
+						.addParameter(TypeName.INT, "version")
+						.addParameter(MemorySegment.class, "source")
+						.addParameter(TypeName.LONG, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addStatement("segmentCursor.bind(source, offset, length)")
+						.addStatement("return readMemorySegment(version)")
+						.build())
 					.addMethod(storageReadMethod("readHeap", "readHeapValue", "heapCursor", true))
 					.addMethod(storageReadMethod("readMemorySegment", "readMemorySegmentValue",
 							"segmentCursor", true))
@@ -331,6 +377,12 @@ public class GenCurrentVersion extends ClassGenerator {
 						.addStatement("this.segmentCursor = new $T(budget)", segmentCursorType)
 						.addStatement("this.fallbackCursor = new $T(budget)", fallbackCursorType)
 						.build())
+				.addMethod(MethodSpec.methodBuilder("decodeBudget")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(DecodeBudget.class)
+						.addStatement("return budget")
+						.build())
 				.addMethod(MethodSpec.methodBuilder("readHeapValue")
 						.addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
 						.returns(TypeVariableName.get("U"))
@@ -368,6 +420,16 @@ public class GenCurrentVersion extends ClassGenerator {
 						.addStatement("case FALLBACK -> readFallback()")
 						.addCode("$<};\n")
 						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(TypeVariableName.get("U"))
+						.addParameter(MemorySegment.class, "source")
+						.addParameter(TypeName.LONG, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addStatement("segmentCursor.bind(source, offset, length)")
+						.addStatement("return readMemorySegment()")
+						.build())
 				.addMethod(storageReadMethod("readHeap", "readHeapValue", "heapCursor", false))
 				.addMethod(storageReadMethod("readMemorySegment", "readMemorySegmentValue",
 						"segmentCursor", false))
@@ -376,6 +438,113 @@ public class GenCurrentVersion extends ClassGenerator {
 					.build();
 		currentVersionClass.addType(boundReaderBase);
 
+		var reusableReaderType = ClassName.get(currentVersionPackage, "CurrentVersion").nestedClass("ReusableReader");
+		var reusableReader = TypeSpec.interfaceBuilder("ReusableReader")
+				.addModifiers(Modifier.PUBLIC)
+				.addSuperinterface(BudgetedReader.class)
+				.addTypeVariable(TypeVariableName.get("R"))
+				.addJavadoc("Bound reader that overwrites a caller-owned reusable record instead of allocating a value.\n")
+				.addMethod(MethodSpec.methodBuilder("readInto")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.addParameter(Buf.class, "source")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readInto")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.addParameter(Buf.class, "source")
+						.addParameter(TypeName.INT, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readInto")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.addJavadoc("Reads the record at a long {@code offset} of {@code source}, such as a mapped file\n"
+								+ "larger than 2 GB, without slicing the segment.\n")
+						.addParameter(MemorySegment.class, "source")
+						.addParameter(TypeName.LONG, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.build())
+				.build();
+		currentVersionClass.addType(reusableReader);
+
+		var reusableReaderBase = TypeSpec.classBuilder("ReusableReaderBase")
+				.addModifiers(Modifier.PRIVATE, Modifier.ABSTRACT, Modifier.STATIC)
+				.addTypeVariable(TypeVariableName.get("R"))
+				.addSuperinterface(ParameterizedTypeName.get(reusableReaderType, TypeVariableName.get("R")))
+				.addField(FieldSpec.builder(DecodeBudget.class, "budget", Modifier.PRIVATE, Modifier.FINAL).build())
+				.addField(FieldSpec.builder(heapCursorType, "heapCursor", Modifier.PRIVATE, Modifier.FINAL).build())
+				.addField(FieldSpec.builder(segmentCursorType, "segmentCursor", Modifier.PRIVATE, Modifier.FINAL).build())
+				.addField(FieldSpec.builder(fallbackCursorType, "fallbackCursor", Modifier.PRIVATE, Modifier.FINAL).build())
+				.addMethod(MethodSpec.constructorBuilder()
+						.addParameter(DecodeLimits.class, "limits")
+						.addStatement("this.budget = new $T($T.requireNonNull(limits, $S))", DecodeBudget.class,
+								Objects.class, "limits")
+						.addStatement("this.heapCursor = new $T(budget)", heapCursorType)
+						.addStatement("this.segmentCursor = new $T(budget)", segmentCursorType)
+						.addStatement("this.fallbackCursor = new $T(budget)", fallbackCursorType)
+						.build())
+				.addMethod(MethodSpec.methodBuilder("decodeBudget")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(DecodeBudget.class)
+						.addStatement("return budget")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readHeapInto")
+						.addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+						.addParameter(heapCursorType, "input")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readMemorySegmentInto")
+						.addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+						.addParameter(segmentCursorType, "input")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readFallbackInto")
+						.addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+						.addParameter(fallbackCursorType, "input")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readInto")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.addParameter(Buf.class, "source")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.addStatement("$T.requireNonNull(source, $S)", Objects.class, "source")
+						.addStatement("readInto(source, 0, source.size(), target)")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readInto")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.addParameter(Buf.class, "source")
+						.addParameter(TypeName.INT, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.addStatement("$T.requireNonNull(target, $S)", Objects.class, "target")
+						.beginControlFlow("switch ($T.bindSpecialized(source, offset, length, heapCursor, "
+								+ "segmentCursor, fallbackCursor))", BufDataCursor.class)
+						.addStatement("case HEAP -> readHeap(target)")
+						.addStatement("case MEMORY_SEGMENT -> readMemorySegment(target)")
+						.addStatement("case FALLBACK -> readFallback(target)")
+						.endControlFlow()
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readInto")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.addParameter(MemorySegment.class, "source")
+						.addParameter(TypeName.LONG, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addParameter(TypeVariableName.get("R"), "target")
+						.addStatement("$T.requireNonNull(target, $S)", Objects.class, "target")
+						.addStatement("segmentCursor.bind(source, offset, length)")
+						.addStatement("readMemorySegment(target)")
+						.build())
+				.addMethod(storageReadIntoMethod("readHeap", "readHeapInto", "heapCursor"))
+				.addMethod(storageReadIntoMethod("readMemorySegment", "readMemorySegmentInto", "segmentCursor"))
+				.addMethod(storageReadIntoMethod("readFallback", "readFallbackInto", "fallbackCursor"))
+				.build();
+		currentVersionClass.addType(reusableReaderBase);
+
 		dataModel.getBaseTypesComputed(dataModel.getCurrentVersion()).forEach(currentType -> {
 			String className = currentType.getName() + "Reader";
 			ClassName planType = GenReadPlan.className(basePackageName, currentVersionPackage, currentType.getName());
@@ -417,6 +586,9 @@ public class GenCurrentVersion extends ClassGenerator {
 							.build())
 					.build());
 
+			addReusableReader(currentVersionClass, currentVersionPackage, currentType, planType,
+					heapCursorType, segmentCursorType, fallbackCursorType);
+
 			for (ComputedVersion version : dataModel.getVersionsSet()) {
 				String boundClassName = currentType.getName() + "V" + version.getVersion() + "Reader";
 				currentVersionClass.addType(TypeSpec.classBuilder(boundClassName)
@@ -506,6 +678,316 @@ public class GenCurrentVersion extends ClassGenerator {
 		currentVersionClass.addMethod(newBoundReader.build());
 	}
 
+	private void addReusableReader(Builder currentVersionClass,
+			String currentVersionPackage,
+			ComputedTypeBase currentType,
+			ClassName planType,
+			ClassName heapCursorType,
+			ClassName segmentCursorType,
+			ClassName fallbackCursorType) {
+		ClassName reusableType = GenReusableRecord.className(currentVersionPackage, currentType.getName());
+		ClassName serializerType = currentType.getJSerializerName(basePackageName);
+		String className = currentType.getName() + "ReusableReader";
+		var readerClass = TypeSpec.classBuilder(className)
+				.addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+				.superclass(ParameterizedTypeName.get(
+						ClassName.get(currentVersionPackage, "CurrentVersion").nestedClass("ReusableReaderBase"),
+						reusableType))
+				.addField(TypeName.INT, "version", Modifier.PRIVATE, Modifier.FINAL)
+				.addField(FieldSpec.builder(planType.nestedClass("State"), "state", Modifier.PRIVATE, Modifier.FINAL)
+						.initializer("new $T()", planType.nestedClass("State"))
+						.build())
+				.addMethod(MethodSpec.constructorBuilder()
+						.addParameter(TypeName.INT, "version")
+						.addParameter(DecodeLimits.class, "limits")
+						.addStatement("super(limits)")
+						.addStatement("this.version = version")
+						.build());
+		for (var storage : List.of(Map.entry("readHeapInto", heapCursorType),
+				Map.entry("readMemorySegmentInto", segmentCursorType),
+				Map.entry("readFallbackInto", fallbackCursorType))) {
+			readerClass.addMethod(MethodSpec.methodBuilder(storage.getKey())
+					.addAnnotation(Override.class)
+					.addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+					.addParameter(storage.getValue(), "input")
+					.addParameter(reusableType, "target")
+					.beginControlFlow("if (version == $L)", dataModel.getCurrentVersionNumber())
+					.addStatement("$T.readValueInto(input, input.decodeBudget().codecReadState(), target)",
+							serializerType)
+					.nextControlFlow("else")
+					.addStatement("target.copyFrom($T.read(version, input, state))", planType)
+					.endControlFlow()
+					.build());
+		}
+		currentVersionClass.addType(readerClass.build());
+
+		CodeBlock.Builder versions = CodeBlock.builder();
+		int index = 0;
+		for (ComputedVersion version : dataModel.getVersionsSet()) {
+			if (index++ != 0) versions.add(", ");
+			versions.add("$L", version.getVersion());
+		}
+		currentVersionClass.addMethod(MethodSpec.methodBuilder("new" + currentType.getName() + "ReusableReader")
+				.addJavadoc("Returns a reader that decodes serialized {@code version} data into a reusable record.\n")
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+				.returns(ParameterizedTypeName.get(
+						ClassName.get(currentVersionPackage, "CurrentVersion").nestedClass("ReusableReader"),
+						reusableType))
+				.addParameter(TypeName.INT, "version")
+				.addParameter(DecodeLimits.class, "limits")
+				.addStatement("$T.requireNonNull(limits, $S)", Objects.class, "limits")
+				.beginControlFlow("return switch (version)")
+				.addStatement("case $L -> new $N(version, limits)", versions.build(), className)
+				.addStatement("default -> throw new $T($S + version)", IllegalArgumentException.class,
+						"Unsupported serialized version: ")
+				.addCode(CodeBlock.of("$<};"))
+				.build());
+	}
+
+	private void generateUnionReader(Builder currentVersionClass, String currentVersionPackage) {
+		List<ComputedTypeSuper> unions = dataModel.getSuperTypesComputed(dataModel.getCurrentVersion()).toList();
+		if (unions.isEmpty()) return;
+		var iType = ClassName.get(currentVersionPackage, "IType");
+		var baseType = ClassName.get(dataModel.getRootPackage(basePackageName), "BaseType");
+		var superType = ClassName.get(dataModel.getRootPackage(basePackageName), "SuperType");
+		var unionReaderType = ClassName.get(currentVersionPackage, "CurrentVersion").nestedClass("UnionReader");
+		var unionReaderBaseType = ClassName.get(currentVersionPackage, "CurrentVersion").nestedClass("UnionReaderBase");
+		var heapCursorType = ClassName.get(HeapBufDataCursor.class);
+		var segmentCursorType = ClassName.get(MemorySegmentBufDataCursor.class);
+		var fallbackCursorType = ClassName.get(FallbackBufDataCursor.class);
+		var u = TypeVariableName.get("U");
+
+		currentVersionClass.addType(TypeSpec.interfaceBuilder("UnionReader")
+				.addModifiers(Modifier.PUBLIC)
+				.addSuperinterface(BudgetedReader.class)
+				.addTypeVariable(TypeVariableName.get("U", iType))
+				.addJavadoc("Reusable thread-confined reader for a union root, with serialized version selected once.\n")
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.returns(u)
+						.addParameter(Buf.class, "source")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.returns(u)
+						.addParameter(Buf.class, "source")
+						.addParameter(TypeName.INT, "offset")
+						.addParameter(TypeName.INT, "length")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.addJavadoc("Reads a row expected to hold {@code variantHint}, skipping the discriminator dispatch.\n"
+								+ "A {@code null} hint reads any variant. A row of another variant is rejected as malformed.\n")
+						.returns(u)
+						.addParameter(Buf.class, "source")
+						.addParameter(TypeName.INT, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addParameter(baseType, "variantHint")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+						.addJavadoc("Reads the record at a long {@code offset} of {@code source}, such as a mapped file\n"
+								+ "larger than 2 GB, without slicing the segment.\n")
+						.returns(u)
+						.addParameter(MemorySegment.class, "source")
+						.addParameter(TypeName.LONG, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addParameter(baseType, "variantHint")
+						.build())
+				.build());
+
+		currentVersionClass.addType(TypeSpec.classBuilder("UnionReaderBase")
+				.addModifiers(Modifier.PRIVATE, Modifier.ABSTRACT, Modifier.STATIC)
+				.addTypeVariable(TypeVariableName.get("U", iType))
+				.addSuperinterface(ParameterizedTypeName.get(unionReaderType, u))
+				.addField(FieldSpec.builder(DecodeBudget.class, "budget", Modifier.PRIVATE, Modifier.FINAL).build())
+				.addField(FieldSpec.builder(heapCursorType, "heapCursor", Modifier.PRIVATE, Modifier.FINAL).build())
+				.addField(FieldSpec.builder(segmentCursorType, "segmentCursor", Modifier.PRIVATE, Modifier.FINAL).build())
+				.addField(FieldSpec.builder(fallbackCursorType, "fallbackCursor", Modifier.PRIVATE, Modifier.FINAL).build())
+				.addMethod(MethodSpec.constructorBuilder()
+						.addParameter(DecodeLimits.class, "limits")
+						.addStatement("this.budget = new $T($T.requireNonNull(limits, $S))", DecodeBudget.class,
+								Objects.class, "limits")
+						.addStatement("this.heapCursor = new $T(budget)", heapCursorType)
+						.addStatement("this.segmentCursor = new $T(budget)", segmentCursorType)
+						.addStatement("this.fallbackCursor = new $T(budget)", fallbackCursorType)
+						.build())
+				.addMethod(MethodSpec.methodBuilder("decodeBudget")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(DecodeBudget.class)
+						.addStatement("return budget")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readHeapValue")
+						.addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+						.returns(u)
+						.addParameter(heapCursorType, "input")
+						.addParameter(baseType, "variantHint")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readMemorySegmentValue")
+						.addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+						.returns(u)
+						.addParameter(segmentCursorType, "input")
+						.addParameter(baseType, "variantHint")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("readFallbackValue")
+						.addModifiers(Modifier.PROTECTED, Modifier.ABSTRACT)
+						.returns(u)
+						.addParameter(fallbackCursorType, "input")
+						.addParameter(baseType, "variantHint")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(u)
+						.addParameter(Buf.class, "source")
+						.addStatement("$T.requireNonNull(source, $S)", Objects.class, "source")
+						.addStatement("return read(source, 0, source.size(), null)")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(u)
+						.addParameter(Buf.class, "source")
+						.addParameter(TypeName.INT, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addStatement("return read(source, offset, length, null)")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(u)
+						.addParameter(Buf.class, "source")
+						.addParameter(TypeName.INT, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addParameter(baseType, "variantHint")
+						.beginControlFlow("return switch ($T.bindSpecialized(source, offset, length, heapCursor, "
+								+ "segmentCursor, fallbackCursor))", BufDataCursor.class)
+						.addStatement("case HEAP -> readHeap(variantHint)")
+						.addStatement("case MEMORY_SEGMENT -> readMemorySegment(variantHint)")
+						.addStatement("case FALLBACK -> readFallback(variantHint)")
+						.addCode("$<};\n")
+						.build())
+				.addMethod(MethodSpec.methodBuilder("read")
+						.addAnnotation(Override.class)
+						.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+						.returns(u)
+						.addParameter(MemorySegment.class, "source")
+						.addParameter(TypeName.LONG, "offset")
+						.addParameter(TypeName.INT, "length")
+						.addParameter(baseType, "variantHint")
+						.addStatement("segmentCursor.bind(source, offset, length)")
+						.addStatement("return readMemorySegment(variantHint)")
+						.build())
+				.addMethod(storageReadHintedMethod("readHeap", "readHeapValue", "heapCursor", baseType))
+				.addMethod(storageReadHintedMethod("readMemorySegment", "readMemorySegmentValue", "segmentCursor",
+						baseType))
+				.addMethod(storageReadHintedMethod("readFallback", "readFallbackValue", "fallbackCursor", baseType))
+				.build());
+
+		var newUnionReader = MethodSpec.methodBuilder("newUnionReader")
+				.addJavadoc("Returns a reader for serialized {@code version} data rooted at the {@code type} union.\n")
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+				.addTypeVariable(TypeVariableName.get("U", iType))
+				.returns(ParameterizedTypeName.get(unionReaderType, u))
+				.addParameter(TypeName.INT, "version")
+				.addParameter(superType, "type")
+				.addParameter(DecodeLimits.class, "limits")
+				.addStatement("$T.requireNonNull(type, $S)", Objects.class, "type")
+				.addStatement("$T.requireNonNull(limits, $S)", Objects.class, "limits")
+				.beginControlFlow("return ($T) switch (type)", ParameterizedTypeName.get(unionReaderType, u));
+		for (ComputedTypeSuper union : unions) {
+			ClassName planType = GenUnionReadPlan.className(currentVersionPackage, union.getName());
+			TypeName unionType = union.getJTypeName(basePackageName);
+			String helperName = "new" + union.getName() + "UnionReader";
+			newUnionReader.addStatement("case $N -> $N(version, limits)", union.getName(), helperName);
+			var newTypeUnionReader = MethodSpec.methodBuilder(helperName)
+					.addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+					.returns(ParameterizedTypeName.get(unionReaderType, unionType))
+					.addParameter(TypeName.INT, "version")
+					.addParameter(DecodeLimits.class, "limits")
+					.beginControlFlow("return switch (version)");
+			for (ComputedVersion version : GenUnionReadPlan.readableVersions(dataModel, union)) {
+				String boundClassName = union.getName() + "V" + version.getVersion() + "UnionReader";
+				newTypeUnionReader.addStatement("case $L -> new $N(limits)", version.getVersion(), boundClassName);
+				var readerClass = TypeSpec.classBuilder(boundClassName)
+						.addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+						.superclass(ParameterizedTypeName.get(unionReaderBaseType, unionType))
+						.addMethod(MethodSpec.constructorBuilder()
+								.addParameter(DecodeLimits.class, "limits")
+								.addStatement("super(limits)")
+								.build())
+						.addField(FieldSpec.builder(planType.nestedClass("State"), "state",
+										Modifier.PRIVATE, Modifier.FINAL)
+								.initializer("new $T()", planType.nestedClass("State"))
+								.build());
+				for (var storage : List.of(Map.entry("readHeapValue", heapCursorType),
+						Map.entry("readMemorySegmentValue", segmentCursorType),
+						Map.entry("readFallbackValue", fallbackCursorType))) {
+					readerClass.addMethod(MethodSpec.methodBuilder(storage.getKey())
+							.addAnnotation(Override.class)
+							.addModifiers(Modifier.PROTECTED, Modifier.FINAL)
+							.returns(unionType)
+							.addParameter(storage.getValue(), "input")
+							.addParameter(baseType, "variantHint")
+							.beginControlFlow("if (variantHint == null)")
+							.addStatement("return $T.readV$L(input, state)", planType, version.getVersion())
+							.endControlFlow()
+							.addStatement("return $T.readV$L(input, state, variantHint)", planType, version.getVersion())
+							.build());
+				}
+				currentVersionClass.addType(readerClass.build());
+			}
+			newTypeUnionReader.addStatement("default -> throw new $T($S + version)", IllegalArgumentException.class,
+							"Unsupported serialized version: ")
+					.addCode(CodeBlock.of("$<};"));
+			currentVersionClass.addMethod(newTypeUnionReader.build());
+		}
+		newUnionReader.addCode(CodeBlock.of("$<};"));
+		currentVersionClass.addMethod(newUnionReader.build());
+	}
+
+	private MethodSpec storageReadHintedMethod(String methodName,
+			String valueMethod,
+			String cursorField,
+			ClassName baseType) {
+		return MethodSpec.methodBuilder(methodName)
+				.addModifiers(Modifier.PRIVATE)
+				.returns(TypeVariableName.get("U"))
+				.addParameter(baseType, "variantHint")
+				.addStatement("budget.enterRoot()")
+				.beginControlFlow("try")
+				.addStatement("U result = $N($N, variantHint)", valueMethod, cursorField)
+				.addStatement("int trailing = $N.remainingIncludingClosed()", cursorField)
+				.beginControlFlow("if (trailing != 0)")
+				.addStatement("throw trailingBytes(trailing)")
+				.endControlFlow()
+				.addStatement("return result")
+				.nextControlFlow("finally")
+				.addStatement("$N.unbind()", cursorField)
+				.addStatement("budget.exitRoot()")
+				.endControlFlow()
+				.build();
+	}
+
+	private MethodSpec storageReadIntoMethod(String methodName, String valueMethod, String cursorField) {
+		return MethodSpec.methodBuilder(methodName)
+				.addModifiers(Modifier.PRIVATE)
+				.addParameter(TypeVariableName.get("R"), "target")
+				.addStatement("budget.enterRoot()")
+				.beginControlFlow("try")
+				.addStatement("$N($N, target)", valueMethod, cursorField)
+				.addStatement("int trailing = $N.remainingIncludingClosed()", cursorField)
+				.beginControlFlow("if (trailing != 0)")
+				.addStatement("throw trailingBytes(trailing)")
+				.endControlFlow()
+				.nextControlFlow("finally")
+				.addStatement("$N.unbind()", cursorField)
+				.addStatement("budget.exitRoot()")
+				.endControlFlow()
+				.build();
+	}
+
 	private MethodSpec storageReadMethod(String methodName,
 			String valueMethod,
 			String cursorField,
@@ -0,0 +1,309 @@
+package it.cavallium.datagen.plugin.classgen;
+
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.CodeBlock;
+import com.palantir.javapoet.FieldSpec;
+import com.palantir.javapoet.MethodSpec;
+import com.palantir.javapoet.ParameterSpec;
+import com.palantir.javapoet.TypeName;
+import com.palantir.javapoet.TypeSpec;
+import it.cavallium.datagen.plugin.ClassGenerator;
+import it.cavallium.datagen.plugin.ComputedType;
+import it.cavallium.datagen.plugin.ComputedTypeArray;
+import it.cavallium.datagen.plugin.ComputedTypeArrayNative;
+import it.cavallium.datagen.plugin.ComputedTypeBase;
+import it.cavallium.datagen.plugin.ComputedTypeNullable;
+import it.cavallium.datagen.plugin.DataModel;
+import it.cavallium.datagen.plugin.GeneratedNameAllocator;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.stream.Stream;
+import javax.lang.model.element.Modifier;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Generates one mutable reusable record per current base type. Generated serializers decode the
+ * current wire into it in place; older versions are read through the read plan and copied.
+ */
+public final class GenReusableRecord extends ClassGenerator {
+
+	public GenReusableRecord(ClassGeneratorParams params) {
+		super(params);
+	}
+
+	public static ClassName className(String currentPackage, String baseTypeName) {
+		return ClassName.get(DataModel.joinPackage(currentPackage, "readers"), baseTypeName + "Reusable");
+	}
+
+	/** Fixed-width primitive arrays are decoded into a retained backing array when it is large enough. */
+	static boolean reusesArray(ComputedType type) {
+		return type instanceof ComputedTypeArrayNative array
+				&& array.getBase().getJTypeName("").isPrimitive();
+	}
+
+	/** Non-nullable nested records are decoded into a retained nested reusable record. */
+	static boolean reusesRecord(ComputedType type) {
+		return type instanceof ComputedTypeBase;
+	}
+
+	static int elementBytes(ComputedType arrayBase) {
+		return switch (arrayBase.getName()) {
+			case "boolean", "byte" -> 1;
+			case "short", "char" -> 2;
+			case "int", "float" -> 4;
+			case "long", "double" -> 8;
+			default -> throw new IllegalStateException(arrayBase.getName());
+		};
+	}
+
+	@Override
+	protected Stream<GeneratedClass> generateClasses() {
+		String currentPackage = dataModel.getCurrentVersion().getPackage(basePackageName);
+		return dataModel.getBaseTypesComputed(dataModel.getCurrentVersion())
+				.map(type -> generate(currentPackage, type));
+	}
+
+	private GeneratedClass generate(String currentPackage, ComputedTypeBase type) {
+		ClassName reusableName = className(currentPackage, type.getName());
+		ClassName valueType = type.getJTypeName(basePackageName);
+		ReusableNames names = reusableNames(type);
+		var classBuilder = TypeSpec.classBuilder(reusableName.simpleName())
+				.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+				.addJavadoc("Mutable, reusable counterpart of {@code $T} for row-at-a-time consumers.\n"
+						+ "\n<p>Each {@code readInto} overwrites every field. Primitive arrays keep their backing\n"
+						+ "storage while the decoded length fits, so array accessors are valid only until the next read.\n"
+						+ "Call {@link #toImmutable()} to retain a row. Instances are not thread-safe.</p>\n", valueType)
+				.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC).build());
+
+		MethodSpec.Builder copyFrom = MethodSpec.methodBuilder("copyFrom")
+				.addJavadoc("Overwrites this record with {@code value}. Arrays are copied into the retained storage.\n")
+				.addModifiers(Modifier.PUBLIC)
+				.addParameter(ParameterSpec.builder(valueType, "value").addAnnotation(NotNull.class).build())
+				.addStatement("$T.requireNonNull(value, $S)", Objects.class, "value");
+		MethodSpec.Builder toImmutable = MethodSpec.methodBuilder("toImmutable")
+				.addJavadoc("Returns an immutable snapshot that shares no storage with this record.\n")
+				.addModifiers(Modifier.PUBLIC)
+				.addAnnotation(NotNull.class)
+				.returns(valueType);
+		CodeBlock.Builder arguments = CodeBlock.builder();
+
+		int index = 0;
+		for (var field : type.getData().entrySet()) {
+			String name = field.getKey();
+			ComputedType fieldType = field.getValue();
+			String capitalized = StringUtils.capitalize(name);
+			if (index++ != 0) arguments.add(", ");
+			if (fieldType instanceof ComputedTypeNullable nullable) {
+				TypeName nullableValueType = nullable.getBase().getJTypeName(basePackageName);
+				if (nullableValueType.isPrimitive()) {
+					String present = names.presences().get(name);
+					classBuilder.addField(TypeName.BOOLEAN, present, Modifier.PRIVATE)
+							.addField(nullableValueType, name, Modifier.PRIVATE)
+							.addMethod(MethodSpec.methodBuilder("has" + capitalized)
+									.addModifiers(Modifier.PUBLIC)
+									.returns(TypeName.BOOLEAN)
+									.addStatement("return $N", present)
+									.build())
+							.addMethod(MethodSpec.methodBuilder(name)
+									.addModifiers(Modifier.PUBLIC)
+									.returns(nullableValueType)
+									.beginControlFlow("if (!$N)", present)
+									.addStatement("throw new $T($S)", NoSuchElementException.class,
+											"Nullable field " + name + " is empty")
+									.endControlFlow()
+									.addStatement("return $N", name)
+									.build())
+							.addMethod(MethodSpec.methodBuilder("set" + capitalized)
+									.addModifiers(Modifier.PUBLIC)
+									.addParameter(TypeName.BOOLEAN, "present")
+									.addParameter(nullableValueType, "value")
+									.addStatement("this.$N = present", present)
+									.addStatement("this.$N = value", name)
+									.build());
+					copyFrom.addStatement("set$N(value.has$N(), value.has$N() ? value.$N() : $L)", capitalized,
+							capitalized, capitalized, name, primitiveDefault(nullableValueType));
+					arguments.add("$N, $N", present, name);
+				} else {
+					classBuilder.addField(nullableValueType, name, Modifier.PRIVATE)
+							.addMethod(MethodSpec.methodBuilder("has" + capitalized)
+									.addModifiers(Modifier.PUBLIC)
+									.returns(TypeName.BOOLEAN)
+									.addStatement("return $N != null", name)
+									.build())
+							.addMethod(MethodSpec.methodBuilder(name)
+									.addModifiers(Modifier.PUBLIC)
+									.addAnnotation(NotNull.class)
+									.returns(nullableValueType)
+									.beginControlFlow("if ($N == null)", name)
+									.addStatement("throw new $T($S)", NoSuchElementException.class,
+											"Nullable field " + name + " is empty")
+									.endControlFlow()
+									.addStatement("return $N", name)
+									.build())
+							.addMethod(MethodSpec.methodBuilder(name + "OrNull")
+									.addModifiers(Modifier.PUBLIC)
+									.addAnnotation(Nullable.class)
+									.returns(nullableValueType)
+									.addStatement("return $N", name)
+									.build())
+							.addMethod(MethodSpec.methodBuilder("set" + capitalized)
+									.addModifiers(Modifier.PUBLIC)
+									.addParameter(ParameterSpec.builder(nullableValueType, "value")
+											.addAnnotation(Nullable.class).build())
+									.addStatement("this.$N = value", name)
+									.build());
+					copyFrom.addStatement("this.$N = value.$NOrNull()", name, name);
+					arguments.add("$N", name);
+				}
+			} else if (reusesArray(fieldType)) {
+				var array = (ComputedTypeArray) fieldType;
+				TypeName arrayType = array.getJTypeName(basePackageName);
+				TypeName component = array.getBase().getJTypeName(basePackageName);
+				ClassName codec = array.getJSerializerName(basePackageName);
+				String size = names.sizes().get(name);
+				classBuilder.addField(FieldSpec.builder(arrayType, name, Modifier.PRIVATE)
+								.initializer("$T.emptyArray()", codec).build())
+						.addField(TypeName.INT, size, Modifier.PRIVATE)
+						.addMethod(MethodSpec.methodBuilder(name + "Size")
+								.addModifiers(Modifier.PUBLIC)
+								.returns(TypeName.INT)
+								.addStatement("return $N", size)
+								.build())
+						.addMethod(MethodSpec.methodBuilder(name)
+								.addModifiers(Modifier.PUBLIC)
+								.returns(component)
+								.addParameter(TypeName.INT, "index")
+								.addStatement("return this.$N[$T.checkIndex(index, this.$N)]", name, Objects.class, size)
+								.build())
+						.addMethod(MethodSpec.methodBuilder(name + "UnsafeArray")
+								.addJavadoc("Returns the retained backing array. Only the first {@code $NSize()} "
+										+ "elements are valid.\n", name)
+								.addModifiers(Modifier.PUBLIC)
+								.addAnnotation(NotNull.class)
+								.returns(arrayType)
+								.addStatement("return $N", name)
+								.build())
+						.addMethod(MethodSpec.methodBuilder("resize" + capitalized)
+								.addJavadoc("Sets the length to {@code size} and returns a backing array with at least "
+										+ "that capacity.\nThe caller overwrites the first {@code size} elements.\n")
+								.addModifiers(Modifier.PUBLIC)
+								.addAnnotation(NotNull.class)
+								.returns(arrayType)
+								.addParameter(TypeName.INT, "size")
+								.beginControlFlow("if (size < 0)")
+								.addStatement("throw new $T($S + size)", IllegalArgumentException.class,
+										"Negative size: ")
+								.endControlFlow()
+								.beginControlFlow("if (this.$N.length < size)", name)
+								.addStatement("this.$N = new $T[size]", name, component)
+								.endControlFlow()
+								.addStatement("this.$N = size", size)
+								.addStatement("return this.$N", name)
+								.build());
+				copyFrom.addStatement("$T.arraycopy(value.$NUnsafeArray(), 0, resize$N(value.$NSize()), 0, "
+						+ "value.$NSize())", System.class, name, capitalized, name, name);
+				arguments.add("$T.copyOf($N, $N)", Arrays.class, name, size);
+			} else if (reusesRecord(fieldType)) {
+				ClassName nested = className(dataModel.getCurrentVersion().getPackage(basePackageName),
+						fieldType.getName());
+				classBuilder.addField(nested, name, Modifier.PRIVATE)
+						.addMethod(MethodSpec.methodBuilder(name)
+								.addJavadoc("Returns the retained nested record, creating it on first use.\n")
+								.addModifiers(Modifier.PUBLIC)
+								.addAnnotation(NotNull.class)
+								.returns(nested)
+								.beginControlFlow("if ($N == null)", name)
+								.addStatement("$N = new $T()", name, nested)
+								.endControlFlow()
+								.addStatement("return $N", name)
+								.build());
+				copyFrom.addStatement("$N().copyFrom(value.$N())", name, name);
+				arguments.add("$N().toImmutable()", name);
+			} else {
+				TypeName javaType = fieldType.getJTypeNameGeneric(basePackageName);
+				classBuilder.addField(javaType, name, Modifier.PRIVATE);
+				if (fieldType instanceof ComputedTypeArray array) {
+					classBuilder.addMethod(MethodSpec.methodBuilder(name + "Size")
+									.addModifiers(Modifier.PUBLIC)
+									.returns(TypeName.INT)
+									.addStatement("return $N.length", name)
+									.build())
+							.addMethod(MethodSpec.methodBuilder(name)
+									.addModifiers(Modifier.PUBLIC)
+									.addAnnotation(NotNull.class)
+									.returns(array.getBase().getJTypeName(basePackageName))
+									.addParameter(TypeName.INT, "index")
+									.addStatement("return this.$N[index]", name)
+									.build())
+							.addMethod(MethodSpec.methodBuilder(name + "UnsafeArray")
+									.addJavadoc("Returns the decoded array. The caller must not mutate it.\n")
+									.addModifiers(Modifier.PUBLIC)
+									.addAnnotation(NotNull.class)
+									.returns(javaType)
+									.addStatement("return $N", name)
+									.build());
+					copyFrom.addStatement("this.$N = value.$NUnsafeArray()", name, name);
+					arguments.add("$N.clone()", name);
+				} else {
+					MethodSpec.Builder accessor = MethodSpec.methodBuilder(name)
+							.addModifiers(Modifier.PUBLIC)
+							.returns(javaType)
+							.addStatement("return $N", name);
+					if (!javaType.isPrimitive()) accessor.addAnnotation(NotNull.class);
+					classBuilder.addMethod(accessor.build());
+					copyFrom.addStatement("this.$N = value.$N()", name, name);
+					arguments.add("$N", name);
+				}
+				ParameterSpec.Builder parameter = ParameterSpec.builder(javaType, "value");
+				if (!javaType.isPrimitive()) parameter.addAnnotation(NotNull.class);
+				classBuilder.addMethod(MethodSpec.methodBuilder("set" + capitalized)
+						.addModifiers(Modifier.PUBLIC)
+						.addParameter(parameter.build())
+						.addStatement("this.$N = value", name)
+						.build());
+			}
+		}
+		toImmutable.addStatement("return $T.unsafeOfOwned($L)", valueType, arguments.build());
+		classBuilder.addMethod(copyFrom.build()).addMethod(toImmutable.build());
+		return new GeneratedClass(reusableName.packageName(), classBuilder);
+	}
+
+	private static ReusableNames reusableNames(ComputedTypeBase owner) {
+		var allocator = new GeneratedNameAllocator(owner.getData().keySet(),
+				java.util.List.of("value", "present", "size", "index"));
+		var presences = new LinkedHashMap<String, String>();
+		var sizes = new LinkedHashMap<String, String>();
+		for (var entry : owner.getData().entrySet()) {
+			String field = entry.getKey();
+			if (entry.getValue() instanceof ComputedTypeNullable nullable
+					&& nullable.getBase().getJTypeName("").isPrimitive()) {
+				presences.put(field, allocator.allocate("present$" + field));
+			}
+			if (reusesArray(entry.getValue())) {
+				sizes.put(field, allocator.allocate("size$" + field));
+			}
+		}
+		return new ReusableNames(Map.copyOf(presences), Map.copyOf(sizes));
+	}
+
+	private record ReusableNames(Map<String, String> presences, Map<String, String> sizes) { }
+
+	private static CodeBlock primitiveDefault(TypeName type) {
+		return switch (type.toString()) {
+			case "boolean" -> CodeBlock.of("false");
+			case "byte" -> CodeBlock.of("(byte) 0");
+			case "short" -> CodeBlock.of("(short) 0");
+			case "char" -> CodeBlock.of("(char) 0");
+			case "int" -> CodeBlock.of("0");
+			case "long" -> CodeBlock.of("0L");
+			case "float" -> CodeBlock.of("0.0f");
+			case "double" -> CodeBlock.of("0.0d");
+			default -> throw new IllegalArgumentException("Not a primitive: " + type);
+		};
+	}
+}
@@ -8,6 +8,7 @@ import com.palantir.javapoet.ParameterSpec;
 import com.palantir.javapoet.ParameterizedTypeName;
 import com.palantir.javapoet.TypeSpec;
 import com.palantir.javapoet.TypeSpec.Builder;
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.CodecReadState;
 import it.cavallium.datagen.NotSerializableException;
@@ -109,6 +110,27 @@ public class GenSerializerArrayX extends ClassGenerator {
 		}
 
 		classBuilder.addMethod(method.build());
+
+		if (generateOldSerializers || version.isCurrent()) {
+			generateStreamWriter(typeArray, classBuilder);
+		}
+	}
+
+	private void generateStreamWriter(ComputedTypeArray typeArray, Builder classBuilder) {
+		var baseType = typeArray.getBase().getJTypeName(basePackageName);
+		var baseSerializerInstance = typeArray.getBase().getJSerializerInstance(basePackageName);
+		classBuilder.addMethod(MethodSpec.methodBuilder("streamWriter")
+				.addJavadoc("Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}.\n")
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+				.returns(ParameterizedTypeName.get(ClassName.get(ArrayStreamWriter.OfObjects.class), baseType))
+				.addParameter(ParameterSpec.builder(SafeDataOutput.class, "out").build())
+				.addParameter(ParameterSpec.builder(int.class, "count").build())
+				.addStatement("return $T.ofObjects(out, count, (output, item) -> $T.$N.serialize(output, ($T) item))",
+						ArrayStreamWriter.class,
+						baseSerializerInstance.className(),
+						baseSerializerInstance.fieldName(),
+						baseType)
+				.build());
 	}
 
 	private void generateRead(ComputedVersion version, ComputedTypeArray typeArray, Builder classBuilder) {
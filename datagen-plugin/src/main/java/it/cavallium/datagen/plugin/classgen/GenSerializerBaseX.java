@@ -2,6 +2,7 @@ package it.cavallium.datagen.plugin.classgen;
 
 import com.palantir.javapoet.ClassName;
 import com.palantir.javapoet.CodeBlock;
+import com.palantir.javapoet.FieldSpec;
 import com.palantir.javapoet.MethodSpec;
 import com.palantir.javapoet.ParameterSpec;
 import com.palantir.javapoet.ParameterizedTypeName;
@@ -9,6 +10,7 @@ import com.palantir.javapoet.TypeName;
 import com.palantir.javapoet.TypeSpec;
 import com.palantir.javapoet.TypeSpec.Builder;
 import it.cavallium.buffer.RandomAccessDataInput;
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.CodecReadState;
 import it.cavallium.datagen.NotSerializableException;
@@ -73,8 +75,17 @@ public class GenSerializerBaseX extends ClassGenerator {
 
 		generateSerialize(version, typeBase, classBuilder);
 
+		if ((generateOldSerializers || version.isCurrent())
+				&& typeBase.getData().values().stream().anyMatch(ComputedTypeArray.class::isInstance)) {
+			generateStreamWriter(typeBase, serializerClassName, classBuilder);
+		}
+
 		generateRead(version, typeBase, classBuilder);
 
+		if (isCurrentType(typeBase)) {
+			generateReadInto(typeBase, classBuilder);
+		}
+
 		generateSkip(typeBase, classBuilder);
 
 		generateReadSession(typeBase, classBuilder);
@@ -106,6 +117,98 @@ public class GenSerializerBaseX extends ClassGenerator {
 		classBuilder.addMethod(method.build());
 	}
 
+	/**
+	 * Generates a writer that serializes a record like {@code serialize}, except that each array field is
+	 * written from an {@link ArrayStreamWriter} instead of from the record. The other fields still come
+	 * from a record instance, whose arrays are ignored.
+	 */
+	private void generateStreamWriter(ComputedTypeBase typeBase, ClassName serializerClassName,
+			Builder classBuilder) {
+		ClassName typeBaseClassName = typeBase.getJTypeName(basePackageName);
+		ClassName writerClassName = serializerClassName.nestedClass("StreamWriter");
+		classBuilder.addMethod(MethodSpec.methodBuilder("streamWriter")
+				.addJavadoc("""
+						Starts writing a record whose array fields are supplied incrementally, in declaration order.
+						The other fields are taken from {@code data}, whose arrays are ignored. The output is identical
+						to {@link #serialize} once {@link StreamWriter#finish()} returns.
+						""")
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+				.returns(writerClassName)
+				.addParameter(ParameterSpec.builder(SafeDataOutput.class, "out").build())
+				.addParameter(ParameterSpec.builder(typeBaseClassName, "data").addAnnotation(NotNull.class).build())
+				.addStatement("return new $T(out, data)", writerClassName)
+				.build());
+
+		var writer = TypeSpec.classBuilder(writerClassName.simpleName())
+				.addJavadoc("Writes one record whose array fields are streamed, as returned by {@code streamWriter}.\n")
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+				.addField(SafeDataOutput.class, "out", Modifier.PRIVATE, Modifier.FINAL)
+				.addField(typeBaseClassName, "data", Modifier.PRIVATE, Modifier.FINAL)
+				.addField(int.class, "stage", Modifier.PRIVATE)
+				.addField(FieldSpec.builder(ArrayStreamWriter.class, "array", Modifier.PRIVATE).build())
+				.addMethod(MethodSpec.constructorBuilder()
+						.addModifiers(Modifier.PRIVATE)
+						.addParameter(SafeDataOutput.class, "out")
+						.addParameter(typeBaseClassName, "data")
+						.addStatement("this.out = $T.requireNonNull(out)", Objects.class)
+						.addStatement("this.data = $T.requireNonNull(data)", Objects.class)
+						.build());
+
+		int stage = 0;
+		var pending = new LinkedHashMap<String, ComputedType>();
+		for (var field : typeBase.getData().entrySet()) {
+			if (!(field.getValue() instanceof ComputedTypeArray array)) {
+				pending.put(field.getKey(), field.getValue());
+				continue;
+			}
+			TypeName arrayWriterType = arrayStreamWriterType(array);
+			var method = MethodSpec.methodBuilder(field.getKey())
+					.addJavadoc("Writes the fields up to {@code $N} and starts it with {@code count} elements.\n",
+							field.getKey())
+					.addModifiers(Modifier.PUBLIC)
+					.returns(arrayWriterType)
+					.addParameter(int.class, "count")
+					.addStatement("enterStage$$($L)", stage++);
+			pending.forEach((fieldName, fieldType) -> emitSerializeField(method, typeBase, fieldName, fieldType));
+			pending.clear();
+			writer.addMethod(method
+					.addStatement("$T elements = $T.streamWriter(out, count)", arrayWriterType,
+							array.getJSerializerName(basePackageName))
+					.addStatement("array = elements")
+					.addStatement("return elements")
+					.build());
+		}
+		var finish = MethodSpec.methodBuilder("finish")
+				.addJavadoc("Writes the fields after the last array field.\n")
+				.addModifiers(Modifier.PUBLIC)
+				.addStatement("enterStage$$($L)", stage);
+		pending.forEach((fieldName, fieldType) -> emitSerializeField(finish, typeBase, fieldName, fieldType));
+		writer.addMethod(finish.build());
+
+		writer.addMethod(MethodSpec.methodBuilder("enterStage$")
+				.addModifiers(Modifier.PRIVATE)
+				.addParameter(int.class, "expected")
+				.beginControlFlow("if (stage != expected)")
+				.addStatement("throw new $T(\"Array fields must be written once each, in declaration order\")",
+						IllegalStateException.class)
+				.endControlFlow()
+				.beginControlFlow("if (array != null)")
+				.addStatement("array.finish()")
+				.endControlFlow()
+				.addStatement("stage++")
+				.build());
+		classBuilder.addType(writer.build());
+	}
+
+	private TypeName arrayStreamWriterType(ComputedTypeArray array) {
+		ComputedType base = array.getBase();
+		TypeName baseType = base.getJTypeName(basePackageName);
+		if (base instanceof ComputedTypeNative && baseType.isPrimitive()) {
+			return ClassName.get(ArrayStreamWriter.class).nestedClass("Of" + StringUtils.capitalize(base.getName()));
+		}
+		return ParameterizedTypeName.get(ClassName.get(ArrayStreamWriter.OfObjects.class), baseType);
+	}
+
 	private void generateRead(ComputedVersion version, ComputedTypeBase typeBase, Builder classBuilder) {
 		ClassName typeBaseClassName = typeBase.getJTypeName(basePackageName);
 		classBuilder.addMethod(MethodSpec.methodBuilder("read")
@@ -136,6 +239,62 @@ public class GenSerializerBaseX extends ClassGenerator {
 		classBuilder.addMethod(method.build());
 	}
 
+	private boolean isCurrentType(ComputedTypeBase typeBase) {
+		return typeBase.equals(dataModel.getComputedTypes(dataModel.getCurrentVersion()).get(typeBase.getName()));
+	}
+
+	private void generateReadInto(ComputedTypeBase typeBase, Builder classBuilder) {
+		ClassName reusableType = GenReusableRecord.className(
+				dataModel.getCurrentVersion().getPackage(basePackageName), typeBase.getName());
+		var method = MethodSpec.methodBuilder("readValueInto")
+				.addJavadoc("Decodes into {@code target}, reusing its primitive arrays and nested records.\n")
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+				.addParameter(ParameterSpec.builder(SafeDataInput.class, "in").build())
+				.addParameter(ParameterSpec.builder(CodecReadState.class, "codecState").build())
+				.addParameter(ParameterSpec.builder(reusableType, "target").build());
+		method.addStatement("in.decodeBudget().enterStructure()")
+				.beginControlFlow("try");
+
+		for (var field : typeBase.getData().entrySet()) {
+			String fieldName = field.getKey();
+			ComputedType fieldType = field.getValue();
+			String setter = "set" + StringUtils.capitalize(fieldName);
+			if (fieldType instanceof ComputedTypeNullable nullable) {
+				emitReadNullable(method, typeBase, fieldName, nullable);
+				if (nullable.getBase().getJTypeName(basePackageName).isPrimitive()) {
+					method.addStatement("target.$N($N, $N)", setter, wireLocalName(typeBase, fieldName, "present"),
+							readLocalName(typeBase, fieldName));
+				} else {
+					method.addStatement("target.$N($N)", setter, readLocalName(typeBase, fieldName));
+				}
+			} else if (GenReusableRecord.reusesArray(fieldType)) {
+				ComputedType base = ((ComputedTypeArray) fieldType).getBase();
+				String sizeLocal = sizeLocalName(typeBase, fieldName);
+				method.addStatement("in.decodeBudget().enterStructure()")
+						.beginControlFlow("try")
+						.addStatement("final int $N = $T.readArrayLength(in, $L)", sizeLocal,
+								ProjectionReadSupport.class, GenReusableRecord.elementBytes(base))
+						.addStatement("$T.read$Ns(in, target.resize$N($N), $N)", ProjectionReadSupport.class,
+								StringUtils.capitalize(base.getName()), StringUtils.capitalize(fieldName), sizeLocal,
+								sizeLocal)
+						.nextControlFlow("finally")
+						.addStatement("in.decodeBudget().exitStructure()")
+						.endControlFlow();
+			} else if (GenReusableRecord.reusesRecord(fieldType)) {
+				method.addStatement("$T.readValueInto(in, codecState, target.$N())",
+						fieldType.getJSerializerName(basePackageName), fieldName);
+			} else {
+				emitReadField(method, typeBase, fieldName, fieldType);
+				method.addStatement("target.$N($N)", setter, readLocalName(typeBase, fieldName));
+			}
+		}
+		method.nextControlFlow("finally")
+				.addStatement("in.decodeBudget().exitStructure()")
+				.endControlFlow();
+
+		classBuilder.addMethod(method.build());
+	}
+
 	private void emitSerializeField(MethodSpec.Builder method, ComputedTypeBase owner,
 			String fieldName, ComputedType fieldType) {
 		if (fieldType instanceof ComputedTypeNullable nullable) {
@@ -318,6 +477,10 @@ public class GenSerializerBaseX extends ClassGenerator {
 		};
 	}
 
+	private static String sizeLocalName(ComputedTypeBase owner, String field) {
+		return requireGeneratedName(serializerNames(owner).sizes(), owner, field, "size");
+	}
+
 	private static String readLocalName(ComputedTypeBase owner, String field) {
 		return requireGeneratedName(serializerNames(owner).values(), owner, field, "value");
 	}
@@ -335,12 +498,13 @@ public class GenSerializerBaseX extends ClassGenerator {
 
 	private static SerializerNames serializerNames(ComputedTypeBase owner) {
 		var allocator = new GeneratedNameAllocator(owner.getData().keySet(),
-				java.util.List.of("in", "out", "data", "codecState", "input", "result", "size", "index"));
+				java.util.List.of("in", "out", "data", "codecState", "input", "result", "size", "index", "target"));
 		var values = new LinkedHashMap<String, String>();
 		var presences = new LinkedHashMap<String, String>();
 		var firstBytes = new LinkedHashMap<String, String>();
 		var randomInputs = new LinkedHashMap<String, String>();
 		var valueStarts = new LinkedHashMap<String, String>();
+		var sizes = new LinkedHashMap<String, String>();
 		for (var entry : owner.getData().entrySet()) {
 			String field = entry.getKey();
 			values.put(field, allocator.allocate("value$" + field));
@@ -350,16 +514,20 @@ public class GenSerializerBaseX extends ClassGenerator {
 				randomInputs.put(field, allocator.allocate("randomInput$" + field));
 				valueStarts.put(field, allocator.allocate("valueStart$" + field));
 			}
+			if (GenReusableRecord.reusesArray(entry.getValue())) {
+				sizes.put(field, allocator.allocate("size$" + field));
+			}
 		}
 		return new SerializerNames(Map.copyOf(values), Map.copyOf(presences), Map.copyOf(firstBytes),
-				Map.copyOf(randomInputs), Map.copyOf(valueStarts));
+				Map.copyOf(randomInputs), Map.copyOf(valueStarts), Map.copyOf(sizes));
 	}
 
 	private record SerializerNames(Map<String, String> values,
 			Map<String, String> presences,
 			Map<String, String> firstBytes,
 			Map<String, String> randomInputs,
-			Map<String, String> valueStarts) { }
+			Map<String, String> valueStarts,
+			Map<String, String> sizes) { }
 
 	private void generateSkip(ComputedTypeBase typeBase, Builder classBuilder) {
 		classBuilder.addMethod(MethodSpec.methodBuilder("skip")
@@ -0,0 +1,202 @@
+package it.cavallium.datagen.plugin.classgen;
+
+import com.palantir.javapoet.ClassName;
+import com.palantir.javapoet.MethodSpec;
+import com.palantir.javapoet.TypeName;
+import com.palantir.javapoet.TypeSpec;
+import it.cavallium.buffer.FallbackBufDataCursor;
+import it.cavallium.buffer.HeapBufDataCursor;
+import it.cavallium.buffer.MemorySegmentBufDataCursor;
+import it.cavallium.datagen.MalformedDataException;
+import it.cavallium.datagen.plugin.ClassGenerator;
+import it.cavallium.datagen.plugin.ComputedType;
+import it.cavallium.datagen.plugin.ComputedTypeSuper;
+import it.cavallium.datagen.plugin.ComputedVersion;
+import it.cavallium.datagen.plugin.DataModel;
+import it.cavallium.stream.SafeDataInput;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Generates historical wire readers rooted at a union, one helper class per current union. Each
+ * (union, version) pair is one dense discriminator switch whose cases call the variants' fused
+ * read-plan methods directly.
+ */
+public final class GenUnionReadPlan extends ClassGenerator {
+
+	private static final List<TypeName> INPUT_TYPES = List.of(ClassName.get(SafeDataInput.class),
+			ClassName.get(HeapBufDataCursor.class),
+			ClassName.get(MemorySegmentBufDataCursor.class),
+			ClassName.get(FallbackBufDataCursor.class));
+
+	public GenUnionReadPlan(ClassGeneratorParams params) {
+		super(params);
+	}
+
+	public static ClassName className(String currentPackage, String unionName) {
+		return ClassName.get(DataModel.joinPackage(currentPackage, "readers"), unionName + "UnionReadPlan");
+	}
+
+	/** Returns the versions whose schema declares {@code union}, in ascending order. */
+	static List<ComputedVersion> readableVersions(DataModel dataModel, ComputedTypeSuper union) {
+		return dataModel.getVersionsSet().stream()
+				.filter(version -> dataModel.getComputedTypes(version).get(union.getName()) instanceof ComputedTypeSuper)
+				.sorted(Comparator.comparingInt(ComputedVersion::getVersion))
+				.toList();
+	}
+
+	@Override
+	protected Stream<GeneratedClass> generateClasses() {
+		String currentPackage = dataModel.getCurrentVersion().getPackage(basePackageName);
+		return dataModel.getSuperTypesComputed(dataModel.getCurrentVersion())
+				.map(union -> generate(currentPackage, union));
+	}
+
+	private GeneratedClass generate(String currentPackage, ComputedTypeSuper union) {
+		ClassName planName = className(currentPackage, union.getName());
+		ClassName stateName = planName.nestedClass("State");
+		TypeName unionType = union.getJTypeName(basePackageName);
+		List<ComputedType> variants = union.subTypes();
+		var classBuilder = TypeSpec.classBuilder(planName.simpleName())
+				.addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+				.addJavadoc("Fused historical readers for the {@code $T} union.\n", unionType)
+				.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+
+		var state = TypeSpec.classBuilder("State")
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+				.addJavadoc("Reusable thread-confined scratch state, created per variant on first use.\n")
+				.addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PUBLIC).build());
+		for (int index = 0; index < variants.size(); index++) {
+			ClassName variantState = GenReadPlan.className(basePackageName, currentPackage,
+					variants.get(index).getName()).nestedClass("State");
+			state.addField(variantState, "variant" + index, Modifier.PRIVATE)
+					.addMethod(MethodSpec.methodBuilder("variant" + index)
+							.returns(variantState)
+							.beginControlFlow("if (variant$L == null)", index)
+							.addStatement("variant$L = new $T()", index, variantState)
+							.endControlFlow()
+							.addStatement("return variant$L", index)
+							.build());
+		}
+		classBuilder.addType(state.build());
+
+		for (ComputedVersion version : readableVersions(dataModel, union)) {
+			var inputUnion = (ComputedTypeSuper) dataModel.getComputedTypes(version).get(union.getName());
+			if (inputUnion.subTypes().stream().noneMatch(variant -> indexOf(variants, variant.getName()) >= 0)) {
+				// No historical variant survives: every row of this version is unreadable as the current union.
+				for (TypeName inputType : INPUT_TYPES) {
+					classBuilder.addMethod(generateUnreadable(union, version, inputType, stateName, null));
+					classBuilder.addMethod(generateUnreadable(union, version, inputType, stateName,
+							ClassName.get(dataModel.getRootPackage(basePackageName), "BaseType")));
+				}
+				continue;
+			}
+			for (TypeName inputType : INPUT_TYPES) {
+				var method = MethodSpec.methodBuilder("readV" + version.getVersion())
+						.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+						.returns(unionType)
+						.addParameter(inputType, "input")
+						.addParameter(stateName, "state")
+						.addStatement("input.decodeBudget().enterStructure()")
+						.beginControlFlow("try")
+						.addStatement("int id = input.readUnsignedByte()")
+						.beginControlFlow("return switch (id)");
+				for (int id = 0; id < inputUnion.subTypes().size(); id++) {
+					String variantName = inputUnion.subTypes().get(id).getName();
+					int currentIndex = indexOf(variants, variantName);
+					if (currentIndex < 0) {
+						method.addStatement("case $L -> throw new $T($S)", id, MalformedDataException.class,
+								"Union variant " + variantName + " no longer exists in " + union.getName());
+					} else {
+						method.addStatement("case $L -> $T.readV$L(input, state.variant$L())", id,
+								GenReadPlan.className(basePackageName, currentPackage, variantName),
+								version.getVersion(), currentIndex);
+					}
+				}
+				method.addStatement("default -> throw new $T($S + id)", MalformedDataException.class,
+								"Invalid union discriminator: ")
+						.addCode("$<};\n")
+						.nextControlFlow("finally")
+						.addStatement("input.decodeBudget().exitStructure()")
+						.endControlFlow();
+				classBuilder.addMethod(method.build());
+			}
+			for (TypeName inputType : INPUT_TYPES) {
+				classBuilder.addMethod(generateExpectedVariantRead(currentPackage, union, inputUnion, version,
+						inputType, stateName));
+			}
+		}
+		return new GeneratedClass(planName.packageName(), classBuilder);
+	}
+
+	/**
+	 * Reads a row whose variant the caller already knows. The discriminator is checked against the
+	 * expected variant's id in this version and the variant's fused reader is called directly.
+	 */
+	private MethodSpec generateExpectedVariantRead(String currentPackage,
+			ComputedTypeSuper union,
+			ComputedTypeSuper inputUnion,
+			ComputedVersion version,
+			TypeName inputType,
+			ClassName stateName) {
+		ClassName baseTypeEnum = ClassName.get(dataModel.getRootPackage(basePackageName), "BaseType");
+		List<ComputedType> variants = union.subTypes();
+		var method = MethodSpec.methodBuilder("readV" + version.getVersion())
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+				.returns(union.getJTypeName(basePackageName))
+				.addParameter(inputType, "input")
+				.addParameter(stateName, "state")
+				.addParameter(baseTypeEnum, "expectedVariant")
+				.addStatement("input.decodeBudget().enterStructure()")
+				.beginControlFlow("try")
+				.addStatement("int id = input.readUnsignedByte()")
+				.beginControlFlow("return switch (expectedVariant)");
+		for (int id = 0; id < inputUnion.subTypes().size(); id++) {
+			String variantName = inputUnion.subTypes().get(id).getName();
+			int currentIndex = indexOf(variants, variantName);
+			if (currentIndex < 0) continue;
+			method.beginControlFlow("case $N ->", variantName)
+					.beginControlFlow("if (id != $L)", id)
+					.addStatement("throw new $T($S + id)", MalformedDataException.class,
+							"Expected union variant " + variantName + " (" + id + "), found discriminator ")
+					.endControlFlow()
+					.addStatement("yield $T.readV$L(input, state.variant$L())",
+							GenReadPlan.className(basePackageName, currentPackage, variantName),
+							version.getVersion(), currentIndex)
+					.endControlFlow();
+		}
+		method.addStatement("default -> throw new $T(expectedVariant + $S)", IllegalArgumentException.class,
+						" is not a variant of " + union.getName() + " in version " + version.getVersion())
+				.addCode("$<};\n")
+				.nextControlFlow("finally")
+				.addStatement("input.decodeBudget().exitStructure()")
+				.endControlFlow();
+		return method.build();
+	}
+
+	private MethodSpec generateUnreadable(ComputedTypeSuper union,
+			ComputedVersion version,
+			TypeName inputType,
+			ClassName stateName,
+			ClassName baseTypeEnum) {
+		var method = MethodSpec.methodBuilder("readV" + version.getVersion())
+				.addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+				.returns(union.getJTypeName(basePackageName))
+				.addParameter(inputType, "input")
+				.addParameter(stateName, "state");
+		if (baseTypeEnum != null) method.addParameter(baseTypeEnum, "expectedVariant");
+		return method.addStatement("throw new $T($S + input.readUnsignedByte())", MalformedDataException.class,
+						"No variant of version " + version.getVersion() + " exists in " + union.getName()
+								+ ", discriminator: ")
+				.build();
+	}
+
+	private static int indexOf(List<ComputedType> variants, String name) {
+		for (int index = 0; index < variants.size(); index++) {
+			if (variants.get(index).getName().equals(name)) return index;
+		}
+		return -1;
+	}
+}
@@ -188,10 +188,17 @@ public class GenVersion extends ClassGenerator {
 
 			var serializerClassName = type.getJSerializerName(basePackageName);
 
-			var fieldBuilder = FieldSpec.builder(ParameterizedTypeName.get(ClassName.get(DataCodec.class),
-					type.getJTypeNameGeneric(basePackageName)
-			), serializerFieldLocation.fieldName(), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
-			if (type instanceof ComputedTypeCustom custom && custom.getFixedSize() != null) {
+			TypeName fieldType = type instanceof ComputedTypeCustom custom && custom.getStringEnum() != null
+					? serializerClassName
+					: ParameterizedTypeName.get(ClassName.get(DataCodec.class), type.getJTypeNameGeneric(basePackageName));
+			var fieldBuilder = FieldSpec.builder(fieldType, serializerFieldLocation.fieldName(),
+					Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL);
+			if (type instanceof ComputedTypeCustom custom && custom.getStringEnum() != null) {
+				var values = CodeBlock.join(custom.getStringEnum().stream()
+						.map(value -> CodeBlock.of("$S", value))
+						.toList(), ", ");
+				fieldBuilder.initializer("new $T($L)", serializerClassName, values);
+			} else if (type instanceof ComputedTypeCustom custom && custom.getFixedSize() != null) {
 				fieldBuilder.initializer("verifyFixedCodec(new $T(), $L, $S)", serializerClassName,
 						custom.getFixedSize(), custom.getName());
 			} else {
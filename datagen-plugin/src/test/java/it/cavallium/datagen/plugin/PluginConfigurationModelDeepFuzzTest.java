@@ -63,6 +63,12 @@ class PluginConfigurationModelDeepFuzzTest {
 			assertEquals(custom, customCopy, diagnostic);
 			assertEquals(custom.hashCode(), customCopy.hashCode(), diagnostic);
 			assertNotSame(custom, customCopy, diagnostic);
+			CustomTypesConfiguration enumerated = custom.copy();
+			enumerated.stringEnum = List.of("A", "B" + caseIndex);
+			CustomTypesConfiguration enumeratedCopy = enumerated.copy();
+			assertEquals(enumerated, enumeratedCopy, diagnostic);
+			assertEquals(enumerated.hashCode(), enumeratedCopy.hashCode(), diagnostic);
+			assertNotEquals(custom, enumerated, diagnostic);
 
 			ProjectionConfiguration projection = randomProjection(random);
 			ProjectionConfiguration projectionCopy = copyProjection(projection);
@@ -14,12 +14,16 @@ import it.cavallium.buffer.BufDataCursor;
 import it.cavallium.buffer.BufDataInput;
 import it.cavallium.buffer.BufDataOutput;
 import it.cavallium.buffer.MemorySegmentBuf;
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.DecodeLimits;
 import it.cavallium.datagen.MalformedDataException;
+import it.cavallium.datagen.nativedata.EnumeratedStringCodec;
+import it.cavallium.datagen.nativedata.StringSerializer;
 import it.cavallium.stream.SafeDataInput;
 import it.cavallium.stream.SafeByteArrayInputStream;
 import it.cavallium.stream.SafeDataInputStream;
+import it.cavallium.stream.SafeDataOutput;
 import java.io.ByteArrayInputStream;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
@@ -40,6 +44,7 @@ import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaFileObject;
 import javax.tools.ToolProvider;
@@ -335,6 +340,257 @@ class SourcesGeneratorTest {
 		assertFalse(plan.contains("private static User readPlan1("), plan);
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	void reusableReadersOverwriteRecordsAndRetainFittingArrays(@TempDir Path temp) throws Exception {
+		Path sources = temp.resolve("sources");
+		generate("""
+				currentVersion: v2
+				baseTypesData:
+				  Child:
+				    data:
+				      value: int
+				  Row:
+				    data:
+				      id: int
+				      ints: int[]
+				      child: Child
+				      label: -String
+				      count: -long
+				versions:
+				  v1:
+				  v2:
+				    previousVersion: v1
+				    transformations:
+				      - newData:
+				          transformClass: Child
+				          to: tail
+				          type: long
+				          initializer: it.cavallium.datagen.plugin.TestSimpleLongInitializer
+				""", sources);
+
+		String serializer = Files.readString(sources.resolve("org/example/current/serializers/RowSerializer.java"));
+		assertTrue(serializer.contains("readValueInto(SafeDataInput in, CodecReadState codecState, RowReusable target)"),
+				serializer);
+		assertTrue(serializer.contains("ChildSerializer.readValueInto(in, codecState, target.child())"), serializer);
+
+		try (var loader = compileGeneratedSources(sources, temp.resolve("classes"))) {
+			Class<?> rowType = loader.loadClass("org.example.current.data.Row");
+			Class<?> childType = loader.loadClass("org.example.current.data.Child");
+			Class<?> reusableType = loader.loadClass("org.example.current.readers.RowReusable");
+			Class<?> currentVersion = loader.loadClass("org.example.current.CurrentVersion");
+			Class<?> reusableReaderType = loader.loadClass("org.example.current.CurrentVersion$ReusableReader");
+			var readInto = reusableReaderType.getMethod("readInto", Buf.class, Object.class);
+			var rowOf = rowType.getMethod("of", int.class, int[].class, childType, String.class, boolean.class,
+					long.class);
+			DataCodec<Object> codec = (DataCodec<Object>) loader.loadClass("org.example.current.Version")
+					.getField("RowSerializerInstance").get(null);
+
+			Object first = rowOf.invoke(null, 1, new int[] {1, 2, 3},
+					childType.getMethod("of", int.class, long.class).invoke(null, 10, 11L), "one", true, 5L);
+			Object second = rowOf.invoke(null, 2, new int[] {4, 5},
+					childType.getMethod("of", int.class, long.class).invoke(null, 20, 21L), null, false, 0L);
+			Object reader = currentVersion.getMethod("newRowReusableReader", int.class, DecodeLimits.class)
+					.invoke(null, 1, LIMITS);
+			Object target = reusableType.getConstructor().newInstance();
+
+			readInto.invoke(reader, serialize(codec, first), target);
+			int[] retained = (int[]) reusableType.getMethod("intsUnsafeArray").invoke(target);
+			Object retainedChild = reusableType.getMethod("child").invoke(target);
+			assertEquals(first, reusableType.getMethod("toImmutable").invoke(target));
+
+			readInto.invoke(reader, serialize(codec, second), target);
+			assertSame(retained, reusableType.getMethod("intsUnsafeArray").invoke(target));
+			assertSame(retainedChild, reusableType.getMethod("child").invoke(target));
+			assertEquals(2, reusableType.getMethod("intsSize").invoke(target));
+			assertEquals(false, reusableType.getMethod("hasLabel").invoke(target));
+			assertEquals(false, reusableType.getMethod("hasCount").invoke(target));
+			Object snapshot = reusableType.getMethod("toImmutable").invoke(target);
+			assertEquals(second, snapshot);
+			assertNotSame(retained, rowType.getMethod("intsUnsafeArray").invoke(snapshot));
+
+			BufDataOutput historical = BufDataOutput.create();
+			historical.writeInt(3);
+			historical.writeInt(1);
+			historical.writeInt(9);
+			historical.writeInt(30);
+			historical.writeBoolean(false);
+			historical.writeBoolean(true);
+			historical.writeLong(7L);
+			Object historicalReader = currentVersion.getMethod("newRowReusableReader", int.class, DecodeLimits.class)
+					.invoke(null, 0, LIMITS);
+			readInto.invoke(historicalReader, historical.asList(), target);
+			assertSame(retained, reusableType.getMethod("intsUnsafeArray").invoke(target));
+			assertEquals(rowOf.invoke(null, 3, new int[] {9},
+					childType.getMethod("of", int.class, long.class).invoke(null, 30, 123L), null, true, 7L),
+					reusableType.getMethod("toImmutable").invoke(target));
+
+			Buf trailing = Buf.wrap(java.util.Arrays.copyOf(serialize(codec, second).asArray(),
+					serialize(codec, second).size() + 1));
+			InvocationTargetException malformed = assertThrows(InvocationTargetException.class,
+					() -> readInto.invoke(reader, trailing, target));
+			assertTrue(malformed.getCause() instanceof MalformedDataException);
+			InvocationTargetException unsupported = assertThrows(InvocationTargetException.class,
+					() -> currentVersion.getMethod("newRowReusableReader", int.class, DecodeLimits.class)
+							.invoke(null, 2, LIMITS));
+			assertTrue(unsupported.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	private static Buf serialize(DataCodec<Object> codec, Object value) {
+		BufDataOutput output = BufDataOutput.create();
+		codec.serialize(output, value);
+		return output.asList();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void streamWritersEncodeArrayFieldsIncrementallyWithIdenticalBytes(@TempDir Path temp) throws Exception {
+		Path sources = temp.resolve("sources");
+		generate("""
+				currentVersion: v1
+				baseTypesData:
+				  Child:
+				    data:
+				      value: int
+				  Row:
+				    data:
+				      id: int
+				      values: long[]
+				      name: String
+				      children: Child[]
+				      note: -String
+				versions:
+				  v1:
+				""", sources);
+
+		String serializer = Files.readString(sources.resolve("org/example/current/serializers/RowSerializer.java"));
+		assertTrue(serializer.contains("public static final class StreamWriter"), serializer);
+		assertTrue(serializer.contains("public ArrayStreamWriter.OfLong values(int count)"), serializer);
+
+		try (var loader = compileGeneratedSources(sources, temp.resolve("classes"))) {
+			Class<?> rowType = loader.loadClass("org.example.current.data.Row");
+			Class<?> childType = loader.loadClass("org.example.current.data.Child");
+			Class<?> serializerType = loader.loadClass("org.example.current.serializers.RowSerializer");
+			Class<?> writerType = loader.loadClass("org.example.current.serializers.RowSerializer$StreamWriter");
+			Object childrenArray = java.lang.reflect.Array.newInstance(childType, 3);
+			for (int i = 0; i < 3; i++) {
+				java.lang.reflect.Array.set(childrenArray, i, childType.getMethod("of", int.class).invoke(null, i * 7));
+			}
+			var rowOf = rowType.getMethod("of", int.class, long[].class, String.class, childrenArray.getClass(),
+					String.class);
+			long[] values = LongStream.range(0, 5000).map(i -> i * 31).toArray();
+			Object full = rowOf.invoke(null, 4, values, "row", childrenArray, "tail");
+			Object header = rowOf.invoke(null, 4, new long[0], "row",
+					java.lang.reflect.Array.newInstance(childType, 0), "tail");
+			DataCodec<Object> codec = (DataCodec<Object>) loader.loadClass("org.example.current.Version")
+					.getField("RowSerializerInstance").get(null);
+
+			BufDataOutput streamed = BufDataOutput.create();
+			Object writer = serializerType.getMethod("streamWriter", SafeDataOutput.class, rowType)
+					.invoke(null, streamed, header);
+			var longs = (ArrayStreamWriter.OfLong) writerType.getMethod("values", int.class).invoke(writer, 5000);
+			longs.write(values, 0, 1000);
+			longs.writeAll(LongStream.range(1000, 5000).map(i -> i * 31));
+			var children = (ArrayStreamWriter.OfObjects<Object>) writerType.getMethod("children", int.class)
+					.invoke(writer, 3);
+			children.writeAll(java.util.Arrays.asList((Object[]) childrenArray).iterator());
+			writerType.getMethod("finish").invoke(writer);
+			assertArrayEquals(serialize(codec, full).toByteArray(), streamed.asList().toByteArray());
+
+			Object incomplete = serializerType.getMethod("streamWriter", SafeDataOutput.class, rowType)
+					.invoke(null, BufDataOutput.create(), header);
+			var shortValues = (ArrayStreamWriter.OfLong) writerType.getMethod("values", int.class)
+					.invoke(incomplete, 2);
+			shortValues.write(1L);
+			assertThrows(IllegalStateException.class, () -> shortValues.write(new long[2], 0, 2));
+			InvocationTargetException unfinished = assertThrows(InvocationTargetException.class,
+					() -> writerType.getMethod("children", int.class).invoke(incomplete, 0));
+			assertTrue(unfinished.getCause() instanceof IllegalStateException);
+			shortValues.write(2L);
+			writerType.getMethod("children", int.class).invoke(incomplete, 0);
+			InvocationTargetException reordered = assertThrows(InvocationTargetException.class,
+					() -> writerType.getMethod("values", int.class).invoke(incomplete, 0));
+			assertTrue(reordered.getCause() instanceof IllegalStateException);
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void unionReadersDispatchOnceAndHonourVariantHints(@TempDir Path temp) throws Exception {
+		Path sources = temp.resolve("sources");
+		generate("""
+				currentVersion: v2
+				superTypesData:
+				  Shape: [Circle, Square]
+				baseTypesData:
+				  Circle:
+				    data:
+				      radius: int
+				  Square:
+				    data:
+				      side: int
+				versions:
+				  v1:
+				  v2:
+				    previousVersion: v1
+				    transformations:
+				      - newData:
+				          transformClass: Circle
+				          to: tail
+				          type: long
+				          initializer: it.cavallium.datagen.plugin.TestSimpleLongInitializer
+				""", sources);
+
+		String plan = Files.readString(sources.resolve("org/example/current/readers/ShapeUnionReadPlan.java"));
+		assertTrue(plan.contains("case 0 -> CircleReadPlan.readV0(input, state.variant0())"), plan);
+		assertTrue(plan.contains("case 1 -> SquareReadPlan.readV1(input, state.variant1())"), plan);
+
+		try (var loader = compileGeneratedSources(sources, temp.resolve("classes"))) {
+			Class<?> baseType = loader.loadClass("org.example.BaseType");
+			Class<?> superType = loader.loadClass("org.example.SuperType");
+			Class<?> currentVersion = loader.loadClass("org.example.current.CurrentVersion");
+			Class<?> unionReaderType = loader.loadClass("org.example.current.CurrentVersion$UnionReader");
+			Class<?> circleType = loader.loadClass("org.example.current.data.Circle");
+			Class<?> squareType = loader.loadClass("org.example.current.data.Square");
+			var newUnionReader = currentVersion.getMethod("newUnionReader", int.class, superType, DecodeLimits.class);
+			var read = unionReaderType.getMethod("read", Buf.class);
+			var readHinted = unionReaderType.getMethod("read", Buf.class, int.class, int.class, baseType);
+			Object historicalReader = newUnionReader.invoke(null, 0, enumValue(superType, "Shape"), LIMITS);
+
+			BufDataOutput circle = BufDataOutput.create();
+			circle.writeByte(0);
+			circle.writeInt(5);
+			Buf circleRow = circle.asList();
+			Object expectedCircle = circleType.getMethod("of", int.class, long.class).invoke(null, 5, 123L);
+			assertEquals(expectedCircle, read.invoke(historicalReader, circleRow));
+			assertEquals(expectedCircle, readHinted.invoke(historicalReader, circleRow, 0, circleRow.size(),
+					enumValue(baseType, "Circle")));
+			assertEquals(expectedCircle, readHinted.invoke(historicalReader, circleRow, 0, circleRow.size(), null));
+
+			InvocationTargetException wrongHint = assertThrows(InvocationTargetException.class,
+					() -> readHinted.invoke(historicalReader, circleRow, 0, circleRow.size(),
+							enumValue(baseType, "Square")));
+			assertTrue(wrongHint.getCause() instanceof MalformedDataException, wrongHint.getCause().toString());
+
+			BufDataOutput square = BufDataOutput.create();
+			square.writeByte(1);
+			square.writeInt(7);
+			Object currentReader = newUnionReader.invoke(null, 1, enumValue(superType, "Shape"), LIMITS);
+			assertEquals(squareType.getMethod("of", int.class).invoke(null, 7),
+					read.invoke(currentReader, square.asList()));
+
+			BufDataOutput invalid = BufDataOutput.create();
+			invalid.writeByte(2);
+			InvocationTargetException malformed = assertThrows(InvocationTargetException.class,
+					() -> read.invoke(currentReader, invalid.asList()));
+			assertTrue(malformed.getCause() instanceof MalformedDataException);
+			InvocationTargetException unsupported = assertThrows(InvocationTargetException.class,
+					() -> newUnionReader.invoke(null, 2, enumValue(superType, "Shape"), LIMITS));
+			assertTrue(unsupported.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
 	@Test
 	void coalescesFixedWidthDiscardSpans(@TempDir Path temp) throws Exception {
 		Path sources = temp.resolve("sources");
@@ -1326,6 +1582,51 @@ class SourcesGeneratorTest {
 		}
 	}
 
+	@Test
+	@SuppressWarnings("unchecked")
+	void stringEnumFieldsCompileAndRoundTripThroughCanonicalConstants(@TempDir Path temp) throws Exception {
+		Path sources = temp.resolve("sources");
+		generate("""
+				currentVersion: v1
+				customTypesData:
+				  Status:
+				    stringEnum: [ACTIVE, SUSPENDED, "Zürich"]
+				baseTypesData:
+				  Account:
+				    data:
+				      status: Status
+				      count: int
+				versions:
+				  v1:
+				""", sources);
+
+		try (var loader = compileGeneratedSources(sources, temp.resolve("classes"))) {
+			Class<?> version = loader.loadClass("org.example.current.Version");
+			var status = (EnumeratedStringCodec) version.getField("StatusSerializerInstance").get(null);
+			assertEquals(List.of("ACTIVE", "SUSPENDED", "Zürich"), status.values());
+			DataCodec<Object> account = (DataCodec<Object>) version.getField("AccountSerializerInstance").get(null);
+
+			for (String value : List.of("SUSPENDED", "Zürich", "ARCHIVED")) {
+				BufDataOutput output = BufDataOutput.create();
+				StringSerializer.INSTANCE.serialize(output, new String(value.toCharArray()));
+				output.writeInt(7);
+				Buf payload = output.asList();
+
+				Object decoded = account.newReader(LIMITS).read(payload);
+				Object decodedStatus = decoded.getClass().getMethod("status").invoke(decoded);
+				assertEquals(value, decodedStatus);
+				assertEquals(7, decoded.getClass().getMethod("count").invoke(decoded));
+				int ordinal = status.ordinal((String) decodedStatus);
+				if (value.equals("ARCHIVED")) {
+					assertEquals(-1, ordinal);
+				} else {
+					assertSame(status.value(ordinal), decodedStatus);
+				}
+				assertArrayEquals(payload.toByteArray(), serialize(account, decoded).toByteArray());
+			}
+		}
+	}
+
 	@Test
 	void fusedNormalReadersMatchHistoricalUpgradeAndRemainReusable(@TempDir Path temp) throws Exception {
 		Path sources = temp.resolve("sources");
@@ -1489,6 +1790,18 @@ class SourcesGeneratorTest {
 				Buf nativeSlice = nativeSource.subList(2, 2 + payload.size());
 				assertEquals(expected, invokeReader(reader, 0, nativeSlice, 0, nativeSlice.size()));
 				assertEquals(expected, invokeBoundReader(boundReader, nativeSlice, 0, nativeSlice.size()));
+				assertEquals(expected, invokeSegmentReader(reader, 0, nativeSegment, 2L, payload.size()));
+				assertReaderCursorUnbound(reader);
+				assertEquals(expected, invokeBoundSegmentReader(boundReader, nativeSegment, 2L, payload.size()));
+				assertReaderCursorUnbound(boundReader);
+				InvocationTargetException segmentTruncated = assertThrows(InvocationTargetException.class,
+						() -> invokeBoundSegmentReader(boundReader, nativeSegment, 2L, payload.size() - 1));
+				assertTrue(segmentTruncated.getCause() instanceof MalformedDataException);
+				assertReaderCursorUnbound(boundReader);
+				InvocationTargetException segmentOutOfBounds = assertThrows(InvocationTargetException.class,
+						() -> invokeSegmentReader(reader, 0, nativeSegment, 3L, payload.size() + 2));
+				assertTrue(segmentOutOfBounds.getCause() instanceof IndexOutOfBoundsException);
+				assertReaderCursorUnbound(reader);
 			}
 			assertReaderCursorUnbound(reader);
 			assertReaderCursorUnbound(boundReader);
@@ -4311,6 +4624,20 @@ class SourcesGeneratorTest {
 		return method.invoke(reader, source, offset, length);
 	}
 
+	private static Object invokeSegmentReader(Object reader, int version, MemorySegment source, long offset,
+			int length) throws ReflectiveOperationException {
+		var method = reader.getClass().getMethod("read", int.class, MemorySegment.class, long.class, int.class);
+		method.setAccessible(true);
+		return method.invoke(reader, version, source, offset, length);
+	}
+
+	private static Object invokeBoundSegmentReader(Object reader, MemorySegment source, long offset, int length)
+			throws ReflectiveOperationException {
+		var method = reader.getClass().getMethod("read", MemorySegment.class, long.class, int.class);
+		method.setAccessible(true);
+		return method.invoke(reader, source, offset, length);
+	}
+
 	private static int countOccurrences(String source, String fragment) {
 		int count = 0;
 		for (int offset = 0; (offset = source.indexOf(fragment, offset)) >= 0; offset += fragment.length()) {
@@ -0,0 +1,118 @@
+package it.cavallium.datagen.vector;
+
+import it.cavallium.buffer.ArraysComparator;
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.UnsignedLexicographicComparator;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Optional Vector API lowering of {@link Buf#mismatch(int, Buf, int, int)} and the comparisons built on
+ * it.
+ *
+ * <p>Both sides are loaded straight from heap arrays or memory segments in any combination, sliced or
+ * whole. Short ranges, the tail after the last full vector, and buffers exposing neither storage, such as
+ * composites, use the stable {@link Buf} kernels, which already lower to the JDK's intrinsic segment
+ * mismatch. Results are identical to those kernels.</p>
+ */
+public final class VectorBufComparison {
+
+	private static final VectorSpecies<Byte> BYTE_SPECIES = ByteVector.SPECIES_PREFERRED;
+
+	/*
+	 * Below these lengths the intrinsic scalar mismatch wins on setup cost. Like the array-codec
+	 * crossovers, retune them only from measurements.
+	 */
+	public static final int MISMATCH_HEAP_THRESHOLD = 64;
+	public static final int MISMATCH_SEGMENT_THRESHOLD = 64;
+
+	private static final ArraysComparator UNSIGNED_LEXICOGRAPHIC = new UnsignedLexicographicComparator() {
+		@Override
+		public int compare(Buf a, int aFrom, int aTo, Buf b, int bFrom, int bTo) {
+			return compareUnsigned(a, aFrom, aTo, b, bFrom, bTo);
+		}
+	};
+
+	private VectorBufComparison() {}
+
+	/** Returns an unsigned lexicographic comparator whose {@link Buf} overloads use these kernels. */
+	public static ArraysComparator unsignedLexicographic() {
+		return UNSIGNED_LEXICOGRAPHIC;
+	}
+
+	/**
+	 * Returns the relative index of the first differing byte of the two ranges, or -1 if they are equal.
+	 *
+	 * @throws IndexOutOfBoundsException if either range is out of bounds
+	 */
+	public static int mismatch(Buf a, int aFrom, Buf b, int bFrom, int length) {
+		Objects.checkFromIndexSize(aFrom, length, a.size());
+		Objects.checkFromIndexSize(bFrom, length, b.size());
+		byte[] aHeap = a.getBackingByteArrayStrict();
+		byte[] bHeap = b.getBackingByteArrayStrict();
+		MemorySegment aSegment = aHeap == null ? a.asMemorySegmentStrict() : null;
+		MemorySegment bSegment = bHeap == null ? b.asMemorySegmentStrict() : null;
+		if (!useVector(length, aHeap, aSegment) || !useVector(length, bHeap, bSegment)) {
+			return a.mismatch(aFrom, b, bFrom, length);
+		}
+		long aStart = aHeap != null ? a.getBackingByteArrayOffset() + aFrom : aFrom;
+		long bStart = bHeap != null ? b.getBackingByteArrayOffset() + bFrom : bFrom;
+		int vectorBound = BYTE_SPECIES.loopBound(length);
+		for (int i = 0; i < vectorBound; i += BYTE_SPECIES.length()) {
+			VectorMask<Byte> different = load(aHeap, aSegment, aStart + i)
+					.compare(VectorOperators.NE, load(bHeap, bSegment, bStart + i));
+			if (different.anyTrue()) {
+				return i + different.firstTrue();
+			}
+		}
+		if (vectorBound == length) {
+			return -1;
+		}
+		int tail = a.mismatch(aFrom + vectorBound, b, bFrom + vectorBound, length - vectorBound);
+		return tail < 0 ? -1 : vectorBound + tail;
+	}
+
+	/**
+	 * Compares two ranges as unsigned bytes with a proper prefix first, like
+	 * {@link Buf#compareUnsigned(int, int, Buf, int, int)}.
+	 */
+	public static int compareUnsigned(Buf a, int aFrom, int aTo, Buf b, int bFrom, int bTo) {
+		Objects.checkFromToIndex(aFrom, aTo, a.size());
+		Objects.checkFromToIndex(bFrom, bTo, b.size());
+		int aLength = aTo - aFrom;
+		int bLength = bTo - bFrom;
+		int mismatch = mismatch(a, aFrom, b, bFrom, Math.min(aLength, bLength));
+		if (mismatch >= 0) {
+			return Byte.compareUnsigned(a.getByte(aFrom + mismatch), b.getByte(bFrom + mismatch));
+		}
+		return aLength - bLength;
+	}
+
+	/** Range equality with the semantics of {@link Buf#equals(int, Buf, int, int)}. */
+	public static boolean equals(Buf a, int aFrom, Buf b, int bFrom, int length) {
+		if (!isValidRange(aFrom, length, a.size()) || !isValidRange(bFrom, length, b.size())) {
+			return false;
+		}
+		return mismatch(a, aFrom, b, bFrom, length) < 0;
+	}
+
+	private static ByteVector load(byte[] heap, MemorySegment segment, long offset) {
+		return heap != null
+				? ByteVector.fromArray(BYTE_SPECIES, heap, Math.toIntExact(offset))
+				: ByteVector.fromMemorySegment(BYTE_SPECIES, segment, offset, ByteOrder.nativeOrder());
+	}
+
+	private static boolean useVector(int length, byte[] heap, MemorySegment segment) {
+		return heap != null ? length >= MISMATCH_HEAP_THRESHOLD
+				: segment != null && length >= MISMATCH_SEGMENT_THRESHOLD;
+	}
+
+	private static boolean isValidRange(int offset, int length, int size) {
+		return offset >= 0 && length >= 0 && (long) offset + length <= size;
+	}
+}
@@ -0,0 +1,77 @@
+package it.cavallium.datagen.vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.CompositeBuf;
+import it.cavallium.buffer.MemorySegmentBuf;
+import it.cavallium.buffer.VectorFallbackBuf;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class VectorBufComparisonTest {
+
+	private static final int[] SIZES = {0, 1, 15, 63, 64, 65, 127, 128, 129, 300, 1025};
+
+	@Test
+	void matchesScalarKernelsForEveryStorageCombination() {
+		var random = new Random(0x51D_7A0C_E3B9_22F4L);
+		try (Arena arena = Arena.ofConfined()) {
+			for (int size : SIZES) {
+				byte[] left = new byte[size];
+				random.nextBytes(left);
+				for (int difference = -1; difference < size; difference += Math.max(1, size / 7)) {
+					byte[] right = left.clone();
+					if (difference >= 0) right[difference] ^= (byte) 0x80;
+					for (int leftKind = 0; leftKind < 5; leftKind++) {
+						for (int rightKind = 0; rightKind < 5; rightKind++) {
+							Buf a = view(leftKind, arena, left);
+							Buf b = view(rightKind, arena, right);
+							String diagnostic = "size=" + size + ", difference=" + difference
+									+ ", kinds=" + leftKind + "/" + rightKind;
+							assertEquals(difference, VectorBufComparison.mismatch(a, 0, b, 0, size), diagnostic);
+							assertEquals(difference < 0, VectorBufComparison.equals(a, 0, b, 0, size), diagnostic);
+							assertEquals(Integer.signum(Arrays.compareUnsigned(left, right)),
+									Integer.signum(VectorBufComparison.compareUnsigned(a, 0, size, b, 0, size)), diagnostic);
+							assertEquals(Integer.signum(a.compareUnsigned(b)),
+									Integer.signum(VectorBufComparison.unsignedLexicographic().compare(a, b)), diagnostic);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void rejectsInvalidRangesLikeTheStableApi() {
+		Buf buf = Buf.wrap(new byte[80]);
+		assertFalse(VectorBufComparison.equals(buf, 10, buf, 0, 80));
+		assertThrows(IndexOutOfBoundsException.class, () -> VectorBufComparison.mismatch(buf, 10, buf, 0, 80));
+		assertEquals(-1, VectorBufComparison.mismatch(buf, 10, buf, 0, 70));
+	}
+
+	private static Buf view(int kind, Arena arena, byte[] values) {
+		return switch (kind) {
+			case 0 -> Buf.wrap(values.clone());
+			case 1 -> {
+				byte[] padded = new byte[values.length + 3];
+				System.arraycopy(values, 0, padded, 3, values.length);
+				yield Buf.wrap(padded).subListForced(3, 3 + values.length);
+			}
+			case 2 -> {
+				MemorySegment segment = arena.allocate(values.length + 7L);
+				MemorySegment.copy(MemorySegment.ofArray(values), 0, segment, 7, values.length);
+				yield new MemorySegmentBuf(segment).subListForced(7, 7 + values.length);
+			}
+			case 3 -> CompositeBuf.of(Buf.wrap(Arrays.copyOf(values, values.length / 2)),
+					Buf.wrap(Arrays.copyOfRange(values, values.length / 2, values.length)));
+			case 4 -> new VectorFallbackBuf(values.clone());
+			default -> throw new AssertionError(kind);
+		};
+	}
+}
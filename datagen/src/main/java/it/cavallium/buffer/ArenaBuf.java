@@ -0,0 +1,75 @@
+package it.cavallium.buffer;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Objects;
+
+/**
+ * Reference-counted off-heap {@link Buf} allocated by an {@link OffHeapBufArena}.
+ *
+ * <p>A new buffer starts with a count of one. Slices and frozen views share their parent's count, so
+ * {@link #retain()} and {@link #release()} may be called on whichever view a component holds. When the
+ * count reaches zero the memory returns to the arena; reading any view afterwards is a bug. With leak
+ * detection enabled it fails with {@link IllegalStateException}, otherwise it may observe stale
+ * bytes until the backing slab is freed.</p>
+ */
+public final class ArenaBuf extends MemorySegmentBuf {
+
+	private final OffHeapBufArena.Allocation allocation;
+
+	ArenaBuf(MemorySegment segment, OffHeapBufArena.Allocation allocation) {
+		super(segment);
+		this.allocation = allocation;
+	}
+
+	/** Increments the shared count and returns this view. */
+	public ArenaBuf retain() {
+		allocation.retain();
+		return this;
+	}
+
+	/**
+	 * Decrements the shared count.
+	 *
+	 * @return {@code true} if this call released the memory
+	 * @throws IllegalStateException if the memory was already released
+	 */
+	public boolean release() {
+		return allocation.release();
+	}
+
+	/** Returns the count shared by this buffer and all of its views. */
+	public int refCount() {
+		return allocation.refCount();
+	}
+
+	public boolean isReleased() {
+		return allocation.refCount() == 0;
+	}
+
+	@Override
+	public ArenaBuf subList(int from, int to) {
+		if (from == 0 && to == size()) {
+			return this;
+		}
+		return subListForced(from, to);
+	}
+
+	@Override
+	public ArenaBuf subListForced(int from, int to) {
+		Objects.checkFromToIndex(from, to, size());
+		return new ArenaBuf(asMemorySegment().asSlice(from, to - from), allocation);
+	}
+
+	/** Returns a slice sharing this buffer's count, after incrementing it. */
+	public ArenaBuf retainedSlice(int from, int to) {
+		ArenaBuf slice = subListForced(from, to);
+		allocation.retain();
+		return slice;
+	}
+
+	@Override
+	public ArenaBuf freeze() {
+		MemorySegment segment = asMemorySegment();
+		return segment.isReadOnly() ? this : new ArenaBuf(segment.asReadOnly(), allocation);
+	}
+}
@@ -8,4 +8,24 @@ public interface ArraysComparator extends Comparator<byte[]> {
 	int compare(byte[] a, byte[] b);
 
 	int compare(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo);
+
+	/**
+	 * Compares two buffer ranges with the same order as the array overloads. The default compares
+	 * heap-backed ranges in place and copies any other storage; the built-in comparators override it with
+	 * mismatch kernels that work on every storage kind without copying.
+	 */
+	default int compare(Buf a, int aFrom, int aTo, Buf b, int bFrom, int bTo) {
+		byte[] aHeap = a.getBackingByteArrayStrict();
+		byte[] bHeap = b.getBackingByteArrayStrict();
+		if (aHeap == null || bHeap == null) {
+			return compare(a.copyOfRange(aFrom, aTo).asArray(), b.copyOfRange(bFrom, bTo).asArray());
+		}
+		int aOffset = a.getBackingByteArrayOffset();
+		int bOffset = b.getBackingByteArrayOffset();
+		return compare(aHeap, aOffset + aFrom, aOffset + aTo, bHeap, bOffset + bFrom, bOffset + bTo);
+	}
+
+	default int compare(Buf a, Buf b) {
+		return compare(a, 0, a.size(), b, 0, b.size());
+	}
 }
@@ -9,6 +9,8 @@ import it.unimi.dsi.fastutil.bytes.ByteList;
 import java.lang.foreign.MemorySegment;
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.RandomAccess;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -42,6 +44,25 @@ public interface Buf extends ByteList, RandomAccess {
 		return ByteListBuf.wrap(bytes, to).subList(from, to);
 	}
 
+	/**
+	 * Wraps the bytes between the position and the limit of {@code buffer} without copying them.
+	 *
+	 * <p>A buffer exposing its array becomes a heap view at the matching array offset. Direct and
+	 * read-only buffers become {@link MemorySegmentBuf} views through {@link MemorySegment#ofBuffer}.
+	 * Cursors and generated readers therefore bind them to the heap or memory-segment kernels. The view
+	 * ignores later changes to the buffer's position and limit, and a read-only buffer yields an
+	 * immutable view. A direct buffer's memory must stay valid while the view is used, as for
+	 * {@link #asMemorySegment()}.</p>
+	 */
+	static Buf wrap(ByteBuffer buffer) {
+		if (buffer.hasArray()) {
+			int from = buffer.arrayOffset() + buffer.position();
+			int to = buffer.arrayOffset() + buffer.limit();
+			return ByteListBuf.wrap(buffer.array(), to).subList(from, to);
+		}
+		return new MemorySegmentBuf(MemorySegment.ofBuffer(buffer));
+	}
+
 	static Buf create(int initialCapacity) {
 		return new ByteListBuf(initialCapacity);
 	}
@@ -78,6 +99,11 @@ public interface Buf extends ByteList, RandomAccess {
 	 */
 	byte[] asUnboundedArray();
 
+	/**
+	 * Returns a heap {@link ByteBuffer} holding this buffer's bytes. Heap-backed buffers return a view of
+	 * their array; buffers stored elsewhere, such as native memory or a {@link CompositeBuf}, return a
+	 * copy, so later writes on either side are not shared.
+	 */
 	ByteBuffer asHeapByteBuffer();
 
 	/**
@@ -119,7 +145,9 @@ public interface Buf extends ByteList, RandomAccess {
 	}
 
 	/**
-	 * Unsafe operation
+	 * Unsafe operation: returns the heap array holding this buffer's bytes, starting at
+	 * {@link #getBackingByteArrayOffset()}. Native buffers throw {@link UnsupportedOperationException};
+	 * a read-only {@link CompositeBuf} returns a flattened copy of its chunks.
 	 */
 	byte[] getBackingByteArray();
 
@@ -183,6 +211,7 @@ public interface Buf extends ByteList, RandomAccess {
 	 * @param source the source buf
 	 * @param sourceOffset the source buf offset from where the data is copied
 	 * @param length the length of data being copied
+	 * @throws UnsupportedOperationException if this buffer is not {@link #isMutable() mutable}
 	 */
 	void setBytesFromBuf(int offset, Buf source, int sourceOffset, int length);
 
@@ -404,6 +433,90 @@ public interface Buf extends ByteList, RandomAccess {
 		setLong(i, Double.doubleToRawLongBits(val));
 	}
 
+	/**
+	 * Writes {@code length} values of {@code values}, starting at {@code offset}, as consecutive big-endian
+	 * shorts. The whole destination range is validated before anything is written.
+	 * @param i byte offset
+	 */
+	default void setShorts(int i, short[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		if (!BufPrimitives.putDirect(this, i, values, offset, length, BufPrimitives.SHORT_BE)) {
+			for (int j = 0; j < length; j++) {
+				setShort(i + j * Short.BYTES, values[offset + j]);
+			}
+		}
+	}
+
+	/**
+	 * Writes {@code length} values of {@code values}, starting at {@code offset}, as consecutive big-endian
+	 * chars. The whole destination range is validated before anything is written.
+	 * @param i byte offset
+	 */
+	default void setChars(int i, char[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		if (!BufPrimitives.putDirect(this, i, values, offset, length, BufPrimitives.CHAR_BE)) {
+			for (int j = 0; j < length; j++) {
+				setChar(i + j * Character.BYTES, values[offset + j]);
+			}
+		}
+	}
+
+	/**
+	 * Writes {@code length} values of {@code values}, starting at {@code offset}, as consecutive big-endian
+	 * ints. The whole destination range is validated before anything is written.
+	 * @param i byte offset
+	 */
+	default void setInts(int i, int[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		if (!BufPrimitives.putDirect(this, i, values, offset, length, BufPrimitives.INT_BE)) {
+			for (int j = 0; j < length; j++) {
+				setInt(i + j * Integer.BYTES, values[offset + j]);
+			}
+		}
+	}
+
+	/**
+	 * Writes {@code length} values of {@code values}, starting at {@code offset}, as consecutive big-endian
+	 * longs. The whole destination range is validated before anything is written.
+	 * @param i byte offset
+	 */
+	default void setLongs(int i, long[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		if (!BufPrimitives.putDirect(this, i, values, offset, length, BufPrimitives.LONG_BE)) {
+			for (int j = 0; j < length; j++) {
+				setLong(i + j * Long.BYTES, values[offset + j]);
+			}
+		}
+	}
+
+	/**
+	 * Writes {@code length} values of {@code values}, starting at {@code offset}, as consecutive big-endian
+	 * floats. The whole destination range is validated before anything is written.
+	 * @param i byte offset
+	 */
+	default void setFloats(int i, float[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		if (!BufPrimitives.putDirect(this, i, values, offset, length, BufPrimitives.FLOAT_BE)) {
+			for (int j = 0; j < length; j++) {
+				setFloat(i + j * Float.BYTES, values[offset + j]);
+			}
+		}
+	}
+
+	/**
+	 * Writes {@code length} values of {@code values}, starting at {@code offset}, as consecutive big-endian
+	 * doubles. The whole destination range is validated before anything is written.
+	 * @param i byte offset
+	 */
+	default void setDoubles(int i, double[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		if (!BufPrimitives.putDirect(this, i, values, offset, length, BufPrimitives.DOUBLE_BE)) {
+			for (int j = 0; j < length; j++) {
+				setDouble(i + j * Double.BYTES, values[offset + j]);
+			}
+		}
+	}
+
 	default SafeByteArrayOutputStream binaryOutputStream() {
 		return binaryOutputStream(0, size());
 	}
@@ -412,11 +525,81 @@ public interface Buf extends ByteList, RandomAccess {
 		return binaryOutputStream(from, size());
 	}
 
+	/**
+	 * Opens a stream that overwrites the bytes from {@code from} to {@code to} of this buffer.
+	 *
+	 * @throws UnsupportedOperationException if this buffer is not {@link #isMutable() mutable}, or its
+	 *                                       storage is not a heap array the stream can write into
+	 */
 	SafeByteArrayOutputStream binaryOutputStream(int from, int to);
 
 	boolean equals(int aStartIndex, Buf b, int bStartIndex, int length);
 
 	boolean equals(int aStartIndex, byte[] b, int bStartIndex, int length);
 
+	/**
+	 * Returns the relative index of the first byte that differs between the two ranges, or -1 if they
+	 * are equal. Heap and native storage of either side are compared with {@link MemorySegment#mismatch}
+	 * kernels, without copying.
+	 *
+	 * @throws IndexOutOfBoundsException if either range is out of bounds
+	 */
+	default int mismatch(int aStartIndex, Buf b, int bStartIndex, int length) {
+		Objects.checkFromIndexSize(aStartIndex, length, size());
+		Objects.checkFromIndexSize(bStartIndex, length, b.size());
+		return BufComparison.mismatch(this, aStartIndex, b, bStartIndex, length);
+	}
+
+	/**
+	 * Returns the index of the first byte that differs, the shorter size if one buffer is a proper
+	 * prefix of the other, or -1 if they are equal, like {@link Arrays#mismatch(byte[], byte[])}.
+	 */
+	default int mismatch(Buf b) {
+		int common = Math.min(size(), b.size());
+		int mismatch = BufComparison.mismatch(this, 0, b, 0, common);
+		if (mismatch >= 0) return mismatch;
+		return size() == b.size() ? -1 : common;
+	}
+
+	/**
+	 * Compares the two ranges as unsigned bytes in lexicographic order, with a proper prefix ordered
+	 * first, like {@link Arrays#compareUnsigned(byte[], int, int, byte[], int, int)}. Unlike
+	 * {@link #compareTo}, which orders shorter buffers first, this is the byte order of sorted key-value
+	 * stores.
+	 *
+	 * @throws IndexOutOfBoundsException if either range is out of bounds
+	 */
+	default int compareUnsigned(int aFrom, int aTo, Buf b, int bFrom, int bTo) {
+		Objects.checkFromToIndex(aFrom, aTo, size());
+		Objects.checkFromToIndex(bFrom, bTo, b.size());
+		return BufComparison.compareUnsigned(this, aFrom, aTo, b, bFrom, bTo);
+	}
+
+	default int compareUnsigned(Buf b) {
+		return BufComparison.compareUnsigned(this, 0, size(), b, 0, b.size());
+	}
+
+	/**
+	 * Returns the XXH64 hash of this buffer with {@link BufHash#DEFAULT_SEED}. Equal bytes hash equally
+	 * whatever the storage kind, and the value is stable across JVM runs.
+	 */
+	default long hash64() {
+		return BufHash.hash64(this, 0, size(), BufHash.DEFAULT_SEED);
+	}
+
+	default long hash64(int from, int length) {
+		return BufHash.hash64(this, from, length, BufHash.DEFAULT_SEED);
+	}
+
+	/** Returns the XXH64 hash of {@code length} bytes starting at {@code from}, hashed in place. */
+	default long hash64(int from, int length, long seed) {
+		return BufHash.hash64(this, from, length, seed);
+	}
+
+	/** Returns the CRC32C of {@code length} bytes starting at {@code from}, checksummed in place. */
+	default int crc32c(int from, int length) {
+		return BufHash.crc32c(this, from, length);
+	}
+
 	String toString(Charset charset);
 }
@@ -0,0 +1,111 @@
+package it.cavallium.buffer;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+
+/**
+ * Range mismatch kernels shared by every {@link Buf} storage kind.
+ *
+ * <p>Heap against heap uses {@link Arrays#mismatch(byte[], int, int, byte[], int, int)}; every other
+ * combination of heap and native storage, sliced or whole, uses
+ * {@link MemorySegment#mismatch(MemorySegment, long, long, MemorySegment, long, long)} without slicing.
+ * Composites are walked chunk by chunk, and only buffers exposing neither storage fall back to a byte
+ * loop. Callers validate ranges.</p>
+ */
+final class BufComparison {
+
+	private BufComparison() {}
+
+	/** Returns the relative index of the first differing byte of the two ranges, or -1 if they are equal. */
+	static int mismatch(Buf a, int aFrom, Buf b, int bFrom, int length) {
+		if (length == 0) {
+			return -1;
+		}
+		if (a instanceof CompositeBuf composite) {
+			return compositeMismatch(composite, aFrom, b, bFrom, length);
+		}
+		if (b instanceof CompositeBuf composite) {
+			return compositeMismatch(composite, bFrom, a, aFrom, length);
+		}
+		byte[] aHeap = a.getBackingByteArrayStrict();
+		byte[] bHeap = b.getBackingByteArrayStrict();
+		if (aHeap != null && bHeap != null) {
+			int aStart = a.getBackingByteArrayOffset() + aFrom;
+			int bStart = b.getBackingByteArrayOffset() + bFrom;
+			return Arrays.mismatch(aHeap, aStart, aStart + length, bHeap, bStart, bStart + length);
+		}
+		MemorySegment aSegment = aHeap != null ? MemorySegment.ofArray(aHeap) : a.asMemorySegmentStrict();
+		MemorySegment bSegment = bHeap != null ? MemorySegment.ofArray(bHeap) : b.asMemorySegmentStrict();
+		if (aSegment != null && bSegment != null) {
+			long aStart = (aHeap != null ? a.getBackingByteArrayOffset() : 0L) + aFrom;
+			long bStart = (bHeap != null ? b.getBackingByteArrayOffset() : 0L) + bFrom;
+			return (int) MemorySegment.mismatch(aSegment, aStart, aStart + length,
+					bSegment, bStart, bStart + length);
+		}
+		for (int i = 0; i < length; i++) {
+			if (a.getByte(aFrom + i) != b.getByte(bFrom + i)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** Mismatch of a range of {@code bytes} against a range of {@code buf}. */
+	static int mismatch(Buf buf, int from, byte[] bytes, int bytesFrom, int length) {
+		if (length == 0) {
+			return -1;
+		}
+		byte[] heap = buf.getBackingByteArrayStrict();
+		if (heap != null) {
+			int start = buf.getBackingByteArrayOffset() + from;
+			return Arrays.mismatch(heap, start, start + length, bytes, bytesFrom, bytesFrom + length);
+		}
+		MemorySegment segment = buf.asMemorySegmentStrict();
+		if (segment != null) {
+			return (int) MemorySegment.mismatch(segment, from, (long) from + length,
+					MemorySegment.ofArray(bytes), bytesFrom, (long) bytesFrom + length);
+		}
+		return mismatch(buf, from, ByteListBuf.wrap(bytes), bytesFrom, length);
+	}
+
+	/**
+	 * Compares two ranges as unsigned bytes in lexicographic order, with a proper prefix ordered first,
+	 * like {@link Arrays#compareUnsigned(byte[], int, int, byte[], int, int)}.
+	 */
+	static int compareUnsigned(Buf a, int aFrom, int aTo, Buf b, int bFrom, int bTo) {
+		int aLength = aTo - aFrom;
+		int bLength = bTo - bFrom;
+		int mismatch = mismatch(a, aFrom, b, bFrom, Math.min(aLength, bLength));
+		if (mismatch >= 0) {
+			return Byte.compareUnsigned(a.getByte(aFrom + mismatch), b.getByte(bFrom + mismatch));
+		}
+		return aLength - bLength;
+	}
+
+	/** Orders ranges by length first and then as unsigned bytes, like {@link Buf#compareTo}. */
+	static int compareLengthFirst(Buf a, int aFrom, int aTo, Buf b, int bFrom, int bTo) {
+		int aLength = aTo - aFrom;
+		int bLength = bTo - bFrom;
+		if (aLength != bLength) {
+			return Integer.compare(aLength, bLength);
+		}
+		return compareUnsigned(a, aFrom, aTo, b, bFrom, bTo);
+	}
+
+	private static int compositeMismatch(CompositeBuf composite, int from, Buf other, int otherFrom, int length) {
+		int chunk = composite.chunkIndexOf(from);
+		int done = 0;
+		while (done < length) {
+			Buf part = composite.chunk(chunk);
+			int local = from + done - composite.chunkOffset(chunk);
+			int count = Math.min(length - done, part.size() - local);
+			int mismatch = mismatch(part, local, other, otherFrom + done, count);
+			if (mismatch >= 0) {
+				return done + mismatch;
+			}
+			done += count;
+			chunk++;
+		}
+		return -1;
+	}
+}
@@ -36,6 +36,7 @@ public class BufDataCursor extends BufDataInputCore {
 	public enum StorageKind {
 		HEAP,
 		MEMORY_SEGMENT,
+		/** Any other {@link Buf}; a {@link CompositeBuf} is read chunk by chunk with direct kernels. */
 		FALLBACK
 	}
 
@@ -1,6 +1,7 @@
 package it.cavallium.buffer;
 
 import it.cavallium.datagen.DecodeLimits;
+import java.lang.foreign.MemorySegment;
 import java.util.Objects;
 
 /** One-shot direct-storage data input over a complete {@link Buf}. */
@@ -11,11 +12,22 @@ public final class BufDataInput extends BufDataInputCore {
 		bindSource(source, 0, source.size());
 	}
 
+	private BufDataInput(MemorySegment segment, long offset, int length, DecodeLimits limits) {
+		super(limits);
+		bindSegmentRegion(segment, offset, length);
+	}
+
 	public static BufDataInput create(Buf source, DecodeLimits limits) {
 		return new BufDataInput(Objects.requireNonNull(source, "source"),
 				Objects.requireNonNull(limits, "limits"));
 	}
 
+	/** Reads {@code length} bytes of {@code segment} starting at a long {@code offset}, without slicing. */
+	public static BufDataInput create(MemorySegment segment, long offset, int length, DecodeLimits limits) {
+		return new BufDataInput(Objects.requireNonNull(segment, "segment"), offset, length,
+				Objects.requireNonNull(limits, "limits"));
+	}
+
 	@Deprecated
 	@Override
 	public void close() {
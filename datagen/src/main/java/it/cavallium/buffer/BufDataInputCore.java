@@ -3,6 +3,7 @@ package it.cavallium.buffer;
 import it.cavallium.datagen.DecodeBudget;
 import it.cavallium.datagen.DecodeLimits;
 import it.cavallium.datagen.MalformedDataException;
+import it.cavallium.datagen.StringDeduplicationCache;
 import it.cavallium.stream.SafeInputStream;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
@@ -12,6 +13,7 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.ReadOnlyBufferException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
@@ -51,11 +53,14 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 	private byte[] heap;
 	private MemorySegment segment;
 	private Buf fallback;
+	private CompositeBuf composite;
 	private StorageAccess activeStorage;
 	private final StorageAccess heapStorage = new HeapStorage();
 	private final StorageAccess segmentStorage = new SegmentStorage();
 	private final StorageAccess fallbackStorage = new FallbackStorage();
+	private final CompositeStorage compositeStorage = new CompositeStorage();
 	private int storageOffset;
+	private long segmentBase;
 	private int start;
 	private int position;
 	private int limit;
@@ -87,27 +92,48 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 			bindSegmentSource(source, sourceSegment, offset, length);
 			return;
 		}
+		if (source instanceof CompositeBuf compositeSource) {
+			bindCompositeSource(compositeSource, offset, length);
+			return;
+		}
 		bindFallbackSource(source, offset, length);
 	}
 
 	final void bindHeapSource(Buf source, byte[] sourceHeap, int sourceHeapOffset, int offset, int length) {
-		bindResolved(source, sourceHeap, null, null, heapStorage, sourceHeapOffset, offset, length);
+		bindResolved(source, sourceHeap, null, null, null, heapStorage, sourceHeapOffset, 0, offset, length);
 	}
 
 	final void bindSegmentSource(Buf source, MemorySegment sourceSegment, int offset, int length) {
-		bindResolved(source, null, sourceSegment, null, segmentStorage, 0, offset, length);
+		bindResolved(source, null, sourceSegment, null, null, segmentStorage, 0, 0, offset, length);
+	}
+
+	/**
+	 * Binds {@code length} bytes of {@code sourceSegment} starting at the long {@code base}. Only the segment
+	 * storage adds the base, so positions inside the bound region keep their int range.
+	 */
+	final void bindSegmentRegion(MemorySegment sourceSegment, long base, int length) {
+		Objects.requireNonNull(sourceSegment, "segment");
+		Objects.checkFromIndexSize(base, length, sourceSegment.byteSize());
+		bindResolved(null, null, sourceSegment, null, null, segmentStorage, 0, base, 0, length);
 	}
 
 	final void bindFallbackSource(Buf source, int offset, int length) {
-		bindResolved(source, null, null, source, fallbackStorage, 0, offset, length);
+		bindResolved(source, null, null, source, null, fallbackStorage, 0, 0, offset, length);
+	}
+
+	final void bindCompositeSource(CompositeBuf source, int offset, int length) {
+		compositeStorage.reset();
+		bindResolved(source, null, null, null, source, compositeStorage, 0, 0, offset, length);
 	}
 
 	private void bindResolved(Buf source,
 			byte[] sourceHeap,
 			MemorySegment sourceSegment,
 			Buf sourceFallback,
+			CompositeBuf sourceComposite,
 			StorageAccess sourceStorage,
 			int sourceHeapOffset,
+			long sourceSegmentBase,
 			int offset,
 			int length) {
 		if (bound) {
@@ -116,17 +142,21 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 		if (ownedBudget == null) {
 			throw new IllegalStateException("Borrowed cursor must be bound to a parent input region");
 		}
-		Objects.requireNonNull(source, "source");
 		Objects.requireNonNull(sourceStorage, "sourceStorage");
-		Objects.checkFromIndexSize(offset, length, source.size());
+		// Segment regions have no source buffer and are validated against their segment when bound
+		if (source != null) {
+			Objects.checkFromIndexSize(offset, length, source.size());
+		}
 
 		this.source = source;
 		activeBudget = ownedBudget;
 		heap = sourceHeap;
 		segment = sourceSegment;
 		fallback = sourceFallback;
+		composite = sourceComposite;
 		activeStorage = sourceStorage;
 		storageOffset = sourceHeapOffset;
+		segmentBase = sourceSegmentBase;
 		start = offset;
 		position = offset;
 		limit = offset + length;
@@ -146,10 +176,16 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 		this.heap = parent.heap;
 		this.segment = parent.segment;
 		this.fallback = parent.fallback;
+		this.composite = parent.composite;
+		if (parent.activeStorage == parent.compositeStorage) {
+			compositeStorage.reset();
+		}
 		this.activeStorage = parent.activeStorage == parent.heapStorage ? heapStorage
-				: parent.activeStorage == parent.segmentStorage ? segmentStorage : fallbackStorage;
+				: parent.activeStorage == parent.segmentStorage ? segmentStorage
+				: parent.activeStorage == parent.compositeStorage ? compositeStorage : fallbackStorage;
 		this.activeBudget = parent.activeBudget;
 		this.storageOffset = parent.storageOffset;
+		this.segmentBase = parent.segmentBase;
 		this.start = parent.start + offset;
 		this.position = this.start;
 		this.limit = this.start + length;
@@ -164,8 +200,11 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 		heap = null;
 		segment = null;
 		fallback = null;
+		composite = null;
+		compositeStorage.reset();
 		activeStorage = null;
 		storageOffset = 0;
+		segmentBase = 0;
 		start = 0;
 		position = 0;
 		limit = 0;
@@ -192,6 +231,10 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 		return fallbackStorage;
 	}
 
+	protected final StorageAccess compositeStorageAccess() {
+		return compositeStorage;
+	}
+
 	protected final boolean isHeapStorage() {
 		return activeStorage == heapStorage;
 	}
@@ -204,6 +247,10 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 		return activeStorage == fallbackStorage;
 	}
 
+	protected final boolean isCompositeStorage() {
+		return activeStorage == compositeStorage;
+	}
+
 	protected final int remainingBytes() {
 		ensureBound();
 		return limit - position;
@@ -247,6 +294,16 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 		return take(byteLength) - start;
 	}
 
+	@Override
+	public final long hash64(int offset, int byteLength, long seed) {
+		ensureBound();
+		Objects.checkFromIndexSize(offset, byteLength, limit - start);
+		if (isSegmentStorage()) {
+			return BufHash.hash64(segment, segmentBase + start + offset, byteLength, seed);
+		}
+		return BufHash.hash64(source, start + offset, byteLength, seed);
+	}
+
 	@Override
 	public final boolean getBooleanAt(int offset) {
 		return getByteAt(offset) != 0;
@@ -483,8 +540,9 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 					+ (limit - start) + "]");
 		}
 		if (isHeapStorage()) return (long) storageOffset + start + relativeOffset;
-		if (isSegmentStorage()) return start + relativeOffset;
-		throw new IllegalStateException("Fallback storage has no direct offset");
+		if (isSegmentStorage()) return segmentBase + start + relativeOffset;
+		throw new IllegalStateException(isCompositeStorage() ? "Composite storage has no direct offset"
+				: "Fallback storage has no direct offset");
 	}
 
 	@Override
@@ -676,6 +734,15 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 		requireAvailable(length);
 		activeBudget.claimPayloadBytes(length);
 		int index = take(length);
+		StringDeduplicationCache cache = activeBudget.stringDeduplicationCache();
+		if (cache != null && cache.accepts(length) && StandardCharsets.UTF_8.equals(charset)) {
+			if (isHeapStorage()) {
+				return cache.intern(heap, storageOffset + index, length);
+			}
+			byte[] scratch = ensureStringScratch(length);
+			copyToArray(index, scratch, 0, length);
+			return cache.intern(scratch, 0, length);
+		}
 		return storageAccess().readString(index, length, charset);
 	}
 
@@ -933,85 +1000,85 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 
 		@Override
 		public byte getByte(int index) {
-			return segment.get(ValueLayout.JAVA_BYTE, index);
+			return segment.get(ValueLayout.JAVA_BYTE, segmentBase + index);
 		}
 
 		@Override
 		public short getShort(int index) {
-			return segment.get(SHORT_BE, index);
+			return segment.get(SHORT_BE, segmentBase + index);
 		}
 
 		@Override
 		public char getChar(int index) {
-			return segment.get(CHAR_BE, index);
+			return segment.get(CHAR_BE, segmentBase + index);
 		}
 
 		@Override
 		public int getInt(int index) {
-			return segment.get(INT_BE, index);
+			return segment.get(INT_BE, segmentBase + index);
 		}
 
 		@Override
 		public long getLong(int index) {
-			return segment.get(LONG_BE, index);
+			return segment.get(LONG_BE, segmentBase + index);
 		}
 
 		@Override
 		public float getFloat(int index) {
-			return segment.get(FLOAT_BE, index);
+			return segment.get(FLOAT_BE, segmentBase + index);
 		}
 
 		@Override
 		public double getDouble(int index) {
-			return segment.get(DOUBLE_BE, index);
+			return segment.get(DOUBLE_BE, segmentBase + index);
 		}
 
 		@Override
 		public void copyBooleans(int index, boolean[] destination, int offset, int length) {
 			for (int i = 0; i < length; i++) {
-				destination[offset + i] = segment.get(ValueLayout.JAVA_BYTE, index + i) != 0;
+				destination[offset + i] = segment.get(ValueLayout.JAVA_BYTE, segmentBase + index + i) != 0;
 			}
 		}
 
 		@Override
 		public void copyShorts(int index, short[] destination, int offset, int length) {
-			MemorySegment.copy(segment, SHORT_BE, index, destination, offset, length);
+			MemorySegment.copy(segment, SHORT_BE, segmentBase + index, destination, offset, length);
 		}
 
 		@Override
 		public void copyChars(int index, char[] destination, int offset, int length) {
-			MemorySegment.copy(segment, CHAR_BE, index, destination, offset, length);
+			MemorySegment.copy(segment, CHAR_BE, segmentBase + index, destination, offset, length);
 		}
 
 		@Override
 		public void copyInts(int index, int[] destination, int offset, int length) {
-			MemorySegment.copy(segment, INT_BE, index, destination, offset, length);
+			MemorySegment.copy(segment, INT_BE, segmentBase + index, destination, offset, length);
 		}
 
 		@Override
 		public void copyLongs(int index, long[] destination, int offset, int length) {
-			MemorySegment.copy(segment, LONG_BE, index, destination, offset, length);
+			MemorySegment.copy(segment, LONG_BE, segmentBase + index, destination, offset, length);
 		}
 
 		@Override
 		public void copyFloats(int index, float[] destination, int offset, int length) {
-			MemorySegment.copy(segment, FLOAT_BE, index, destination, offset, length);
+			MemorySegment.copy(segment, FLOAT_BE, segmentBase + index, destination, offset, length);
 		}
 
 		@Override
 		public void copyDoubles(int index, double[] destination, int offset, int length) {
-			MemorySegment.copy(segment, DOUBLE_BE, index, destination, offset, length);
+			MemorySegment.copy(segment, DOUBLE_BE, segmentBase + index, destination, offset, length);
 		}
 
 		@Override
 		public void copyToArray(int index, byte[] destination, int offset, int length) {
-			MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, index, destination, offset, length);
+			MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, segmentBase + index, destination, offset, length);
 		}
 
 		@Override
 		public void copyToBuffer(int index, ByteBuffer destination, int length) {
 			MemorySegment target = MemorySegment.ofBuffer(destination);
-			MemorySegment.copy(segment, index, target, 0, length);
+			MemorySegment.copy(segment, segmentBase + index, target, 0, length);
 			destination.position(destination.position() + length);
 		}
 
@@ -1137,6 +1204,270 @@ abstract class BufDataInputCore extends SafeInputStream implements RandomAccessD
 		}
 	}
 
+	/**
+	 * Chunk-aware storage for a {@link CompositeBuf}. The chunk holding the last access is cached with
+	 * its heap array or memory segment, so reads inside a chunk use the same direct kernels as the heap
+	 * and segment strategies; only values straddling a chunk boundary are assembled byte by byte.
+	 */
+	private final class CompositeStorage implements StorageAccess {
+
+		private int chunkStart;
+		private int chunkEnd;
+		private byte[] chunkHeap;
+		private int chunkHeapOffset;
+		private MemorySegment chunkSegment;
+		private Buf chunkFallback;
+
+		private void reset() {
+			chunkStart = 0;
+			chunkEnd = 0;
+			chunkHeap = null;
+			chunkSegment = null;
+			chunkFallback = null;
+		}
+
+		/** Selects the chunk holding {@code index} and returns the index relative to that chunk. */
+		private int select(int index) {
+			if (index < chunkStart || index >= chunkEnd) {
+				int chunkIndex = composite.chunkIndexOf(index);
+				Buf chunk = composite.chunk(chunkIndex);
+				chunkStart = composite.chunkOffset(chunkIndex);
+				chunkEnd = chunkStart + chunk.size();
+				chunkHeap = chunk.getBackingByteArrayStrict();
+				chunkHeapOffset = chunkHeap != null ? chunk.getBackingByteArrayOffset() : 0;
+				chunkSegment = chunkHeap == null ? chunk.asMemorySegmentStrict() : null;
+				chunkFallback = chunkHeap == null && chunkSegment == null ? chunk : null;
+			}
+			return index - chunkStart;
+		}
+
+		@Override
+		public byte getByte(int index) {
+			int local = select(index);
+			if (chunkHeap != null) return chunkHeap[chunkHeapOffset + local];
+			if (chunkSegment != null) return chunkSegment.get(ValueLayout.JAVA_BYTE, local);
+			return chunkFallback.getByte(local);
+		}
+
+		@Override
+		public short getShort(int index) {
+			int local = select(index);
+			if (index + Short.BYTES <= chunkEnd) {
+				if (chunkHeap != null) return (short) HEAP_SHORT_BE.get(chunkHeap, chunkHeapOffset + local);
+				if (chunkSegment != null) return chunkSegment.get(SHORT_BE, local);
+				return chunkFallback.getShort(local);
+			}
+			return (short) ((getByte(index) & 0xFF) << 8 | (getByte(index + 1) & 0xFF));
+		}
+
+		@Override
+		public char getChar(int index) {
+			return (char) getShort(index);
+		}
+
+		@Override
+		public int getInt(int index) {
+			int local = select(index);
+			if (index + Integer.BYTES <= chunkEnd) {
+				if (chunkHeap != null) return (int) HEAP_INT_BE.get(chunkHeap, chunkHeapOffset + local);
+				if (chunkSegment != null) return chunkSegment.get(INT_BE, local);
+				return chunkFallback.getInt(local);
+			}
+			return (getShort(index) & 0xFFFF) << 16 | (getShort(index + 2) & 0xFFFF);
+		}
+
+		@Override
+		public long getLong(int index) {
+			int local = select(index);
+			if (index + Long.BYTES <= chunkEnd) {
+				if (chunkHeap != null) return (long) HEAP_LONG_BE.get(chunkHeap, chunkHeapOffset + local);
+				if (chunkSegment != null) return chunkSegment.get(LONG_BE, local);
+				return chunkFallback.getLong(local);
+			}
+			return (getInt(index) & 0xFFFFFFFFL) << 32 | (getInt(index + 4) & 0xFFFFFFFFL);
+		}
+
+		@Override
+		public float getFloat(int index) {
+			return Float.intBitsToFloat(getInt(index));
+		}
+
+		@Override
+		public double getDouble(int index) {
+			return Double.longBitsToDouble(getLong(index));
+		}
+
+		/**
+		 * Bulk-copies the elements of {@code layout} starting at {@code index} that lie entirely inside the
+		 * chunk holding it, at most {@code length}, and returns how many were copied. Returns 0 when the
+		 * first element straddles a chunk boundary, or the chunk is neither heap nor segment backed, so the
+		 * caller reads that one element through the byte-assembling getter.
+		 */
+		private int copyRun(int index, ValueLayout layout, Object destination, int offset, int length) {
+			int local = select(index);
+			int run = Math.min(length, (chunkEnd - index) / (int) layout.byteSize());
+			if (run == 0) {
+				return 0;
+			}
+			if (chunkHeap != null) {
+				MemorySegment.copy(MemorySegment.ofArray(chunkHeap), layout, chunkHeapOffset + local, destination,
+						offset, run);
+			} else if (chunkSegment != null) {
+				MemorySegment.copy(chunkSegment, layout, local, destination, offset, run);
+			} else {
+				return 0;
+			}
+			return run;
+		}
+
+		@Override
+		public void copyBooleans(int index, boolean[] destination, int offset, int length) {
+			while (length > 0) {
+				int local = select(index);
+				int count = Math.min(length, chunkEnd - index);
+				if (chunkHeap != null) {
+					for (int i = 0; i < count; i++) {
+						destination[offset + i] = chunkHeap[chunkHeapOffset + local + i] != 0;
+					}
+				} else if (chunkSegment != null) {
+					for (int i = 0; i < count; i++) {
+						destination[offset + i] = chunkSegment.get(ValueLayout.JAVA_BYTE, local + i) != 0;
+					}
+				} else {
+					for (int i = 0; i < count; i++) {
+						destination[offset + i] = chunkFallback.getByte(local + i) != 0;
+					}
+				}
+				index += count;
+				offset += count;
+				length -= count;
+			}
+		}
+
+		@Override
+		public void copyShorts(int index, short[] destination, int offset, int length) {
+			while (length > 0) {
+				int run = copyRun(index, SHORT_BE, destination, offset, length);
+				if (run == 0) {
+					destination[offset] = getShort(index);
+					run = 1;
+				}
+				index += run * Short.BYTES;
+				offset += run;
+				length -= run;
+			}
+		}
+
+		@Override
+		public void copyChars(int index, char[] destination, int offset, int length) {
+			while (length > 0) {
+				int run = copyRun(index, CHAR_BE, destination, offset, length);
+				if (run == 0) {
+					destination[offset] = getChar(index);
+					run = 1;
+				}
+				index += run * Character.BYTES;
+				offset += run;
+				length -= run;
+			}
+		}
+
+		@Override
+		public void copyInts(int index, int[] destination, int offset, int length) {
+			while (length > 0) {
+				int run = copyRun(index, INT_BE, destination, offset, length);
+				if (run == 0) {
+					destination[offset] = getInt(index);
+					run = 1;
+				}
+				index += run * Integer.BYTES;
+				offset += run;
+				length -= run;
+			}
+		}
+
+		@Override
+		public void copyLongs(int index, long[] destination, int offset, int length) {
+			while (length > 0) {
+				int run = copyRun(index, LONG_BE, destination, offset, length);
+				if (run == 0) {
+					destination[offset] = getLong(index);
+					run = 1;
+				}
+				index += run * Long.BYTES;
+				offset += run;
+				length -= run;
+			}
+		}
+
+		@Override
+		public void copyFloats(int index, float[] destination, int offset, int length) {
+			while (length > 0) {
+				int run = copyRun(index, FLOAT_BE, destination, offset, length);
+				if (run == 0) {
+					destination[offset] = getFloat(index);
+					run = 1;
+				}
+				index += run * Float.BYTES;
+				offset += run;
+				length -= run;
+			}
+		}
+
+		@Override
+		public void copyDoubles(int index, double[] destination, int offset, int length) {
+			while (length > 0) {
+				int run = copyRun(index, DOUBLE_BE, destination, offset, length);
+				if (run == 0) {
+					destination[offset] = getDouble(index);
+					run = 1;
+				}
+				index += run * Double.BYTES;
+				offset += run;
+				length -= run;
+			}
+		}
+
+		@Override
+		public void copyToArray(int index, byte[] destination, int offset, int length) {
+			composite.getBytes(index, destination, offset, length);
+		}
+
+		@Override
+		public void copyToBuffer(int index, ByteBuffer destination, int length) {
+			while (length > 0) {
+				int local = select(index);
+				int count = Math.min(length, chunkEnd - index);
+				if (chunkHeap != null) {
+					destination.put(chunkHeap, chunkHeapOffset + local, count);
+				} else if (chunkSegment != null) {
+					MemorySegment.copy(chunkSegment, local, MemorySegment.ofBuffer(destination), 0, count);
+					destination.position(destination.position() + count);
+				} else {
+					for (int i = 0; i < count; i++) {
+						destination.put(chunkFallback.getByte(local + i));
+					}
+				}
+				index += count;
+				length -= count;
+			}
+		}
+
+		@Override
+		public String readString(int index, int length, Charset charset) {
+			if (length == 0) {
+				return "";
+			}
+			int local = select(index);
+			if (chunkHeap != null && index + length <= chunkEnd) {
+				return new String(chunkHeap, chunkHeapOffset + local, length, charset);
+			}
+			byte[] scratch = ensureStringScratch(length);
+			copyToArray(index, scratch, 0, length);
+			return new String(scratch, 0, length, charset);
+		}
+	}
+
 	private byte[] ensureStringScratch(int length) {
 		if (stringScratch.length < length) {
 			int grown = Math.max(length, Math.max(32, stringScratch.length << 1));
@@ -100,7 +100,7 @@ public class BufDataOutput implements SafeDataOutput {
 		dOut.write(b);
 	}
 
-	private void checkOutOfBounds(int delta) {
+	private void checkOutOfBounds(long delta) {
 		if (dOut.size() + delta > limit) {
 			throw new IndexOutOfBoundsException(limit);
 		}
@@ -174,6 +174,55 @@ public class BufDataOutput implements SafeDataOutput {
 		dOut.writeDouble(v);
 	}
 
+	@Override
+	public void writeBooleans(boolean[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		checkOutOfBounds((long) length * Byte.BYTES);
+		dOut.writeBooleans(values, offset, length);
+	}
+
+	@Override
+	public void writeShorts(short[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		checkOutOfBounds((long) length * Short.BYTES);
+		dOut.writeShorts(values, offset, length);
+	}
+
+	@Override
+	public void writeChars(char[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		checkOutOfBounds((long) length * Character.BYTES);
+		dOut.writeChars(values, offset, length);
+	}
+
+	@Override
+	public void writeInts(int[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		checkOutOfBounds((long) length * Integer.BYTES);
+		dOut.writeInts(values, offset, length);
+	}
+
+	@Override
+	public void writeLongs(long[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		checkOutOfBounds((long) length * Long.BYTES);
+		dOut.writeLongs(values, offset, length);
+	}
+
+	@Override
+	public void writeFloats(float[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		checkOutOfBounds((long) length * Float.BYTES);
+		dOut.writeFloats(values, offset, length);
+	}
+
+	@Override
+	public void writeDoubles(double[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		checkOutOfBounds((long) length * Double.BYTES);
+		dOut.writeDoubles(values, offset, length);
+	}
+
 	public void ensureWritable(int size) {
 		dOut.flush();
 		buf.ensureWritable(size);
@@ -197,7 +246,7 @@ public class BufDataOutput implements SafeDataOutput {
 
 	@Override
 	public void writeChars(@NotNull String s) {
-		checkOutOfBounds(Character.BYTES * s.length());
+		checkOutOfBounds((long) Character.BYTES * s.length());
 		dOut.writeChars(s);
 	}
 
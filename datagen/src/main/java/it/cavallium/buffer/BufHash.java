@@ -0,0 +1,307 @@
+package it.cavallium.buffer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+/**
+ * XXH64 hashing and CRC32C checksums of buffer regions in place.
+ *
+ * <p>Heap arrays and native segments are read through the same unaligned little-endian 8-byte
+ * segment loads, so a region hashes to the same value whatever its storage, slicing, or chunking, and
+ * across JVM runs. Values match the reference XXH64 algorithm for the same seed. Composites are hashed
+ * chunk by chunk with a {@link Streaming} state; only buffers exposing neither storage are read one byte
+ * at a time.</p>
+ *
+ * <p>This is a fast non-cryptographic hash for deduplication and sharding. It must not be used where an
+ * adversary could choose colliding inputs.</p>
+ */
+public final class BufHash {
+
+	public static final long DEFAULT_SEED = 0L;
+
+	private static final ValueLayout.OfLong LONG_LE =
+			ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+	private static final ValueLayout.OfInt INT_LE =
+			ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+	private static final long PRIME64_1 = 0x9E3779B185EBCA87L;
+	private static final long PRIME64_2 = 0xC2B2AE3D27D4EB4FL;
+	private static final long PRIME64_3 = 0x165667B19E3779F9L;
+	private static final long PRIME64_4 = 0x85EBCA77C2B2AE63L;
+	private static final long PRIME64_5 = 0x27D4EB2F165667C5L;
+	private static final int STRIPE_BYTES = 32;
+
+	private BufHash() {}
+
+	/** Hashes {@code length} bytes of {@code buf} starting at {@code from}. */
+	public static long hash64(Buf buf, int from, int length, long seed) {
+		Objects.checkFromIndexSize(from, length, buf.size());
+		byte[] heap = buf.getBackingByteArrayStrict();
+		if (heap != null) {
+			return hash64(MemorySegment.ofArray(heap), (long) buf.getBackingByteArrayOffset() + from, length, seed);
+		}
+		MemorySegment segment = buf.asMemorySegmentStrict();
+		if (segment != null) {
+			return hash64(segment, from, length, seed);
+		}
+		return new Streaming(seed).update(buf, from, length).getValue();
+	}
+
+	public static long hash64(byte[] bytes, int offset, int length, long seed) {
+		Objects.checkFromIndexSize(offset, length, bytes.length);
+		return hash64(MemorySegment.ofArray(bytes), offset, length, seed);
+	}
+
+	/**
+	 * Returns the CRC32C of {@code length} bytes of {@code buf} starting at {@code from}. Checksummed
+	 * record frames feed the same checksum their header fields and then their body.
+	 */
+	public static int crc32c(Buf buf, int from, int length) {
+		var crc = new CRC32C();
+		updateChecksum(crc, buf, from, length);
+		return (int) crc.getValue();
+	}
+
+	/**
+	 * Feeds {@code length} bytes of {@code buf} starting at {@code from} to {@code checksum} in place.
+	 * Heap arrays are passed as arrays and native segments as direct byte buffers, which the intrinsified
+	 * {@link CRC32C} reads without copying; composites are fed chunk by chunk.
+	 */
+	public static void updateChecksum(Checksum checksum, Buf buf, int from, int length) {
+		Objects.checkFromIndexSize(from, length, buf.size());
+		if (buf instanceof CompositeBuf composite) {
+			if (length == 0) {
+				return;
+			}
+			int chunk = composite.chunkIndexOf(from);
+			int done = 0;
+			while (done < length) {
+				Buf part = composite.chunk(chunk);
+				int local = from + done - composite.chunkOffset(chunk);
+				int count = Math.min(length - done, part.size() - local);
+				updateChecksum(checksum, part, local, count);
+				done += count;
+				chunk++;
+			}
+			return;
+		}
+		byte[] heap = buf.getBackingByteArrayStrict();
+		if (heap != null) {
+			checksum.update(heap, buf.getBackingByteArrayOffset() + from, length);
+			return;
+		}
+		MemorySegment segment = buf.asMemorySegmentStrict();
+		if (segment != null) {
+			checksum.update(segment.asSlice(from, length).asByteBuffer());
+			return;
+		}
+		for (int i = 0; i < length; i++) {
+			checksum.update(buf.getByte(from + i));
+		}
+	}
+
+	/** Hashes {@code length} bytes of {@code segment} starting at {@code offset}. */
+	public static long hash64(MemorySegment segment, long offset, long length, long seed) {
+		Objects.checkFromIndexSize(offset, length, segment.byteSize());
+		long position = offset;
+		long end = offset + length;
+		long hash;
+		if (length >= STRIPE_BYTES) {
+			long v1 = seed + PRIME64_1 + PRIME64_2;
+			long v2 = seed + PRIME64_2;
+			long v3 = seed;
+			long v4 = seed - PRIME64_1;
+			long stripeEnd = end - STRIPE_BYTES;
+			do {
+				v1 = round(v1, segment.get(LONG_LE, position));
+				v2 = round(v2, segment.get(LONG_LE, position + 8));
+				v3 = round(v3, segment.get(LONG_LE, position + 16));
+				v4 = round(v4, segment.get(LONG_LE, position + 24));
+				position += STRIPE_BYTES;
+			} while (position <= stripeEnd);
+			hash = converge(v1, v2, v3, v4);
+		} else {
+			hash = seed + PRIME64_5;
+		}
+		return finish(hash + length, segment, position, end);
+	}
+
+	/** Hashes the tail after the last full stripe and applies the final avalanche. */
+	private static long finish(long hash, MemorySegment segment, long position, long end) {
+		while (position + Long.BYTES <= end) {
+			hash ^= round(0, segment.get(LONG_LE, position));
+			hash = Long.rotateLeft(hash, 27) * PRIME64_1 + PRIME64_4;
+			position += Long.BYTES;
+		}
+		if (position + Integer.BYTES <= end) {
+			hash ^= (segment.get(INT_LE, position) & 0xFFFFFFFFL) * PRIME64_1;
+			hash = Long.rotateLeft(hash, 23) * PRIME64_2 + PRIME64_3;
+			position += Integer.BYTES;
+		}
+		while (position < end) {
+			hash ^= (segment.get(ValueLayout.JAVA_BYTE, position) & 0xFFL) * PRIME64_5;
+			hash = Long.rotateLeft(hash, 11) * PRIME64_1;
+			position++;
+		}
+		hash ^= hash >>> 33;
+		hash *= PRIME64_2;
+		hash ^= hash >>> 29;
+		hash *= PRIME64_3;
+		hash ^= hash >>> 32;
+		return hash;
+	}
+
+	private static long round(long accumulator, long input) {
+		accumulator += input * PRIME64_2;
+		accumulator = Long.rotateLeft(accumulator, 31);
+		return accumulator * PRIME64_1;
+	}
+
+	private static long mergeRound(long hash, long accumulator) {
+		hash ^= round(0, accumulator);
+		return hash * PRIME64_1 + PRIME64_4;
+	}
+
+	private static long converge(long v1, long v2, long v3, long v4) {
+		long hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12)
+				+ Long.rotateLeft(v4, 18);
+		hash = mergeRound(hash, v1);
+		hash = mergeRound(hash, v2);
+		hash = mergeRound(hash, v3);
+		return mergeRound(hash, v4);
+	}
+
+	/**
+	 * Incremental XXH64 state. Feeding the same bytes in any split yields the value of the one-shot
+	 * {@link BufHash#hash64} methods. Instances are not thread-safe and may be reused after
+	 * {@link #reset()}.
+	 */
+	public static final class Streaming {
+
+		private final long seed;
+		private final byte[] pending = new byte[STRIPE_BYTES];
+		private final MemorySegment pendingSegment = MemorySegment.ofArray(pending);
+		private int pendingLength;
+		private long totalLength;
+		private long v1;
+		private long v2;
+		private long v3;
+		private long v4;
+
+		public Streaming() {
+			this(DEFAULT_SEED);
+		}
+
+		public Streaming(long seed) {
+			this.seed = seed;
+			reset();
+		}
+
+		public Streaming reset() {
+			v1 = seed + PRIME64_1 + PRIME64_2;
+			v2 = seed + PRIME64_2;
+			v3 = seed;
+			v4 = seed - PRIME64_1;
+			pendingLength = 0;
+			totalLength = 0;
+			return this;
+		}
+
+		public Streaming update(int b) {
+			pending[pendingLength++] = (byte) b;
+			totalLength++;
+			if (pendingLength == STRIPE_BYTES) {
+				stripe(pendingSegment, 0);
+				pendingLength = 0;
+			}
+			return this;
+		}
+
+		public Streaming update(byte[] bytes, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, bytes.length);
+			return update(MemorySegment.ofArray(bytes), offset, length);
+		}
+
+		public Streaming update(Buf buf) {
+			return update(buf, 0, buf.size());
+		}
+
+		public Streaming update(Buf buf, int from, int length) {
+			Objects.checkFromIndexSize(from, length, buf.size());
+			if (buf instanceof CompositeBuf composite) {
+				if (length == 0) {
+					return this;
+				}
+				int chunk = composite.chunkIndexOf(from);
+				int done = 0;
+				while (done < length) {
+					Buf part = composite.chunk(chunk);
+					int local = from + done - composite.chunkOffset(chunk);
+					int count = Math.min(length - done, part.size() - local);
+					update(part, local, count);
+					done += count;
+					chunk++;
+				}
+				return this;
+			}
+			byte[] heap = buf.getBackingByteArrayStrict();
+			if (heap != null) {
+				return update(MemorySegment.ofArray(heap), (long) buf.getBackingByteArrayOffset() + from, length);
+			}
+			MemorySegment segment = buf.asMemorySegmentStrict();
+			if (segment != null) {
+				return update(segment, from, length);
+			}
+			for (int i = 0; i < length; i++) {
+				update(buf.getByte(from + i));
+			}
+			return this;
+		}
+
+		public Streaming update(MemorySegment segment, long offset, long length) {
+			Objects.checkFromIndexSize(offset, length, segment.byteSize());
+			totalLength += length;
+			if (pendingLength + length < STRIPE_BYTES) {
+				MemorySegment.copy(segment, offset, pendingSegment, pendingLength, length);
+				pendingLength += (int) length;
+				return this;
+			}
+			long end = offset + length;
+			if (pendingLength > 0) {
+				int fill = STRIPE_BYTES - pendingLength;
+				MemorySegment.copy(segment, offset, pendingSegment, pendingLength, fill);
+				stripe(pendingSegment, 0);
+				offset += fill;
+				pendingLength = 0;
+			}
+			while (offset + STRIPE_BYTES <= end) {
+				stripe(segment, offset);
+				offset += STRIPE_BYTES;
+			}
+			pendingLength = (int) (end - offset);
+			MemorySegment.copy(segment, offset, pendingSegment, 0, pendingLength);
+			return this;
+		}
+
+		/** Returns the hash of every byte fed since creation or the last {@link #reset()}. */
+		public long getValue() {
+			long hash = totalLength >= STRIPE_BYTES ? converge(v1, v2, v3, v4) : seed + PRIME64_5;
+			return finish(hash + totalLength, pendingSegment, 0, pendingLength);
+		}
+
+		public long totalLength() {
+			return totalLength;
+		}
+
+		private void stripe(MemorySegment segment, long offset) {
+			v1 = round(v1, segment.get(LONG_LE, offset));
+			v2 = round(v2, segment.get(LONG_LE, offset + 8));
+			v3 = round(v3, segment.get(LONG_LE, offset + 16));
+			v4 = round(v4, segment.get(LONG_LE, offset + 24));
+		}
+	}
+}
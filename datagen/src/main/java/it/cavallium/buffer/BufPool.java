@@ -0,0 +1,230 @@
+package it.cavallium.buffer;
+
+import it.unimi.dsi.fastutil.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Size-classed pool of heap staging arrays for serialization outputs.
+ *
+ * <p>Arrays are grouped in power-of-two size classes between {@code minClassBytes} and
+ * {@code maxClassBytes}. Each {@link Lane} is thread-confined and keeps its own unsynchronized free
+ * lists, so the common acquire/release pair touches no shared state. When a lane's list for a class is
+ * full, released arrays spill into a bounded shared tier that any lane refills from. Requests larger
+ * than the biggest class are allocated exactly and never retained, and arrays that fit nowhere are left
+ * to the garbage collector, so the pool never holds more than
+ * {@code (lanes * laneArraysPerClass + sharedArraysPerClass)} arrays per class.</p>
+ *
+ * <p>Acquired arrays have unspecified contents.</p>
+ */
+public final class BufPool {
+
+	public static final int DEFAULT_MIN_CLASS_BYTES = 256;
+	public static final int DEFAULT_MAX_CLASS_BYTES = 1 << 20;
+	public static final int DEFAULT_LANE_ARRAYS_PER_CLASS = 8;
+	public static final int DEFAULT_SHARED_ARRAYS_PER_CLASS = 32;
+
+	private final int minShift;
+	private final int maxShift;
+	private final int laneArraysPerClass;
+	private final int sharedArraysPerClass;
+	/** Shared tier, {@code sharedArraysPerClass} slots per class laid out class after class. */
+	private final AtomicReferenceArray<byte[]> shared;
+
+	public BufPool() {
+		this(DEFAULT_MIN_CLASS_BYTES, DEFAULT_MAX_CLASS_BYTES, DEFAULT_LANE_ARRAYS_PER_CLASS,
+				DEFAULT_SHARED_ARRAYS_PER_CLASS);
+	}
+
+	/**
+	 * @param minClassBytes smallest pooled array length, a power of two
+	 * @param maxClassBytes largest pooled array length, a power of two not below {@code minClassBytes}
+	 * @param laneArraysPerClass arrays each lane retains per class
+	 * @param sharedArraysPerClass arrays the shared tier retains per class
+	 */
+	public BufPool(int minClassBytes, int maxClassBytes, int laneArraysPerClass, int sharedArraysPerClass) {
+		if (minClassBytes <= 0 || Integer.bitCount(minClassBytes) != 1) {
+			throw new IllegalArgumentException("minClassBytes must be a positive power of two: " + minClassBytes);
+		}
+		if (maxClassBytes < minClassBytes || Integer.bitCount(maxClassBytes) != 1) {
+			throw new IllegalArgumentException("maxClassBytes must be a power of two not below "
+					+ minClassBytes + ": " + maxClassBytes);
+		}
+		if (laneArraysPerClass < 0 || sharedArraysPerClass < 0) {
+			throw new IllegalArgumentException("Per-class capacities must be non-negative");
+		}
+		this.minShift = Integer.numberOfTrailingZeros(minClassBytes);
+		this.maxShift = Integer.numberOfTrailingZeros(maxClassBytes);
+		this.laneArraysPerClass = laneArraysPerClass;
+		this.sharedArraysPerClass = sharedArraysPerClass;
+		this.shared = new AtomicReferenceArray<>(Math.multiplyExact(classCount(), sharedArraysPerClass));
+	}
+
+	/** Returns a new thread-confined lane drawing on this pool. */
+	public Lane newLane() {
+		return new Lane();
+	}
+
+	public int minClassBytes() {
+		return 1 << minShift;
+	}
+
+	public int maxClassBytes() {
+		return 1 << maxShift;
+	}
+
+	/** Returns the number of arrays currently parked in the shared tier. */
+	public int sharedArrays() {
+		int count = 0;
+		for (int i = 0; i < shared.length(); i++) {
+			if (shared.getPlain(i) != null) count++;
+		}
+		return count;
+	}
+
+	private int classCount() {
+		return maxShift - minShift + 1;
+	}
+
+	/** Returns the class an acquire of {@code minCapacity} bytes is served from, or -1 if unpooled. */
+	private int acquireClass(int minCapacity) {
+		if (minCapacity > 1 << maxShift) return -1;
+		if (minCapacity <= 1 << minShift) return 0;
+		return 32 - Integer.numberOfLeadingZeros(minCapacity - 1) - minShift;
+	}
+
+	/** Returns the class a released array of {@code length} bytes belongs to, or -1 if it is not kept. */
+	private int releaseClass(int length) {
+		if (length < 1 << minShift || length > 1 << maxShift) return -1;
+		return 31 - Integer.numberOfLeadingZeros(length) - minShift;
+	}
+
+	private byte[] pollShared(int sizeClass) {
+		int from = sizeClass * sharedArraysPerClass;
+		for (int i = from, to = from + sharedArraysPerClass; i < to; i++) {
+			if (shared.getPlain(i) != null) {
+				byte[] array = shared.getAndSet(i, null);
+				if (array != null) return array;
+			}
+		}
+		return null;
+	}
+
+	private void offerShared(int sizeClass, byte[] array) {
+		int from = sizeClass * sharedArraysPerClass;
+		for (int i = from, to = from + sharedArraysPerClass; i < to; i++) {
+			if (shared.getPlain(i) == null && shared.compareAndSet(i, null, array)) return;
+		}
+	}
+
+	/**
+	 * Thread-confined view of a {@link BufPool}. A lane must be used by one thread at a time; arrays
+	 * may be released to a different lane than the one they were acquired from.
+	 */
+	public final class Lane {
+
+		private final byte[][][] free = new byte[classCount()][][];
+		private final int[] counts = new int[classCount()];
+
+		private Lane() {
+		}
+
+		public BufPool pool() {
+			return BufPool.this;
+		}
+
+		/** Returns an array of at least {@code minCapacity} bytes with unspecified contents. */
+		public byte[] acquire(int minCapacity) {
+			if (minCapacity < 0) {
+				throw new IllegalArgumentException("Negative capacity: " + minCapacity);
+			}
+			int sizeClass = acquireClass(minCapacity);
+			if (sizeClass < 0) {
+				return new byte[minCapacity];
+			}
+			int count = counts[sizeClass];
+			if (count > 0) {
+				byte[][] list = free[sizeClass];
+				counts[sizeClass] = --count;
+				byte[] array = list[count];
+				list[count] = null;
+				return array;
+			}
+			byte[] array = pollShared(sizeClass);
+			return array != null ? array : new byte[1 << (sizeClass + minShift)];
+		}
+
+		/**
+		 * Returns {@code array} to the pool. The caller must not touch the array afterwards. Arrays
+		 * outside the pooled classes are dropped.
+		 */
+		public void release(byte[] array) {
+			int sizeClass = releaseClass(array.length);
+			if (sizeClass < 0) return;
+			int count = counts[sizeClass];
+			if (count < laneArraysPerClass) {
+				byte[][] list = free[sizeClass];
+				if (list == null) {
+					list = free[sizeClass] = new byte[laneArraysPerClass][];
+				}
+				list[count] = array;
+				counts[sizeClass] = count + 1;
+			} else {
+				offerShared(sizeClass, array);
+			}
+		}
+
+		/** Moves every array retained by this lane to the shared tier, for example before the lane is dropped. */
+		public void drain() {
+			for (int sizeClass = 0; sizeClass < counts.length; sizeClass++) {
+				byte[][] list = free[sizeClass];
+				for (int i = counts[sizeClass] - 1; i >= 0; i--) {
+					offerShared(sizeClass, list[i]);
+					list[i] = null;
+				}
+				counts[sizeClass] = 0;
+			}
+		}
+
+		/** Returns a growable output whose storage comes from, and returns to, this lane. */
+		public PooledBufDataOutput newOutput() {
+			return newOutput(minClassBytes());
+		}
+
+		/** Returns a growable output with at least {@code hint} bytes of pooled storage. */
+		public PooledBufDataOutput newOutput(int hint) {
+			return new PooledBufDataOutput(this, Math.max(hint, 0), Integer.MAX_VALUE);
+		}
+
+		/** Returns an output limited to {@code maxSize} bytes, like {@link BufDataOutput#createLimited(int, int)}. */
+		public PooledBufDataOutput newLimitedOutput(int maxSize, int hint) {
+			if (maxSize < 0 || maxSize == Integer.MAX_VALUE) {
+				return newOutput(hint);
+			}
+			return new PooledBufDataOutput(this, hint >= 0 ? Math.min(maxSize, hint) : maxSize, maxSize);
+		}
+
+		/**
+		 * Returns an append-only output made of pooled chunks of {@link ChunkedBufDataOutput#DEFAULT_CHUNK_BYTES},
+		 * clamped to this pool's size classes.
+		 */
+		public ChunkedBufDataOutput newChunkedOutput() {
+			int chunkSize = Math.clamp(ChunkedBufDataOutput.DEFAULT_CHUNK_BYTES, minClassBytes(), maxClassBytes());
+			return newChunkedOutput(Math.max(chunkSize, ChunkedBufDataOutput.MIN_WINDOW_BYTES));
+		}
+
+		/** Returns an append-only output made of pooled chunks of at least {@code chunkSize} bytes. */
+		public ChunkedBufDataOutput newChunkedOutput(int chunkSize) {
+			return new ChunkedBufDataOutput(this, chunkSize);
+		}
+
+		/** Returns the array {@code array} should grow into, releasing the old one. */
+		byte[] grow(byte[] array, int minCapacity, int preserveLength) {
+			if (minCapacity <= array.length) return array;
+			int doubled = (int) Math.min((long) array.length << 1, Arrays.MAX_ARRAY_SIZE);
+			byte[] grown = acquire(Math.max(minCapacity, doubled));
+			System.arraycopy(array, 0, grown, 0, preserveLength);
+			release(array);
+			return grown;
+		}
+	}
+}
@@ -0,0 +1,53 @@
+package it.cavallium.buffer;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * Big-endian bulk primitive puts shared by every {@link Buf} storage kind.
+ *
+ * <p>Heap arrays and native segments, sliced or whole, receive one
+ * {@link MemorySegment#copy(Object, int, MemorySegment, ValueLayout, long, int)} per call, which swaps
+ * bytes on little-endian hosts. Other buffers report no direct storage and are written value by value
+ * by the caller, after the whole destination range has been validated here.</p>
+ */
+final class BufPrimitives {
+
+	static final ValueLayout.OfShort SHORT_BE = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	static final ValueLayout.OfChar CHAR_BE = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	static final ValueLayout.OfInt INT_BE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	static final ValueLayout.OfLong LONG_BE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	static final ValueLayout.OfFloat FLOAT_BE = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	static final ValueLayout.OfDouble DOUBLE_BE =
+			ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+	private BufPrimitives() {}
+
+	/**
+	 * Validates that {@code length} values of {@code layout} fit in {@code buf} at byte offset
+	 * {@code index}, then copies them from {@code values} if the buffer exposes heap or native storage.
+	 *
+	 * @return {@code false} if nothing was copied and the caller must write the values one by one
+	 * @throws UnsupportedOperationException if {@code buf} is immutable
+	 */
+	static boolean putDirect(Buf buf, int index, Object values, int offset, int length, ValueLayout layout) {
+		if (!buf.isMutable()) {
+			throw new UnsupportedOperationException("The buffer is immutable");
+		}
+		Objects.checkFromIndexSize(index, length * layout.byteSize(), buf.size());
+		byte[] heap = buf.getBackingByteArrayStrict();
+		if (heap != null) {
+			MemorySegment.copy(values, offset, MemorySegment.ofArray(heap), layout,
+					(long) buf.getBackingByteArrayOffset() + index, length);
+			return true;
+		}
+		MemorySegment segment = buf.asMemorySegmentStrict();
+		if (segment != null) {
+			MemorySegment.copy(values, offset, segment, layout, index, length);
+			return true;
+		}
+		return false;
+	}
+}
@@ -3,6 +3,7 @@ package it.cavallium.buffer;
 import static java.util.Objects.checkFromIndexSize;
 import static java.util.Objects.checkFromToIndex;
 
+import it.cavallium.datagen.nativedata.Int52;
 import it.cavallium.stream.SafeByteArrayInputStream;
 import it.cavallium.stream.SafeByteArrayOutputStream;
 import it.cavallium.stream.SafeDataOutput;
@@ -22,7 +23,10 @@ import it.unimi.dsi.fastutil.bytes.ByteUnaryOperator;
 
 import java.io.Serial;
 import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.Collection;
@@ -45,6 +49,13 @@ class ByteListBuf extends ByteArrayList implements Buf {
     private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
     private static final String IMMUTABLE_ERROR = "The buffer is immutable";
     private static final VariableLengthLexiconographicComparator VAR_LENGTH_LEX_COMP = new VariableLengthLexiconographicComparator();
+    private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle CHAR_BE = MethodHandles.byteArrayViewVarHandle(char[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle FLOAT_BE = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle DOUBLE_BE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
 
     private boolean immutable;
 
@@ -265,7 +276,7 @@ class ByteListBuf extends ByteArrayList implements Buf {
     public boolean equals(int aStartIndex, Buf b, int bStartIndex, int length) {
         if (!isValidRange(aStartIndex, length, size())
                 || !isValidRange(bStartIndex, length, b.size())) return false;
-        return b.equals(bStartIndex, this.a, aStartIndex, length);
+        return BufComparison.mismatch(this, aStartIndex, b, bStartIndex, length) < 0;
     }
 
     @Override
@@ -290,6 +301,69 @@ class ByteListBuf extends ByteArrayList implements Buf {
         return new String(a, i, length, charset);
     }
 
+    @Override
+    public void setChar(int i, char val) {
+        ensureMutable();
+        checkFromIndexSize(i, Character.BYTES, size);
+        CHAR_BE.set(a, i, val);
+    }
+
+    @Override
+    public void setShort(int i, short val) {
+        ensureMutable();
+        checkFromIndexSize(i, Short.BYTES, size);
+        SHORT_BE.set(a, i, val);
+    }
+
+    @Override
+    public void setInt(int i, int val) {
+        ensureMutable();
+        checkFromIndexSize(i, Integer.BYTES, size);
+        INT_BE.set(a, i, val);
+    }
+
+    @Override
+    public void setIntLE(int i, int val) {
+        ensureMutable();
+        checkFromIndexSize(i, Integer.BYTES, size);
+        INT_LE.set(a, i, val);
+    }
+
+    @Override
+    public void setLong(int i, long val) {
+        ensureMutable();
+        checkFromIndexSize(i, Long.BYTES, size);
+        LONG_BE.set(a, i, val);
+    }
+
+    @Override
+    public void setInt52(int i, long val) {
+        Int52.checkValidity(val);
+        ensureMutable();
+        checkFromIndexSize(i, 7, size);
+        putInt52(a, i, val);
+    }
+
+    @Override
+    public void setFloat(int i, float val) {
+        ensureMutable();
+        checkFromIndexSize(i, Float.BYTES, size);
+        FLOAT_BE.set(a, i, val);
+    }
+
+    @Override
+    public void setDouble(int i, double val) {
+        ensureMutable();
+        checkFromIndexSize(i, Double.BYTES, size);
+        DOUBLE_BE.set(a, i, val);
+    }
+
+    private static void putInt52(byte[] array, int index, long val) {
+        array[index] = (byte) (val >> 48);
+        SHORT_BE.set(array, index + 1, (short) (val >> 32));
+        INT_BE.set(array, index + 3, (int) val);
+    }
+
     class SubList extends AbstractByteList.ByteRandomAccessSubList implements Buf {
         @Serial
         private static final long serialVersionUID = -3185226345314976296L;
@@ -367,7 +441,7 @@ class ByteListBuf extends ByteArrayList implements Buf {
         public boolean equals(int aStartIndex, Buf b, int bStartIndex, int length) {
             if (!isValidRange(aStartIndex, length, size())
                     || !isValidRange(bStartIndex, length, b.size())) return false;
-            return b.equals(bStartIndex, a, aStartIndex + from, length);
+            return BufComparison.mismatch(this, aStartIndex, b, bStartIndex, length) < 0;
         }
 
         @Override
@@ -608,14 +682,7 @@ class ByteListBuf extends ByteArrayList implements Buf {
                 return contentsCompareTo(other.getParentArray(), other.from, other.to);
             }
             if (l instanceof Buf other) {
-                int sizeComparison = Integer.compare(size(), other.size());
-                if (sizeComparison != 0) return sizeComparison;
-                for (int index = 0; index < size(); index++) {
-                    int comparison = Integer.compare(Byte.toUnsignedInt(getByte(index)),
-                            Byte.toUnsignedInt(other.getByte(index)));
-                    if (comparison != 0) return comparison;
-                }
-                return 0;
+                return BufComparison.compareLengthFirst(this, 0, size(), other, 0, other.size());
             }
             return super.compareTo(l);
         }
@@ -635,6 +702,63 @@ class ByteListBuf extends ByteArrayList implements Buf {
             checkFromIndexSize(i, length, to - from);
             return new String(a, from + i, length, charset);
         }
+
+        @Override
+        public void setChar(int i, char val) {
+            ensureMutable();
+            checkFromIndexSize(i, Character.BYTES, to - from);
+            CHAR_BE.set(a, from + i, val);
+        }
+
+        @Override
+        public void setShort(int i, short val) {
+            ensureMutable();
+            checkFromIndexSize(i, Short.BYTES, to - from);
+            SHORT_BE.set(a, from + i, val);
+        }
+
+        @Override
+        public void setInt(int i, int val) {
+            ensureMutable();
+            checkFromIndexSize(i, Integer.BYTES, to - from);
+            INT_BE.set(a, from + i, val);
+        }
+
+        @Override
+        public void setIntLE(int i, int val) {
+            ensureMutable();
+            checkFromIndexSize(i, Integer.BYTES, to - from);
+            INT_LE.set(a, from + i, val);
+        }
+
+        @Override
+        public void setLong(int i, long val) {
+            ensureMutable();
+            checkFromIndexSize(i, Long.BYTES, to - from);
+            LONG_BE.set(a, from + i, val);
+        }
+
+        @Override
+        public void setInt52(int i, long val) {
+            Int52.checkValidity(val);
+            ensureMutable();
+            checkFromIndexSize(i, 7, to - from);
+            putInt52(a, from + i, val);
+        }
+
+        @Override
+        public void setFloat(int i, float val) {
+            ensureMutable();
+            checkFromIndexSize(i, Float.BYTES, to - from);
+            FLOAT_BE.set(a, from + i, val);
+        }
+
+        @Override
+        public void setDouble(int i, double val) {
+            ensureMutable();
+            checkFromIndexSize(i, Double.BYTES, to - from);
+            DOUBLE_BE.set(a, from + i, val);
+        }
     }
 
     private static void copyIntoArray(Buf source, int sourceOffset, byte[] target, int targetOffset, int length) {
@@ -1002,14 +1126,7 @@ class ByteListBuf extends ByteArrayList implements Buf {
             return -((SubList) l).compareTo(this);
         }
         if (l instanceof Buf other) {
-            int sizeComparison = Integer.compare(size(), other.size());
-            if (sizeComparison != 0) return sizeComparison;
-            for (int index = 0; index < size(); index++) {
-                int comparison = Integer.compare(Byte.toUnsignedInt(getByte(index)),
-                        Byte.toUnsignedInt(other.getByte(index)));
-                if (comparison != 0) return comparison;
-            }
-            return 0;
+            return BufComparison.compareLengthFirst(this, 0, size(), other, 0, other.size());
         }
         return super.compareTo(l);
     }
@@ -0,0 +1,188 @@
+package it.cavallium.buffer;
+
+import it.cavallium.stream.WindowedSafeDataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Append-only {@link WindowedSafeDataOutput} whose windows are fixed-size chunks borrowed from a
+ * {@link BufPool.Lane}, instead of one array that is regrown and copied.
+ *
+ * <p>A full chunk is never copied or resized, so the cost of writing is linear in the output size and
+ * serializing a large snapshot performs no large-array copies. The tail of a chunk that the next
+ * primitive did not fit in is not part of the output.</p>
+ *
+ * <p>{@link #flushTo(GatheringByteChannel)} hands every chunk to the channel in gathering writes and
+ * recycles them, and {@link #asList()} views the buffered bytes as a {@link CompositeBuf} without copying.
+ * That view is only valid until the next flush, {@link #reset()} or {@link #release()}. Writing after
+ * release throws {@link IllegalStateException}. Instances are thread-confined, like their lane.</p>
+ */
+public final class ChunkedBufDataOutput extends WindowedSafeDataOutput {
+
+	/** Chunk size used by {@link BufPool.Lane#newChunkedOutput()}, clamped to the pool's classes. */
+	public static final int DEFAULT_CHUNK_BYTES = 1 << 16;
+
+	/** Current chunk of a released output: every write finds it full and fails in {@link #flushWindow()}. */
+	private static final byte[] RELEASED = new byte[0];
+
+	private BufPool.Lane lane;
+	private final int chunkSize;
+	private byte[][] chunks = new byte[8][];
+	/** Written length of each chunk before the current one. */
+	private int[] lengths = new int[8];
+	private int chunkCount;
+	/** Bytes held by the chunks before the current one. */
+	private long completedBytes;
+
+	ChunkedBufDataOutput(BufPool.Lane lane, int chunkSize) {
+		super(lane.acquire(checkChunkSize(chunkSize)));
+		this.lane = lane;
+		this.chunkSize = chunkSize;
+		this.chunks[0] = window;
+		this.chunkCount = 1;
+	}
+
+	/** Returns the number of buffered bytes, which may exceed the size of a single {@link Buf}. */
+	public long size() {
+		return completedBytes + pos;
+	}
+
+	public int chunkCount() {
+		return chunkCount;
+	}
+
+	public boolean isReleased() {
+		return lane == null;
+	}
+
+	/**
+	 * Writes every buffered byte to {@code channel} with gathering writes, then recycles the drained
+	 * chunks and empties this output, which stays usable. The channel must be in blocking mode. If it
+	 * throws, the buffered bytes are kept, although some of them may already have reached the channel.
+	 *
+	 * @return the number of bytes written
+	 */
+	public long flushTo(GatheringByteChannel channel) throws IOException {
+		Objects.requireNonNull(channel, "channel");
+		ensureNotReleased();
+		long total = size();
+		ByteBuffer[] buffers = new ByteBuffer[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			buffers[i] = ByteBuffer.wrap(chunks[i], 0, chunkLength(i));
+		}
+		long written = 0;
+		int first = 0;
+		while (written < total) {
+			written += channel.write(buffers, first, chunkCount - first);
+			while (first < chunkCount && !buffers[first].hasRemaining()) {
+				first++;
+			}
+		}
+		reset();
+		return total;
+	}
+
+	/**
+	 * Returns the buffered bytes as a read-only composite of chunk views, without copying. The view is
+	 * valid until the next flush, {@link #reset()} or {@link #release()}.
+	 *
+	 * @throws IllegalArgumentException if more than {@link Integer#MAX_VALUE} bytes are buffered
+	 */
+	public CompositeBuf asList() {
+		ensureNotReleased();
+		Buf[] views = new Buf[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			views[i] = Buf.wrap(chunks[i], chunkLength(i)).freeze();
+		}
+		return CompositeBuf.of(views);
+	}
+
+	/**
+	 * Returns a heap copy of the buffered bytes that outlives this output.
+	 *
+	 * @throws IllegalArgumentException if more than {@link Integer#MAX_VALUE} bytes are buffered
+	 */
+	public Buf toList() {
+		ensureNotReleased();
+		long total = size();
+		if (total > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Output too large for Buf: " + total);
+		}
+		byte[] copy = new byte[(int) total];
+		int offset = 0;
+		for (int i = 0; i < chunkCount; i++) {
+			int length = chunkLength(i);
+			System.arraycopy(chunks[i], 0, copy, offset, length);
+			offset += length;
+		}
+		return Buf.wrap(copy);
+	}
+
+	/** Discards the buffered bytes, keeping the current chunk and recycling the others. */
+	public void reset() {
+		ensureNotReleased();
+		for (int i = 0; i < chunkCount - 1; i++) {
+			lane.release(chunks[i]);
+			chunks[i] = null;
+		}
+		chunks[chunkCount - 1] = null;
+		chunks[0] = window;
+		chunkCount = 1;
+		pos = 0;
+		completedBytes = 0;
+	}
+
+	/** Returns every chunk to the lane. Idempotent. */
+	public void release() {
+		if (lane == null) return;
+		for (int i = 0; i < chunkCount; i++) {
+			lane.release(chunks[i]);
+			chunks[i] = null;
+		}
+		chunkCount = 0;
+		window = RELEASED;
+		pos = 0;
+		completedBytes = 0;
+		lane = null;
+	}
+
+	@Override
+	public void close() {
+		release();
+	}
+
+	private int chunkLength(int index) {
+		return index == chunkCount - 1 ? pos : lengths[index];
+	}
+
+	/** Starts the next chunk. */
+	@Override
+	protected void flushWindow() {
+		ensureNotReleased();
+		if (chunkCount == chunks.length) {
+			chunks = Arrays.copyOf(chunks, chunkCount << 1);
+			lengths = Arrays.copyOf(lengths, chunkCount << 1);
+		}
+		lengths[chunkCount - 1] = pos;
+		completedBytes += pos;
+		window = lane.acquire(chunkSize);
+		chunks[chunkCount++] = window;
+		pos = 0;
+	}
+
+	private static int checkChunkSize(int chunkSize) {
+		if (chunkSize < MIN_WINDOW_BYTES) {
+			throw new IllegalArgumentException("Chunk size must be at least " + MIN_WINDOW_BYTES + ": " + chunkSize);
+		}
+		return chunkSize;
+	}
+
+	private void ensureNotReleased() {
+		if (lane == null) {
+			throw new IllegalStateException("Output already released");
+		}
+	}
+}
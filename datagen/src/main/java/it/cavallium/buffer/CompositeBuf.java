@@ -0,0 +1,364 @@
+package it.cavallium.buffer;
+
+import it.cavallium.stream.SafeByteArrayInputStream;
+import it.cavallium.stream.SafeByteArrayOutputStream;
+import it.cavallium.stream.SafeDataOutput;
+import it.unimi.dsi.fastutil.bytes.AbstractByteList;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Read-only {@link Buf} presenting several heap or native chunks as one logical buffer without
+ * copying them.
+ *
+ * <p>Accesses that fall inside one chunk are delegated to that chunk's own storage; only values that
+ * straddle a chunk boundary are assembled byte by byte. Cursors bound to a composite read it through a
+ * chunk-aware storage strategy that keeps the heap and memory-segment kernels within each chunk.
+ * Like {@link MemorySegmentBuf}, a composite does not own its chunks: they must stay alive and
+ * unmodified while it is in use.</p>
+ */
+public final class CompositeBuf extends AbstractByteList implements Buf {
+
+	private static final CompositeBuf EMPTY = new CompositeBuf(new Buf[0], new int[] {0});
+
+	private final Buf[] chunks;
+	/** Start of each chunk, followed by the total size. */
+	private final int[] offsets;
+
+	private CompositeBuf(Buf[] chunks, int[] offsets) {
+		this.chunks = chunks;
+		this.offsets = offsets;
+	}
+
+	public static CompositeBuf of(Buf... chunks) {
+		return of(Arrays.asList(chunks));
+	}
+
+	/** Returns a composite of {@code chunks} in order. Nested composites are flattened and empty chunks dropped. */
+	public static CompositeBuf of(List<? extends Buf> chunks) {
+		var flat = new ArrayList<Buf>(chunks.size());
+		for (Buf chunk : chunks) {
+			Objects.requireNonNull(chunk, "chunk");
+			if (chunk instanceof CompositeBuf composite) {
+				flat.addAll(Arrays.asList(composite.chunks));
+			} else if (!chunk.isEmpty()) {
+				flat.add(chunk);
+			}
+		}
+		if (flat.isEmpty()) {
+			return EMPTY;
+		}
+		int[] offsets = new int[flat.size() + 1];
+		long total = 0;
+		for (int i = 0; i < flat.size(); i++) {
+			offsets[i] = (int) total;
+			total += flat.get(i).size();
+			if (total > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Composite too large for Buf: " + total);
+			}
+		}
+		offsets[flat.size()] = (int) total;
+		return new CompositeBuf(flat.toArray(Buf[]::new), offsets);
+	}
+
+	public int chunkCount() {
+		return chunks.length;
+	}
+
+	public Buf chunk(int chunkIndex) {
+		return chunks[chunkIndex];
+	}
+
+	/** Returns the logical offset of the first byte of {@code chunkIndex}. */
+	public int chunkOffset(int chunkIndex) {
+		Objects.checkIndex(chunkIndex, chunks.length);
+		return offsets[chunkIndex];
+	}
+
+	/** Returns the index of the chunk holding the byte at logical offset {@code index}. */
+	public int chunkIndexOf(int index) {
+		Objects.checkIndex(index, size());
+		int found = Arrays.binarySearch(offsets, 0, chunks.length, index);
+		return found >= 0 ? found : -found - 2;
+	}
+
+	@Override
+	public int size() {
+		return offsets[chunks.length];
+	}
+
+	@Override
+	public byte getByte(int index) {
+		int chunk = chunkIndexOf(index);
+		return chunks[chunk].getByte(index - offsets[chunk]);
+	}
+
+	@Override
+	public short getShort(int i) {
+		int chunk = chunkIndexOf(i);
+		if (i + Short.BYTES <= offsets[chunk + 1]) return chunks[chunk].getShort(i - offsets[chunk]);
+		return Buf.super.getShort(i);
+	}
+
+	@Override
+	public char getChar(int i) {
+		int chunk = chunkIndexOf(i);
+		if (i + Character.BYTES <= offsets[chunk + 1]) return chunks[chunk].getChar(i - offsets[chunk]);
+		return Buf.super.getChar(i);
+	}
+
+	@Override
+	public int getInt(int i) {
+		int chunk = chunkIndexOf(i);
+		if (i + Integer.BYTES <= offsets[chunk + 1]) return chunks[chunk].getInt(i - offsets[chunk]);
+		return Buf.super.getInt(i);
+	}
+
+	@Override
+	public long getLong(int i) {
+		int chunk = chunkIndexOf(i);
+		if (i + Long.BYTES <= offsets[chunk + 1]) return chunks[chunk].getLong(i - offsets[chunk]);
+		return Buf.super.getLong(i);
+	}
+
+	/** Copies {@code length} bytes starting at logical offset {@code index} into {@code destination}. */
+	public void getBytes(int index, byte[] destination, int offset, int length) {
+		Objects.checkFromIndexSize(index, length, size());
+		Objects.checkFromIndexSize(offset, length, destination.length);
+		if (length == 0) {
+			return;
+		}
+		int chunk = chunkIndexOf(index);
+		while (length > 0) {
+			int local = index - offsets[chunk];
+			int count = Math.min(length, offsets[chunk + 1] - index);
+			copyChunk(chunks[chunk], local, destination, offset, count);
+			index += count;
+			offset += count;
+			length -= count;
+			chunk++;
+		}
+	}
+
+	static void copyChunk(Buf chunk, int local, byte[] destination, int offset, int count) {
+		byte[] heap = chunk.getBackingByteArrayStrict();
+		if (heap != null) {
+			System.arraycopy(heap, chunk.getBackingByteArrayOffset() + local, destination, offset, count);
+			return;
+		}
+		MemorySegment segment = chunk.asMemorySegmentStrict();
+		if (segment != null) {
+			MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, local, destination, offset, count);
+			return;
+		}
+		for (int i = 0; i < count; i++) {
+			destination[offset + i] = chunk.getByte(local + i);
+		}
+	}
+
+	@Override
+	public byte @NotNull [] asArray() {
+		byte[] result = new byte[size()];
+		getBytes(0, result, 0, result.length);
+		return result;
+	}
+
+	@Override
+	public byte @Nullable [] asArrayStrict() {
+		return null;
+	}
+
+	@Override
+	public byte[] asUnboundedArray() {
+		return asArray();
+	}
+
+	@Override
+	public byte @Nullable [] asUnboundedArrayStrict() {
+		return null;
+	}
+
+	/** Returns a heap buffer over a flattened copy, since the chunks do not share one array. */
+	@Override
+	public ByteBuffer asHeapByteBuffer() {
+		return ByteBuffer.wrap(asArray());
+	}
+
+	@Override
+	public @Nullable MemorySegment asMemorySegmentStrict() {
+		return null;
+	}
+
+	/**
+	 * Returns a flattened copy of the chunks at offset 0. The composite is read-only, so the copy only
+	 * serves reads; {@link #getBackingByteArrayStrict()} still reports that there is no backing array.
+	 */
+	@Override
+	public byte[] getBackingByteArray() {
+		return asArray();
+	}
+
+	@Override
+	public byte @Nullable [] getBackingByteArrayStrict() {
+		return null;
+	}
+
+	@Override
+	public int getBackingByteArrayOffset() {
+		return 0;
+	}
+
+	@Override
+	public int getBackingByteArrayLength() {
+		return size();
+	}
+
+	@Override
+	public int getBackingByteArrayFrom() {
+		return 0;
+	}
+
+	@Override
+	public int getBackingByteArrayTo() {
+		return size();
+	}
+
+	@Override
+	public boolean isMutable() {
+		return false;
+	}
+
+	@Override
+	public Buf freeze() {
+		return this;
+	}
+
+	@Override
+	public Buf subList(int from, int to) {
+		if (from == 0 && to == size()) {
+			return this;
+		}
+		return subListForced(from, to);
+	}
+
+	/** Returns a zero-copy view: the chunk's own slice when the range lies in one chunk, else a composite. */
+	@Override
+	public Buf subListForced(int from, int to) {
+		Objects.checkFromToIndex(from, to, size());
+		if (from == to) {
+			return EMPTY;
+		}
+		int first = chunkIndexOf(from);
+		int last = chunkIndexOf(to - 1);
+		if (first == last) {
+			return chunks[first].subList(from - offsets[first], to - offsets[first]);
+		}
+		var slices = new ArrayList<Buf>(last - first + 1);
+		slices.add(chunks[first].subList(from - offsets[first], chunks[first].size()));
+		for (int chunk = first + 1; chunk < last; chunk++) {
+			slices.add(chunks[chunk]);
+		}
+		slices.add(chunks[last].subList(0, to - offsets[last]));
+		return of(slices);
+	}
+
+	@Override
+	public Buf copyOfRange(int from, int to) {
+		Objects.checkFromToIndex(from, to, size());
+		byte[] copy = new byte[to - from];
+		getBytes(from, copy, 0, copy.length);
+		return ByteListBuf.wrap(copy);
+	}
+
+	@Override
+	public Buf copy() {
+		return ByteListBuf.wrap(asArray());
+	}
+
+	@Override
+	public void setBytesFromBuf(int offset, Buf source, int sourceOffset, int length) {
+		throw new UnsupportedOperationException("The buffer is immutable");
+	}
+
+	@Override
+	public SafeByteArrayInputStream binaryInputStream() {
+		return new SafeByteArrayInputStream(asArray());
+	}
+
+	@Override
+	public void writeTo(SafeDataOutput dataOutput) {
+		for (Buf chunk : chunks) {
+			chunk.writeTo(dataOutput);
+		}
+	}
+
+	@Override
+	public SafeByteArrayOutputStream binaryOutputStream(int from, int to) {
+		throw new UnsupportedOperationException("The buffer is immutable");
+	}
+
+	@Override
+	public boolean equals(int aStartIndex, Buf b, int bStartIndex, int length) {
+		if (!isValidRange(aStartIndex, length, size()) || !isValidRange(bStartIndex, length, b.size())) return false;
+		return BufComparison.mismatch(this, aStartIndex, b, bStartIndex, length) < 0;
+	}
+
+	@Override
+	public boolean equals(int aStartIndex, byte[] b, int bStartIndex, int length) {
+		if (!isValidRange(aStartIndex, length, size()) || !isValidRange(bStartIndex, length, b.length)) return false;
+		if (length == 0) {
+			return true;
+		}
+		int chunk = chunkIndexOf(aStartIndex);
+		while (length > 0) {
+			int count = Math.min(length, offsets[chunk + 1] - aStartIndex);
+			if (!chunks[chunk].equals(aStartIndex - offsets[chunk], b, bStartIndex, count)) {
+				return false;
+			}
+			aStartIndex += count;
+			bStartIndex += count;
+			length -= count;
+			chunk++;
+		}
+		return true;
+	}
+
+	@Override
+	public int compareTo(List<? extends Byte> l) {
+		if (l instanceof Buf other) {
+			return BufComparison.compareLengthFirst(this, 0, size(), other, 0, other.size());
+		}
+		return super.compareTo(l);
+	}
+
+	private static boolean isValidRange(int offset, int length, int size) {
+		return offset >= 0 && length >= 0 && (long) offset + length <= size;
+	}
+
+	@Override
+	public String getString(int i, int length, Charset charset) {
+		if (length == 0) {
+			return "";
+		}
+		int chunk = chunkIndexOf(i);
+		if (i + length <= offsets[chunk + 1]) {
+			return chunks[chunk].getString(i - offsets[chunk], length, charset);
+		}
+		byte[] bytes = new byte[length];
+		getBytes(i, bytes, 0, length);
+		return new String(bytes, charset);
+	}
+
+	@Override
+	public String toString(Charset charset) {
+		return getString(0, size(), charset);
+	}
+}
@@ -3,7 +3,10 @@ package it.cavallium.buffer;
 import it.cavallium.datagen.DecodeBudget;
 import it.cavallium.datagen.DecodeLimits;
 
-/** Reusable cursor specialized for a {@link Buf} that exposes neither heap nor segment storage. */
+/**
+ * Reusable cursor specialized for a {@link Buf} that exposes neither heap nor segment storage. A
+ * {@link CompositeBuf} is read through the chunk-aware composite strategy instead of per-byte calls.
+ */
 public final class FallbackBufDataCursor extends BufDataCursor {
 
 	private FallbackBufDataCursor() {
@@ -32,12 +35,16 @@ public final class FallbackBufDataCursor extends BufDataCursor {
 	}
 
 	void bindKnown(Buf source, int offset, int length) {
-		bindFallbackSource(source, offset, length);
+		if (source instanceof CompositeBuf composite) {
+			bindCompositeSource(composite, offset, length);
+		} else {
+			bindFallbackSource(source, offset, length);
+		}
 		markBound();
 	}
 
 	@Override
 	protected StorageAccess storageAccess() {
-		return fallbackStorageAccess();
+		return isCompositeStorage() ? compositeStorageAccess() : fallbackStorageAccess();
 	}
 }
@@ -0,0 +1,279 @@
+package it.cavallium.buffer;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Memory-mapped file exposed as {@link MemorySegmentBuf} views, with readahead driven by a sequential
+ * reader's progress.
+ *
+ * <p>The whole file is mapped once in a shared {@link Arena}, so files larger than 2 GB are supported:
+ * {@link #slice(long, int)} returns a view of any region, and {@link #segment()} can be bound directly by
+ * {@link MemorySegmentBufDataCursor#bind(MemorySegment, long, int)}. Views do not extend the mapping's
+ * lifetime; accessing one after {@link #close()} fails with {@link IllegalStateException}.</p>
+ *
+ * <p>A {@link Readahead} runs a background worker that {@linkplain MemorySegment#load() loads} windows
+ * ahead of the position reported by the reader, so that a cold scan does not stall on page faults, and
+ * lets the reader {@linkplain MemorySegment#unload() unload} windows it has already passed, without
+ * ever loading the entire file.</p>
+ */
+public final class MappedFileBuf implements AutoCloseable {
+
+	public static final int DEFAULT_WINDOW_BYTES = 4 << 20;
+	public static final int DEFAULT_WINDOWS_AHEAD = 4;
+
+	private final Arena arena;
+	private final MemorySegment segment;
+	private final boolean writable;
+	private Readahead readahead;
+	private boolean closed;
+
+	private MappedFileBuf(Arena arena, MemorySegment segment, boolean writable) {
+		this.arena = arena;
+		this.segment = segment;
+		this.writable = writable;
+	}
+
+	/** Maps the whole of an existing file read-only. */
+	public static MappedFileBuf openReadOnly(Path file) throws IOException {
+		try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return map(channel, MapMode.READ_ONLY, channel.size());
+		}
+	}
+
+	/** Maps the whole of an existing file for reading and writing. */
+	public static MappedFileBuf openReadWrite(Path file) throws IOException {
+		try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			return map(channel, MapMode.READ_WRITE, channel.size());
+		}
+	}
+
+	/** Maps {@code size} bytes of a file for reading and writing, creating or extending it if needed. */
+	public static MappedFileBuf openReadWrite(Path file, long size) throws IOException {
+		if (size < 0) {
+			throw new IllegalArgumentException("Negative size: " + size);
+		}
+		try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			return map(channel, MapMode.READ_WRITE, size);
+		}
+	}
+
+	private static MappedFileBuf map(FileChannel channel, MapMode mode, long size) throws IOException {
+		Arena arena = Arena.ofShared();
+		try {
+			return new MappedFileBuf(arena, channel.map(mode, 0, size, arena), mode == MapMode.READ_WRITE);
+		} catch (IOException | RuntimeException e) {
+			arena.close();
+			throw e;
+		}
+	}
+
+	public long byteSize() {
+		return segment.byteSize();
+	}
+
+	public boolean isWritable() {
+		return writable;
+	}
+
+	/** Returns the whole mapping, which may be larger than a single {@link Buf}. */
+	public MemorySegment segment() {
+		return segment;
+	}
+
+	/**
+	 * Returns the whole file as one buffer.
+	 *
+	 * @throws IllegalArgumentException if the file is larger than {@link Integer#MAX_VALUE} bytes
+	 */
+	public MemorySegmentBuf asBuf() {
+		return new MemorySegmentBuf(segment);
+	}
+
+	/** Returns a view of {@code length} bytes starting at a long {@code offset} of the file. */
+	public MemorySegmentBuf slice(long offset, int length) {
+		Objects.checkFromIndexSize(offset, length, segment.byteSize());
+		return new MemorySegmentBuf(segment.asSlice(offset, length));
+	}
+
+	/** Writes modified pages back to the file. Does nothing for read-only mappings. */
+	public void force() {
+		if (writable) {
+			segment.force();
+		}
+	}
+
+	/** Starts a readahead with {@link #DEFAULT_WINDOW_BYTES} windows, {@link #DEFAULT_WINDOWS_AHEAD} ahead. */
+	public Readahead startReadahead() {
+		return startReadahead(DEFAULT_WINDOW_BYTES, DEFAULT_WINDOWS_AHEAD);
+	}
+
+	/**
+	 * Starts a background worker that keeps up to {@code windowsAhead} windows of {@code windowBytes}
+	 * loaded ahead of the position passed to {@link Readahead#advanceTo(long)}.
+	 *
+	 * @throws IllegalStateException if a readahead is already running or the file was closed
+	 */
+	public synchronized Readahead startReadahead(int windowBytes, int windowsAhead) {
+		if (windowBytes <= 0) {
+			throw new IllegalArgumentException("windowBytes must be positive: " + windowBytes);
+		}
+		if (windowsAhead <= 0) {
+			throw new IllegalArgumentException("windowsAhead must be positive: " + windowsAhead);
+		}
+		if (closed) {
+			throw new IllegalStateException("Mapped file already closed");
+		}
+		if (readahead != null && !readahead.stopped) {
+			throw new IllegalStateException("Readahead already started");
+		}
+		readahead = new Readahead(windowBytes, windowsAhead);
+		readahead.worker.start();
+		return readahead;
+	}
+
+	/** Stops the readahead, if any, and unmaps the file. Idempotent. */
+	@Override
+	public void close() {
+		Readahead running;
+		synchronized (this) {
+			if (closed) return;
+			closed = true;
+			running = readahead;
+		}
+		if (running != null) {
+			running.close();
+		}
+		arena.close();
+	}
+
+	/**
+	 * Readahead over the mapped file, driven by one sequential reader.
+	 *
+	 * <p>{@link #advanceTo(long)} and {@link #releaseBefore(long)} are called by the reader, typically
+	 * with the file offset of the record it is about to decode; only the loading happens on the worker.
+	 * A failure of the worker is rethrown by the next {@link #advanceTo(long)}.</p>
+	 */
+	public final class Readahead implements AutoCloseable {
+
+		private final int windowBytes;
+		private final long aheadBytes;
+		private final Thread worker;
+		/** Last position reported by the reader. */
+		private long target;
+		/** End of the region the worker has loaded. */
+		private volatile long loadedUpTo;
+		/** End of the region the reader has released. Reader-confined. */
+		private long releasedUpTo;
+		private volatile RuntimeException failure;
+		private volatile boolean stopped;
+
+		private Readahead(int windowBytes, int windowsAhead) {
+			this.windowBytes = windowBytes;
+			this.aheadBytes = (long) windowBytes * windowsAhead;
+			this.worker = new Thread(this::run, "mapped-file-readahead");
+			this.worker.setDaemon(true);
+		}
+
+		/**
+		 * Reports that the reader reached {@code position}, so that the windows after it get loaded.
+		 * Positions before the last reported one are ignored.
+		 */
+		public void advanceTo(long position) {
+			Objects.checkIndex(position, segment.byteSize() + 1);
+			RuntimeException workerFailure = failure;
+			if (workerFailure != null) {
+				throw new IllegalStateException("Readahead failed", workerFailure);
+			}
+			synchronized (this) {
+				if (stopped) {
+					throw new IllegalStateException("Readahead already stopped");
+				}
+				if (position > target) {
+					target = position;
+					notifyAll();
+				}
+			}
+		}
+
+		/**
+		 * Unloads the whole windows that end at or before {@code position}, which the reader will not
+		 * revisit. Modified pages of a writable mapping are written back first.
+		 */
+		public void releaseBefore(long position) {
+			Objects.checkIndex(position, segment.byteSize() + 1);
+			long end = position == segment.byteSize() ? position : alignDown(position);
+			if (end <= releasedUpTo) return;
+			MemorySegment passed = segment.asSlice(releasedUpTo, end - releasedUpTo);
+			if (writable) {
+				passed.force();
+			}
+			passed.unload();
+			releasedUpTo = end;
+		}
+
+		/** Returns the end of the region the worker has loaded so far. */
+		public long loadedUpTo() {
+			return loadedUpTo;
+		}
+
+		/** Stops the worker and waits for it to finish. The loaded pages stay resident. Idempotent. */
+		@Override
+		public void close() {
+			synchronized (this) {
+				stopped = true;
+				notifyAll();
+			}
+			boolean interrupted = false;
+			while (worker.isAlive()) {
+				try {
+					worker.join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		private void run() {
+			try {
+				while (true) {
+					long from;
+					long to;
+					synchronized (this) {
+						while (!stopped && goal() <= Math.max(loadedUpTo, alignDown(target))) {
+							wait();
+						}
+						if (stopped) return;
+						from = Math.max(loadedUpTo, alignDown(target));
+						// One window at a time, so that a new target or close() is noticed quickly.
+						to = Math.min(alignDown(from) + windowBytes, goal());
+					}
+					segment.asSlice(from, to - from).load();
+					loadedUpTo = to;
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (RuntimeException e) {
+				failure = e;
+			}
+		}
+
+		private long goal() {
+			return Math.min(segment.byteSize(), target + aheadBytes);
+		}
+
+		private long alignDown(long position) {
+			return position - position % windowBytes;
+		}
+	}
+}
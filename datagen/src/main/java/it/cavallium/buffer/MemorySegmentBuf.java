@@ -1,5 +1,6 @@
 package it.cavallium.buffer;
 
+import it.cavallium.datagen.nativedata.Int52;
 import it.cavallium.stream.SafeByteArrayInputStream;
 import it.cavallium.stream.SafeByteArrayOutputStream;
 import it.cavallium.stream.SafeDataOutput;
@@ -20,7 +21,8 @@ import org.jetbrains.annotations.Nullable;
  * <p>
  * This class does not own or extend the lifetime of the segment. The caller
  * remains responsible for keeping its scope alive for every access, including
- * access through slices, byte buffers, and frozen views.
+ * access through slices, byte buffers, and frozen views. Use {@link OffHeapBufArena}
+ * for reference-counted off-heap buffers that manage their own lifetime.
  */
 public class MemorySegmentBuf extends AbstractByteList implements Buf {
 
@@ -29,6 +31,7 @@ public class MemorySegmentBuf extends AbstractByteList implements Buf {
 
 	// --- Layouts for Big-Endian (Buf Contract) ---
 	private static final ValueLayout.OfShort SHORT_BE = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfChar CHAR_BE = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
 	private static final ValueLayout.OfInt INT_BE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
 	private static final ValueLayout.OfLong LONG_BE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
 	private static final ValueLayout.OfFloat FLOAT_BE = ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
@@ -196,6 +199,60 @@ public class MemorySegmentBuf extends AbstractByteList implements Buf {
 		return previous;
 	}
 
+	// --- Optimized Primitive Setters (the segment is exactly size bytes, so FFM checks bounds) ---
+
+	@Override
+	public void setChar(int i, char val) {
+		ensureMutable();
+		segment.set(CHAR_BE, i, val);
+	}
+
+	@Override
+	public void setShort(int i, short val) {
+		ensureMutable();
+		segment.set(SHORT_BE, i, val);
+	}
+
+	@Override
+	public void setInt(int i, int val) {
+		ensureMutable();
+		segment.set(INT_BE, i, val);
+	}
+
+	@Override
+	public void setIntLE(int i, int val) {
+		ensureMutable();
+		segment.set(INT_LE, i, val);
+	}
+
+	@Override
+	public void setLong(int i, long val) {
+		ensureMutable();
+		segment.set(LONG_BE, i, val);
+	}
+
+	@Override
+	public void setInt52(int i, long val) {
+		Int52.checkValidity(val);
+		ensureMutable();
+		Objects.checkFromIndexSize(i, 7, size);
+		segment.set(ValueLayout.JAVA_BYTE, i, (byte) (val >> 48));
+		segment.set(SHORT_BE, i + 1, (short) (val >> 32));
+		segment.set(INT_BE, i + 3, (int) val);
+	}
+
+	@Override
+	public void setFloat(int i, float val) {
+		ensureMutable();
+		segment.set(FLOAT_BE, i, val);
+	}
+
+	@Override
+	public void setDouble(int i, double val) {
+		ensureMutable();
+		segment.set(DOUBLE_BE, i, val);
+	}
+
 	// --- Slicing & Copying ---
 
 	@Override
@@ -314,20 +371,7 @@ public class MemorySegmentBuf extends AbstractByteList implements Buf {
 			return true;
 		}
 
-		MemorySegment otherSegment = b.asMemorySegmentStrict();
-		if (otherSegment != null) {
-			long mismatch = segment.asSlice(aStartIndex, length)
-					.mismatch(otherSegment.asSlice(bStartIndex, length));
-			return mismatch == -1;
-		}
-
-		// Fallback: Manual Loop (Fix for AbstractByteList compilation error)
-		for (int i = 0; i < length; i++) {
-			if (segment.get(ValueLayout.JAVA_BYTE, aStartIndex + i) != b.getByte(bStartIndex + i)) {
-				return false;
-			}
-		}
-		return true;
+		return BufComparison.mismatch(this, aStartIndex, b, bStartIndex, length) < 0;
 	}
 
 	@Override
@@ -339,10 +383,7 @@ public class MemorySegmentBuf extends AbstractByteList implements Buf {
 		}
 
 		// Vectorized comparison
-		long mismatch = segment
-				.asSlice(aStartIndex, length)
-				.mismatch(MemorySegment.ofArray(b).asSlice(bStartIndex, length));
-		return mismatch == -1;
+		return BufComparison.mismatch(this, aStartIndex, b, bStartIndex, length) < 0;
 	}
 
 	private static boolean isValidRange(int offset, int length, int size) {
@@ -366,7 +407,8 @@ public class MemorySegmentBuf extends AbstractByteList implements Buf {
 	}
 
 	/**
-	 * Vectorized {@code compareTo}. Finds the first differing byte using SIMD, then compares that specific byte.
+	 * Vectorized {@code compareTo}. Finds the first differing byte with a segment mismatch against any
+	 * storage kind, then compares that specific byte.
 	 */
 	@Override
 	public int compareTo(List<? extends Byte> l) {
@@ -375,31 +417,7 @@ public class MemorySegmentBuf extends AbstractByteList implements Buf {
 		}
 
 		if (l instanceof Buf other) {
-			int sizeComparison = Integer.compare(this.size, other.size());
-			if (sizeComparison != 0) return sizeComparison;
-
-			if (!(other instanceof MemorySegmentBuf memorySegmentBuf)) {
-				for (int index = 0; index < size; index++) {
-					int comparison = Integer.compare(Byte.toUnsignedInt(getByte(index)),
-							Byte.toUnsignedInt(other.getByte(index)));
-					if (comparison != 0) return comparison;
-				}
-				return 0;
-			}
-
-			long len = size;
-			long mismatch = this.segment.mismatch(memorySegmentBuf.segment);
-
-			if (mismatch == -1) {
-				return 0;
-			}
-
-			if (mismatch < len) {
-				int a = Byte.toUnsignedInt(this.getByte((int) mismatch));
-				int b = Byte.toUnsignedInt(memorySegmentBuf.getByte((int) mismatch));
-				return Integer.compare(a, b);
-			}
-			return 0;
+			return BufComparison.compareLengthFirst(this, 0, size, other, 0, other.size());
 		}
 
 		return super.compareTo(l);
@@ -36,6 +36,16 @@ public final class MemorySegmentBufDataCursor extends BufDataCursor {
 		bindKnown(source, segment, offset, length);
 	}
 
+	/**
+	 * Binds {@code length} bytes of {@code segment} starting at a long {@code offset}, for example one
+	 * record of a mapped file larger than 2 GB. The segment is not sliced, and offsets inside the bound
+	 * region stay relative to {@code offset}.
+	 */
+	public void bind(MemorySegment segment, long offset, int length) {
+		bindSegmentRegion(segment, offset, length);
+		markBound();
+	}
+
 	void bindKnown(Buf source, MemorySegment segment, int offset, int length) {
 		bindSegmentSource(source, segment, offset, length);
 		markBound();
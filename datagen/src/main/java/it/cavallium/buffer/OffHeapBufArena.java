@@ -0,0 +1,238 @@
+package it.cavallium.buffer;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Allocator of reference-counted off-heap {@link ArenaBuf}s.
+ *
+ * <p>Small buffers are carved out of slabs, each backed by its own {@link Arena}. A slab is freed as
+ * soon as it is no longer the current allocation target and every buffer carved from it was released,
+ * so memory is reclaimed without waiting for the whole allocator to close. Buffers larger than half a
+ * slab get a dedicated slab. {@link #close()} frees every remaining slab; views still referencing them
+ * then fail with {@link IllegalStateException} on access.</p>
+ *
+ * <p>A shared allocator may be used, and its buffers released, from any thread. A confined allocator
+ * and its buffers belong to the creating thread.</p>
+ *
+ * <p>In leak-detection mode, intended for tests, every buffer gets a dedicated slab so that access after
+ * release fails immediately, allocation sites are recorded, and {@link #close()} throws if any buffer
+ * was never released.</p>
+ */
+public final class OffHeapBufArena implements AutoCloseable {
+
+	public static final int DEFAULT_SLAB_BYTES = 1 << 20;
+	private static final long ALIGNMENT = Long.BYTES;
+	private static final int MAX_REPORTED_LEAKS = 8;
+
+	private final boolean shared;
+	private final int slabBytes;
+	private final boolean leakDetection;
+	private final Set<Slab> openSlabs = ConcurrentHashMap.newKeySet();
+	private final Set<Allocation> trackedAllocations;
+	private final AtomicInteger liveBuffers = new AtomicInteger();
+	private Slab currentSlab;
+	private boolean closed;
+
+	private OffHeapBufArena(boolean shared, int slabBytes, boolean leakDetection) {
+		if (slabBytes <= 0) {
+			throw new IllegalArgumentException("slabBytes must be positive: " + slabBytes);
+		}
+		this.shared = shared;
+		this.slabBytes = slabBytes;
+		this.leakDetection = leakDetection;
+		this.trackedAllocations = leakDetection ? ConcurrentHashMap.newKeySet() : null;
+	}
+
+	public static OffHeapBufArena ofShared() {
+		return new OffHeapBufArena(true, DEFAULT_SLAB_BYTES, false);
+	}
+
+	public static OffHeapBufArena ofShared(int slabBytes, boolean leakDetection) {
+		return new OffHeapBufArena(true, slabBytes, leakDetection);
+	}
+
+	public static OffHeapBufArena ofConfined() {
+		return new OffHeapBufArena(false, DEFAULT_SLAB_BYTES, false);
+	}
+
+	public static OffHeapBufArena ofConfined(int slabBytes, boolean leakDetection) {
+		return new OffHeapBufArena(false, slabBytes, leakDetection);
+	}
+
+	/** Returns a zeroed buffer of {@code size} bytes with a count of one. */
+	public synchronized ArenaBuf allocate(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Negative size: " + size);
+		}
+		if (closed) {
+			throw new IllegalStateException("Arena already closed");
+		}
+		MemorySegment segment;
+		Slab slab;
+		if (leakDetection || size > slabBytes >>> 1) {
+			slab = openSlab(Math.max(size, 1));
+			segment = slab.segment.asSlice(0, size);
+			// The dedicated slab is not an allocation target: its only reference is this buffer.
+			slab.live.set(1);
+		} else {
+			slab = currentSlab;
+			long offset = slab == null ? -1 : alignUp(slab.used);
+			if (slab == null || offset + size > slab.segment.byteSize()) {
+				if (slab != null) slab.releaseOne();
+				slab = currentSlab = openSlab(slabBytes);
+				// One reference for being the allocation target, dropped when the slab is retired.
+				slab.live.set(1);
+				offset = 0;
+			}
+			segment = slab.segment.asSlice(offset, size);
+			slab.used = offset + size;
+			slab.live.incrementAndGet();
+		}
+		var allocation = new Allocation(slab, leakDetection ? new Throwable("Allocated here") : null);
+		liveBuffers.incrementAndGet();
+		if (trackedAllocations != null) trackedAllocations.add(allocation);
+		return new ArenaBuf(segment, allocation);
+	}
+
+	/** Returns an off-heap copy of {@code source} with a count of one. */
+	public ArenaBuf copyOf(Buf source) {
+		ArenaBuf copy = allocate(source.size());
+		copy.setBytesFromBuf(0, source, 0, source.size());
+		return copy;
+	}
+
+	/** Returns the number of buffers that were allocated and not yet released. */
+	public int liveBuffers() {
+		return liveBuffers.get();
+	}
+
+	public boolean isShared() {
+		return shared;
+	}
+
+	/**
+	 * Frees every slab. In leak-detection mode, throws {@link IllegalStateException} afterwards if any
+	 * buffer was never released, with the recorded allocation sites as suppressed exceptions.
+	 */
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) return;
+			closed = true;
+			currentSlab = null;
+		}
+		for (Slab slab : new ArrayList<>(openSlabs)) {
+			slab.close();
+		}
+		int leaked = liveBuffers.get();
+		if (leakDetection && leaked > 0) {
+			var failure = new IllegalStateException(leaked + " off-heap buffers were never released");
+			List<Allocation> leaks = new ArrayList<>(trackedAllocations);
+			for (int i = 0; i < Math.min(leaks.size(), MAX_REPORTED_LEAKS); i++) {
+				failure.addSuppressed(leaks.get(i).site);
+			}
+			throw failure;
+		}
+	}
+
+	private Slab openSlab(long bytes) {
+		Arena arena = shared ? Arena.ofShared() : Arena.ofConfined();
+		var slab = new Slab(arena, arena.allocate(bytes, ALIGNMENT));
+		openSlabs.add(slab);
+		return slab;
+	}
+
+	private static long alignUp(long offset) {
+		return (offset + ALIGNMENT - 1) & -ALIGNMENT;
+	}
+
+	private final class Slab {
+
+		private final Arena arena;
+		private final MemorySegment segment;
+		private final AtomicInteger live = new AtomicInteger();
+		private long used;
+		private boolean freed;
+
+		private Slab(Arena arena, MemorySegment segment) {
+			this.arena = arena;
+			this.segment = segment;
+		}
+
+		private void releaseOne() {
+			if (live.decrementAndGet() == 0) {
+				close();
+			}
+		}
+
+		private void close() {
+			synchronized (this) {
+				if (freed) return;
+				freed = true;
+			}
+			openSlabs.remove(this);
+			arena.close();
+		}
+	}
+
+	/** Count shared by a buffer and all of its views. */
+	final class Allocation {
+
+		private static final VarHandle COUNT;
+
+		static {
+			try {
+				COUNT = MethodHandles.lookup().findVarHandle(Allocation.class, "count", int.class);
+			} catch (ReflectiveOperationException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		private final Slab slab;
+		private final Throwable site;
+		@SuppressWarnings("unused")
+		private volatile int count = 1;
+
+		private Allocation(Slab slab, Throwable site) {
+			this.slab = slab;
+			this.site = site;
+		}
+
+		void retain() {
+			int current;
+			do {
+				current = count;
+				if (current <= 0) {
+					throw new IllegalStateException("Buffer already released");
+				}
+			} while (!COUNT.compareAndSet(this, current, current + 1));
+		}
+
+		boolean release() {
+			int current;
+			do {
+				current = count;
+				if (current <= 0) {
+					throw new IllegalStateException("Buffer already released");
+				}
+			} while (!COUNT.compareAndSet(this, current, current - 1));
+			if (current != 1) return false;
+			liveBuffers.decrementAndGet();
+			if (trackedAllocations != null) trackedAllocations.remove(this);
+			slab.releaseOne();
+			return true;
+		}
+
+		int refCount() {
+			return count;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+package it.cavallium.buffer;
+
+import it.cavallium.stream.SafeByteArrayOutputStream;
+
+/**
+ * {@link BufDataOutput} whose staging array is borrowed from a {@link BufPool.Lane}. Growth swaps in a
+ * larger pooled array and recycles the smaller one; {@link #release()} returns the current array.
+ *
+ * <p>{@link #asList()} views the pooled array and is only valid until release. Use {@link #toList()}
+ * for a copy that outlives the output. Writing after release throws {@link IllegalStateException}.</p>
+ */
+public final class PooledBufDataOutput extends BufDataOutput implements AutoCloseable {
+
+	private final PooledByteArrayOutputStream stream;
+
+	PooledBufDataOutput(BufPool.Lane lane, int initialCapacity, int maxSize) {
+		this(new PooledByteArrayOutputStream(lane, lane.acquire(initialCapacity)), maxSize);
+	}
+
+	private PooledBufDataOutput(PooledByteArrayOutputStream stream, int maxSize) {
+		super(stream, maxSize);
+		this.stream = stream;
+	}
+
+	public boolean isReleased() {
+		return stream.lane == null;
+	}
+
+	/** Returns the storage to the lane. Idempotent. */
+	public void release() {
+		if (stream.lane == null) return;
+		resetUnderlyingBuffer();
+		stream.release();
+	}
+
+	@Override
+	public void close() {
+		release();
+	}
+
+	private static final class PooledByteArrayOutputStream extends SafeByteArrayOutputStream {
+
+		private static final byte[] RELEASED = new byte[0];
+
+		private BufPool.Lane lane;
+
+		private PooledByteArrayOutputStream(BufPool.Lane lane, byte[] storage) {
+			super(storage, true);
+			this.lane = lane;
+		}
+
+		@Override
+		protected byte[] grow(byte[] array, int minCapacity, int preserveLength) {
+			if (lane == null) {
+				throw new IllegalStateException("Output already released");
+			}
+			return lane.grow(array, minCapacity, preserveLength);
+		}
+
+		private void release() {
+			byte[] storage = array;
+			array = RELEASED;
+			lane.release(storage);
+			lane = null;
+		}
+	}
+}
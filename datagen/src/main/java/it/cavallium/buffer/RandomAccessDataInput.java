@@ -31,6 +31,19 @@ public interface RandomAccessDataInput extends SafeDataInput {
 	 */
 	int reserve(int byteLength);
 
+	/**
+	 * Returns the XXH64 hash of {@code byteLength} bytes at {@code offset}, hashing the backing storage
+	 * in place without moving the cursor. The value equals {@link Buf#hash64(int, int, long)} over the
+	 * same bytes.
+	 *
+	 * @throws IndexOutOfBoundsException if the span is outside the bound region
+	 */
+	long hash64(int offset, int byteLength, long seed);
+
+	default long hash64(int offset, int byteLength) {
+		return hash64(offset, byteLength, BufHash.DEFAULT_SEED);
+	}
+
 	boolean getBooleanAt(int offset);
 
 	byte getByteAt(int offset);
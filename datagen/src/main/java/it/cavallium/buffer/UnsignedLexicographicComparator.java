@@ -0,0 +1,27 @@
+package it.cavallium.buffer;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Orders byte sequences as unsigned bytes with a proper prefix first, the key order of sorted
+ * key-value stores. {@link VariableLengthLexiconographicComparator} orders shorter sequences first
+ * instead.
+ */
+public class UnsignedLexicographicComparator implements ArraysComparator {
+
+	@Override
+	public int compare(byte[] a, byte[] b) {
+		return Arrays.compareUnsigned(a, b);
+	}
+
+	@Override
+	public int compare(byte[] a, int aFrom, int aTo, byte[] b, int bFrom, int bTo) {
+		return Arrays.compareUnsigned(a, aFrom, aTo, b, bFrom, bTo);
+	}
+
+	@Override
+	public int compare(Buf a, int aFrom, int aTo, Buf b, int bFrom, int bTo) {
+		return a.compareUnsigned(aFrom, aTo, b, bFrom, bTo);
+	}
+}
@@ -17,4 +17,11 @@ public class VariableLengthLexiconographicComparator implements ArraysComparator
 		return (aTo - aFrom) != (bTo - bFrom) ? Integer.compare(aTo - aFrom, bTo - bFrom)
 				: Arrays.compareUnsigned(a, aFrom, aTo, b, bFrom, bTo);
 	}
+
+	@Override
+	public int compare(Buf a, int aFrom, int aTo, Buf b, int bFrom, int bTo) {
+		Objects.checkFromToIndex(aFrom, aTo, a.size());
+		Objects.checkFromToIndex(bFrom, bTo, b.size());
+		return BufComparison.compareLengthFirst(a, aFrom, aTo, b, bFrom, bTo);
+	}
 }
@@ -7,48 +7,68 @@ import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
 import java.nio.charset.*;
 import java.util.ArrayList;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/**
+ * UTF-8 string coder that reuses its encoders, decoders and buffers instead of allocating them per call.
+ *
+ * <p>The scratch state is kept in a small striped pool rather than in thread locals, so its memory is
+ * proportional to the number of stripes (by default twice the available processors) and not to the
+ * number of threads, which matters with virtual threads. A call borrows one scratch for its whole
+ * duration; when every stripe it probes is busy it uses a temporary scratch instead of waiting.</p>
+ */
 public class ZeroAllocationEncoder {
 
     public static final ZeroAllocationEncoder INSTANCE = new ZeroAllocationEncoder(8192);
 
-    private static final ThreadLocal<CharsetEncoder> CHARSET_ENCODER_UTF8 = ThreadLocal.withInitial(() ->
-            StandardCharsets.UTF_8.newEncoder()
-                    .onMalformedInput(CodingErrorAction.REPLACE)
-                    .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    /** Number of stripes probed by a borrow or release before giving up. */
+    private static final int PROBES = 4;
 
-    private static final ThreadLocal<CharsetDecoder> CHARSET_DECODER_UTF8 = ThreadLocal.withInitial(() ->
-            StandardCharsets.UTF_8.newDecoder()
-                    .onMalformedInput(CodingErrorAction.REPLACE)
-                    .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    private final int outBufferSize;
 
-    private final ThreadLocal<ByteBuffer> bufferThreadLocal;
+    private final int byteBufferSize;
 
-    private final ThreadLocal<AtomicReference<CharBuffer>> charBufferRefThreadLocal;
-
-    private final ThreadLocal<AtomicReference<ByteBuffer>> byteBufferRefThreadLocal;
+    private final AtomicReferenceArray<Scratch> stripes;
 
     public ZeroAllocationEncoder(int outBufferSize) {
+        this(outBufferSize, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    /**
+     * @param outBufferSize chars decoded, and encoded per output write, without growing the scratch buffers
+     * @param stripes number of pooled scratch instances; rounded up to a power of two
+     */
+    public ZeroAllocationEncoder(int outBufferSize, int stripes) {
         if (outBufferSize <= 0) {
             throw new IllegalArgumentException("outBufferSize must be positive");
         }
+        if (stripes <= 0 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("stripes must be between 1 and 65536: " + stripes);
+        }
         var maxBytesPerChar = (int) Math.ceil(StandardCharsets.UTF_8.newEncoder().maxBytesPerChar());
-        final int byteBufferSize;
         try {
             byteBufferSize = Math.max(4, Math.multiplyExact(outBufferSize, maxBytesPerChar));
         } catch (ArithmeticException exception) {
             throw new IllegalArgumentException("outBufferSize is too large: " + outBufferSize, exception);
         }
-        bufferThreadLocal = ThreadLocal.withInitial(() -> ByteBuffer.allocate(byteBufferSize));
-        charBufferRefThreadLocal = ThreadLocal.withInitial(() -> new AtomicReference<>(CharBuffer.allocate(outBufferSize)));
-        byteBufferRefThreadLocal = ThreadLocal.withInitial(() -> new AtomicReference<>(ByteBuffer.allocate(byteBufferSize)));
+        this.outBufferSize = outBufferSize;
+        this.stripes = new AtomicReferenceArray<>(stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1);
     }
 
     public void encodeTo(String s, SafeDataOutput bufDataOutput) {
-        var encoder = CHARSET_ENCODER_UTF8.get();
+        int home = home();
+        var scratch = borrow(home);
+        try {
+            encodeTo(s, bufDataOutput, scratch);
+        } finally {
+            release(home, scratch);
+        }
+    }
+
+    private static void encodeTo(String s, SafeDataOutput bufDataOutput, Scratch scratch) {
+        var encoder = scratch.encoder();
         encoder.reset();
-        var buf = bufferThreadLocal.get();
+        var buf = scratch.encodeBuffer();
         var charBuffer = CharBuffer.wrap(s);
         boolean endOfInput = false;
         CoderResult result;
@@ -82,26 +102,22 @@ public class ZeroAllocationEncoder {
     }
 
     public String decodeFrom(SafeDataInput bufDataInput, int bytesLength) {
-        var decoder = CHARSET_DECODER_UTF8.get();
+        int home = home();
+        var scratch = borrow(home);
+        try {
+            return decodeFrom(bufDataInput, bytesLength, scratch);
+        } finally {
+            release(home, scratch);
+        }
+    }
+
+    private static String decodeFrom(SafeDataInput bufDataInput, int bytesLength, Scratch scratch) {
+        var decoder = scratch.decoder();
         decoder.reset();
-        var bufRef = byteBufferRefThreadLocal.get();
-        var charBufRef = charBufferRefThreadLocal.get();
-        var buf = bufRef.get();
-        var charBuf = charBufRef.get();
         assert decoder.maxCharsPerByte() == 1.0f
                 : "UTF8 max chars per byte is 1.0f, but the decoder got a value of " + decoder.maxCharsPerByte();
-        if (charBuf.capacity() < bytesLength) {
-            charBuf = CharBuffer.allocate(bytesLength);
-            charBufRef.set(charBuf);
-        } else {
-            charBuf.clear();
-        }
-        if (buf.capacity() < bytesLength) {
-            buf = ByteBuffer.allocate(bytesLength);
-            bufRef.set(buf);
-        } else {
-            buf.clear();
-        }
+        var charBuf = scratch.decodeChars(bytesLength);
+        var buf = scratch.decodeBuffer(bytesLength);
         CoderResult result;
         do {
             buf.clear();
@@ -129,6 +145,100 @@ public class ZeroAllocationEncoder {
         } while (true);
     }
 
+    /** Returns the number of scratch instances currently parked in the pool. */
+    public int pooledScratch() {
+        int count = 0;
+        for (int i = 0; i < stripes.length(); i++) {
+            if (stripes.get(i) != null) count++;
+        }
+        return count;
+    }
+
+    private int home() {
+        long id = Thread.currentThread().threadId();
+        return (int) (id ^ id >>> 32) * 0x9E3779B9 >>> 16;
+    }
+
+    private Scratch borrow(int home) {
+        int mask = stripes.length() - 1;
+        for (int i = 0; i < PROBES; i++) {
+            var scratch = stripes.getAndSet(home + i & mask, null);
+            if (scratch != null) {
+                return scratch;
+            }
+        }
+        return new Scratch(outBufferSize, byteBufferSize);
+    }
+
+    private void release(int home, Scratch scratch) {
+        int mask = stripes.length() - 1;
+        for (int i = 0; i < PROBES; i++) {
+            if (stripes.compareAndSet(home + i & mask, null, scratch)) {
+                return;
+            }
+        }
+    }
+
+    /** Coders and buffers used by one call at a time; the buffers are allocated on first use. */
+    private static final class Scratch {
+
+        private final int outBufferSize;
+        private final int byteBufferSize;
+        private CharsetEncoder encoder;
+        private CharsetDecoder decoder;
+        private ByteBuffer encodeBuffer;
+        private ByteBuffer decodeBuffer;
+        private CharBuffer decodeChars;
+
+        private Scratch(int outBufferSize, int byteBufferSize) {
+            this.outBufferSize = outBufferSize;
+            this.byteBufferSize = byteBufferSize;
+        }
+
+        private CharsetEncoder encoder() {
+            if (encoder == null) {
+                encoder = StandardCharsets.UTF_8.newEncoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            }
+            return encoder;
+        }
+
+        private CharsetDecoder decoder() {
+            if (decoder == null) {
+                decoder = StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+            }
+            return decoder;
+        }
+
+        private ByteBuffer encodeBuffer() {
+            if (encodeBuffer == null) {
+                encodeBuffer = ByteBuffer.allocate(byteBufferSize);
+            }
+            return encodeBuffer;
+        }
+
+        private ByteBuffer decodeBuffer(int minCapacity) {
+            if (decodeBuffer == null || decodeBuffer.capacity() < minCapacity) {
+                decodeBuffer = ByteBuffer.allocate(Math.max(byteBufferSize, minCapacity));
+            } else {
+                decodeBuffer.clear();
+            }
+            return decodeBuffer;
+        }
+
+        private CharBuffer decodeChars(int minCapacity) {
+            if (decodeChars == null || decodeChars.capacity() < minCapacity) {
+                decodeChars = CharBuffer.allocate(Math.max(outBufferSize, minCapacity));
+            } else {
+                decodeChars.clear();
+            }
+            return decodeChars;
+        }
+    }
+
     private CharBuffer getNextCharBuf(ArrayList<CharBuffer> charBufs, int charBufIndex) {
         if (charBufIndex == 0) return charBufs.getFirst();
         if (charBufIndex >= charBufs.size()) {
@@ -0,0 +1,346 @@
+package it.cavallium.datagen;
+
+import it.cavallium.stream.SafeDataOutput;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Writes a serialized array whose elements are supplied incrementally instead of as one owned array.
+ *
+ * <p>The element count is written when the writer is created, then elements are accepted one at a time,
+ * as primitive chunks, or from iterators and streams, and encoded exactly as the array codec would
+ * encode the whole array. Memory therefore stays proportional to the caller's chunk size: streams and
+ * iterators of primitives are gathered into a reusable chunk of {@value #CHUNK_ELEMENTS} elements and
+ * written with one bulk write per chunk. Array codecs expose these writers through
+ * {@code streamWriter(out, count)}, and generated record serializers through their
+ * {@code StreamWriter}. Instances are thread-confined.</p>
+ */
+public abstract class ArrayStreamWriter {
+
+	/** Elements gathered from a stream or iterator before each bulk write. */
+	public static final int CHUNK_ELEMENTS = 1024;
+
+	protected final SafeDataOutput out;
+	private final int count;
+	private int written;
+
+	ArrayStreamWriter(SafeDataOutput out, int count) {
+		this.out = Objects.requireNonNull(out, "out");
+		if (count < 0) {
+			throw new IllegalArgumentException("Negative array length: " + count);
+		}
+		this.count = count;
+		out.writeInt(count);
+	}
+
+	/** Returns the element count announced when the writer was created. */
+	public final int count() {
+		return count;
+	}
+
+	/** Returns how many elements are still expected. */
+	public final int remaining() {
+		return count - written;
+	}
+
+	public final boolean isComplete() {
+		return written == count;
+	}
+
+	/**
+	 * Checks that every announced element was written.
+	 *
+	 * @throws IllegalStateException if fewer elements were written than announced
+	 */
+	public final void finish() {
+		if (written != count) {
+			throw new IllegalStateException("Array stream ended after " + written + " of " + count + " elements");
+		}
+	}
+
+	/** Accounts for {@code elements} more elements, failing before anything past the count is written. */
+	protected final void claim(int elements) {
+		if (elements > count - written) {
+			throw new IllegalStateException("Array stream overflow: " + count + " elements announced, "
+					+ ((long) written + elements) + " written");
+		}
+		written += elements;
+	}
+
+	public static OfBoolean ofBooleans(SafeDataOutput out, int count) {
+		return new OfBoolean(out, count);
+	}
+
+	public static OfByte ofBytes(SafeDataOutput out, int count) {
+		return new OfByte(out, count);
+	}
+
+	public static OfShort ofShorts(SafeDataOutput out, int count) {
+		return new OfShort(out, count);
+	}
+
+	public static OfChar ofChars(SafeDataOutput out, int count) {
+		return new OfChar(out, count);
+	}
+
+	public static OfInt ofInts(SafeDataOutput out, int count) {
+		return new OfInt(out, count);
+	}
+
+	public static OfLong ofLongs(SafeDataOutput out, int count) {
+		return new OfLong(out, count);
+	}
+
+	public static OfFloat ofFloats(SafeDataOutput out, int count) {
+		return new OfFloat(out, count);
+	}
+
+	public static OfDouble ofDoubles(SafeDataOutput out, int count) {
+		return new OfDouble(out, count);
+	}
+
+	/** Returns a writer that encodes each element with {@code elementWriter}. */
+	public static <T> OfObjects<T> ofObjects(SafeDataOutput out, int count,
+			BiConsumer<SafeDataOutput, ? super T> elementWriter) {
+		return new OfObjects<>(out, count, elementWriter);
+	}
+
+	public static final class OfBoolean extends ArrayStreamWriter {
+
+		private OfBoolean(SafeDataOutput out, int count) {
+			super(out, count);
+		}
+
+		public void write(boolean value) {
+			claim(1);
+			out.writeBoolean(value);
+		}
+
+		public void write(boolean[] values, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, values.length);
+			claim(length);
+			out.writeBooleans(values, offset, length);
+		}
+	}
+
+	public static final class OfByte extends ArrayStreamWriter {
+
+		private OfByte(SafeDataOutput out, int count) {
+			super(out, count);
+		}
+
+		public void write(byte value) {
+			claim(1);
+			out.writeByte(value);
+		}
+
+		public void write(byte[] values, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, values.length);
+			claim(length);
+			out.write(values, offset, length);
+		}
+	}
+
+	public static final class OfShort extends ArrayStreamWriter {
+
+		private OfShort(SafeDataOutput out, int count) {
+			super(out, count);
+		}
+
+		public void write(short value) {
+			claim(1);
+			out.writeShort(value);
+		}
+
+		public void write(short[] values, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, values.length);
+			claim(length);
+			out.writeShorts(values, offset, length);
+		}
+	}
+
+	public static final class OfChar extends ArrayStreamWriter {
+
+		private OfChar(SafeDataOutput out, int count) {
+			super(out, count);
+		}
+
+		public void write(char value) {
+			claim(1);
+			out.writeChar(value);
+		}
+
+		public void write(char[] values, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, values.length);
+			claim(length);
+			out.writeChars(values, offset, length);
+		}
+	}
+
+	public static final class OfInt extends ArrayStreamWriter {
+
+		private int[] chunk;
+
+		private OfInt(SafeDataOutput out, int count) {
+			super(out, count);
+		}
+
+		public void write(int value) {
+			claim(1);
+			out.writeInt(value);
+		}
+
+		public void write(int[] values, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, values.length);
+			claim(length);
+			out.writeInts(values, offset, length);
+		}
+
+		public void writeAll(IntStream values) {
+			writeAll(values.iterator());
+		}
+
+		public void writeAll(PrimitiveIterator.OfInt values) {
+			if (chunk == null) {
+				chunk = new int[CHUNK_ELEMENTS];
+			}
+			int size = 0;
+			while (values.hasNext()) {
+				chunk[size++] = values.nextInt();
+				if (size == chunk.length) {
+					write(chunk, 0, size);
+					size = 0;
+				}
+			}
+			write(chunk, 0, size);
+		}
+	}
+
+	public static final class OfLong extends ArrayStreamWriter {
+
+		private long[] chunk;
+
+		private OfLong(SafeDataOutput out, int count) {
+			super(out, count);
+		}
+
+		public void write(long value) {
+			claim(1);
+			out.writeLong(value);
+		}
+
+		public void write(long[] values, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, values.length);
+			claim(length);
+			out.writeLongs(values, offset, length);
+		}
+
+		public void writeAll(LongStream values) {
+			writeAll(values.iterator());
+		}
+
+		public void writeAll(PrimitiveIterator.OfLong values) {
+			if (chunk == null) {
+				chunk = new long[CHUNK_ELEMENTS];
+			}
+			int size = 0;
+			while (values.hasNext()) {
+				chunk[size++] = values.nextLong();
+				if (size == chunk.length) {
+					write(chunk, 0, size);
+					size = 0;
+				}
+			}
+			write(chunk, 0, size);
+		}
+	}
+
+	public static final class OfFloat extends ArrayStreamWriter {
+
+		private OfFloat(SafeDataOutput out, int count) {
+			super(out, count);
+		}
+
+		public void write(float value) {
+			claim(1);
+			out.writeFloat(value);
+		}
+
+		public void write(float[] values, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, values.length);
+			claim(length);
+			out.writeFloats(values, offset, length);
+		}
+	}
+
+	public static final class OfDouble extends ArrayStreamWriter {
+
+		private double[] chunk;
+
+		private OfDouble(SafeDataOutput out, int count) {
+			super(out, count);
+		}
+
+		public void write(double value) {
+			claim(1);
+			out.writeDouble(value);
+		}
+
+		public void write(double[] values, int offset, int length) {
+			Objects.checkFromIndexSize(offset, length, values.length);
+			claim(length);
+			out.writeDoubles(values, offset, length);
+		}
+
+		public void writeAll(DoubleStream values) {
+			writeAll(values.iterator());
+		}
+
+		public void writeAll(PrimitiveIterator.OfDouble values) {
+			if (chunk == null) {
+				chunk = new double[CHUNK_ELEMENTS];
+			}
+			int size = 0;
+			while (values.hasNext()) {
+				chunk[size++] = values.nextDouble();
+				if (size == chunk.length) {
+					write(chunk, 0, size);
+					size = 0;
+				}
+			}
+			write(chunk, 0, size);
+		}
+	}
+
+	public static final class OfObjects<T> extends ArrayStreamWriter {
+
+		private final BiConsumer<SafeDataOutput, ? super T> elementWriter;
+
+		private OfObjects(SafeDataOutput out, int count, BiConsumer<SafeDataOutput, ? super T> elementWriter) {
+			super(out, count);
+			this.elementWriter = Objects.requireNonNull(elementWriter, "elementWriter");
+		}
+
+		public void write(T value) {
+			Objects.requireNonNull(value, "value");
+			claim(1);
+			elementWriter.accept(out, value);
+		}
+
+		public void writeAll(Iterator<? extends T> values) {
+			while (values.hasNext()) {
+				write(values.next());
+			}
+		}
+
+		public void writeAll(Stream<? extends T> values) {
+			writeAll(values.iterator());
+		}
+	}
+}
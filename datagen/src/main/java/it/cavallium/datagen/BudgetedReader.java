@@ -0,0 +1,13 @@
+package it.cavallium.datagen;
+
+/**
+ * A thread-confined reader that owns the {@link DecodeBudget} of its lane.
+ *
+ * <p>Implemented by {@link DataCodec.Reader}, {@link FramedStreamReader} and the generated
+ * {@code CurrentVersion} readers.</p>
+ */
+public interface BudgetedReader {
+
+	/** Returns the lane-owned budget, for example to enable string deduplication. */
+	DecodeBudget decodeBudget();
+}
@@ -54,15 +54,22 @@ public interface DataCodec<T> {
 	}
 
 	/** A reusable reader that rejects trailing data and never retains its source after returning. */
-	final class Reader<T> {
+	final class Reader<T> implements BudgetedReader {
 
 		private final ReadSession<T> session;
+		private final DecodeBudget budget;
 		private final BufDataCursor cursor;
 
 		private Reader(DataCodec<T> codec, DecodeLimits limits) {
 			Objects.requireNonNull(codec, "codec");
 			this.session = Objects.requireNonNull(codec.newReadSession(), "codec.newReadSession()");
-			this.cursor = new BufDataCursor(Objects.requireNonNull(limits, "limits"));
+			this.budget = new DecodeBudget(Objects.requireNonNull(limits, "limits"));
+			this.cursor = new BufDataCursor(budget);
+		}
+
+		@Override
+		public DecodeBudget decodeBudget() {
+			return budget;
 		}
 
 		public T read(Buf source) {
@@ -11,6 +11,8 @@ public final class DecodeBudget {
 	private long claimedPayloadBytes;
 	private int structuralDepth;
 	private int rootEntries;
+	private long borrowEpoch;
+	private StringDeduplicationCache stringDeduplicationCache;
 
 	public DecodeBudget(DecodeLimits limits) {
 		this.limits = Objects.requireNonNull(limits, "limits");
@@ -25,12 +27,38 @@ public final class DecodeBudget {
 		return codecReadState;
 	}
 
+	/** Returns this lane's string deduplication cache, or {@code null} when it is disabled. */
+	public StringDeduplicationCache stringDeduplicationCache() {
+		return stringDeduplicationCache;
+	}
+
+	/**
+	 * Makes every UTF-8 string payload of at most {@code maximumLength} bytes decoded by this lane go
+	 * through a bounded cache of canonical instances. Replaces any previously enabled cache.
+	 */
+	public void enableStringDeduplication(int entries, int maximumLength) {
+		stringDeduplicationCache = new StringDeduplicationCache(entries, maximumLength);
+	}
+
+	public void disableStringDeduplication() {
+		stringDeduplicationCache = null;
+	}
+
+	/**
+	 * Returns the generation of borrowed payload views handed out by this lane. Every outer root
+	 * entry starts a new generation, invalidating the views decoded by the previous root.
+	 */
+	public long borrowEpoch() {
+		return borrowEpoch;
+	}
+
 	/** Begins a possibly nested session entry, resetting counters only for the outer root. */
 	public void enterRoot() {
 		if (rootEntries == 0) {
 			claimedArrayElements = 0;
 			claimedPayloadBytes = 0;
 			structuralDepth = 0;
+			borrowEpoch++;
 		}
 		rootEntries = Math.addExact(rootEntries, 1);
 	}
@@ -0,0 +1,353 @@
+package it.cavallium.datagen;
+
+import it.cavallium.buffer.Buf;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Multi-core ingestion of framed records, split into read, decode and consume stages.
+ *
+ * <p>A virtual thread reads and frames the source, copying frame bodies into batches. A fixed pool of
+ * platform threads decodes the batches; each of these threads owns one decoder, created once by
+ * {@code laneDecoders}. The supplier must return a fresh decoder on every call, so that thread-confined
+ * readers and sessions are never shared. The thread calling {@link #run(RecordFrames, Consumer)} consumes
+ * the decoded records in source order. Batches are recycled through a bounded pool, so a slow consumer
+ * stalls the reader instead of accumulating decoded records.</p>
+ *
+ * <p>One {@link #run(RecordFrames, Consumer)} may be active at a time. The decode threads live until
+ * {@link #close()}.</p>
+ */
+public final class DecodePipeline<T> implements AutoCloseable {
+
+	public static final int DEFAULT_BATCH_RECORDS = 256;
+	/** Initial body capacity of a batch; a batch also ends when its bodies would no longer fit. */
+	public static final int DEFAULT_BATCH_BYTES = 256 << 10;
+	/** How long a failed run waits for its reader to stop after closing the source. */
+	private static final Duration READER_STOP_TIMEOUT = Duration.ofSeconds(5);
+
+	private final int batchRecords;
+	private final Thread[] decodeThreads;
+	private final BlockingQueue<Batch<T>> decodeQueue;
+	private final BlockingQueue<Batch<T>> freeBatches;
+	private final int batchCount;
+	private final AtomicBoolean running = new AtomicBoolean();
+	private volatile boolean closed;
+
+	public DecodePipeline(Supplier<? extends RecordDecoder<? extends T>> laneDecoders, int decodeThreads) {
+		this(laneDecoders, decodeThreads, DEFAULT_BATCH_RECORDS, 2 * decodeThreads + 2);
+	}
+
+	/**
+	 * @param laneDecoders creates the decoder owned by each decode thread; it is called once per thread and
+	 *                     must return a new decoder, such as a new generated reader, on every call
+	 * @param decodeThreads number of platform decode threads
+	 * @param batchRecords maximum records per batch
+	 * @param maxBatches batches in flight across all stages, which bounds the memory of a run
+	 */
+	public DecodePipeline(Supplier<? extends RecordDecoder<? extends T>> laneDecoders, int decodeThreads,
+			int batchRecords, int maxBatches) {
+		Objects.requireNonNull(laneDecoders, "laneDecoders");
+		if (decodeThreads <= 0) {
+			throw new IllegalArgumentException("decodeThreads must be positive: " + decodeThreads);
+		}
+		if (batchRecords <= 0) {
+			throw new IllegalArgumentException("batchRecords must be positive: " + batchRecords);
+		}
+		if (maxBatches <= 0) {
+			throw new IllegalArgumentException("maxBatches must be positive: " + maxBatches);
+		}
+		this.batchRecords = batchRecords;
+		this.batchCount = maxBatches;
+		this.decodeQueue = new ArrayBlockingQueue<>(maxBatches);
+		this.freeBatches = new ArrayBlockingQueue<>(maxBatches);
+		for (int i = 0; i < maxBatches; i++) {
+			freeBatches.add(new Batch<>(batchRecords));
+		}
+		this.decodeThreads = new Thread[decodeThreads];
+		var builder = Thread.ofPlatform().daemon().name("decode-pipeline-decoder-", 0);
+		for (int i = 0; i < decodeThreads; i++) {
+			RecordDecoder<? extends T> decoder = Objects.requireNonNull(laneDecoders.get(), "decoder");
+			this.decodeThreads[i] = builder.unstarted(() -> decodeLoop(decoder));
+		}
+		for (Thread thread : this.decodeThreads) {
+			thread.start();
+		}
+	}
+
+	/**
+	 * Reads every frame of {@code frames}, decodes it and passes it to {@code consumer} in source order.
+	 * The frames are closed when the run ends. The first failure of any stage stops the run and is
+	 * rethrown here; failures that are not unchecked are wrapped in {@link IllegalStateException}.
+	 * A failed run closes the frames before waiting for the reader, so that a reader blocked in stream
+	 * I/O that ignores interrupts is released too. A reader that still does not stop is abandoned and
+	 * reported as an {@link IllegalStateException} suppressed by the failure.
+	 *
+	 * @return the number of records consumed
+	 */
+	public long run(RecordFrames frames, Consumer<? super T> consumer) {
+		Objects.requireNonNull(frames, "frames");
+		Objects.requireNonNull(consumer, "consumer");
+		if (closed) {
+			throw new IllegalStateException("Pipeline closed");
+		}
+		if (!running.compareAndSet(false, true)) {
+			throw new IllegalStateException("Pipeline already running");
+		}
+		var ordered = new ArrayBlockingQueue<Batch<T>>(batchCount + 1);
+		var end = new Batch<T>(0);
+		var stop = new AtomicBoolean();
+		Thread reader = Thread.ofVirtual()
+				.name("decode-pipeline-reader")
+				.start(() -> readLoop(frames, ordered, end, stop));
+		long consumed = 0;
+		Throwable failure = null;
+		try {
+			while (true) {
+				Batch<T> batch = ordered.take();
+				if (batch == end) {
+					if (end.failure != null) throw rethrow(end.failure);
+					return consumed;
+				}
+				// Decoding a batch takes bounded time, and the batch must not be recycled while it runs.
+				batch.decoded.acquireUninterruptibly();
+				try {
+					if (batch.failure != null) throw rethrow(batch.failure);
+					for (int i = 0; i < batch.count; i++) {
+						@SuppressWarnings("unchecked") T value = (T) batch.results[i];
+						consumer.accept(value);
+					}
+					consumed += batch.count;
+				} finally {
+					recycle(batch);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			var interrupted = new IllegalStateException(e);
+			failure = interrupted;
+			throw interrupted;
+		} catch (RuntimeException | Error e) {
+			failure = e;
+			throw e;
+		} finally {
+			stop.set(true);
+			reader.interrupt();
+			if (failure != null) {
+				closeQuietly(frames);
+			}
+			if (!awaitTermination(reader, READER_STOP_TIMEOUT) && failure != null) {
+				failure.addSuppressed(new IllegalStateException("Reader thread " + reader
+						+ " did not stop within " + READER_STOP_TIMEOUT + " after its source was closed"));
+			}
+			for (Batch<T> batch; (batch = ordered.poll()) != null; ) {
+				if (batch != end) {
+					batch.decoded.acquireUninterruptibly();
+					recycle(batch);
+				}
+			}
+			running.set(false);
+		}
+	}
+
+	/** Stops the decode threads. Must not be called while a run is active. */
+	@Override
+	public void close() {
+		if (running.get()) {
+			throw new IllegalStateException("Pipeline is running");
+		}
+		closed = true;
+		for (Thread thread : decodeThreads) {
+			thread.interrupt();
+		}
+		for (Thread thread : decodeThreads) {
+			joinUninterruptibly(thread);
+		}
+	}
+
+	private void readLoop(RecordFrames frames, BlockingQueue<Batch<T>> ordered, Batch<T> end, AtomicBoolean stop) {
+		Batch<T> batch = null;
+		try (frames) {
+			while (!stop.get() && frames.next()) {
+				if (batch != null && !batch.fits(frames.length())) {
+					dispatch(batch, ordered);
+					batch = null;
+				}
+				if (batch == null) {
+					batch = freeBatches.take();
+				}
+				batch.add(frames);
+				if (batch.count == batchRecords) {
+					dispatch(batch, ordered);
+					batch = null;
+				}
+			}
+			if (batch != null && batch.count > 0 && !stop.get()) {
+				dispatch(batch, ordered);
+				batch = null;
+			}
+		} catch (Throwable e) {
+			if (!stop.get()) {
+				end.failure = e;
+			}
+		} finally {
+			if (batch != null) {
+				recycle(batch);
+			}
+			ordered.add(end);
+		}
+	}
+
+	private void dispatch(Batch<T> batch, BlockingQueue<Batch<T>> ordered) {
+		// Both queues can hold every batch of the pool, and a batch in one must also be in the other.
+		ordered.add(batch);
+		decodeQueue.add(batch);
+	}
+
+	private void decodeLoop(RecordDecoder<? extends T> decoder) {
+		while (!closed) {
+			Batch<T> batch;
+			try {
+				batch = decodeQueue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			batch.decode(decoder);
+		}
+	}
+
+	private void recycle(Batch<T> batch) {
+		batch.clear();
+		freeBatches.add(batch);
+	}
+
+	private static RuntimeException rethrow(Throwable failure) {
+		if (failure instanceof RuntimeException runtimeException) {
+			return runtimeException;
+		}
+		if (failure instanceof Error error) {
+			throw error;
+		}
+		return new IllegalStateException(failure);
+	}
+
+	private static void closeQuietly(RecordFrames frames) {
+		try {
+			frames.close();
+		} catch (RuntimeException e) {
+			// The run is already failing; a failing close must not replace that failure.
+		}
+	}
+
+	/** Waits up to {@code timeout} for {@code thread} to end, deferring interrupts until it returns. */
+	private static boolean awaitTermination(Thread thread, Duration timeout) {
+		long deadline = System.nanoTime() + timeout.toNanos();
+		boolean interrupted = false;
+		try {
+			while (true) {
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0) {
+					return !thread.isAlive();
+				}
+				try {
+					return thread.join(Duration.ofNanos(remaining));
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static void joinUninterruptibly(Thread thread) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				thread.join();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Frame bodies copied out of the source, and the records decoded from them. */
+	private static final class Batch<T> {
+
+		private final int[] versions;
+		private final int[] offsets;
+		private final int[] lengths;
+		private final Object[] results;
+		/** Released once by the decode thread after the batch is decoded or failed. */
+		private final Semaphore decoded = new Semaphore(0);
+		private byte[] data;
+		private Buf view;
+		private int count;
+		private int size;
+		private Throwable failure;
+
+		private Batch(int records) {
+			this.versions = new int[records];
+			this.offsets = new int[records];
+			this.lengths = new int[records];
+			this.results = new Object[records];
+			this.data = new byte[records == 0 ? 0 : DEFAULT_BATCH_BYTES];
+			this.view = Buf.wrap(data);
+		}
+
+		private boolean fits(int length) {
+			return length <= data.length - size;
+		}
+
+		private void add(RecordFrames frames) {
+			int length = frames.length();
+			if (!fits(length)) {
+				// Only an empty batch reaches here, with a frame larger than the whole batch.
+				data = new byte[length];
+				view = Buf.wrap(data);
+			}
+			frames.source().getElements(frames.offset(), data, size, length);
+			versions[count] = frames.version();
+			offsets[count] = size;
+			lengths[count] = length;
+			size += length;
+			count++;
+		}
+
+		private void decode(RecordDecoder<?> decoder) {
+			try {
+				for (int i = 0; i < count; i++) {
+					results[i] = decoder.decode(versions[i], view, offsets[i], lengths[i]);
+				}
+			} catch (Throwable e) {
+				failure = e;
+			} finally {
+				decoded.release();
+			}
+		}
+
+		private void clear() {
+			if (data.length > DEFAULT_BATCH_BYTES) {
+				// Only one oversized frame used this array; the pool must not keep it as a high-water mark.
+				data = new byte[DEFAULT_BATCH_BYTES];
+				view = Buf.wrap(data);
+			}
+			Arrays.fill(results, 0, count, null);
+			count = 0;
+			size = 0;
+			failure = null;
+		}
+	}
+}
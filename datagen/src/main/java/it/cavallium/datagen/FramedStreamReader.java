@@ -0,0 +1,126 @@
+package it.cavallium.datagen;
+
+import it.cavallium.buffer.HeapBufDataCursor;
+import it.cavallium.stream.SafeDataInput;
+import java.util.Objects;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Reusable reader of framed records from a stream that decodes each record through a heap cursor.
+ *
+ * <p>Each frame is read into a reusable heap window, which grows only when a frame does not fit. The
+ * record is then decoded from the window by a {@link HeapBufDataCursor}, so codecs take their
+ * random-access paths, such as fixed-run reservations and bulk array copies, instead of reading the
+ * stream field by field. Like {@link DataCodec.Reader}, each record must consume its whole frame.
+ * Since every frame is decoded with one codec, frames whose version or type id differ from the expected
+ * ones are rejected instead of being decoded with the wrong layout. Instances are thread-confined.</p>
+ */
+public final class FramedStreamReader<T> implements BudgetedReader, AutoCloseable {
+
+	private final RecordFrames frames;
+	private final ReadSession<T> session;
+	private final DecodeBudget budget;
+	private final HeapBufDataCursor cursor;
+	private final int expectedVersion;
+	private final int expectedTypeId;
+
+	/** Reads {@link RecordFraming#LENGTH_PREFIXED} frames of at most {@code limits.maximumBytesPerPayload()}. */
+	public FramedStreamReader(SafeDataInput input, DataCodec<T> codec, DecodeLimits limits) {
+		this(input, RecordFraming.LENGTH_PREFIXED, limits.maximumBytesPerPayload(), RecordFrames.UNVERSIONED,
+				RecordFrames.UNTYPED, codec, limits);
+	}
+
+	/**
+	 * @param expectedVersion version every frame must carry, or {@link RecordFrames#UNVERSIONED} for
+	 *                        {@link RecordFraming#LENGTH_PREFIXED}
+	 * @param expectedTypeId type id every frame must carry, or {@link RecordFrames#UNTYPED} unless the
+	 *                       framing is {@link RecordFraming#CHECKSUMMED}
+	 */
+	public FramedStreamReader(SafeDataInput input,
+			RecordFraming framing,
+			int maxFrameBytes,
+			int expectedVersion,
+			int expectedTypeId,
+			DataCodec<T> codec,
+			DecodeLimits limits) {
+		this(input, framing, maxFrameBytes, expectedVersion, expectedTypeId, true, codec, limits);
+	}
+
+	/** @param verifyChecksums {@code false} to skip CRC32C verification of trusted frames */
+	public FramedStreamReader(SafeDataInput input,
+			RecordFraming framing,
+			int maxFrameBytes,
+			int expectedVersion,
+			int expectedTypeId,
+			boolean verifyChecksums,
+			DataCodec<T> codec,
+			DecodeLimits limits) {
+		Objects.requireNonNull(codec, "codec");
+		Objects.requireNonNull(framing, "framing");
+		if (framing.isVersioned() ? expectedVersion < 0 : expectedVersion != RecordFrames.UNVERSIONED) {
+			throw new IllegalArgumentException("Invalid expected version for " + framing + ": " + expectedVersion);
+		}
+		if (framing == RecordFraming.CHECKSUMMED ? expectedTypeId < 0 : expectedTypeId != RecordFrames.UNTYPED) {
+			throw new IllegalArgumentException("Invalid expected type id for " + framing + ": " + expectedTypeId);
+		}
+		this.expectedVersion = expectedVersion;
+		this.expectedTypeId = expectedTypeId;
+		this.frames = RecordFrames.of(input, framing, maxFrameBytes, verifyChecksums);
+		this.session = Objects.requireNonNull(codec.newReadSession(), "codec.newReadSession()");
+		this.budget = new DecodeBudget(Objects.requireNonNull(limits, "limits"));
+		this.cursor = new HeapBufDataCursor(budget);
+	}
+
+	@Override
+	public DecodeBudget decodeBudget() {
+		return budget;
+	}
+
+	/**
+	 * Reads and decodes the next record.
+	 *
+	 * @return the record, or {@code null} if the stream ended exactly at a frame boundary
+	 * @throws MalformedDataException if the frame is invalid, has an unexpected version or type id, or the
+	 *                                record does not fill it exactly
+	 */
+	public @Nullable T read() {
+		if (!frames.next()) {
+			return null;
+		}
+		if (frames.version() != expectedVersion) {
+			throw new MalformedDataException("Unexpected frame version: expected " + expectedVersion + ", found "
+					+ frames.version());
+		}
+		if (frames.typeId() != expectedTypeId) {
+			throw new MalformedDataException("Unexpected frame type id: expected " + expectedTypeId + ", found "
+					+ frames.typeId());
+		}
+		cursor.bind(frames.source(), frames.offset(), frames.length());
+		try {
+			T result = session.read(cursor);
+			int trailing = cursor.remainingIncludingClosed();
+			if (trailing != 0) {
+				throw new MalformedDataException("Trailing bytes: " + trailing);
+			}
+			return result;
+		} finally {
+			cursor.unbind();
+		}
+	}
+
+	/** Returns the version of the last frame read, or {@link RecordFrames#UNVERSIONED}. */
+	public int version() {
+		return frames.version();
+	}
+
+	/** Returns the type id of the last frame read, or {@link RecordFrames#UNTYPED}. */
+	public int typeId() {
+		return frames.typeId();
+	}
+
+	/** Closes the underlying input. */
+	@Override
+	public void close() {
+		frames.close();
+	}
+}
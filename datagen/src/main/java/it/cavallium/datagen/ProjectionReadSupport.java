@@ -1,6 +1,7 @@
 package it.cavallium.datagen;
 
 import it.cavallium.buffer.RandomAccessDataInput;
+import it.cavallium.stream.PrimitiveArrayDataInput;
 import it.cavallium.stream.SafeDataInput;
 
 /** Runtime helpers used by generated projection readers. */
@@ -105,63 +106,131 @@ public final class ProjectionReadSupport {
 	}
 
 	public static void readBooleans(SafeDataInput input, boolean[] destination) {
+		readBooleans(input, destination, destination.length);
+	}
+
+	/** Fills the first {@code length} elements, leaving the rest of a reused array untouched. */
+	public static void readBooleans(SafeDataInput input, boolean[] destination, int length) {
 		if (input instanceof RandomAccessDataInput randomInput) {
-			randomInput.readBooleans(destination, 0, destination.length);
+			randomInput.readBooleans(destination, 0, length);
 			return;
 		}
-		for (int i = 0; i < destination.length; i++) destination[i] = input.readBoolean();
+		if (input instanceof PrimitiveArrayDataInput bulkInput) {
+			bulkInput.readBooleans(destination, 0, length);
+			return;
+		}
+		for (int i = 0; i < length; i++) destination[i] = input.readBoolean();
 	}
 
 	public static void readBytes(SafeDataInput input, byte[] destination) {
 		input.readFully(destination);
 	}
 
+	/** Fills the first {@code length} elements, leaving the rest of a reused array untouched. */
+	public static void readBytes(SafeDataInput input, byte[] destination, int length) {
+		input.readFully(destination, 0, length);
+	}
+
 	public static void readShorts(SafeDataInput input, short[] destination) {
+		readShorts(input, destination, destination.length);
+	}
+
+	/** Fills the first {@code length} elements, leaving the rest of a reused array untouched. */
+	public static void readShorts(SafeDataInput input, short[] destination, int length) {
 		if (input instanceof RandomAccessDataInput randomInput) {
-			randomInput.readShorts(destination, 0, destination.length);
+			randomInput.readShorts(destination, 0, length);
 			return;
 		}
-		for (int i = 0; i < destination.length; i++) destination[i] = input.readShort();
+		if (input instanceof PrimitiveArrayDataInput bulkInput) {
+			bulkInput.readShorts(destination, 0, length);
+			return;
+		}
+		for (int i = 0; i < length; i++) destination[i] = input.readShort();
 	}
 
 	public static void readChars(SafeDataInput input, char[] destination) {
+		readChars(input, destination, destination.length);
+	}
+
+	/** Fills the first {@code length} elements, leaving the rest of a reused array untouched. */
+	public static void readChars(SafeDataInput input, char[] destination, int length) {
 		if (input instanceof RandomAccessDataInput randomInput) {
-			randomInput.readChars(destination, 0, destination.length);
+			randomInput.readChars(destination, 0, length);
+			return;
+		}
+		if (input instanceof PrimitiveArrayDataInput bulkInput) {
+			bulkInput.readChars(destination, 0, length);
 			return;
 		}
-		for (int i = 0; i < destination.length; i++) destination[i] = input.readChar();
+		for (int i = 0; i < length; i++) destination[i] = input.readChar();
 	}
 
 	public static void readInts(SafeDataInput input, int[] destination) {
+		readInts(input, destination, destination.length);
+	}
+
+	/** Fills the first {@code length} elements, leaving the rest of a reused array untouched. */
+	public static void readInts(SafeDataInput input, int[] destination, int length) {
 		if (input instanceof RandomAccessDataInput randomInput) {
-			randomInput.readInts(destination, 0, destination.length);
+			randomInput.readInts(destination, 0, length);
 			return;
 		}
-		for (int i = 0; i < destination.length; i++) destination[i] = input.readInt();
+		if (input instanceof PrimitiveArrayDataInput bulkInput) {
+			bulkInput.readInts(destination, 0, length);
+			return;
+		}
+		for (int i = 0; i < length; i++) destination[i] = input.readInt();
 	}
 
 	public static void readLongs(SafeDataInput input, long[] destination) {
+		readLongs(input, destination, destination.length);
+	}
+
+	/** Fills the first {@code length} elements, leaving the rest of a reused array untouched. */
+	public static void readLongs(SafeDataInput input, long[] destination, int length) {
 		if (input instanceof RandomAccessDataInput randomInput) {
-			randomInput.readLongs(destination, 0, destination.length);
+			randomInput.readLongs(destination, 0, length);
+			return;
+		}
+		if (input instanceof PrimitiveArrayDataInput bulkInput) {
+			bulkInput.readLongs(destination, 0, length);
 			return;
 		}
-		for (int i = 0; i < destination.length; i++) destination[i] = input.readLong();
+		for (int i = 0; i < length; i++) destination[i] = input.readLong();
 	}
 
 	public static void readFloats(SafeDataInput input, float[] destination) {
+		readFloats(input, destination, destination.length);
+	}
+
+	/** Fills the first {@code length} elements, leaving the rest of a reused array untouched. */
+	public static void readFloats(SafeDataInput input, float[] destination, int length) {
 		if (input instanceof RandomAccessDataInput randomInput) {
-			randomInput.readFloats(destination, 0, destination.length);
+			randomInput.readFloats(destination, 0, length);
+			return;
+		}
+		if (input instanceof PrimitiveArrayDataInput bulkInput) {
+			bulkInput.readFloats(destination, 0, length);
 			return;
 		}
-		for (int i = 0; i < destination.length; i++) destination[i] = input.readFloat();
+		for (int i = 0; i < length; i++) destination[i] = input.readFloat();
 	}
 
 	public static void readDoubles(SafeDataInput input, double[] destination) {
+		readDoubles(input, destination, destination.length);
+	}
+
+	/** Fills the first {@code length} elements, leaving the rest of a reused array untouched. */
+	public static void readDoubles(SafeDataInput input, double[] destination, int length) {
 		if (input instanceof RandomAccessDataInput randomInput) {
-			randomInput.readDoubles(destination, 0, destination.length);
+			randomInput.readDoubles(destination, 0, length);
+			return;
+		}
+		if (input instanceof PrimitiveArrayDataInput bulkInput) {
+			bulkInput.readDoubles(destination, 0, length);
 			return;
 		}
-		for (int i = 0; i < destination.length; i++) destination[i] = input.readDouble();
+		for (int i = 0; i < length; i++) destination[i] = input.readDouble();
 	}
 
 	public static boolean[] readBooleanArray(SafeDataInput input, int length) {
@@ -228,6 +297,13 @@ public final class ProjectionReadSupport {
 		return result;
 	}
 
+	/** Reads and validates a fixed-width array prefix whose body will be decoded into a reused array. */
+	public static int readArrayLength(SafeDataInput input, int elementBytes) {
+		int length = readLength(input);
+		prepareArrayAllocation(input, length, elementBytes);
+		return length;
+	}
+
 	public static int checkedArrayBytes(int elements, int elementBytes) {
 		try {
 			return Math.multiplyExact(elements, elementBytes);
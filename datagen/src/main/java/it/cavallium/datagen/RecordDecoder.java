@@ -0,0 +1,19 @@
+package it.cavallium.datagen;
+
+import it.cavallium.buffer.Buf;
+
+/**
+ * Decodes one framed record.
+ *
+ * <p>A generated {@code CurrentVersion.Reader} fits as {@code reader::read}, and a bound reader as
+ * {@code (version, source, offset, length) -> boundReader.read(source, offset, length)}. Decoders are
+ * called by one thread at a time and must not retain {@code source}.</p>
+ */
+@FunctionalInterface
+public interface RecordDecoder<T> {
+
+	/**
+	 * @param version the frame's version, or {@link RecordFrames#UNVERSIONED} for length-prefixed frames
+	 */
+	T decode(int version, Buf source, int offset, int length);
+}
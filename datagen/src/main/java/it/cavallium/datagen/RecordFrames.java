@@ -0,0 +1,253 @@
+package it.cavallium.datagen;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.BufHash;
+import it.cavallium.stream.SafeDataInput;
+import java.io.IOException;
+import java.util.Objects;
+import java.util.zip.CRC32C;
+
+/**
+ * Forward-only iterator over the framed records of a byte source.
+ *
+ * <p>After {@link #next()} returns {@code true}, {@link #source()}, {@link #offset()} and
+ * {@link #length()} describe the current record body, {@link #version()} its frame version and
+ * {@link #typeId()} its type id. The CRC32C of a {@link RecordFraming#CHECKSUMMED} frame, which covers
+ * the header fields before it and the body, is verified in place, on heap or native storage, before
+ * {@link #next()} returns, unless the source was opened as trusted, for example to replay a log this
+ * process wrote itself. The region is only valid until the next call to {@link #next()}: frames read
+ * from a stream share one reusable heap window, which grows only when a frame does not fit. Frames of
+ * a {@link Buf} are regions of that buffer and are never copied. Instances are thread-confined.</p>
+ */
+public abstract class RecordFrames implements AutoCloseable {
+
+	/** Version reported for {@link RecordFraming#LENGTH_PREFIXED} frames. */
+	public static final int UNVERSIONED = -1;
+	/** Type id reported for frames without one. */
+	public static final int UNTYPED = -1;
+
+	protected final RecordFraming framing;
+	protected final int maxFrameBytes;
+	protected Buf source;
+	protected int offset;
+	protected int length;
+	protected int version = UNVERSIONED;
+	protected int typeId = UNTYPED;
+	private final boolean verifyChecksums;
+	private final CRC32C crc = new CRC32C();
+
+	private RecordFrames(RecordFraming framing, int maxFrameBytes, boolean verifyChecksums) {
+		this.framing = Objects.requireNonNull(framing, "framing");
+		if (maxFrameBytes < 0) {
+			throw new IllegalArgumentException("Negative maximum frame size: " + maxFrameBytes);
+		}
+		this.maxFrameBytes = maxFrameBytes;
+		this.verifyChecksums = verifyChecksums;
+	}
+
+	/** Reads frames from {@code input}, which is closed by {@link #close()}. */
+	public static RecordFrames of(SafeDataInput input, RecordFraming framing, int maxFrameBytes) {
+		return of(input, framing, maxFrameBytes, true);
+	}
+
+	/**
+	 * Reads frames from {@code input}, which is closed by {@link #close()}.
+	 *
+	 * @param verifyChecksums {@code false} to skip CRC32C verification of trusted frames
+	 */
+	public static RecordFrames of(SafeDataInput input, RecordFraming framing, int maxFrameBytes,
+			boolean verifyChecksums) {
+		return new InputFrames(input, framing, maxFrameBytes, verifyChecksums);
+	}
+
+	/** Iterates the frames of {@code source}, for example a mapped file, without copying them. */
+	public static RecordFrames of(Buf source, RecordFraming framing) {
+		return of(source, framing, true);
+	}
+
+	/**
+	 * Iterates the frames of {@code source} without copying them.
+	 *
+	 * @param verifyChecksums {@code false} to skip CRC32C verification of trusted frames
+	 */
+	public static RecordFrames of(Buf source, RecordFraming framing, boolean verifyChecksums) {
+		return new BufFrames(source, framing, verifyChecksums);
+	}
+
+	/**
+	 * Advances to the next frame.
+	 *
+	 * @return {@code false} if the source ended exactly at a frame boundary
+	 * @throws MalformedDataException if a frame is truncated, negative, or larger than allowed
+	 */
+	public abstract boolean next();
+
+	public final Buf source() {
+		return source;
+	}
+
+	public final int offset() {
+		return offset;
+	}
+
+	public final int length() {
+		return length;
+	}
+
+	public final int version() {
+		return version;
+	}
+
+	/** Returns the type id of a {@link RecordFraming#CHECKSUMMED} frame, or {@link #UNTYPED}. */
+	public final int typeId() {
+		return typeId;
+	}
+
+	public final RecordFraming framing() {
+		return framing;
+	}
+
+	/** Decodes the current frame with {@code decoder}. */
+	public final <T> T decode(RecordDecoder<T> decoder) {
+		return decoder.decode(version, source, offset, length);
+	}
+
+	@Override
+	public void close() {
+	}
+
+	protected final void checkFrame(int frameVersion, int frameTypeId, int frameLength, long available) {
+		if (frameVersion < 0 && framing.isVersioned()) {
+			throw new MalformedDataException("Negative frame version: " + frameVersion);
+		}
+		if (frameTypeId < 0 && framing == RecordFraming.CHECKSUMMED) {
+			throw new MalformedDataException("Negative frame type id: " + frameTypeId);
+		}
+		if (frameLength < 0) {
+			throw new MalformedDataException("Negative frame length: " + frameLength);
+		}
+		if (frameLength > maxFrameBytes) {
+			throw new MalformedDataException("Frame too large: " + frameLength + " bytes, limit " + maxFrameBytes);
+		}
+		if (available >= 0 && frameLength > available) {
+			throw new MalformedDataException("Truncated frame: expected " + frameLength + " bytes, have "
+					+ available);
+		}
+	}
+
+	/**
+	 * Verifies the CRC32C of the current frame against {@code expected}, unless trusted. The checksum
+	 * covers the header fields that precede it, read from {@code header} at {@code headerOffset}, and
+	 * then the body.
+	 */
+	protected final void checkChecksum(Buf header, int headerOffset, int expected) {
+		if (!verifyChecksums || framing != RecordFraming.CHECKSUMMED) {
+			return;
+		}
+		crc.reset();
+		BufHash.updateChecksum(crc, header, headerOffset, framing.lengthOffset() + Integer.BYTES);
+		BufHash.updateChecksum(crc, source, offset, length);
+		int actual = (int) crc.getValue();
+		if (actual != expected) {
+			throw new MalformedDataException("Frame checksum mismatch: expected " + Integer.toHexString(expected)
+					+ ", computed " + Integer.toHexString(actual));
+		}
+	}
+
+	private static int intAt(byte[] bytes, int index) {
+		return (bytes[index] & 0xff) << 24 | (bytes[index + 1] & 0xff) << 16
+				| (bytes[index + 2] & 0xff) << 8 | bytes[index + 3] & 0xff;
+	}
+
+	private static final class InputFrames extends RecordFrames {
+
+		private static final int INITIAL_WINDOW_BYTES = 256;
+
+		private final SafeDataInput input;
+		private final byte[] header;
+		private final Buf headerView;
+		private byte[] window = new byte[INITIAL_WINDOW_BYTES];
+
+		private InputFrames(SafeDataInput input, RecordFraming framing, int maxFrameBytes, boolean verifyChecksums) {
+			super(framing, maxFrameBytes, verifyChecksums);
+			this.input = Objects.requireNonNull(input, "input");
+			this.header = new byte[framing.headerBytes()];
+			this.headerView = Buf.wrap(header);
+			this.source = Buf.wrap(window);
+		}
+
+		@Override
+		public boolean next() {
+			if (input.read(header, 0, 1) < 0) {
+				length = 0;
+				return false;
+			}
+			input.readFully(header, 1, header.length - 1);
+			int frameVersion = framing.isVersioned() ? intAt(header, 0) : UNVERSIONED;
+			int frameTypeId = framing == RecordFraming.CHECKSUMMED ? intAt(header, Integer.BYTES) : UNTYPED;
+			int frameLength = intAt(header, framing.lengthOffset());
+			checkFrame(frameVersion, frameTypeId, frameLength, input.remainingBytesIfKnown());
+			if (frameLength > window.length) {
+				int grown = (int) Math.min(Integer.highestOneBit(frameLength - 1) * 2L, Integer.MAX_VALUE - 8);
+				window = new byte[Math.max(frameLength, grown)];
+				source = Buf.wrap(window);
+			}
+			input.readFully(window, 0, frameLength);
+			version = frameVersion;
+			typeId = frameTypeId;
+			offset = 0;
+			length = frameLength;
+			if (framing == RecordFraming.CHECKSUMMED) {
+				checkChecksum(headerView, 0, intAt(header, framing.lengthOffset() + Integer.BYTES));
+			}
+			return true;
+		}
+
+		@Override
+		public void close() {
+			try {
+				input.close();
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	private static final class BufFrames extends RecordFrames {
+
+		private final Buf frames;
+		private int position;
+
+		private BufFrames(Buf frames, RecordFraming framing, boolean verifyChecksums) {
+			super(framing, Integer.MAX_VALUE, verifyChecksums);
+			this.frames = Objects.requireNonNull(frames, "source");
+			this.source = frames;
+		}
+
+		@Override
+		public boolean next() {
+			int remaining = frames.size() - position;
+			if (remaining == 0) {
+				length = 0;
+				return false;
+			}
+			if (remaining < framing.headerBytes()) {
+				throw new MalformedDataException("Truncated frame header: expected " + framing.headerBytes()
+						+ " bytes, have " + remaining);
+			}
+			int frameVersion = framing.isVersioned() ? frames.getInt(position) : UNVERSIONED;
+			int frameTypeId = framing == RecordFraming.CHECKSUMMED ? frames.getInt(position + Integer.BYTES) : UNTYPED;
+			int frameLength = frames.getInt(position + framing.lengthOffset());
+			checkFrame(frameVersion, frameTypeId, frameLength, remaining - framing.headerBytes());
+			version = frameVersion;
+			typeId = frameTypeId;
+			offset = position + framing.headerBytes();
+			length = frameLength;
+			if (framing == RecordFraming.CHECKSUMMED) {
+				checkChecksum(frames, position, frames.getInt(position + framing.lengthOffset() + Integer.BYTES));
+			}
+			position = offset + frameLength;
+			return true;
+		}
+	}
+}
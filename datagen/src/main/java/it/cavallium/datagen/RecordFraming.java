@@ -0,0 +1,37 @@
+package it.cavallium.datagen;
+
+/** Header layouts of a sequence of serialized records. All header fields are big-endian ints. */
+public enum RecordFraming {
+	/** Each record is preceded by its byte length. */
+	LENGTH_PREFIXED(Integer.BYTES, 0),
+	/** Each record is preceded by its serialized version and then its byte length. */
+	VERSION_TAGGED(Integer.BYTES * 2, Integer.BYTES),
+	/**
+	 * Each record is preceded by its serialized version, its type id, its byte length and the CRC32C of
+	 * those three fields followed by its body, which readers verify before decoding unless told to trust
+	 * the source.
+	 */
+	CHECKSUMMED(Integer.BYTES * 4, Integer.BYTES * 2);
+
+	private final int headerBytes;
+	private final int lengthOffset;
+
+	RecordFraming(int headerBytes, int lengthOffset) {
+		this.headerBytes = headerBytes;
+		this.lengthOffset = lengthOffset;
+	}
+
+	public int headerBytes() {
+		return headerBytes;
+	}
+
+	/** Returns the offset of the byte length within the header. */
+	public int lengthOffset() {
+		return lengthOffset;
+	}
+
+	/** Returns whether the header carries a version, and for {@link #CHECKSUMMED} a type id. */
+	public boolean isVersioned() {
+		return this != LENGTH_PREFIXED;
+	}
+}
@@ -0,0 +1,197 @@
+package it.cavallium.datagen;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Publisher} that decodes the records of a {@link RecordFrames} source on demand.
+ *
+ * <p>Nothing is read or decoded ahead of the subscriber's demand, except the header and body of the
+ * frame after the last requested record, which is read to signal completion without waiting for
+ * more demand. Records are decoded on {@code executor} in batches of at most {@code maxBatch}, after
+ * which the task resubmits itself so that one busy subscription does not monopolize a shared executor.
+ * Only one task of a subscription runs at a time, so the frames and the decoder stay thread-confined.</p>
+ *
+ * <p>The source is consumed once: a publisher accepts a single subscriber, and later subscribers receive
+ * {@link IllegalStateException}. The frames are closed when the subscription completes, fails or is
+ * cancelled.</p>
+ */
+public final class RecordPublisher<T> implements Flow.Publisher<T> {
+
+	public static final int DEFAULT_MAX_BATCH = 256;
+
+	private final RecordFrames frames;
+	private final RecordDecoder<T> decoder;
+	private final Executor executor;
+	private final int maxBatch;
+	private final AtomicBoolean subscribed = new AtomicBoolean();
+
+	public RecordPublisher(RecordFrames frames, RecordDecoder<T> decoder, Executor executor) {
+		this(frames, decoder, executor, DEFAULT_MAX_BATCH);
+	}
+
+	public RecordPublisher(RecordFrames frames, RecordDecoder<T> decoder, Executor executor, int maxBatch) {
+		if (maxBatch <= 0) {
+			throw new IllegalArgumentException("maxBatch must be positive: " + maxBatch);
+		}
+		this.frames = Objects.requireNonNull(frames, "frames");
+		this.decoder = Objects.requireNonNull(decoder, "decoder");
+		this.executor = Objects.requireNonNull(executor, "executor");
+		this.maxBatch = maxBatch;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber, "subscriber");
+		if (!subscribed.compareAndSet(false, true)) {
+			subscriber.onSubscribe(new Flow.Subscription() {
+				@Override
+				public void request(long n) {
+				}
+
+				@Override
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("RecordPublisher supports a single subscriber"));
+			return;
+		}
+		var subscription = new RecordSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+		subscription.schedule();
+	}
+
+	private final class RecordSubscription implements Flow.Subscription, Runnable {
+
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		/** Pending signals; the task that moves it from zero owns the frames until it drops to zero. */
+		private final AtomicInteger wip = new AtomicInteger(1);
+		private volatile boolean cancelled;
+		/** Set after {@link #invalidRequest} holds the first non-positive request. */
+		private volatile boolean invalid;
+		private long invalidRequest;
+		/** Whether {@link #frames} is positioned on a frame that was read but not emitted yet. */
+		private boolean pending;
+		private boolean done;
+
+		private RecordSubscription(Flow.Subscriber<? super T> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				if (!invalid) {
+					invalidRequest = n;
+					invalid = true;
+				}
+			} else {
+				long current;
+				long next;
+				do {
+					current = demand.get();
+					next = current + n < 0 ? Long.MAX_VALUE : current + n;
+				} while (!demand.compareAndSet(current, next));
+			}
+			signal();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			signal();
+		}
+
+		private void signal() {
+			if (wip.getAndIncrement() == 0) {
+				schedule();
+			}
+		}
+
+		/** Runs the drain task; the caller owns {@link #wip}. */
+		private void schedule() {
+			try {
+				executor.execute(this);
+			} catch (RuntimeException e) {
+				fail(e);
+			}
+		}
+
+		@Override
+		public void run() {
+			int missed = 1;
+			while (!done) {
+				if (cancelled) {
+					terminate();
+					return;
+				}
+				if (invalid) {
+					fail(new IllegalArgumentException("Non-positive request: " + invalidRequest));
+					return;
+				}
+				long requested = demand.get();
+				int emitted = 0;
+				try {
+					while (emitted < requested && emitted < maxBatch && !cancelled) {
+						if (!advance()) return;
+						T value = frames.decode(decoder);
+						pending = false;
+						subscriber.onNext(value);
+						emitted++;
+					}
+					if (requested > 0 && emitted == requested && !cancelled && !advance()) {
+						return;
+					}
+				} catch (RuntimeException e) {
+					fail(e);
+					return;
+				}
+				if (emitted > 0) {
+					demand.addAndGet(-emitted);
+				}
+				if (emitted == maxBatch && demand.get() > 0) {
+					schedule();
+					return;
+				}
+				missed = wip.addAndGet(-missed);
+				if (missed == 0) {
+					return;
+				}
+			}
+		}
+
+		/** Positions the frames on the next record, completing the subscription at the end of the source. */
+		private boolean advance() {
+			if (pending) return true;
+			if (frames.next()) {
+				pending = true;
+				return true;
+			}
+			terminate();
+			subscriber.onComplete();
+			return false;
+		}
+
+		private void fail(Throwable error) {
+			if (done) return;
+			terminate();
+			subscriber.onError(error);
+		}
+
+		private void terminate() {
+			if (done) return;
+			done = true;
+			cancelled = true;
+			try {
+				frames.close();
+			} catch (RuntimeException e) {
+				// The subscriber is already being signalled; a failing close must not replace that signal.
+			}
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package it.cavallium.datagen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded, direct-mapped table of canonical UTF-8 strings owned by one decode lane.
+ *
+ * <p>Short payloads are looked up by a hash over their raw bytes. A hit costs the hash and one
+ * byte comparison and returns the previously decoded {@link String} without decoding again. A miss
+ * decodes normally and replaces whatever entry occupied the slot, so memory stays bounded by
+ * {@code entries * maximumLength} key bytes regardless of the input's cardinality.</p>
+ *
+ * <p>The cache is thread-confined together with its owning {@link DecodeBudget}. Returned strings
+ * are ordinary immutable values and may be retained freely.</p>
+ */
+public final class StringDeduplicationCache {
+
+	private final int mask;
+	private final int maximumLength;
+	private final int[] hashes;
+	private final byte[][] keys;
+	private final String[] values;
+	private long hits;
+	private long misses;
+
+	/**
+	 * @param entries slot count, rounded up to a power of two
+	 * @param maximumLength longest payload, in bytes, that is looked up; longer payloads bypass the
+	 *                      cache
+	 */
+	public StringDeduplicationCache(int entries, int maximumLength) {
+		if (entries <= 0 || entries > 1 << 30) {
+			throw new IllegalArgumentException("entries must be in [1, 2^30]: " + entries);
+		}
+		if (maximumLength < 0) {
+			throw new IllegalArgumentException("maximumLength must be non-negative");
+		}
+		int capacity = Integer.highestOneBit(entries);
+		if (capacity != entries) capacity <<= 1;
+		this.mask = capacity - 1;
+		this.maximumLength = maximumLength;
+		this.hashes = new int[capacity];
+		this.keys = new byte[capacity][];
+		this.values = new String[capacity];
+	}
+
+	public int maximumLength() {
+		return maximumLength;
+	}
+
+	/** Returns whether a payload of {@code length} bytes is eligible for lookup. */
+	public boolean accepts(int length) {
+		return length <= maximumLength;
+	}
+
+	/** Returns the canonical string for the UTF-8 bytes {@code [offset, offset + length)}. */
+	public String intern(byte[] bytes, int offset, int length) {
+		if (length == 0) {
+			return "";
+		}
+		int hash = hash(bytes, offset, length);
+		int slot = hash & mask;
+		byte[] key = keys[slot];
+		if (key != null && hashes[slot] == hash
+				&& Arrays.equals(key, 0, key.length, bytes, offset, offset + length)) {
+			hits++;
+			return values[slot];
+		}
+		misses++;
+		String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+		hashes[slot] = hash;
+		keys[slot] = Arrays.copyOfRange(bytes, offset, offset + length);
+		values[slot] = value;
+		return value;
+	}
+
+	/** Drops every entry while keeping the table capacity. */
+	public void clear() {
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		Arrays.fill(hashes, 0);
+	}
+
+	public long hits() {
+		return hits;
+	}
+
+	public long misses() {
+		return misses;
+	}
+
+	private static int hash(byte[] bytes, int offset, int length) {
+		int hash = length;
+		for (int i = offset, end = offset + length; i < end; i++) {
+			hash = 31 * hash + bytes[i];
+		}
+		return hash ^ (hash >>> 16);
+	}
+}
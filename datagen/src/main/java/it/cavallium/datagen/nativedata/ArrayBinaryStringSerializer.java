@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.datagen.ValueTooLargeException;
@@ -12,6 +13,21 @@ public class ArrayBinaryStringSerializer implements DataCodec<BinaryString[]> {
 	private static final BinaryString[] EMPTY = new BinaryString[0];
 	public static BinaryString[] emptyArray() { return EMPTY; }
 
+	/**
+	 * Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}.
+	 * Unlike {@link #serialize}, each element is length-checked only when it is written.
+	 */
+	public static ArrayStreamWriter.OfObjects<BinaryString> streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofObjects(dataOutput, count, (output, item) -> {
+			if (item.sizeBytes() > 0xffff) {
+				throw new ValueTooLargeException("BinaryString array element too long for unsigned-short prefix: "
+						+ item.sizeBytes() + " bytes");
+			}
+			output.writeShort(item.sizeBytes());
+			output.write(item.data());
+		});
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, BinaryString @NotNull [] data) {
 		for (BinaryString item : data) {
@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.buffer.RandomAccessDataInput;
@@ -12,6 +13,11 @@ public class ArrayInt52Serializer implements DataCodec<Int52[]> {
 	private static final Int52[] EMPTY = new Int52[0];
 	public static Int52[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfObjects<Int52> streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofObjects(dataOutput, count, Int52Serializer::serializeValue);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, Int52[] data) {
 		dataOutput.writeInt(data.length);
@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -13,6 +14,12 @@ public class ArrayStringSerializer implements DataCodec<String[]> {
 	private static final String[] EMPTY = new String[0];
 	public static String[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfObjects<String> streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofObjects(dataOutput, count,
+				(output, item) -> output.writeShortText(item, StandardCharsets.UTF_8));
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, String @NotNull [] data) {
 		dataOutput.writeInt(data.length);
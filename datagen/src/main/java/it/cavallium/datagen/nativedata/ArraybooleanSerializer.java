@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -11,12 +12,15 @@ public class ArraybooleanSerializer implements DataCodec<boolean[]> {
 	private static final boolean[] EMPTY = new boolean[0];
 	public static boolean[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfBoolean streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofBooleans(dataOutput, count);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, boolean @NotNull [] data) {
 		dataOutput.writeInt(data.length);
-		for (boolean value : data) {
-			dataOutput.writeBoolean(value);
-		}
+		dataOutput.writeBooleans(data, 0, data.length);
 	}
 
 	@NotNull
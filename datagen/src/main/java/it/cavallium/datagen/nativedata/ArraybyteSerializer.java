@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -11,6 +12,11 @@ public class ArraybyteSerializer implements DataCodec<byte[]> {
 	private static final byte[] EMPTY = new byte[0];
 	public static byte[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfByte streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofBytes(dataOutput, count);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, byte @NotNull [] data) {
 		dataOutput.writeInt(data.length);
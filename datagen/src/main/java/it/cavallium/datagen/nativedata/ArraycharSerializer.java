@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -11,12 +12,15 @@ public class ArraycharSerializer implements DataCodec<char[]> {
 	private static final char[] EMPTY = new char[0];
 	public static char[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfChar streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofChars(dataOutput, count);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, char @NotNull [] data) {
 		dataOutput.writeInt(data.length);
-		for (char value : data) {
-			dataOutput.writeChar(value);
-		}
+		dataOutput.writeChars(data, 0, data.length);
 	}
 
 	@NotNull
@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -11,12 +12,15 @@ public class ArraydoubleSerializer implements DataCodec<double[]> {
 	private static final double[] EMPTY = new double[0];
 	public static double[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfDouble streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofDoubles(dataOutput, count);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, double @NotNull [] data) {
 		dataOutput.writeInt(data.length);
-		for (double value : data) {
-			dataOutput.writeDouble(value);
-		}
+		dataOutput.writeDoubles(data, 0, data.length);
 	}
 
 	@NotNull
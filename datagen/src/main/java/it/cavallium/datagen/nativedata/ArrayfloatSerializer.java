@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -11,12 +12,15 @@ public class ArrayfloatSerializer implements DataCodec<float[]> {
 	private static final float[] EMPTY = new float[0];
 	public static float[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfFloat streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofFloats(dataOutput, count);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, float @NotNull [] data) {
 		dataOutput.writeInt(data.length);
-		for (float value : data) {
-			dataOutput.writeFloat(value);
-		}
+		dataOutput.writeFloats(data, 0, data.length);
 	}
 
 	@NotNull
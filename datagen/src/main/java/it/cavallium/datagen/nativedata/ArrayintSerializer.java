@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -11,12 +12,15 @@ public class ArrayintSerializer implements DataCodec<int[]> {
 	private static final int[] EMPTY = new int[0];
 	public static int[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfInt streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofInts(dataOutput, count);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, int @NotNull [] data) {
 		dataOutput.writeInt(data.length);
-		for (int value : data) {
-			dataOutput.writeInt(value);
-		}
+		dataOutput.writeInts(data, 0, data.length);
 	}
 
 	@NotNull
@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -11,12 +12,15 @@ public class ArraylongSerializer implements DataCodec<long[]> {
 	private static final long[] EMPTY = new long[0];
 	public static long[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfLong streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofLongs(dataOutput, count);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, long @NotNull [] data) {
 		dataOutput.writeInt(data.length);
-		for (long value : data) {
-			dataOutput.writeLong(value);
-		}
+		dataOutput.writeLongs(data, 0, data.length);
 	}
 
 	@NotNull
@@ -1,5 +1,6 @@
 package it.cavallium.datagen.nativedata;
 
+import it.cavallium.datagen.ArrayStreamWriter;
 import it.cavallium.datagen.DataCodec;
 import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.stream.SafeDataInput;
@@ -11,12 +12,15 @@ public class ArrayshortSerializer implements DataCodec<short[]> {
 	private static final short[] EMPTY = new short[0];
 	public static short[] emptyArray() { return EMPTY; }
 
+	/** Starts writing an array of {@code count} elements with the same encoding as {@link #serialize}. */
+	public static ArrayStreamWriter.OfShort streamWriter(SafeDataOutput dataOutput, int count) {
+		return ArrayStreamWriter.ofShorts(dataOutput, count);
+	}
+
 	@Override
 	public void serialize(SafeDataOutput dataOutput, short @NotNull [] data) {
 		dataOutput.writeInt(data.length);
-		for (short value : data) {
-			dataOutput.writeShort(value);
-		}
+		dataOutput.writeShorts(data, 0, data.length);
 	}
 
 	@NotNull
@@ -0,0 +1,41 @@
+package it.cavallium.datagen.nativedata;
+
+import it.cavallium.datagen.DataCodec;
+import it.cavallium.datagen.ProjectionReadSupport;
+import it.cavallium.stream.SafeDataInput;
+import it.cavallium.stream.SafeDataOutput;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reads the {@link BinaryString} wire format as a {@link BorrowedBytes} view instead of copying
+ * the payload. Output is byte-identical to {@link BinaryStringSerializer}.
+ */
+public class BorrowedBinaryStringSerializer implements DataCodec<BorrowedBytes> {
+
+	public static final BorrowedBinaryStringSerializer INSTANCE = new BorrowedBinaryStringSerializer();
+
+	@Override
+	public void serialize(SafeDataOutput dataOutput, @NotNull BorrowedBytes data) {
+		var view = data.view();
+		dataOutput.writeInt(view.size());
+		view.writeTo(dataOutput);
+	}
+
+	@NotNull
+	@Override
+	public BorrowedBytes read(SafeDataInput dataInput) {
+		dataInput.decodeBudget().enterRoot();
+		try {
+			var size = ProjectionReadSupport.readLength(dataInput);
+			ProjectionReadSupport.preparePayload(dataInput, size);
+			return BorrowedBytes.borrow(dataInput, size);
+		} finally {
+			dataInput.decodeBudget().exitRoot();
+		}
+	}
+
+	@Override
+	public void skip(SafeDataInput dataInput) {
+		BinaryStringSerializer.INSTANCE.skip(dataInput);
+	}
+}
@@ -0,0 +1,46 @@
+package it.cavallium.datagen.nativedata;
+
+import it.cavallium.datagen.DataCodec;
+import it.cavallium.datagen.ProjectionReadSupport;
+import it.cavallium.stream.SafeDataInput;
+import it.cavallium.stream.SafeDataOutput;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reads the {@code byte[]} wire format as a {@link BorrowedBytes} view instead of copying the
+ * elements. Output is byte-identical to {@link ArraybyteSerializer}.
+ */
+public class BorrowedByteArraySerializer implements DataCodec<BorrowedBytes> {
+
+	public static final BorrowedByteArraySerializer INSTANCE = new BorrowedByteArraySerializer();
+
+	@Override
+	public void serialize(SafeDataOutput dataOutput, @NotNull BorrowedBytes data) {
+		var view = data.view();
+		dataOutput.writeInt(view.size());
+		view.writeTo(dataOutput);
+	}
+
+	@NotNull
+	@Override
+	public BorrowedBytes read(SafeDataInput dataInput) {
+		dataInput.decodeBudget().enterStructure();
+		try {
+			int size = ProjectionReadSupport.readLength(dataInput);
+			ProjectionReadSupport.prepareArrayAllocation(dataInput, size, Byte.BYTES);
+			return BorrowedBytes.borrow(dataInput, size);
+		} finally {
+			dataInput.decodeBudget().exitStructure();
+		}
+	}
+
+	@Override
+	public void skip(SafeDataInput dataInput) {
+		dataInput.decodeBudget().enterStructure();
+		try {
+			ProjectionReadSupport.skipFixedArray(dataInput, 1);
+		} finally {
+			dataInput.decodeBudget().exitStructure();
+		}
+	}
+}
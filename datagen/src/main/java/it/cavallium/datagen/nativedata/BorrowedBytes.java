@@ -0,0 +1,119 @@
+package it.cavallium.datagen.nativedata;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.MemorySegmentBuf;
+import it.cavallium.buffer.RandomAccessDataInput;
+import it.cavallium.datagen.DecodeBudget;
+import it.cavallium.stream.SafeDataInput;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * A decoded {@code BinaryString} or {@code byte[]} payload borrowed from the decoded source.
+ *
+ * <p>Heap and memory-segment inputs produce a read-only view over the source storage instead of a
+ * copy. The view belongs to the reader lane that decoded it and is valid only until that lane
+ * enters its next root decode; the source itself must also stay alive and unmodified for that long.
+ * {@link #view()} fails fast once the lane has moved on. Use {@link #toBinaryString()} or
+ * {@link #toByteArray()} to retain the payload past that point.</p>
+ *
+ * <p>Forward-only and fallback inputs have no direct storage, so their payloads are copied once and
+ * then follow the same validity rules.</p>
+ *
+ * <p>Equality and hash code follow the viewed bytes, like {@link BinaryString}, and the hash code equals
+ * that of the {@link BinaryString} holding the same bytes. Both go through {@link #view()}, so they fail
+ * once the payload is no longer valid.</p>
+ */
+public final class BorrowedBytes {
+
+	private final Buf view;
+	private final DecodeBudget owner;
+	private final long epoch;
+
+	private BorrowedBytes(Buf view, DecodeBudget owner, long epoch) {
+		this.view = view;
+		this.owner = owner;
+		this.epoch = epoch;
+	}
+
+	/** Returns whether the owning lane has not yet started another root decode. */
+	public boolean isValid() {
+		return owner.borrowEpoch() == epoch;
+	}
+
+	/** Returns the borrowed read-only view. Must not be retained past the owning lane's next root. */
+	public Buf view() {
+		if (!isValid()) {
+			throw new IllegalStateException("Borrowed payload is no longer valid: its reader lane was reset");
+		}
+		return view;
+	}
+
+	public int sizeBytes() {
+		return view.size();
+	}
+
+	/** Copies the payload into an owned array. */
+	public byte[] toByteArray() {
+		Buf valid = view();
+		byte[] copy = new byte[valid.size()];
+		valid.getElements(0, copy, 0, copy.length);
+		return copy;
+	}
+
+	/** Copies the payload into an owned {@link BinaryString}. */
+	public BinaryString toBinaryString() {
+		return new BinaryString(toByteArray());
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		Buf bytes = view();
+		Buf other = ((BorrowedBytes) o).view();
+		return bytes.size() == other.size() && bytes.equals(0, other, 0, bytes.size());
+	}
+
+	@Override
+	public int hashCode() {
+		Buf bytes = view();
+		int hash = 1;
+		for (int i = 0, size = bytes.size(); i < size; i++) {
+			hash = 31 * hash + bytes.getByte(i);
+		}
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return isValid() ? view.toString(StandardCharsets.UTF_8) : "BorrowedBytes[invalid]";
+	}
+
+	/**
+	 * Consumes {@code length} payload bytes whose budget was already claimed by the caller and
+	 * returns them as a borrowed view over the input's direct storage when it has one.
+	 */
+	static BorrowedBytes borrow(SafeDataInput input, int length) {
+		Objects.requireNonNull(input, "input");
+		DecodeBudget budget = input.decodeBudget();
+		long epoch = budget.borrowEpoch();
+		if (input instanceof RandomAccessDataInput randomInput) {
+			byte[] heap = randomInput.directHeapArray();
+			if (heap != null) {
+				int start = (int) randomInput.directStorageOffset(randomInput.reserve(length));
+				return new BorrowedBytes(Buf.wrap(heap, start, start + length).freeze(), budget, epoch);
+			}
+			MemorySegment segment = randomInput.directMemorySegment();
+			if (segment != null) {
+				long start = randomInput.directStorageOffset(randomInput.reserve(length));
+				var slice = new MemorySegmentBuf(segment.asSlice(start, length).asReadOnly());
+				return new BorrowedBytes(slice, budget, epoch);
+			}
+		}
+		byte[] copy = new byte[length];
+		input.readFully(copy);
+		return new BorrowedBytes(Buf.wrap(copy).freeze(), budget, epoch);
+	}
+}
@@ -0,0 +1,177 @@
+package it.cavallium.datagen.nativedata;
+
+import it.cavallium.buffer.RandomAccessDataInput;
+import it.cavallium.datagen.DataCodec;
+import it.cavallium.datagen.ProjectionReadSupport;
+import it.cavallium.datagen.StringDeduplicationCache;
+import it.cavallium.stream.SafeDataInput;
+import it.cavallium.stream.SafeDataOutput;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A {@link String} codec for categorical fields with a closed set of expected values.
+ *
+ * <p>The wire format is exactly {@link StringSerializer}'s length-prefixed UTF-8. Reads compare the
+ * payload bytes in place against the precomputed encodings of the declared values and return the
+ * canonical constant on a match, without allocating or decoding. Unknown values fall back to normal
+ * decoding, so the declared set may lag behind the data.</p>
+ *
+ * <p>Instances are immutable and may be shared by every reader lane.</p>
+ */
+public class EnumeratedStringCodec implements DataCodec<String> {
+
+	private final String[] values;
+	private final byte[][] encodings;
+	private final int[][] candidatesByLength;
+	private final Map<String, Integer> ordinals;
+
+	public EnumeratedStringCodec(String... values) {
+		Objects.requireNonNull(values, "values");
+		if (values.length == 0) {
+			throw new IllegalArgumentException("An enumerated string needs at least one value");
+		}
+		this.values = values.clone();
+		this.encodings = new byte[values.length][];
+		this.ordinals = HashMap.newHashMap(values.length);
+		int maximumLength = 0;
+		for (int ordinal = 0; ordinal < this.values.length; ordinal++) {
+			String value = Objects.requireNonNull(this.values[ordinal], "values[" + ordinal + "]");
+			if (ordinals.putIfAbsent(value, ordinal) != null) {
+				throw new IllegalArgumentException("Duplicate enumerated string value: " + value);
+			}
+			encodings[ordinal] = value.getBytes(StandardCharsets.UTF_8);
+			maximumLength = Math.max(maximumLength, encodings[ordinal].length);
+		}
+		int[] counts = new int[maximumLength + 1];
+		for (byte[] encoding : encodings) counts[encoding.length]++;
+		this.candidatesByLength = new int[maximumLength + 1][];
+		for (int length = 0; length <= maximumLength; length++) {
+			candidatesByLength[length] = new int[counts[length]];
+			counts[length] = 0;
+		}
+		for (int ordinal = 0; ordinal < encodings.length; ordinal++) {
+			int length = encodings[ordinal].length;
+			candidatesByLength[length][counts[length]++] = ordinal;
+		}
+	}
+
+	/** Returns the canonical values in declaration order. */
+	public List<String> values() {
+		return List.of(values);
+	}
+
+	/** Returns the canonical constant for {@code ordinal}. */
+	public String value(int ordinal) {
+		return values[ordinal];
+	}
+
+	/** Returns the declaration index of {@code value}, or {@code -1} for a value outside the set. */
+	public int ordinal(String value) {
+		for (int ordinal = 0; ordinal < values.length; ordinal++) {
+			if (values[ordinal] == value) return ordinal;
+		}
+		Integer ordinal = ordinals.get(value);
+		return ordinal == null ? -1 : ordinal;
+	}
+
+	/** Returns the canonical instance equal to {@code value}, or {@code value} itself when unknown. */
+	public String canonical(String value) {
+		int ordinal = ordinal(value);
+		return ordinal < 0 ? value : values[ordinal];
+	}
+
+	@Override
+	public void serialize(SafeDataOutput dataOutput, @NotNull String data) {
+		dataOutput.writeMediumText(data, StandardCharsets.UTF_8);
+	}
+
+	@NotNull
+	@Override
+	public String read(SafeDataInput dataInput) {
+		dataInput.decodeBudget().enterRoot();
+		try {
+			int length = ProjectionReadSupport.readLength(dataInput);
+			ProjectionReadSupport.preparePayload(dataInput, length);
+			if (length >= candidatesByLength.length) {
+				return decode(dataInput, length);
+			}
+			int[] candidates = candidatesByLength[length];
+			if (candidates.length == 0) {
+				return decode(dataInput, length);
+			}
+			if (!(dataInput instanceof RandomAccessDataInput randomInput)) {
+				byte[] bytes = new byte[length];
+				dataInput.readFully(bytes);
+				int match = match(candidates, bytes, 0, length);
+				return match >= 0 ? values[match] : new String(bytes, StandardCharsets.UTF_8);
+			}
+			int match = match(candidates, randomInput, length);
+			if (match < 0) {
+				return decode(dataInput, length);
+			}
+			randomInput.skipExact(length);
+			return values[match];
+		} finally {
+			dataInput.decodeBudget().exitRoot();
+		}
+	}
+
+	@Override
+	public void skip(SafeDataInput dataInput) {
+		StringSerializer.INSTANCE.skip(dataInput);
+	}
+
+	private int match(int[] candidates, RandomAccessDataInput input, int length) {
+		byte[] heap = input.directHeapArray();
+		if (heap != null) {
+			int offset = (int) input.directStorageOffset(input.position());
+			return match(candidates, heap, offset, length);
+		}
+		MemorySegment segment = input.directMemorySegment();
+		if (segment != null) {
+			MemorySegment payload = segment.asSlice(input.directStorageOffset(input.position()), length);
+			for (int candidate : candidates) {
+				if (payload.mismatch(MemorySegment.ofArray(encodings[candidate])) == -1) return candidate;
+			}
+			return -1;
+		}
+		int start = input.position();
+		candidates:
+		for (int candidate : candidates) {
+			byte[] encoding = encodings[candidate];
+			for (int i = 0; i < length; i++) {
+				if (input.getByteAt(start + i) != encoding[i]) continue candidates;
+			}
+			return candidate;
+		}
+		return -1;
+	}
+
+	private int match(int[] candidates, byte[] bytes, int offset, int length) {
+		for (int candidate : candidates) {
+			if (Arrays.equals(encodings[candidate], 0, length, bytes, offset, offset + length)) return candidate;
+		}
+		return -1;
+	}
+
+	/** Decodes a payload whose budget was already claimed. */
+	private static String decode(SafeDataInput input, int length) {
+		if (length == 0) {
+			return "";
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		StringDeduplicationCache cache = input.decodeBudget().stringDeduplicationCache();
+		if (cache != null && cache.accepts(length)) {
+			return cache.intern(bytes, 0, length);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,88 @@
+package it.cavallium.stream;
+
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import java.util.Objects;
+
+/**
+ * Stream-backed {@link SafeDataInput} that refills a heap window in bulk and decodes from it.
+ *
+ * <p>Unlike {@link SafeDataInputStream}, which calls {@code in.read()} once per byte of a primitive,
+ * this input only touches the underlying stream when the window runs dry, and reads larger than the
+ * window bypass it. The underlying stream must not be read directly while this input is in use.
+ * Instances are not thread-safe.</p>
+ */
+public final class BufferedSafeDataInputStream extends WindowedSafeDataInput {
+
+	public static final int DEFAULT_WINDOW_BYTES = 8192;
+
+	private final SafeInputStream in;
+
+	public BufferedSafeDataInputStream(SafeInputStream in, DecodeLimits limits) {
+		this(in, limits, DEFAULT_WINDOW_BYTES);
+	}
+
+	/** @param windowBytes window size, at least {@link WindowedSafeDataOutput#MIN_WINDOW_BYTES} */
+	public BufferedSafeDataInputStream(SafeInputStream in, DecodeLimits limits, int windowBytes) {
+		super(WindowedSafeDataOutput.newWindow(windowBytes), limits);
+		this.in = Objects.requireNonNull(in, "in");
+	}
+
+	@Override
+	public long remainingBytesIfKnown() {
+		if (!(in instanceof SafeMeasurableStream measurable)) {
+			return -1;
+		}
+		try {
+			long remaining = Math.subtractExact(measurable.length(), measurable.position());
+			if (remaining < 0) {
+				throw new MalformedDataException("Input position exceeds its reported length");
+			}
+			return remaining + (limit - pos);
+		} catch (UnsupportedOperationException exception) {
+			return -1;
+		}
+	}
+
+	@Override
+	public int available() {
+		return (int) Math.min(Integer.MAX_VALUE, (long) (limit - pos) + in.available());
+	}
+
+	@Override
+	public void close() {
+		in.close();
+	}
+
+	@Override
+	protected boolean refill(int required) {
+		while (limit - pos < required) {
+			int count = in.read(window, limit, window.length - limit);
+			if (count > 0) {
+				limit += count;
+				continue;
+			}
+			int next = count == 0 ? in.read() : -1;
+			if (next < 0) {
+				return false;
+			}
+			window[limit++] = (byte) next;
+		}
+		return true;
+	}
+
+	@Override
+	protected int readDirect(byte[] b, int off, int len) {
+		return in.read(b, off, len);
+	}
+
+	@Override
+	protected long skipDirect(long n) {
+		long total = 0;
+		long cur;
+		while (total < n && (cur = in.skip(n - total)) > 0) {
+			total += cur;
+		}
+		return total;
+	}
+}
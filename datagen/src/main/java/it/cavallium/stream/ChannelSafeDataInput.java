@@ -0,0 +1,195 @@
+package it.cavallium.stream;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.util.Objects;
+
+/**
+ * {@link SafeDataInput} that reads a blocking {@link ReadableByteChannel} into a reusable window,
+ * without stream adapters.
+ *
+ * <p>Reads larger than the window, and {@link #transferTo(Buf, int, int)} of a raw payload into a heap
+ * or native {@link Buf}, are read by the channel straight into their destination. A {@link FileChannel}
+ * can be read at an explicit position, which leaves the channel's own position untouched.</p>
+ *
+ * <p>The channel must not be read directly while this input is in use. Channel failures are rethrown
+ * as {@link IllegalStateException}. Instances are not thread-safe.</p>
+ */
+public final class ChannelSafeDataInput extends WindowedSafeDataInput {
+
+	public static final int DEFAULT_WINDOW_BYTES = 8192;
+
+	private final ReadableByteChannel channel;
+	/** Channel read at {@link #filePosition} instead of its own position, or {@code null}. */
+	private final FileChannel positional;
+	private final ByteBuffer windowBuffer;
+	/** File position of the end of the window, for positional reads. */
+	private long filePosition;
+
+	public ChannelSafeDataInput(ReadableByteChannel channel, DecodeLimits limits) {
+		this(channel, limits, DEFAULT_WINDOW_BYTES);
+	}
+
+	public ChannelSafeDataInput(ReadableByteChannel channel, DecodeLimits limits, int windowBytes) {
+		this(channel, null, 0, limits, windowBytes);
+	}
+
+	/** Reads {@code channel} from {@code position} with positional reads, leaving its own position untouched. */
+	public ChannelSafeDataInput(FileChannel channel, long position, DecodeLimits limits, int windowBytes) {
+		this(channel, channel, position, limits, windowBytes);
+	}
+
+	private ChannelSafeDataInput(ReadableByteChannel channel, FileChannel positional, long position,
+			DecodeLimits limits, int windowBytes) {
+		super(WindowedSafeDataOutput.newWindow(windowBytes), limits);
+		Objects.requireNonNull(channel, "channel");
+		if (channel instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+			throw new IllegalArgumentException("Channel must be in blocking mode");
+		}
+		if (position < 0) {
+			throw new IllegalArgumentException("Negative position: " + position);
+		}
+		this.channel = channel;
+		this.positional = positional;
+		this.filePosition = position;
+		this.windowBuffer = ByteBuffer.wrap(window);
+	}
+
+	@Override
+	public long remainingBytesIfKnown() {
+		try {
+			long remaining;
+			if (positional != null) {
+				remaining = positional.size() - filePosition;
+			} else if (channel instanceof SeekableByteChannel seekable) {
+				remaining = seekable.size() - seekable.position();
+			} else {
+				return -1;
+			}
+			if (remaining < 0) {
+				throw new MalformedDataException("Input position exceeds its reported length");
+			}
+			return remaining + (limit - pos);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/** Reads the bytes that are not buffered yet straight into {@code dst}. */
+	@Override
+	public void readFully(ByteBuffer dst, int len) {
+		Objects.requireNonNull(dst, "dst");
+		if (len < 0 || len > dst.remaining()) {
+			throw new IndexOutOfBoundsException("length " + len + " exceeds destination remaining "
+					+ dst.remaining());
+		}
+		int buffered = Math.min(len, limit - pos);
+		dst.put(window, pos, buffered);
+		pos += buffered;
+		if (buffered < len) {
+			ByteBuffer target = dst.slice(dst.position(), len - buffered);
+			while (target.hasRemaining()) {
+				if (readChannel(target) < 0) {
+					throw truncated(len, buffered + target.position());
+				}
+			}
+			dst.position(dst.position() + target.position());
+		}
+	}
+
+	/**
+	 * Reads a raw payload of {@code length} bytes into {@code destination} at {@code offset}. Bytes past
+	 * the window are read by the channel straight into the buffer's heap or native storage.
+	 *
+	 * @throws UnsupportedOperationException if {@code destination} is immutable
+	 */
+	public void transferTo(Buf destination, int offset, int length) {
+		Objects.requireNonNull(destination, "destination");
+		if (!destination.isMutable()) {
+			throw new UnsupportedOperationException("The buffer is immutable");
+		}
+		Objects.checkFromIndexSize(offset, length, destination.size());
+		MemorySegment segment = destination.asMemorySegmentStrict();
+		if (segment != null) {
+			readFully(segment.asSlice(offset, length).asByteBuffer());
+			return;
+		}
+		int done = 0;
+		while (done < length) {
+			if (pos == limit) {
+				pos = limit = 0;
+				if (!refill(Byte.BYTES)) {
+					throw truncated(length, done);
+				}
+			}
+			int count = Math.min(length - done, limit - pos);
+			destination.setElements(offset + done, window, pos, count);
+			pos += count;
+			done += count;
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	protected boolean refill(int required) {
+		while (limit - pos < required) {
+			int count = readChannel(windowBuffer.limit(window.length).position(limit));
+			if (count < 0) {
+				return false;
+			}
+			limit += count;
+		}
+		return true;
+	}
+
+	@Override
+	protected int readDirect(byte[] b, int off, int len) {
+		return readChannel(ByteBuffer.wrap(b, off, len));
+	}
+
+	/** Moves the read position of a positional channel, without reading the skipped bytes. */
+	@Override
+	protected long skipDirect(long n) {
+		if (positional == null) {
+			return 0;
+		}
+		try {
+			long skipped = Math.min(n, Math.max(0, positional.size() - filePosition));
+			filePosition += skipped;
+			return skipped;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private int readChannel(ByteBuffer target) {
+		try {
+			if (positional == null) {
+				return channel.read(target);
+			}
+			int count = positional.read(target, filePosition);
+			if (count > 0) {
+				filePosition += count;
+			}
+			return count;
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
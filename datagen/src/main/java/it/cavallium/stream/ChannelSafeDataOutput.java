@@ -0,0 +1,132 @@
+package it.cavallium.stream;
+
+import it.cavallium.buffer.Buf;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link SafeDataOutput} that writes a blocking {@link WritableByteChannel} through a reusable window,
+ * without stream adapters.
+ *
+ * <p>The window is written to the channel whenever it fills up and on {@link #flush()}. Byte arrays and
+ * {@link #transferFrom(Buf)} payloads larger than the window are written straight from their storage.
+ * A {@link FileChannel} can be written at an explicit position, which leaves the channel's own position
+ * untouched.</p>
+ *
+ * <p>Bytes stay in the window until the next flush, so callers must {@link #flush()} or
+ * {@link #close()} this output. Channel failures are rethrown as {@link IllegalStateException}.
+ * Instances are not thread-safe.</p>
+ */
+public final class ChannelSafeDataOutput extends WindowedSafeDataOutput {
+
+	public static final int DEFAULT_WINDOW_BYTES = 8192;
+
+	private final WritableByteChannel channel;
+	/** Channel written at {@link #filePosition} instead of its own position, or {@code null}. */
+	private final FileChannel positional;
+	private final ByteBuffer windowBuffer;
+	/** File position the window will be written at, for positional writes. */
+	private long filePosition;
+
+	public ChannelSafeDataOutput(WritableByteChannel channel) {
+		this(channel, DEFAULT_WINDOW_BYTES);
+	}
+
+	public ChannelSafeDataOutput(WritableByteChannel channel, int windowBytes) {
+		this(channel, null, 0, windowBytes);
+	}
+
+	/** Writes {@code channel} from {@code position} with positional writes, leaving its own position untouched. */
+	public ChannelSafeDataOutput(FileChannel channel, long position, int windowBytes) {
+		this(channel, channel, position, windowBytes);
+	}
+
+	private ChannelSafeDataOutput(WritableByteChannel channel, FileChannel positional, long position,
+			int windowBytes) {
+		super(newWindow(windowBytes));
+		Objects.requireNonNull(channel, "channel");
+		if (channel instanceof SelectableChannel selectable && !selectable.isBlocking()) {
+			throw new IllegalArgumentException("Channel must be in blocking mode");
+		}
+		if (position < 0) {
+			throw new IllegalArgumentException("Negative position: " + position);
+		}
+		this.channel = channel;
+		this.positional = positional;
+		this.filePosition = position;
+		this.windowBuffer = ByteBuffer.wrap(window);
+	}
+
+	/** Returns the number of bytes written to the window and not yet flushed to the channel. */
+	public int bufferedBytes() {
+		return pos;
+	}
+
+	@Override
+	public void write(byte @NotNull [] b, int off, int len) {
+		Objects.checkFromIndexSize(off, len, b.length);
+		if (len < window.length) {
+			super.write(b, off, len);
+			return;
+		}
+		flushWindow();
+		writeChannel(ByteBuffer.wrap(b, off, len));
+	}
+
+	/** Writes the raw bytes of {@code source}, straight from its storage if it is larger than the window. */
+	public void transferFrom(Buf source) {
+		Objects.requireNonNull(source, "source");
+		int length = source.size();
+		if (length <= window.length - pos) {
+			MemorySegment.copy(source.asMemorySegment(), 0, MemorySegment.ofArray(window), pos, length);
+			pos += length;
+			return;
+		}
+		flushWindow();
+		writeChannel(source.asByteBuffer());
+	}
+
+	/** Writes the buffered bytes to the channel. */
+	@Override
+	public void flush() {
+		flushWindow();
+	}
+
+	/** Flushes the buffered bytes and closes the channel. */
+	@Override
+	public void close() {
+		try (channel) {
+			flushWindow();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	protected void flushWindow() {
+		if (pos == 0) return;
+		writeChannel(windowBuffer.limit(pos).position(0));
+		windowBuffer.clear();
+		pos = 0;
+	}
+
+	private void writeChannel(ByteBuffer source) {
+		try {
+			while (source.hasRemaining()) {
+				if (positional == null) {
+					channel.write(source);
+				} else {
+					filePosition += positional.write(source, filePosition);
+				}
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package it.cavallium.stream;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Objects;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link SafeDataInput} over the compressed block stream written by {@link CompressedSafeDataOutput}.
+ *
+ * <p>Blocks are decompressed into a window of twice the block size, straight into the window whenever
+ * the whole block fits, and values are decoded from it. Alternatively, {@link #readBlock()} returns each
+ * decompressed block as a {@link Buf} that can be bound to a {@link it.cavallium.buffer.BufDataCursor} or
+ * iterated with {@link it.cavallium.datagen.RecordFrames}, without further copies; the two styles must
+ * not be mixed within a block. Corrupt or truncated blocks fail with {@link MalformedDataException}.
+ * Instances are not thread-safe.</p>
+ */
+public final class CompressedSafeDataInput extends WindowedSafeDataInput {
+
+	private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+	private final SafeInputStream in;
+	private final byte[] header = new byte[CompressedSafeDataOutput.HEADER_BYTES];
+	private byte[] compressed = new byte[0];
+	/** Decompressed block that did not fit in the window, and its unread range. */
+	private byte[] block = new byte[0];
+	private int blockPos;
+	private int blockLimit;
+	/** Raw and stored length of the block whose header was read last. */
+	private int rawLength;
+	private int storedLength;
+	private boolean stored;
+
+	public CompressedSafeDataInput(SafeInputStream in, DecodeLimits limits) {
+		this(in, limits, CompressedSafeDataOutput.DEFAULT_BLOCK_BYTES);
+	}
+
+	/**
+	 * @param blockBytes expected block size, which sizes the window; larger blocks are accepted up to
+	 *                   {@link CompressedSafeDataOutput#MAX_BLOCK_BYTES} at the cost of an extra copy
+	 */
+	public CompressedSafeDataInput(SafeInputStream in, DecodeLimits limits, int blockBytes) {
+		super(new byte[2 * CompressedSafeDataOutput.checkBlockBytes(blockBytes)], limits);
+		this.in = Objects.requireNonNull(in, "in");
+	}
+
+	/**
+	 * Decompresses the next block and returns it, valid until the next read.
+	 *
+	 * @return the block, or {@code null} if the stream ended at a block boundary
+	 * @throws IllegalStateException if bytes of the current block have not been read yet
+	 */
+	public @Nullable Buf readBlock() {
+		if (pos != limit || blockPos != blockLimit) {
+			throw new IllegalStateException("The current block has not been fully read");
+		}
+		if (!readHeader()) {
+			return null;
+		}
+		decodeBlock(blockBuffer(), 0);
+		return Buf.wrap(block, rawLength);
+	}
+
+	/** Always unknown, since the decompressed size is only known block by block. */
+	@Override
+	public long remainingBytesIfKnown() {
+		return -1;
+	}
+
+	@Override
+	public int available() {
+		return (limit - pos) + (blockLimit - blockPos);
+	}
+
+	@Override
+	public void close() {
+		in.close();
+	}
+
+	@Override
+	protected boolean refill(int required) {
+		while (limit - pos < required) {
+			if (blockPos == blockLimit) {
+				if (!readHeader()) {
+					return false;
+				}
+				if (rawLength <= window.length - limit) {
+					decodeBlock(window, limit);
+					limit += rawLength;
+					continue;
+				}
+				decodeBlock(blockBuffer(), 0);
+				blockLimit = rawLength;
+			}
+			int count = Math.min(blockLimit - blockPos, window.length - limit);
+			System.arraycopy(block, blockPos, window, limit, count);
+			blockPos += count;
+			limit += count;
+		}
+		return true;
+	}
+
+	/** Decompresses a whole block straight into {@code b} if it fits. */
+	@Override
+	protected int readDirect(byte[] b, int off, int len) {
+		if (blockPos != blockLimit) {
+			return 0;
+		}
+		if (!readHeader()) {
+			return -1;
+		}
+		if (rawLength <= len) {
+			decodeBlock(b, off);
+			return rawLength;
+		}
+		decodeBlock(blockBuffer(), 0);
+		blockLimit = rawLength;
+		return 0;
+	}
+
+	/** Returns the reusable block array, grown to hold the current block. */
+	private byte[] blockBuffer() {
+		if (block.length < rawLength) {
+			block = new byte[rawLength];
+		}
+		blockPos = blockLimit = 0;
+		return block;
+	}
+
+	/** Reads and validates the next block header, returning {@code false} at a clean end of stream. */
+	private boolean readHeader() {
+		int first = in.read();
+		if (first < 0) {
+			return false;
+		}
+		header[0] = (byte) first;
+		readExactly(header, 1, header.length - 1);
+		rawLength = (int) INT_BE.get(header, 0);
+		int storedField = (int) INT_BE.get(header, Integer.BYTES);
+		stored = (storedField & CompressedSafeDataOutput.STORED_FLAG) != 0;
+		storedLength = storedField & ~CompressedSafeDataOutput.STORED_FLAG;
+		if (rawLength <= 0 || rawLength > CompressedSafeDataOutput.MAX_BLOCK_BYTES) {
+			throw new MalformedDataException("Invalid compressed block length: " + rawLength);
+		}
+		if (stored ? storedLength != rawLength
+				: storedLength <= 0 || storedLength > LzBlocks.maxCompressedLength(rawLength)) {
+			throw new MalformedDataException("Invalid stored block length: " + storedLength);
+		}
+		return true;
+	}
+
+	/** Decodes the block whose header was just read into {@code destination} at {@code offset}. */
+	private void decodeBlock(byte[] destination, int offset) {
+		if (stored) {
+			readExactly(destination, offset, rawLength);
+			return;
+		}
+		if (compressed.length < storedLength) {
+			compressed = new byte[LzBlocks.maxCompressedLength(Math.max(rawLength, storedLength))];
+		}
+		readExactly(compressed, 0, storedLength);
+		LzBlocks.decompress(compressed, 0, storedLength, destination, offset, rawLength);
+	}
+
+	private void readExactly(byte[] destination, int offset, int length) {
+		while (length > 0) {
+			int count = in.read(destination, offset, length);
+			if (count == 0) {
+				int next = in.read();
+				if (next >= 0) {
+					destination[offset] = (byte) next;
+					count = 1;
+				}
+			}
+			if (count <= 0) {
+				throw new MalformedDataException("Truncated compressed block");
+			}
+			offset += count;
+			length -= count;
+		}
+	}
+}
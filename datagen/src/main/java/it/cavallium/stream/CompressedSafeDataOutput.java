@@ -0,0 +1,109 @@
+package it.cavallium.stream;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * {@link WindowedSafeDataOutput} that writes each full window as an independently compressed block,
+ * read back by {@link CompressedSafeDataInput}.
+ *
+ * <p>A full block of {@code blockBytes} is compressed with a pure-Java LZ4 block compressor and written
+ * as an 8-byte header followed by the block. The header holds the big-endian raw length and the
+ * big-endian stored length, whose high bit marks a block stored uncompressed because compression did
+ * not shrink it. Calling {@link #endBlock()} after each record keeps records whole inside blocks, so a
+ * reader can decode them straight from {@link CompressedSafeDataInput#readBlock()} with a cursor.</p>
+ *
+ * <p>Bytes stay in the block until it fills, so callers must {@link #flush()} or {@link #close()} this
+ * output. Instances are not thread-safe.</p>
+ */
+public final class CompressedSafeDataOutput extends WindowedSafeDataOutput {
+
+	/** Block size that keeps every match within the 64 KB reach of the block format. */
+	public static final int DEFAULT_BLOCK_BYTES = 64 << 10;
+	public static final int MAX_BLOCK_BYTES = 4 << 20;
+	/** Header flag set on the stored length of a block that is not compressed. */
+	static final int STORED_FLAG = 0x80000000;
+	static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+	private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+	private final SafeOutputStream out;
+	/** Header followed by the compressed block. */
+	private final byte[] compressed;
+	private final int[] hashTable = LzBlocks.newHashTable();
+	private long rawBytes;
+	private long storedBytes;
+
+	public CompressedSafeDataOutput(SafeOutputStream out) {
+		this(out, DEFAULT_BLOCK_BYTES);
+	}
+
+	public CompressedSafeDataOutput(SafeOutputStream out, int blockBytes) {
+		super(new byte[checkBlockBytes(blockBytes)]);
+		this.out = Objects.requireNonNull(out, "out");
+		this.compressed = new byte[HEADER_BYTES + LzBlocks.maxCompressedLength(blockBytes)];
+	}
+
+	/** Returns the number of uncompressed bytes written so far, including the pending block. */
+	public long rawBytes() {
+		return rawBytes + pos;
+	}
+
+	/** Returns the number of bytes written to the underlying stream so far, headers included. */
+	public long storedBytes() {
+		return storedBytes;
+	}
+
+	/**
+	 * Compresses and writes the pending bytes as one block, so that the next value starts a new block.
+	 * Does nothing if no bytes are pending.
+	 */
+	public void endBlock() {
+		if (pos == 0) return;
+		int length = LzBlocks.compress(window, pos, compressed, HEADER_BYTES, hashTable);
+		INT_BE.set(compressed, 0, pos);
+		if (length < pos) {
+			INT_BE.set(compressed, Integer.BYTES, length);
+			out.write(compressed, 0, HEADER_BYTES + length);
+			storedBytes += HEADER_BYTES + length;
+		} else {
+			INT_BE.set(compressed, Integer.BYTES, pos | STORED_FLAG);
+			out.write(compressed, 0, HEADER_BYTES);
+			out.write(window, 0, pos);
+			storedBytes += HEADER_BYTES + pos;
+		}
+		rawBytes += pos;
+		pos = 0;
+	}
+
+	/** Writes the pending block and flushes the underlying stream. */
+	@Override
+	public void flush() {
+		endBlock();
+		out.flush();
+	}
+
+	/** Writes the pending block and closes the underlying stream. */
+	@Override
+	public void close() {
+		try (out) {
+			endBlock();
+		}
+	}
+
+	@Override
+	protected void flushWindow() {
+		endBlock();
+	}
+
+	/** Checks a block size, which is also the window size of the output. */
+	static int checkBlockBytes(int blockBytes) {
+		if (blockBytes < MIN_WINDOW_BYTES || blockBytes > MAX_BLOCK_BYTES) {
+			throw new IllegalArgumentException("Block size must be between " + MIN_WINDOW_BYTES + " and "
+					+ MAX_BLOCK_BYTES + ": " + blockBytes);
+		}
+		return blockBytes;
+	}
+}
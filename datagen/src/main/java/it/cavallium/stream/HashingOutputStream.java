@@ -0,0 +1,57 @@
+package it.cavallium.stream;
+
+import it.cavallium.buffer.BufHash;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Output stream that hashes every byte written through it with {@link BufHash.Streaming} and forwards
+ * it to an underlying stream.
+ *
+ * <p>Wrap it in a {@link SafeDataOutputStream}, or pass it wherever a {@link SafeOutputStream} is
+ * expected, to obtain the XXH64 of serialized bytes while they are written, without keeping them in
+ * memory. The single-argument constructor discards the bytes and only hashes them.</p>
+ */
+public class HashingOutputStream extends SafeFilterOutputStream {
+
+	private final BufHash.Streaming hash;
+
+	public HashingOutputStream(long seed) {
+		this(SafeOutputStream.nullOutputStream(), seed);
+	}
+
+	public HashingOutputStream(SafeOutputStream out, long seed) {
+		super(out);
+		this.hash = new BufHash.Streaming(seed);
+	}
+
+	@Override
+	public void write(int b) {
+		out.write(b);
+		hash.update(b);
+	}
+
+	@Override
+	public void write(byte @NotNull [] b) {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte @NotNull [] b, int off, int len) {
+		out.write(b, off, len);
+		hash.update(b, off, len);
+	}
+
+	/** Returns the hash of every byte written since creation or the last {@link #resetHash()}. */
+	public long hash() {
+		return hash.getValue();
+	}
+
+	/** Returns the number of bytes hashed since creation or the last {@link #resetHash()}. */
+	public long hashedLength() {
+		return hash.totalLength();
+	}
+
+	public void resetHash() {
+		hash.reset();
+	}
+}
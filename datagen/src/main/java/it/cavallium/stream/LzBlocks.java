@@ -0,0 +1,219 @@
+package it.cavallium.stream;
+
+import it.cavallium.datagen.MalformedDataException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Pure-Java compressor and decompressor for the LZ4 block format.
+ *
+ * <p>A block is a run of sequences, each made of a token, literal bytes and a back-reference of at
+ * least {@value #MIN_MATCH} bytes at a 16-bit little-endian distance, as in the reference format, so
+ * blocks are self-contained and never refer to a previous block. Matches are found through a hash
+ * table of 4-byte words read with little-endian byte-array {@link VarHandle}s and extended 8 bytes at a
+ * time. Decompression validates every length and distance against both buffers and reports corrupt
+ * input as {@link MalformedDataException}.</p>
+ */
+final class LzBlocks {
+
+	static final int MIN_MATCH = 4;
+	/** The last bytes of a block are always literals. */
+	static final int LAST_LITERALS = 5;
+	/** A match must start at least this many bytes before the end of the block. */
+	static final int MF_LIMIT = 12;
+	static final int MAX_DISTANCE = 0xffff;
+	static final int HASH_LOG = 13;
+	/** Every {@code 1 << SKIP_STRENGTH} missed positions, the search step grows by one byte. */
+	private static final int SKIP_STRENGTH = 6;
+	private static final int RUN_MASK = 15;
+
+	private static final VarHandle INT_LE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+	private static final VarHandle LONG_LE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+	private LzBlocks() {}
+
+	/** Returns the largest compressed size of {@code length} input bytes. */
+	static int maxCompressedLength(int length) {
+		return length + length / 255 + 16;
+	}
+
+	/** Returns a hash table to pass to {@link #compress}, which resets it for every block. */
+	static int[] newHashTable() {
+		return new int[1 << HASH_LOG];
+	}
+
+	/**
+	 * Compresses {@code src[0, length)} into {@code dst} starting at {@code dstOffset}, which must have
+	 * room for {@link #maxCompressedLength(int)} bytes.
+	 *
+	 * @return the number of compressed bytes written
+	 */
+	static int compress(byte[] src, int length, byte[] dst, int dstOffset, int[] table) {
+		int op = dstOffset;
+		int anchor = 0;
+		if (length > MF_LIMIT) {
+			Arrays.fill(table, -1);
+			int matchLimit = length - LAST_LITERALS;
+			int ipLimit = length - MF_LIMIT;
+			int ip = 0;
+			while (ip <= ipLimit) {
+				int sequence = (int) INT_LE.get(src, ip);
+				int h = hash(sequence);
+				int ref = table[h];
+				table[h] = ip;
+				if (ref < 0 || ip - ref > MAX_DISTANCE || (int) INT_LE.get(src, ref) != sequence) {
+					ip += 1 + ((ip - anchor) >>> SKIP_STRENGTH);
+					continue;
+				}
+				while (ip > anchor && ref > 0 && src[ip - 1] == src[ref - 1]) {
+					ip--;
+					ref--;
+				}
+				int matchLength = MIN_MATCH + commonLength(src, ip + MIN_MATCH, ref + MIN_MATCH, matchLimit);
+				op = writeSequence(src, anchor, ip - anchor, ip - ref, matchLength, dst, op);
+				ip += matchLength;
+				anchor = ip;
+				if (ip <= ipLimit) {
+					table[hash((int) INT_LE.get(src, ip - 2))] = ip - 2;
+				}
+			}
+		}
+		return writeLastLiterals(src, anchor, length - anchor, dst, op) - dstOffset;
+	}
+
+	/**
+	 * Decompresses the block {@code src[srcOffset, srcOffset + srcLength)} into {@code dst} starting at
+	 * {@code dstOffset}. The block must expand to exactly {@code rawLength} bytes.
+	 *
+	 * @throws MalformedDataException if the block is corrupt or does not match {@code rawLength}
+	 */
+	static void decompress(byte[] src, int srcOffset, int srcLength, byte[] dst, int dstOffset, int rawLength) {
+		int ip = srcOffset;
+		int end = srcOffset + srcLength;
+		int op = dstOffset;
+		int opEnd = dstOffset + rawLength;
+		while (true) {
+			if (ip == end) {
+				throw corrupt("missing sequence");
+			}
+			int token = src[ip++] & 0xff;
+			int literals = token >>> 4;
+			if (literals == RUN_MASK) {
+				int b;
+				do {
+					if (ip == end) throw corrupt("truncated literal length");
+					b = src[ip++] & 0xff;
+					literals += b;
+					if (literals > rawLength) throw corrupt("literal run exceeds the block");
+				} while (b == 255);
+			}
+			if (literals > end - ip || literals > opEnd - op) {
+				throw corrupt("literal run exceeds the block");
+			}
+			System.arraycopy(src, ip, dst, op, literals);
+			ip += literals;
+			op += literals;
+			if (ip == end) {
+				if (op != opEnd) {
+					throw corrupt("expected " + rawLength + " bytes, decoded " + (op - dstOffset));
+				}
+				return;
+			}
+			if (end - ip < 2) {
+				throw corrupt("truncated match distance");
+			}
+			int distance = (src[ip] & 0xff) | (src[ip + 1] & 0xff) << 8;
+			ip += 2;
+			if (distance == 0 || distance > op - dstOffset) {
+				throw corrupt("match distance " + distance + " out of range");
+			}
+			int matchLength = token & RUN_MASK;
+			if (matchLength == RUN_MASK) {
+				int b;
+				do {
+					if (ip == end) throw corrupt("truncated match length");
+					b = src[ip++] & 0xff;
+					matchLength += b;
+					if (matchLength > rawLength) throw corrupt("match exceeds the block");
+				} while (b == 255);
+			}
+			matchLength += MIN_MATCH;
+			if (matchLength > opEnd - op) {
+				throw corrupt("match exceeds the block");
+			}
+			int ref = op - distance;
+			if (distance >= matchLength) {
+				System.arraycopy(dst, ref, dst, op, matchLength);
+			} else {
+				// Overlapping copy, which repeats the last distance bytes.
+				for (int i = 0; i < matchLength; i++) {
+					dst[op + i] = dst[ref + i];
+				}
+			}
+			op += matchLength;
+		}
+	}
+
+	private static int hash(int sequence) {
+		return (sequence * -1640531535) >>> (32 - HASH_LOG);
+	}
+
+	/** Returns how many bytes at {@code a} and {@code b} are equal, stopping before {@code limit}. */
+	private static int commonLength(byte[] src, int a, int b, int limit) {
+		int start = a;
+		while (a <= limit - Long.BYTES) {
+			long diff = (long) LONG_LE.get(src, a) ^ (long) LONG_LE.get(src, b);
+			if (diff != 0) {
+				return a - start + (Long.numberOfTrailingZeros(diff) >>> 3);
+			}
+			a += Long.BYTES;
+			b += Long.BYTES;
+		}
+		while (a < limit && src[a] == src[b]) {
+			a++;
+			b++;
+		}
+		return a - start;
+	}
+
+	private static int writeSequence(byte[] src, int literalStart, int literals, int distance, int matchLength,
+			byte[] dst, int op) {
+		int extraMatch = matchLength - MIN_MATCH;
+		dst[op++] = (byte) (Math.min(literals, RUN_MASK) << 4 | Math.min(extraMatch, RUN_MASK));
+		if (literals >= RUN_MASK) {
+			op = writeLength(literals - RUN_MASK, dst, op);
+		}
+		System.arraycopy(src, literalStart, dst, op, literals);
+		op += literals;
+		dst[op++] = (byte) distance;
+		dst[op++] = (byte) (distance >>> 8);
+		if (extraMatch >= RUN_MASK) {
+			op = writeLength(extraMatch - RUN_MASK, dst, op);
+		}
+		return op;
+	}
+
+	private static int writeLastLiterals(byte[] src, int literalStart, int literals, byte[] dst, int op) {
+		dst[op++] = (byte) (Math.min(literals, RUN_MASK) << 4);
+		if (literals >= RUN_MASK) {
+			op = writeLength(literals - RUN_MASK, dst, op);
+		}
+		System.arraycopy(src, literalStart, dst, op, literals);
+		return op + literals;
+	}
+
+	private static int writeLength(int length, byte[] dst, int op) {
+		while (length >= 255) {
+			dst[op++] = (byte) 255;
+			length -= 255;
+		}
+		dst[op++] = (byte) length;
+		return op;
+	}
+
+	private static MalformedDataException corrupt(String reason) {
+		return new MalformedDataException("Corrupt compressed block: " + reason);
+	}
+}
@@ -0,0 +1,25 @@
+package it.cavallium.stream;
+
+/**
+ * A forward-only {@link SafeDataInput} that decodes primitive array payloads in bulk.
+ *
+ * <p>Each method reads {@code length} big-endian values into {@code destination} starting at
+ * {@code offset}, exactly like the equivalent sequence of single-value reads, and fails with
+ * {@link it.cavallium.datagen.MalformedDataException} if the input ends first.</p>
+ */
+public interface PrimitiveArrayDataInput extends SafeDataInput {
+
+	void readBooleans(boolean[] destination, int offset, int length);
+
+	void readShorts(short[] destination, int offset, int length);
+
+	void readChars(char[] destination, int offset, int length);
+
+	void readInts(int[] destination, int offset, int length);
+
+	void readLongs(long[] destination, int offset, int length);
+
+	void readFloats(float[] destination, int offset, int length);
+
+	void readDoubles(double[] destination, int offset, int length);
+}
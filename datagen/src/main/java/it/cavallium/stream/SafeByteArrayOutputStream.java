@@ -48,6 +48,8 @@ public class SafeByteArrayOutputStream extends SafeMeasurableOutputStream implem
     private static final HexFormat HEX = HexFormat.of();
     private static final int MAX_PREVIEW_LENGTH = 128;
     private final boolean wrapped;
+    /** Whether the storage may be replaced by a larger array. */
+    private final boolean growable;
     private final int initialPosition;
     private final int initialLength;
     private final int wrappedFrom;
@@ -83,6 +85,7 @@ public class SafeByteArrayOutputStream extends SafeMeasurableOutputStream implem
     public SafeByteArrayOutputStream(final int initialCapacity) {
         array = new byte[initialCapacity];
         wrapped = false;
+        growable = true;
         initialPosition = wrappedFrom = length = initialLength = 0;
         wrappedTo = Integer.MAX_VALUE;
     }
@@ -105,12 +108,33 @@ public class SafeByteArrayOutputStream extends SafeMeasurableOutputStream implem
     public SafeByteArrayOutputStream(final byte[] a, int from, int to) {
         checkFromToIndex(from, to, a.length);
         wrapped = true;
+        growable = false;
         array = a;
         initialPosition = wrappedFrom = arrayPosition = from;
         initialLength = length = to - from;
         wrappedTo = to;
     }
 
+    /**
+     * Creates a new empty array output stream that takes ownership of {@code storage}.
+     *
+     * <p>Unlike the wrapping constructors, the stream starts empty and tracks its length. When
+     * {@code growable}, it replaces {@code storage} through {@link #grow(byte[], int, int)} once it is
+     * full, which lets subclasses supply recycled storage. Otherwise the capacity stays fixed: writes
+     * past the end of {@code storage} throw {@link IndexOutOfBoundsException} and {@link #trim()}
+     * keeps the array.
+     *
+     * @param storage the initial backing array; its contents are ignored.
+     * @param growable whether {@code storage} may be replaced by a larger array.
+     */
+    protected SafeByteArrayOutputStream(final byte[] storage, final boolean growable) {
+        array = Objects.requireNonNull(storage, "storage");
+        wrapped = false;
+        this.growable = growable;
+        initialPosition = wrappedFrom = length = initialLength = 0;
+        wrappedTo = Integer.MAX_VALUE;
+    }
+
     private void ensureWrappedBounds(int fromArrayPosition, int toArrayPosition) {
         Objects.checkFromToIndex(fromArrayPosition - wrappedFrom, toArrayPosition - wrappedFrom, wrappedTo - wrappedFrom);
     }
@@ -127,7 +151,7 @@ public class SafeByteArrayOutputStream extends SafeMeasurableOutputStream implem
      * Ensures that the length of the backing array is equal to {@link #length}.
      */
     public void trim() {
-        if (!wrapped) {
+        if (!wrapped && growable) {
             array = ByteArrays.trim(array, length);
         }
     }
@@ -141,7 +165,7 @@ public class SafeByteArrayOutputStream extends SafeMeasurableOutputStream implem
         if (wrapped) {
             ensureWrappedBounds(arrayPosition, arrayPosition + 1);
         } else if (arrayPosition >= array.length) {
-            array = ByteArrays.grow(array, arrayPosition + 1, length);
+            array = growStorage(arrayPosition + 1);
         }
         if (!wrapped && arrayPosition > length) Arrays.fill(array, length, arrayPosition, (byte) 0);
         array[arrayPosition++] = (byte) b;
@@ -165,8 +189,24 @@ public class SafeByteArrayOutputStream extends SafeMeasurableOutputStream implem
         if (wrapped) {
             ensureWrappedBounds(arrayPosition, arrayPosition + len);
         } else if (arrayPosition + len > array.length) {
-            array = ByteArrays.grow(array, arrayPosition + len, length);
+            array = growStorage(arrayPosition + len);
+        }
+    }
+
+    private byte[] growStorage(final int minCapacity) {
+        if (!growable) {
+            throw new IndexOutOfBoundsException("Fixed storage of " + array.length + " bytes cannot hold "
+                    + minCapacity + " bytes");
         }
+        return grow(array, minCapacity, length);
+    }
+
+    /**
+     * Returns an array of at least {@code minCapacity} bytes holding the first {@code preserveLength}
+     * bytes of {@code array}. The default doubles the array like {@link ByteArrays#grow(byte[], int, int)}.
+     */
+    protected byte[] grow(final byte[] array, final int minCapacity, final int preserveLength) {
+        return ByteArrays.grow(array, minCapacity, preserveLength);
     }
 
     @Override
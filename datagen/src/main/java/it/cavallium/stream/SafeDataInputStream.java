@@ -30,10 +30,12 @@ import it.cavallium.datagen.DecodeBudget;
 import it.cavallium.datagen.DecodeLimits;
 import it.cavallium.datagen.MalformedDataException;
 import it.cavallium.datagen.ProjectionReadSupport;
+import it.cavallium.datagen.StringDeduplicationCache;
 import org.jetbrains.annotations.NotNull;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
 public class SafeDataInputStream extends SafeFilterInputStream implements SafeDataInput {
@@ -169,6 +171,12 @@ public class SafeDataInputStream extends SafeFilterInputStream implements SafeDa
 	public final @NotNull String readString(int length, Charset charset) {
 		Objects.requireNonNull(charset, "charset");
 		ProjectionReadSupport.preparePayload(this, length);
+		StringDeduplicationCache cache = decodeBudget.stringDeduplicationCache();
+		if (cache != null && cache.accepts(length) && length <= transferBuffer.length
+				&& StandardCharsets.UTF_8.equals(charset)) {
+			readFully(transferBuffer, 0, length);
+			return cache.intern(transferBuffer, 0, length);
+		}
 		byte[] bytes = new byte[length];
 		readFully(bytes);
 		return new String(bytes, charset);
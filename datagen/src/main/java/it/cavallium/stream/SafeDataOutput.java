@@ -26,6 +26,7 @@
 package it.cavallium.stream;
 
 import java.nio.charset.Charset;
+import java.util.Objects;
 
 /**
  * The {@code SafeDataOutput} interface provides
@@ -369,4 +370,58 @@ public interface SafeDataOutput {
 	void writeShortText(String s, Charset charset);
 
 	void writeMediumText(String s, Charset charset);
+
+	/**
+	 * Writes {@code length} values of {@code values}, starting at {@code offset}, exactly as the same
+	 * number of {@link #writeBoolean(boolean)} calls would. The bulk methods below follow the same
+	 * contract for their primitive type; implementations override them to emit whole runs at once.
+	 */
+	default void writeBooleans(boolean[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		for (int i = 0; i < length; i++) {
+			writeBoolean(values[offset + i]);
+		}
+	}
+
+	default void writeShorts(short[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		for (int i = 0; i < length; i++) {
+			writeShort(values[offset + i]);
+		}
+	}
+
+	default void writeChars(char[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		for (int i = 0; i < length; i++) {
+			writeChar(values[offset + i]);
+		}
+	}
+
+	default void writeInts(int[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		for (int i = 0; i < length; i++) {
+			writeInt(values[offset + i]);
+		}
+	}
+
+	default void writeLongs(long[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		for (int i = 0; i < length; i++) {
+			writeLong(values[offset + i]);
+		}
+	}
+
+	default void writeFloats(float[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		for (int i = 0; i < length; i++) {
+			writeFloat(values[offset + i]);
+		}
+	}
+
+	default void writeDoubles(double[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		for (int i = 0; i < length; i++) {
+			writeDouble(values[offset + i]);
+		}
+	}
 }
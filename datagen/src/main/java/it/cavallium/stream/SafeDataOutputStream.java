@@ -27,8 +27,12 @@ package it.cavallium.stream;
 
 import it.cavallium.datagen.ValueTooLargeException;
 import it.cavallium.buffer.IgnoreCoverage;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Objects;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -47,6 +51,32 @@ public class SafeDataOutputStream extends SafeFilterOutputStream implements Safe
 	 */
 	protected int written;
 
+	/**
+	 * Size of the buffer bulk writes combine values into before handing
+	 * them to the underlying stream.
+	 */
+	public static final int COMBINE_BUFFER_BYTES = 8192;
+
+	private static final ValueLayout.OfShort SHORT_BE = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfChar CHAR_BE = ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfInt INT_BE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfLong LONG_BE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+	/**
+	 * Encodes each primitive so that it reaches the underlying stream
+	 * with a single write.
+	 */
+	private final byte[] writeBuffer = new byte[8];
+
+	/**
+	 * Combines the values of a bulk write, allocated on first use. Bytes
+	 * never stay in it across calls, so the underlying stream always
+	 * holds everything written so far.
+	 */
+	private byte[] combineBuffer;
+
+	private MemorySegment combineSegment;
+
 	/**
 	 * Creates a new data output stream to write data to the specified
 	 * underlying output stream. The counter {@code written} is
@@ -181,8 +211,9 @@ public class SafeDataOutputStream extends SafeFilterOutputStream implements Safe
 	 * @see        SafeFilterOutputStream#out
 	 */
 	public final void writeShort(int v) {
-		out.write((v >>> 8) & 0xFF);
-		out.write((v) & 0xFF);
+		writeBuffer[0] = (byte)(v >>> 8);
+		writeBuffer[1] = (byte)(v);
+		out.write(writeBuffer, 0, 2);
 		incCount(2);
 	}
 
@@ -195,9 +226,7 @@ public class SafeDataOutputStream extends SafeFilterOutputStream implements Safe
 	 * @see        SafeFilterOutputStream#out
 	 */
 	public final void writeChar(int v) {
-		out.write((v >>> 8) & 0xFF);
-		out.write((v) & 0xFF);
-		incCount(2);
+		writeShort(v);
 	}
 
 	/**
@@ -209,15 +238,14 @@ public class SafeDataOutputStream extends SafeFilterOutputStream implements Safe
 	 * @see        SafeFilterOutputStream#out
 	 */
 	public final void writeInt(int v) {
-		out.write((v >>> 24) & 0xFF);
-		out.write((v >>> 16) & 0xFF);
-		out.write((v >>>  8) & 0xFF);
-		out.write((v) & 0xFF);
+		writeBuffer[0] = (byte)(v >>> 24);
+		writeBuffer[1] = (byte)(v >>> 16);
+		writeBuffer[2] = (byte)(v >>>  8);
+		writeBuffer[3] = (byte)(v);
+		out.write(writeBuffer, 0, 4);
 		incCount(4);
 	}
 
-	private final byte[] writeBuffer = new byte[8];
-
 	/**
 	 * Writes a {@code long} to the underlying output stream as eight
 	 * bytes, high byte first. In no exception is thrown, the counter
@@ -291,6 +319,131 @@ public class SafeDataOutputStream extends SafeFilterOutputStream implements Safe
 		writeLong(Double.doubleToLongBits(v));
 	}
 
+	/**
+	 * Writes {@code length} booleans as single bytes, combined into one
+	 * write to the underlying stream per {@link #COMBINE_BUFFER_BYTES}
+	 * bytes. The other bulk writes encode their values high byte first,
+	 * like the corresponding single-value methods, and are combined in
+	 * the same way.
+	 */
+	@Override
+	public void writeBooleans(boolean[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		byte[] buffer = combineBuffer();
+		while (length > 0) {
+			int count = Math.min(length, buffer.length);
+			for (int i = 0; i < count; i++) {
+				buffer[i] = (byte) (values[offset + i] ? 1 : 0);
+			}
+			emitCombined(count);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	@Override
+	public void writeShorts(short[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		combineBuffer();
+		while (length > 0) {
+			int count = Math.min(length, COMBINE_BUFFER_BYTES / Short.BYTES);
+			MemorySegment.copy(values, offset, combineSegment, SHORT_BE, 0, count);
+			emitCombined(count * Short.BYTES);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	@Override
+	public void writeChars(char[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		combineBuffer();
+		while (length > 0) {
+			int count = Math.min(length, COMBINE_BUFFER_BYTES / Character.BYTES);
+			MemorySegment.copy(values, offset, combineSegment, CHAR_BE, 0, count);
+			emitCombined(count * Character.BYTES);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	@Override
+	public void writeInts(int[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		combineBuffer();
+		while (length > 0) {
+			int count = Math.min(length, COMBINE_BUFFER_BYTES / Integer.BYTES);
+			MemorySegment.copy(values, offset, combineSegment, INT_BE, 0, count);
+			emitCombined(count * Integer.BYTES);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	@Override
+	public void writeLongs(long[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		combineBuffer();
+		while (length > 0) {
+			int count = Math.min(length, COMBINE_BUFFER_BYTES / Long.BYTES);
+			MemorySegment.copy(values, offset, combineSegment, LONG_BE, 0, count);
+			emitCombined(count * Long.BYTES);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Converts each float with {@link Float#floatToIntBits(float)}, like
+	 * {@link #writeFloat(float)}, so NaN payloads are collapsed the same way.
+	 */
+	@Override
+	public void writeFloats(float[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		combineBuffer();
+		while (length > 0) {
+			int count = Math.min(length, COMBINE_BUFFER_BYTES / Float.BYTES);
+			for (int i = 0; i < count; i++) {
+				combineSegment.set(INT_BE, (long) i * Float.BYTES, Float.floatToIntBits(values[offset + i]));
+			}
+			emitCombined(count * Float.BYTES);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	/**
+	 * Converts each double with {@link Double#doubleToLongBits(double)},
+	 * like {@link #writeDouble(double)}.
+	 */
+	@Override
+	public void writeDoubles(double[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		combineBuffer();
+		while (length > 0) {
+			int count = Math.min(length, COMBINE_BUFFER_BYTES / Double.BYTES);
+			for (int i = 0; i < count; i++) {
+				combineSegment.set(LONG_BE, (long) i * Double.BYTES, Double.doubleToLongBits(values[offset + i]));
+			}
+			emitCombined(count * Double.BYTES);
+			offset += count;
+			length -= count;
+		}
+	}
+
+	private byte[] combineBuffer() {
+		if (combineBuffer == null) {
+			combineBuffer = new byte[COMBINE_BUFFER_BYTES];
+			combineSegment = MemorySegment.ofArray(combineBuffer);
+		}
+		return combineBuffer;
+	}
+
+	private void emitCombined(int bytes) {
+		out.write(combineBuffer, 0, bytes);
+		incCount(bytes);
+	}
+
 	/**
 	 * Writes out the string to the underlying output stream as a
 	 * sequence of bytes. Each character in the string is written out, in
@@ -366,23 +519,17 @@ public class SafeDataOutputStream extends SafeFilterOutputStream implements Safe
 			throw new ValueTooLargeException("String too long for unsigned-short prefix: "
 					+ outString.length + " bytes");
 		}
-		var v = outString.length;
-		out.write((v >>> 8) & 0xFF);
-		out.write((v) & 0xFF);
+		writeShort(outString.length);
 		out.write(outString);
-		incCount(Short.BYTES + outString.length);
+		incCount(outString.length);
 	}
 
 	@Override
 	public void writeMediumText(String s, Charset charset) {
 		var outString = s.getBytes(charset);
-		var v = outString.length;
-		out.write((v >>> 24) & 0xFF);
-		out.write((v >>> 16) & 0xFF);
-		out.write((v >>>  8) & 0xFF);
-		out.write((v) & 0xFF);
+		writeInt(outString.length);
 		out.write(outString);
-		incCount(Integer.BYTES + outString.length);
+		incCount(outString.length);
 	}
 
 	/**
@@ -0,0 +1,422 @@
+package it.cavallium.stream;
+
+import it.cavallium.buffer.IgnoreCoverage;
+import it.cavallium.datagen.DecodeBudget;
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import it.cavallium.datagen.ProjectionReadSupport;
+import it.cavallium.datagen.StringDeduplicationCache;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link SafeDataInput} that decodes from a heap window and refills it in bulk from its source.
+ *
+ * <p>Primitives are decoded with the same big-endian byte-array {@link VarHandle} kernels as the heap
+ * cursor, primitive arrays with one bulk copy per windowful, and strings that fit in the window are
+ * decoded in place. Subclasses implement {@link #refill(int)}, and may let reads of at least a
+ * windowful bypass the window. The window may hold bytes beyond the last value read, so the source must
+ * not be read directly while this input is in use.</p>
+ */
+abstract class WindowedSafeDataInput extends SafeInputStream implements PrimitiveArrayDataInput {
+
+	private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle CHAR_BE = MethodHandles.byteArrayViewVarHandle(char[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle FLOAT_BE = MethodHandles.byteArrayViewVarHandle(float[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle DOUBLE_BE = MethodHandles.byteArrayViewVarHandle(double[].class, ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfShort SHORT_BE_LAYOUT =
+			ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfChar CHAR_BE_LAYOUT =
+			ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfInt INT_BE_LAYOUT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfLong LONG_BE_LAYOUT =
+			ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfFloat FLOAT_BE_LAYOUT =
+			ValueLayout.JAVA_FLOAT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfDouble DOUBLE_BE_LAYOUT =
+			ValueLayout.JAVA_DOUBLE_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+	private final DecodeBudget decodeBudget;
+	protected final byte[] window;
+	/** Next unread byte of the window. */
+	protected int pos;
+	/** End of the valid bytes of the window. */
+	protected int limit;
+
+	WindowedSafeDataInput(byte[] window, DecodeLimits limits) {
+		this.window = window;
+		this.decodeBudget = new DecodeBudget(Objects.requireNonNull(limits, "limits"));
+	}
+
+	/**
+	 * Reads from the source into the window after {@link #limit} until at least {@code required} bytes
+	 * follow {@link #pos}, or the source ends. The window always has room for them.
+	 *
+	 * @return {@code false} if the source ended first
+	 */
+	protected abstract boolean refill(int required);
+
+	/**
+	 * Reads up to {@code len} bytes straight into {@code b} while the window is empty, for reads of at
+	 * least a windowful.
+	 *
+	 * @return the number of bytes read, {@code -1} if the source ended, or {@code 0}, the default, to
+	 *         read through the window instead
+	 */
+	protected int readDirect(byte[] b, int off, int len) {
+		return 0;
+	}
+
+	/**
+	 * Skips up to {@code n} bytes of the source past the empty window without reading them.
+	 *
+	 * @return the number of bytes skipped; the default skips none, so the bytes are read through the window
+	 */
+	protected long skipDirect(long n) {
+		return 0;
+	}
+
+	@Override
+	public DecodeBudget decodeBudget() {
+		return decodeBudget;
+	}
+
+	/** Returns the number of bytes that can be read without touching the source. */
+	public int bufferedBytes() {
+		return limit - pos;
+	}
+
+	@Override
+	public int read() {
+		if (pos == limit) {
+			pos = limit = 0;
+			if (!refill(Byte.BYTES)) {
+				return -1;
+			}
+		}
+		return window[pos++] & 0xff;
+	}
+
+	@Override
+	public int read(byte @NotNull [] b) {
+		return read(b, 0, b.length);
+	}
+
+	@Override
+	public int read(byte @NotNull [] b, int off, int len) {
+		Objects.checkFromIndexSize(off, len, b.length);
+		if (len == 0) {
+			return 0;
+		}
+		if (pos == limit) {
+			if (len >= window.length) {
+				int count = readDirect(b, off, len);
+				if (count != 0) {
+					return count;
+				}
+			}
+			pos = limit = 0;
+			if (!refill(Byte.BYTES)) {
+				return -1;
+			}
+		}
+		int count = Math.min(len, limit - pos);
+		System.arraycopy(window, pos, b, off, count);
+		pos += count;
+		return count;
+	}
+
+	@Override
+	public void readFully(byte @NotNull [] b) {
+		readFully(b, 0, b.length);
+	}
+
+	@Override
+	public void readFully(byte @NotNull [] b, int off, int len) {
+		Objects.checkFromIndexSize(off, len, b.length);
+		int n = Math.min(len, limit - pos);
+		System.arraycopy(window, pos, b, off, n);
+		pos += n;
+		while (n < len) {
+			int missing = len - n;
+			int count = missing >= window.length ? readDirect(b, off + n, missing) : 0;
+			if (count < 0) {
+				throw truncated(len, n);
+			}
+			if (count == 0) {
+				pos = limit = 0;
+				if (!refill(Byte.BYTES)) {
+					throw truncated(len, n);
+				}
+				count = Math.min(missing, limit);
+				System.arraycopy(window, 0, b, off + n, count);
+				pos = count;
+			}
+			n += count;
+		}
+	}
+
+	@Override
+	public void readFully(ByteBuffer dst) {
+		readFully(dst, dst.remaining());
+	}
+
+	@Override
+	public void readFully(ByteBuffer dst, int len) {
+		Objects.requireNonNull(dst, "dst");
+		if (len < 0 || len > dst.remaining()) {
+			throw new IndexOutOfBoundsException("length " + len + " exceeds destination remaining "
+					+ dst.remaining());
+		}
+		int total = 0;
+		while (total < len) {
+			if (pos == limit) {
+				pos = limit = 0;
+				if (!refill(Byte.BYTES)) {
+					throw truncated(len, total);
+				}
+			}
+			int count = Math.min(len - total, limit - pos);
+			dst.put(window, pos, count);
+			pos += count;
+			total += count;
+		}
+	}
+
+	@Override
+	public @NotNull String readString(int length, Charset charset) {
+		Objects.requireNonNull(charset, "charset");
+		ProjectionReadSupport.preparePayload(this, length);
+		if (length <= window.length) {
+			if (limit - pos < length) require(length);
+			int start = pos;
+			pos += length;
+			StringDeduplicationCache cache = decodeBudget.stringDeduplicationCache();
+			if (cache != null && cache.accepts(length) && StandardCharsets.UTF_8.equals(charset)) {
+				return cache.intern(window, start, length);
+			}
+			return new String(window, start, length, charset);
+		}
+		byte[] bytes = new byte[length];
+		readFully(bytes);
+		return new String(bytes, charset);
+	}
+
+	@Override
+	public int skipBytes(int n) {
+		return n <= 0 ? 0 : (int) skip(n);
+	}
+
+	@Override
+	public long skip(long n) {
+		if (n <= 0) {
+			return 0;
+		}
+		int buffered = (int) Math.min(n, limit - pos);
+		pos += buffered;
+		long total = buffered;
+		if (total < n) {
+			total += skipDirect(n - total);
+		}
+		while (total < n) {
+			pos = limit = 0;
+			if (!refill(Byte.BYTES)) {
+				break;
+			}
+			int count = (int) Math.min(n - total, limit);
+			pos = count;
+			total += count;
+		}
+		return total;
+	}
+
+	@Override
+	public int available() {
+		return limit - pos;
+	}
+
+	@Override
+	public boolean readBoolean() {
+		return readByte() != 0;
+	}
+
+	@Override
+	public byte readByte() {
+		if (pos == limit) require(Byte.BYTES);
+		return window[pos++];
+	}
+
+	@Override
+	public int readUnsignedByte() {
+		return readByte() & 0xff;
+	}
+
+	@Override
+	public short readShort() {
+		if (limit - pos < Short.BYTES) require(Short.BYTES);
+		short value = (short) SHORT_BE.get(window, pos);
+		pos += Short.BYTES;
+		return value;
+	}
+
+	@Override
+	public int readUnsignedShort() {
+		return readShort() & 0xffff;
+	}
+
+	@Override
+	public char readChar() {
+		if (limit - pos < Character.BYTES) require(Character.BYTES);
+		char value = (char) CHAR_BE.get(window, pos);
+		pos += Character.BYTES;
+		return value;
+	}
+
+	@Override
+	public int readInt() {
+		if (limit - pos < Integer.BYTES) require(Integer.BYTES);
+		int value = (int) INT_BE.get(window, pos);
+		pos += Integer.BYTES;
+		return value;
+	}
+
+	@Override
+	public long readLong() {
+		if (limit - pos < Long.BYTES) require(Long.BYTES);
+		long value = (long) LONG_BE.get(window, pos);
+		pos += Long.BYTES;
+		return value;
+	}
+
+	@Override
+	public long readInt52() {
+		if (limit - pos < 7) require(7);
+		long value = ((long) (window[pos] & 0xf) << 48)
+				| ((long) ((short) SHORT_BE.get(window, pos + 1) & 0xffff) << 32)
+				| ((int) INT_BE.get(window, pos + 3) & 0xffffffffL);
+		pos += 7;
+		return value;
+	}
+
+	@Override
+	public float readFloat() {
+		if (limit - pos < Float.BYTES) require(Float.BYTES);
+		float value = (float) FLOAT_BE.get(window, pos);
+		pos += Float.BYTES;
+		return value;
+	}
+
+	@Override
+	public double readDouble() {
+		if (limit - pos < Double.BYTES) require(Double.BYTES);
+		double value = (double) DOUBLE_BE.get(window, pos);
+		pos += Double.BYTES;
+		return value;
+	}
+
+	@Override
+	public void readBooleans(boolean[] destination, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, destination.length);
+		int end = offset + length;
+		while (offset < end) {
+			if (pos == limit) require(Byte.BYTES);
+			int count = Math.min(end - offset, limit - pos);
+			for (int i = 0; i < count; i++) {
+				destination[offset + i] = window[pos + i] != 0;
+			}
+			pos += count;
+			offset += count;
+		}
+	}
+
+	@Override
+	public void readShorts(short[] destination, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, destination.length);
+		copyElements(destination, offset, length, SHORT_BE_LAYOUT);
+	}
+
+	@Override
+	public void readChars(char[] destination, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, destination.length);
+		copyElements(destination, offset, length, CHAR_BE_LAYOUT);
+	}
+
+	@Override
+	public void readInts(int[] destination, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, destination.length);
+		copyElements(destination, offset, length, INT_BE_LAYOUT);
+	}
+
+	@Override
+	public void readLongs(long[] destination, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, destination.length);
+		copyElements(destination, offset, length, LONG_BE_LAYOUT);
+	}
+
+	@Override
+	public void readFloats(float[] destination, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, destination.length);
+		copyElements(destination, offset, length, FLOAT_BE_LAYOUT);
+	}
+
+	@Override
+	public void readDoubles(double[] destination, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, destination.length);
+		copyElements(destination, offset, length, DOUBLE_BE_LAYOUT);
+	}
+
+	@Override
+	public void mark(int readlimit) {
+		throw new UnsupportedOperationException("mark/reset not supported");
+	}
+
+	@IgnoreCoverage
+	@Override
+	@Deprecated
+	public String readLine() {
+		throw new UnsupportedOperationException();
+	}
+
+	static MalformedDataException truncated(int expected, int actual) {
+		return new MalformedDataException("Truncated input: expected " + expected + " bytes, read " + actual);
+	}
+
+	/** Copies whole windowfuls of values out of the window with one bulk copy each. */
+	private void copyElements(Object destination, int offset, int length, ValueLayout layout) {
+		int elementBytes = (int) layout.byteSize();
+		int end = offset + length;
+		while (offset < end) {
+			if (limit - pos < elementBytes) require(elementBytes);
+			int count = Math.min(end - offset, (limit - pos) / elementBytes);
+			MemorySegment.copy(MemorySegment.ofArray(window), layout, pos, destination, offset, count);
+			pos += count * elementBytes;
+			offset += count;
+		}
+	}
+
+	/**
+	 * Moves the unread bytes to the start of the window and refills it until at least {@code required}
+	 * bytes are buffered.
+	 */
+	private void require(int required) {
+		int buffered = limit - pos;
+		if (pos > 0) {
+			System.arraycopy(window, pos, window, 0, buffered);
+			pos = 0;
+			limit = buffered;
+		}
+		if (!refill(required)) {
+			throw truncated(required, limit);
+		}
+	}
+}
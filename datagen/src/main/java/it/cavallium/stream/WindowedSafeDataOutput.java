@@ -0,0 +1,218 @@
+package it.cavallium.stream;
+
+import it.cavallium.datagen.ValueTooLargeException;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link SafeDataOutput} that encodes into a heap window and hands the window on whenever it fills up.
+ *
+ * <p>Primitives are encoded with the same big-endian byte-array {@link VarHandle} kernels as the heap
+ * cursor, and primitive arrays with one bulk copy per windowful. A primitive never straddles two
+ * windows: if it does not fit in the rest of the window, the window is flushed first. Byte arrays and
+ * strings are split across windows. Subclasses only implement {@link #flushWindow()}, which decides
+ * where a full window goes.</p>
+ */
+public abstract class WindowedSafeDataOutput extends SafeOutputStream implements SafeDataOutput {
+
+	/** Smallest accepted window, so that any primitive fits in it. */
+	public static final int MIN_WINDOW_BYTES = 16;
+
+	private static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle INT_BE = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+	private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfShort SHORT_BE_LAYOUT =
+			ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfChar CHAR_BE_LAYOUT =
+			ValueLayout.JAVA_CHAR_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfInt INT_BE_LAYOUT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+	private static final ValueLayout.OfLong LONG_BE_LAYOUT =
+			ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+
+	/** Window being written, which {@link #flushWindow()} may replace. */
+	protected byte[] window;
+	/** End of the bytes waiting in the window. */
+	protected int pos;
+
+	protected WindowedSafeDataOutput(byte[] window) {
+		this.window = window;
+	}
+
+	/**
+	 * Hands on the bytes waiting in the window and empties it, leaving {@link #pos} at zero and room for
+	 * at least {@link #MIN_WINDOW_BYTES} bytes, possibly in a new {@link #window}.
+	 */
+	protected abstract void flushWindow();
+
+	@Override
+	public void write(int b) {
+		if (pos == window.length) flushWindow();
+		window[pos++] = (byte) b;
+	}
+
+	@Override
+	public void write(byte @NotNull [] b) {
+		write(b, 0, b.length);
+	}
+
+	@Override
+	public void write(byte @NotNull [] b, int off, int len) {
+		Objects.checkFromIndexSize(off, len, b.length);
+		while (len > 0) {
+			if (pos == window.length) flushWindow();
+			int count = Math.min(len, window.length - pos);
+			System.arraycopy(b, off, window, pos, count);
+			pos += count;
+			off += count;
+			len -= count;
+		}
+	}
+
+	@Override
+	public void writeBoolean(boolean v) {
+		write(v ? 1 : 0);
+	}
+
+	@Override
+	public void writeByte(int v) {
+		write(v);
+	}
+
+	@Override
+	public void writeShort(int v) {
+		if (window.length - pos < Short.BYTES) flushWindow();
+		SHORT_BE.set(window, pos, (short) v);
+		pos += Short.BYTES;
+	}
+
+	@Override
+	public void writeChar(int v) {
+		writeShort(v);
+	}
+
+	@Override
+	public void writeInt(int v) {
+		if (window.length - pos < Integer.BYTES) flushWindow();
+		INT_BE.set(window, pos, v);
+		pos += Integer.BYTES;
+	}
+
+	@Override
+	public void writeLong(long v) {
+		if (window.length - pos < Long.BYTES) flushWindow();
+		LONG_BE.set(window, pos, v);
+		pos += Long.BYTES;
+	}
+
+	@Override
+	public void writeInt52(long v) {
+		if (window.length - pos < 7) flushWindow();
+		window[pos] = (byte) (v >> 48 & 0xf);
+		SHORT_BE.set(window, pos + 1, (short) (v >> 32));
+		INT_BE.set(window, pos + 3, (int) v);
+		pos += 7;
+	}
+
+	@Override
+	public void writeFloat(float v) {
+		writeInt(Float.floatToIntBits(v));
+	}
+
+	@Override
+	public void writeDouble(double v) {
+		writeLong(Double.doubleToLongBits(v));
+	}
+
+	@Override
+	public void writeShorts(short[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		copyElements(values, offset, length, SHORT_BE_LAYOUT);
+	}
+
+	@Override
+	public void writeChars(char[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		copyElements(values, offset, length, CHAR_BE_LAYOUT);
+	}
+
+	@Override
+	public void writeInts(int[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		copyElements(values, offset, length, INT_BE_LAYOUT);
+	}
+
+	@Override
+	public void writeLongs(long[] values, int offset, int length) {
+		Objects.checkFromIndexSize(offset, length, values.length);
+		copyElements(values, offset, length, LONG_BE_LAYOUT);
+	}
+
+	@Override
+	public void writeBytes(@NotNull String s) {
+		int len = s.length();
+		for (int i = 0; i < len; i++) {
+			write(s.charAt(i));
+		}
+	}
+
+	@Override
+	public void writeChars(@NotNull String s) {
+		int len = s.length();
+		for (int i = 0; i < len; i++) {
+			writeShort(s.charAt(i));
+		}
+	}
+
+	@Deprecated
+	@Override
+	public void writeUTF(@NotNull String str) {
+		writeShortText(str, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public void writeShortText(String s, Charset charset) {
+		var out = s.getBytes(charset);
+		if (out.length > 0xffff) {
+			throw new ValueTooLargeException("String too long for unsigned-short prefix: "
+					+ out.length + " bytes");
+		}
+		writeShort(out.length);
+		write(out);
+	}
+
+	@Override
+	public void writeMediumText(String s, Charset charset) {
+		var out = s.getBytes(charset);
+		writeInt(out.length);
+		write(out);
+	}
+
+	/** Allocates a window of {@code windowBytes}, which must be at least {@link #MIN_WINDOW_BYTES}. */
+	static byte[] newWindow(int windowBytes) {
+		if (windowBytes < MIN_WINDOW_BYTES) {
+			throw new IllegalArgumentException("Window size must be at least " + MIN_WINDOW_BYTES + ": "
+					+ windowBytes);
+		}
+		return new byte[windowBytes];
+	}
+
+	/** Copies whole windowfuls of values into the window with one bulk copy each. */
+	private void copyElements(Object values, int offset, int length, ValueLayout layout) {
+		int elementBytes = (int) layout.byteSize();
+		int end = offset + length;
+		while (offset < end) {
+			if (window.length - pos < elementBytes) flushWindow();
+			int count = Math.min(end - offset, (window.length - pos) / elementBytes);
+			MemorySegment.copy(values, offset, MemorySegment.ofArray(window), layout, pos, count);
+			pos += count * elementBytes;
+			offset += count;
+		}
+	}
+}
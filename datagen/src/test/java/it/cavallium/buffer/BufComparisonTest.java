@@ -0,0 +1,125 @@
+package it.cavallium.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BufComparisonTest {
+
+	private static final int STORAGE_KINDS = 6;
+
+	@Test
+	void mismatchAndOrderingMatchArraysForEveryStorageCombination() {
+		var random = new Random(0x3C1A_7E55_90B2_4D61L);
+		try (var arena = Arena.ofConfined()) {
+			for (int iteration = 0; iteration < 4_000; iteration++) {
+				byte[] left = new byte[random.nextInt(200)];
+				random.nextBytes(left);
+				byte[] right = switch (random.nextInt(3)) {
+					case 0 -> left.clone();
+					case 1 -> Arrays.copyOf(left, random.nextInt(left.length + 1));
+					default -> {
+						byte[] changed = left.clone();
+						if (changed.length > 0) {
+							changed[random.nextInt(changed.length)] ^= (byte) (1 + random.nextInt(255));
+						}
+						yield changed;
+					}
+				};
+				int leftKind = random.nextInt(STORAGE_KINDS);
+				int rightKind = random.nextInt(STORAGE_KINDS);
+				Buf a = view(leftKind, arena, left);
+				Buf b = view(rightKind, arena, right);
+				String diagnostic = "iteration=" + iteration + ", kinds=" + leftKind + "/" + rightKind;
+
+				assertEquals(Arrays.mismatch(left, right), a.mismatch(b), diagnostic);
+				assertEquals(Integer.signum(Arrays.compareUnsigned(left, right)),
+						Integer.signum(a.compareUnsigned(b)), diagnostic);
+				int expectedOrder = left.length != right.length
+						? Integer.compare(left.length, right.length)
+						: Arrays.compareUnsigned(left, right);
+				assertEquals(Integer.signum(expectedOrder), Integer.signum(a.compareTo(b)), diagnostic);
+
+				int length = Math.min(left.length, right.length);
+				int from = length == 0 ? 0 : random.nextInt(length);
+				int count = length - from;
+				int expectedMismatch = Arrays.mismatch(left, from, from + count, right, from, from + count);
+				assertEquals(expectedMismatch, a.mismatch(from, b, from, count), diagnostic);
+				assertEquals(expectedMismatch < 0, a.equals(from, b, from, count), diagnostic);
+				assertEquals(expectedMismatch < 0, a.equals(from, right, from, count), diagnostic);
+				int expectedSuffixOrder = Arrays.compareUnsigned(left, from, left.length, right, from, right.length);
+				assertEquals(Integer.signum(expectedSuffixOrder),
+						Integer.signum(a.compareUnsigned(from, left.length, b, from, right.length)), diagnostic);
+			}
+		}
+	}
+
+	@Test
+	void comparatorsExposeBothOrders() {
+		Buf shortKey = Buf.wrap((byte) 2);
+		Buf longKey = Buf.wrap((byte) 1, (byte) 0);
+		try (var arena = Arena.ofConfined()) {
+			Buf nativeLong = view(2, arena, longKey.asArray());
+			assertTrue(new VariableLengthLexiconographicComparator().compare(shortKey, nativeLong) < 0);
+			assertTrue(new UnsignedLexicographicComparator().compare(shortKey, nativeLong) > 0);
+			assertTrue(new UnsignedLexicographicComparator().compare(longKey, 0, 1, nativeLong, 0, 2) < 0);
+			assertTrue(shortKey.compareTo(nativeLong) < 0);
+			assertTrue(shortKey.compareUnsigned(nativeLong) > 0);
+		}
+		assertEquals(-1, Buf.wrap().mismatch(Buf.wrap()));
+		assertEquals(0, Buf.wrap().mismatch(shortKey));
+		assertFalse(shortKey.equals(0, longKey, 1, 2));
+		assertThrows(IndexOutOfBoundsException.class, () -> shortKey.mismatch(0, longKey, 1, 2));
+	}
+
+	private static Buf view(int kind, Arena arena, byte[] values) {
+		return switch (kind) {
+			case 0 -> Buf.wrap(values.clone());
+			case 1 -> {
+				byte[] padded = new byte[values.length + 3];
+				System.arraycopy(values, 0, padded, 2, values.length);
+				yield Buf.wrap(padded).subListForced(2, 2 + values.length);
+			}
+			case 2 -> nativeBuf(arena, values, 0);
+			case 3 -> nativeBuf(arena, values, 5);
+			case 4 -> {
+				int split = values.length / 3;
+				yield CompositeBuf.of(Buf.wrap(Arrays.copyOf(values, split)),
+						nativeBuf(arena, Arrays.copyOfRange(values, split, values.length), 1));
+			}
+			case 5 -> new OpaqueBuf(values.clone());
+			default -> throw new AssertionError(kind);
+		};
+	}
+
+	private static Buf nativeBuf(Arena arena, byte[] values, int padding) {
+		MemorySegment segment = arena.allocate(values.length + padding + 1L);
+		MemorySegment.copy(MemorySegment.ofArray(values), 0, segment, padding, values.length);
+		return new MemorySegmentBuf(segment).subListForced(padding, padding + values.length);
+	}
+
+	/** Exposes neither heap nor segment storage, forcing the byte-loop path. */
+	private static final class OpaqueBuf extends ByteListBuf {
+
+		private OpaqueBuf(byte[] data) {
+			super(data);
+		}
+
+		@Override
+		public byte[] getBackingByteArrayStrict() {
+			return null;
+		}
+
+		@Override
+		public MemorySegment asMemorySegmentStrict() {
+			return null;
+		}
+	}
+}
@@ -15,10 +15,15 @@ import it.cavallium.datagen.nativedata.ArrayintSerializer;
 import java.lang.foreign.Arena;
 import java.lang.foreign.MemorySegment;
 import java.lang.foreign.ValueLayout;
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 class BufDataCursorTest {
 	private static final DecodeLimits LIMITS = DecodeLimits.unlimited();
@@ -185,6 +190,65 @@ class BufDataCursorTest {
 		}
 	}
 
+	@Test
+	void wrapsHeapDirectAndReadOnlyByteBuffersWithoutCopying() {
+		Buf payload = primitivePayload();
+		byte[] container = new byte[payload.size() + 7];
+		System.arraycopy(payload.asArray(), 0, container, 5, payload.size());
+
+		ByteBuffer heap = ByteBuffer.wrap(container, 2, payload.size() + 4).slice().position(3);
+		heap.limit(3 + payload.size());
+		Buf heapView = Buf.wrap(heap);
+		assertSame(container, heapView.getBackingByteArrayStrict());
+		assertEquals(5, heapView.getBackingByteArrayOffset());
+		assertSpecializedPrimitivePayload(heapView, 0, payload.size(), BufDataCursor.StorageKind.HEAP);
+
+		ByteBuffer direct = ByteBuffer.allocateDirect(container.length).put(container).position(5);
+		direct.limit(5 + payload.size());
+		Buf directView = Buf.wrap(direct);
+		assertTrue(directView.asMemorySegment().isNative());
+		assertTrue(directView.isMutable());
+		assertSpecializedPrimitivePayload(directView, 0, payload.size(), BufDataCursor.StorageKind.MEMORY_SEGMENT);
+
+		Buf readOnlyView = Buf.wrap(ByteBuffer.wrap(container, 5, payload.size()).asReadOnlyBuffer());
+		assertFalse(readOnlyView.isMutable());
+		assertSpecializedPrimitivePayload(readOnlyView, 0, payload.size(), BufDataCursor.StorageKind.MEMORY_SEGMENT);
+		container[5] ^= 1;
+		assertEquals(container[5], readOnlyView.getByte(0));
+		assertEquals(container[5], heapView.getByte(0));
+	}
+
+	@Test
+	void bindsRecordsAtLongOffsetsOfMappedFilesLargerThanTwoGigabytes(@TempDir Path directory) throws IOException {
+		Buf payload = primitivePayload();
+		long offset = (3L << 30) + 5;
+		try (var channel = FileChannel.open(directory.resolve("records.bin"), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+				var arena = Arena.ofConfined()) {
+			// Sparse file: only the record itself occupies disk space
+			channel.write(ByteBuffer.wrap(payload.asArray()), offset);
+			MemorySegment mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+
+			var cursor = new MemorySegmentBufDataCursor(LIMITS);
+			cursor.bind(mapped, offset, payload.size());
+			assertSame(mapped, cursor.directMemorySegment());
+			assertEquals(offset + 6, cursor.directStorageOffset(6));
+			assertEquals(payload.hash64(), cursor.hash64(0, payload.size()));
+			var child = BufDataCursor.borrowed();
+			cursor.bindRegion(child, 6, Integer.BYTES);
+			assertEquals(0x89abcdef, child.readInt());
+			child.unbind();
+			assertPrimitivePayload(cursor);
+			assertFalse(cursor.isBound());
+
+			var input = BufDataInput.create(mapped, offset, payload.size(), LIMITS);
+			assertTrue(input.readBoolean());
+			assertEquals((byte) 0xa5, input.readByte());
+			assertThrows(IndexOutOfBoundsException.class, () -> cursor.bind(mapped, channel.size() - 3, 4));
+			assertFalse(cursor.isBound());
+		}
+	}
+
 	@Test
 	void primitiveReservationsRejectMalformedLengthsBeforeAllocationAndWithoutAdvancing() {
 		var cursor = new BufDataCursor(LIMITS);
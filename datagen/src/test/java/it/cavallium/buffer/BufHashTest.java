@@ -0,0 +1,130 @@
+package it.cavallium.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.stream.HashingOutputStream;
+import it.cavallium.stream.SafeByteArrayOutputStream;
+import it.cavallium.stream.SafeDataOutputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class BufHashTest {
+
+	private static final long SEED = 0x1234_5678_9ABC_DEF0L;
+
+	@Test
+	void matchesReferenceXxh64Vectors() {
+		assertEquals(0xEF46DB3751D8E999L, Buf.wrap().hash64());
+		assertEquals(0x44BC2CF5AD770999L, ascii("abc").hash64());
+		assertEquals(0xFBCEA83C8A378BF1L, ascii("Nobody inspects the spammish repetition").hash64());
+		Buf pattern = Buf.wrap(pattern(1000));
+		assertEquals(0x99594F4828043D35L, pattern.hash64());
+		assertEquals(0x14B8890631358A20L, pattern.hash64(0, pattern.size(), SEED));
+		assertNotEquals(pattern.hash64(0, 999), pattern.hash64(1, 999));
+		assertThrows(IndexOutOfBoundsException.class, () -> pattern.hash64(1, 1000));
+	}
+
+	@Test
+	void everyStorageKindAndSplitHashesTheSameBytesEqually() {
+		var random = new Random(0x7A5E_0B12_C4D9_3E81L);
+		try (var arena = Arena.ofConfined()) {
+			for (int size : new int[] {0, 1, 3, 4, 7, 8, 31, 32, 33, 63, 64, 65, 257}) {
+				byte[] bytes = new byte[size];
+				random.nextBytes(bytes);
+				long expected = BufHash.hash64(bytes, 0, size, SEED);
+				MemorySegment segment = arena.allocate(size + 3L);
+				MemorySegment.copy(MemorySegment.ofArray(bytes), 0, segment, 3, size);
+				byte[] padded = new byte[size + 5];
+				System.arraycopy(bytes, 0, padded, 5, size);
+				int split = size / 3;
+				Buf[] views = {
+						Buf.wrap(bytes),
+						Buf.wrap(padded).subList(5, 5 + size),
+						new MemorySegmentBuf(segment).subList(3, 3 + size),
+						CompositeBuf.of(Buf.wrap(Arrays.copyOf(bytes, split)),
+								new MemorySegmentBuf(segment).subList(3 + split, 3 + size)),
+						new OpaqueBuf(bytes.clone())
+				};
+				for (Buf view : views) {
+					assertEquals(expected, view.hash64(0, size, SEED), "size=" + size + ", view=" + view.getClass());
+				}
+
+				var streaming = new BufHash.Streaming(SEED);
+				int offset = 0;
+				while (offset < size) {
+					int chunk = Math.min(size - offset, random.nextInt(40));
+					if (chunk == 1) {
+						streaming.update(bytes[offset]);
+					} else {
+						streaming.update(bytes, offset, chunk);
+					}
+					offset += chunk;
+				}
+				assertEquals(expected, streaming.getValue(), "size=" + size);
+				assertEquals(size, streaming.totalLength());
+				assertEquals(new BufHash.Streaming(SEED).getValue(), streaming.reset().getValue());
+			}
+		}
+	}
+
+	@Test
+	void hashesSerializedBytesWhileWritingAndInsideBoundInputs() {
+		var sink = new SafeByteArrayOutputStream();
+		var hashing = new HashingOutputStream(sink, BufHash.DEFAULT_SEED);
+		var output = new SafeDataOutputStream(hashing);
+		output.writeInt(42);
+		output.writeLong(-7L);
+		output.writeShortText("hashed while written", StandardCharsets.UTF_8);
+		output.write(pattern(100));
+		Buf written = Buf.wrap(sink.toByteArray());
+		assertEquals(written.hash64(), hashing.hash());
+		assertEquals(written.size(), hashing.hashedLength());
+
+		var discarding = new HashingOutputStream(SEED);
+		written.writeTo(new SafeDataOutputStream(discarding));
+		assertEquals(written.hash64(0, written.size(), SEED), discarding.hash());
+		discarding.resetHash();
+		assertEquals(Buf.wrap().hash64(0, 0, SEED), discarding.hash());
+
+		var input = BufDataInput.create(written, DecodeLimits.unlimited());
+		input.skipExact(4);
+		assertEquals(written.hash64(8, 50), input.hash64(8, 50));
+		assertEquals(4, input.position());
+		assertThrows(IndexOutOfBoundsException.class, () -> input.hash64(1, written.size()));
+	}
+
+	private static Buf ascii(String text) {
+		return Buf.wrap(text.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static byte[] pattern(int length) {
+		byte[] bytes = new byte[length];
+		for (int i = 0; i < length; i++) bytes[i] = (byte) (i * 31 + 7);
+		return bytes;
+	}
+
+	/** Exposes neither heap nor segment storage, forcing the byte-at-a-time path. */
+	private static final class OpaqueBuf extends ByteListBuf {
+
+		private OpaqueBuf(byte[] data) {
+			super(data);
+		}
+
+		@Override
+		public byte[] getBackingByteArrayStrict() {
+			return null;
+		}
+
+		@Override
+		public MemorySegment asMemorySegmentStrict() {
+			return null;
+		}
+	}
+}
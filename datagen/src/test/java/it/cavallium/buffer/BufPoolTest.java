@@ -0,0 +1,157 @@
+package it.cavallium.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.stream.SafeDataOutput;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BufPoolTest {
+
+	@Test
+	void acquireRoundsUpToSizeClassesAndRecyclesLaneLocally() {
+		var pool = new BufPool(64, 1024, 2, 2);
+		var lane = pool.newLane();
+		byte[] small = lane.acquire(1);
+		assertEquals(64, small.length);
+		byte[] medium = lane.acquire(65);
+		assertEquals(128, medium.length);
+		assertEquals(64, lane.acquire(0).length);
+		assertEquals(2000, lane.acquire(2000).length);
+
+		lane.release(medium);
+		assertSame(medium, lane.acquire(100));
+		lane.release(new byte[200]);
+		assertEquals(200, lane.acquire(128).length);
+		lane.release(new byte[4096]);
+		lane.release(new byte[10]);
+		assertEquals(0, pool.sharedArrays());
+		assertThrows(IllegalArgumentException.class, () -> lane.acquire(-1));
+		assertThrows(IllegalArgumentException.class, () -> new BufPool(100, 1024, 1, 1));
+		assertThrows(IllegalArgumentException.class, () -> new BufPool(64, 32, 1, 1));
+	}
+
+	@Test
+	void fullLanesSpillIntoBoundedSharedTier() {
+		var pool = new BufPool(64, 1024, 1, 2);
+		var first = pool.newLane();
+		var second = pool.newLane();
+		byte[] a = new byte[64];
+		byte[] b = new byte[64];
+		byte[] c = new byte[64];
+		byte[] d = new byte[64];
+		first.release(a);
+		first.release(b);
+		first.release(c);
+		first.release(d);
+		assertEquals(2, pool.sharedArrays());
+
+		byte[] fromShared = second.acquire(64);
+		assertTrue(fromShared == b || fromShared == c);
+		assertSame(a, first.acquire(64));
+		first.release(a);
+		first.drain();
+		assertEquals(2, pool.sharedArrays());
+	}
+
+	@Test
+	void pooledOutputsGrowThroughThePoolAndReturnStorageOnRelease() {
+		var pool = new BufPool(64, 1024, 4, 4);
+		var lane = pool.newLane();
+		byte[] payload = new byte[300];
+		for (int i = 0; i < payload.length; i++) payload[i] = (byte) i;
+
+		PooledBufDataOutput output = lane.newOutput();
+		output.writeInt(7);
+		output.write(payload);
+		output.writeLong(9L);
+		Buf copy = output.toList();
+		byte[] storage = output.asList().getBackingByteArray();
+		assertEquals(512, storage.length);
+		assertEquals(4 + 300 + 8, copy.size());
+		output.release();
+		output.release();
+		assertTrue(output.isReleased());
+		assertEquals(0, output.size());
+		assertThrows(IllegalStateException.class, () -> output.writeInt(1));
+
+		var input = BufDataInput.create(copy, DecodeLimits.unlimited());
+		assertEquals(7, input.readInt());
+		byte[] read = new byte[300];
+		input.readFully(read);
+		assertArrayEquals(payload, read);
+		assertEquals(9L, input.readLong());
+
+		try (PooledBufDataOutput reused = lane.newOutput(400)) {
+			reused.writeShort(3);
+			assertSame(storage, reused.asList().getBackingByteArray());
+			assertNotSame(copy.getBackingByteArray(), storage);
+		}
+
+		PooledBufDataOutput limited = lane.newLimitedOutput(8, 100);
+		limited.writeLong(1L);
+		assertThrows(IndexOutOfBoundsException.class, () -> limited.writeByte(0));
+		limited.close();
+	}
+
+	@Test
+	void chunkedOutputsMatchContiguousOutputsAndFlushWithGatheringWrites(@TempDir Path dir) throws IOException {
+		var pool = new BufPool(64, 1024, 4, 4);
+		var lane = pool.newLane();
+		byte[] payload = new byte[150];
+		for (int i = 0; i < payload.length; i++) payload[i] = (byte) (i * 7);
+
+		BufDataOutput expected = BufDataOutput.create();
+		ChunkedBufDataOutput chunked = lane.newChunkedOutput(64);
+		for (int round = 0; round < 20; round++) {
+			for (var output : new SafeDataOutput[] {expected, chunked}) {
+				output.writeByte(round);
+				output.writeInt(0x89abcdef + round);
+				output.writeLong(0x8123456789abcdefL * round);
+				output.writeInt52(0x0a23456789abcdL + round);
+				output.writeDouble(round / 3d);
+				output.writeShortText("chunk boundary " + round, StandardCharsets.UTF_8);
+				output.write(payload, round, payload.length - round);
+			}
+		}
+		byte[] expectedBytes = expected.toList().asArray();
+		assertEquals(expectedBytes.length, chunked.size());
+		assertTrue(chunked.chunkCount() > 1);
+		assertArrayEquals(expectedBytes, chunked.toList().asArray());
+		assertArrayEquals(expectedBytes, chunked.asList().asArray());
+
+		Path file = dir.resolve("chunked.bin");
+		try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			assertEquals(expectedBytes.length, chunked.flushTo(channel));
+		}
+		assertArrayEquals(expectedBytes, Files.readAllBytes(file));
+		assertEquals(0, chunked.size());
+		assertEquals(1, chunked.chunkCount());
+		assertEquals(0, chunked.asList().size());
+
+		chunked.writeInt(5);
+		assertArrayEquals(new byte[] {0, 0, 0, 5}, chunked.toList().asArray());
+		chunked.close();
+		chunked.release();
+		assertTrue(chunked.isReleased());
+		assertThrows(IllegalStateException.class, () -> chunked.write(payload));
+		assertThrows(IllegalStateException.class, chunked::asList);
+		assertThrows(IllegalArgumentException.class, () -> lane.newChunkedOutput(8));
+		try (ChunkedBufDataOutput defaults = lane.newChunkedOutput()) {
+			defaults.writeLong(1L);
+			assertEquals(8, defaults.size());
+		}
+	}
+}
@@ -0,0 +1,149 @@
+package it.cavallium.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import org.junit.jupiter.api.Test;
+
+class BufPrimitiveSettersTest {
+
+	private static final int STORAGE_KINDS = 5;
+	private static final short[] SHORTS = {0, Short.MIN_VALUE, -1, 0x1234, Short.MAX_VALUE};
+	private static final char[] CHARS = {0, 'A', '\uff10', '\uffff'};
+	private static final int[] INTS = {0, Integer.MIN_VALUE, -1, 0x11223344, Integer.MAX_VALUE};
+	private static final long[] LONGS = {0, Long.MIN_VALUE, -1, 0x1122334455667788L, Long.MAX_VALUE};
+	private static final float[] FLOATS = {0, -0.0f, 1.25f, Float.NEGATIVE_INFINITY, Float.NaN};
+	private static final double[] DOUBLES = {0, -0.0d, 1.25d, Double.POSITIVE_INFINITY, Double.NaN};
+
+	@Test
+	void absoluteSettersWriteTheSameBigEndianBytesAsTheSequentialOutput() {
+		BufDataOutput expected = BufDataOutput.create();
+		expected.writeByte(0x7f);
+		expected.writeShort(0x8123);
+		expected.writeChar('\uff10');
+		expected.writeInt(0x89abcdef);
+		expected.writeLong(0x8123456789abcdefL);
+		expected.writeInt52(0x0a23456789abcdL);
+		expected.writeFloat(-12.5f);
+		expected.writeDouble(12345.25d);
+		int fixedLength = expected.size();
+		expected.write(new byte[] {(byte) 0xef, (byte) 0xcd, (byte) 0xab, (byte) 0x89});
+		byte[] expectedBytes = expected.asList().asArray();
+
+		try (var arena = Arena.ofConfined()) {
+			for (int kind = 0; kind < STORAGE_KINDS; kind++) {
+				Buf buf = view(kind, arena, expectedBytes.length);
+				buf.setByte(0, (byte) 0x7f);
+				buf.setShort(1, (short) 0x8123);
+				buf.setChar(3, '\uff10');
+				buf.setInt(5, 0x89abcdef);
+				buf.setLong(9, 0x8123456789abcdefL);
+				buf.setInt52(17, 0x0a23456789abcdL);
+				buf.setFloat(24, -12.5f);
+				buf.setDouble(28, 12345.25d);
+				buf.setIntLE(fixedLength, 0x89abcdef);
+				assertArrayEquals(expectedBytes, buf.asArray(), "kind=" + kind);
+				assertEquals(0x0a23456789abcdL, buf.getInt52(17), "kind=" + kind);
+
+				int end = buf.size();
+				assertThrows(IndexOutOfBoundsException.class, () -> buf.setInt(end - 3, -1), "kind=" + kind);
+				assertThrows(IndexOutOfBoundsException.class, () -> buf.setLong(-1, -1), "kind=" + kind);
+				assertThrows(IndexOutOfBoundsException.class, () -> buf.setInt52(end - 6, 1), "kind=" + kind);
+				assertThrows(IllegalArgumentException.class, () -> buf.setInt52(0, -1), "kind=" + kind);
+				assertArrayEquals(expectedBytes, buf.asArray(), "kind=" + kind);
+			}
+		}
+	}
+
+	@Test
+	void bulkSettersMatchTheSequentialOutputAndValidateBeforeWriting() {
+		BufDataOutput expected = BufDataOutput.create();
+		expected.writeByte(0x55);
+		for (short value : SHORTS) expected.writeShort(value);
+		for (char value : CHARS) expected.writeChar(value);
+		for (int value : INTS) expected.writeInt(value);
+		for (long value : LONGS) expected.writeLong(value);
+		for (float value : FLOATS) expected.writeFloat(value);
+		for (double value : DOUBLES) expected.writeDouble(value);
+		byte[] expectedBytes = expected.asList().asArray();
+
+		try (var arena = Arena.ofConfined()) {
+			for (int kind = 0; kind < STORAGE_KINDS; kind++) {
+				Buf buf = view(kind, arena, expectedBytes.length);
+				int offset = 0;
+				buf.setByte(offset++, (byte) 0x55);
+				buf.setShorts(offset, SHORTS, 0, SHORTS.length);
+				offset += SHORTS.length * Short.BYTES;
+				buf.setChars(offset, CHARS, 0, CHARS.length);
+				offset += CHARS.length * Character.BYTES;
+				buf.setInts(offset, INTS, 0, INTS.length);
+				offset += INTS.length * Integer.BYTES;
+				buf.setLongs(offset, LONGS, 0, LONGS.length);
+				offset += LONGS.length * Long.BYTES;
+				buf.setFloats(offset, FLOATS, 0, FLOATS.length);
+				offset += FLOATS.length * Float.BYTES;
+				buf.setDoubles(offset, DOUBLES, 0, DOUBLES.length);
+				assertArrayEquals(expectedBytes, buf.asArray(), "kind=" + kind);
+
+				buf.setInts(1, INTS, 3, 2);
+				assertEquals(INTS[3], buf.getInt(1), "kind=" + kind);
+				assertEquals(INTS[4], buf.getInt(5), "kind=" + kind);
+				byte[] beforeFailure = buf.asArray().clone();
+				int end = buf.size();
+				assertThrows(IndexOutOfBoundsException.class,
+						() -> buf.setLongs(end - 15, LONGS, 0, 2), "kind=" + kind);
+				assertThrows(IndexOutOfBoundsException.class,
+						() -> buf.setInts(0, INTS, 4, 2), "kind=" + kind);
+				assertThrows(IndexOutOfBoundsException.class,
+						() -> buf.setDoubles(0, DOUBLES, 0, Integer.MAX_VALUE), "kind=" + kind);
+				assertArrayEquals(beforeFailure, buf.asArray(), "kind=" + kind);
+			}
+		}
+	}
+
+	@Test
+	void frozenBuffersRejectSetters() {
+		try (var arena = Arena.ofConfined()) {
+			for (int kind = 0; kind < STORAGE_KINDS; kind++) {
+				Buf frozen = view(kind, arena, 16).freeze();
+				assertThrows(UnsupportedOperationException.class, () -> frozen.setInt(0, 1), "kind=" + kind);
+				assertThrows(UnsupportedOperationException.class, () -> frozen.setInt52(0, 1), "kind=" + kind);
+				assertThrows(UnsupportedOperationException.class,
+						() -> frozen.setLongs(0, LONGS, 0, 1), "kind=" + kind);
+			}
+		}
+	}
+
+	/** Zero-filled mutable buffers of every storage kind: heap, heap slice, native, native slice, opaque. */
+	private static Buf view(int kind, Arena arena, int length) {
+		return switch (kind) {
+			case 0 -> Buf.createZeroes(length);
+			case 1 -> Buf.createZeroes(length + 5).subList(3, 3 + length);
+			case 2 -> new MemorySegmentBuf(arena.allocate(length));
+			case 3 -> new MemorySegmentBuf(arena.allocate(length + 5L)).subList(1, 1 + length);
+			case 4 -> new OpaqueBuf(new byte[length]);
+			default -> throw new AssertionError(kind);
+		};
+	}
+
+	/** Exposes neither heap nor segment storage, forcing the value-by-value path. */
+	private static final class OpaqueBuf extends ByteListBuf {
+
+		private OpaqueBuf(byte[] data) {
+			super(data);
+		}
+
+		@Override
+		public byte[] getBackingByteArrayStrict() {
+			return null;
+		}
+
+		@Override
+		public MemorySegment asMemorySegmentStrict() {
+			return null;
+		}
+	}
+}
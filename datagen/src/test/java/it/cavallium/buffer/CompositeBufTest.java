@@ -0,0 +1,179 @@
+package it.cavallium.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class CompositeBufTest {
+
+	@Test
+	void presentsChunksAsOneBufferWithoutCopying() {
+		byte[] expected = payload();
+		try (var arena = Arena.ofConfined()) {
+			CompositeBuf composite = split(expected, arena);
+			assertEquals(expected.length, composite.size());
+			assertArrayEquals(expected, composite.asArray());
+			assertNull(composite.getBackingByteArrayStrict());
+			assertNull(composite.asMemorySegmentStrict());
+			assertTrue(composite.equals(Buf.wrap(expected)));
+			assertEquals(Buf.wrap(expected).getLong(3), composite.getLong(3));
+			assertEquals(Buf.wrap(expected).getInt(5), composite.getInt(5));
+
+			Buf inFirstChunk = composite.subList(1, 4);
+			assertSame(composite.chunk(0).getBackingByteArray(), inFirstChunk.getBackingByteArray());
+			Buf spanning = composite.subList(5, 20);
+			assertInstanceOf(CompositeBuf.class, spanning);
+			assertArrayEquals(Arrays.copyOfRange(expected, 5, 20), spanning.asArray());
+			assertTrue(composite.equals(5, expected, 5, 15));
+			assertFalse(composite.equals(5, expected, 6, 15));
+			assertEquals(3, CompositeBuf.of(composite, Buf.wrap()).chunkCount());
+
+			var output = BufDataOutput.create();
+			composite.writeTo(output);
+			assertArrayEquals(expected, output.toList().asArray());
+			assertThrows(UnsupportedOperationException.class, () -> composite.set(0, (byte) 1));
+			assertThrows(UnsupportedOperationException.class,
+					() -> composite.setBytesFromBuf(0, Buf.wrap(new byte[1]), 0, 1));
+			assertThrows(UnsupportedOperationException.class, composite::binaryOutputStream);
+
+			byte[] flattened = composite.getBackingByteArray();
+			assertArrayEquals(expected, Arrays.copyOfRange(flattened, composite.getBackingByteArrayOffset(),
+					composite.getBackingByteArrayOffset() + composite.getBackingByteArrayLength()));
+			var heapBuffer = composite.asHeapByteBuffer();
+			assertEquals(expected.length, heapBuffer.remaining());
+			heapBuffer.put(0, (byte) ~expected[0]);
+			assertEquals(expected[0], composite.getByte(0), "asHeapByteBuffer must return a copy");
+		}
+	}
+
+	@Test
+	void cursorsReadAcrossChunkBoundaries() {
+		var output = BufDataOutput.create();
+		output.writeInt(0x01020304);
+		output.writeLong(0x1122334455667788L);
+		output.writeShortText("boundary text", StandardCharsets.UTF_8);
+		output.write(new byte[] {9, 8, 7, 6, 5, 4, 3, 2});
+		byte[] wire = output.toList().asArray();
+
+		try (var arena = Arena.ofConfined()) {
+			CompositeBuf composite = split(wire, arena);
+			var input = BufDataInput.create(composite, DecodeLimits.unlimited());
+			assertEquals(0x01020304, input.readInt());
+			assertEquals(0x1122334455667788L, input.readLong());
+			assertEquals("boundary text", input.readShortText(StandardCharsets.UTF_8));
+			int[] ints = new int[2];
+			input.readInts(ints, 0, 2);
+			assertArrayEquals(new int[] {0x09080706, 0x05040302}, ints);
+			assertThrows(MalformedDataException.class, input::readByte);
+
+			var heapCursor = new HeapBufDataCursor(DecodeLimits.unlimited());
+			var segmentCursor = new MemorySegmentBufDataCursor(DecodeLimits.unlimited());
+			var fallbackCursor = new FallbackBufDataCursor(DecodeLimits.unlimited());
+			assertEquals(BufDataCursor.StorageKind.FALLBACK, BufDataCursor.bindSpecialized(composite, 4,
+					composite.size() - 4, heapCursor, segmentCursor, fallbackCursor));
+			try {
+				assertEquals(0x1122334455667788L, fallbackCursor.readLong());
+				assertNull(fallbackCursor.directHeapArray());
+				var child = BufDataCursor.borrowed();
+				fallbackCursor.bindRegion(child, 8, 2);
+				assertEquals(13, child.readUnsignedShort());
+				child.unbind();
+			} finally {
+				fallbackCursor.unbind();
+			}
+		}
+	}
+
+	@Test
+	void bulkReadsMatchContiguousStorageAcrossChunkBoundaries() {
+		byte[] expected = payload();
+		try (var arena = Arena.ofConfined()) {
+			CompositeBuf composite = split(expected, arena);
+			// Every start offset moves the chunk boundaries to a different position inside the elements.
+			for (int start = 0; start < Long.BYTES; start++) {
+				int bytes = expected.length - start;
+				BufDataInput heap = at(Buf.wrap(expected), start);
+				BufDataInput chunked = at(composite, start);
+				boolean[] heapBooleans = new boolean[bytes];
+				boolean[] chunkedBooleans = new boolean[bytes];
+				heap.readBooleans(heapBooleans, 0, bytes);
+				chunked.readBooleans(chunkedBooleans, 0, bytes);
+				assertArrayEquals(heapBooleans, chunkedBooleans);
+
+				short[] heapShorts = new short[bytes / Short.BYTES];
+				short[] chunkedShorts = new short[heapShorts.length];
+				at(Buf.wrap(expected), start).readShorts(heapShorts, 0, heapShorts.length);
+				at(composite, start).readShorts(chunkedShorts, 0, chunkedShorts.length);
+				assertArrayEquals(heapShorts, chunkedShorts);
+
+				char[] heapChars = new char[bytes / Character.BYTES];
+				char[] chunkedChars = new char[heapChars.length];
+				at(Buf.wrap(expected), start).readChars(heapChars, 0, heapChars.length);
+				at(composite, start).readChars(chunkedChars, 0, chunkedChars.length);
+				assertArrayEquals(heapChars, chunkedChars);
+
+				int[] heapInts = new int[bytes / Integer.BYTES];
+				int[] chunkedInts = new int[heapInts.length];
+				at(Buf.wrap(expected), start).readInts(heapInts, 0, heapInts.length);
+				at(composite, start).readInts(chunkedInts, 0, chunkedInts.length);
+				assertArrayEquals(heapInts, chunkedInts);
+
+				long[] heapLongs = new long[bytes / Long.BYTES];
+				long[] chunkedLongs = new long[heapLongs.length];
+				at(Buf.wrap(expected), start).readLongs(heapLongs, 0, heapLongs.length);
+				at(composite, start).readLongs(chunkedLongs, 0, chunkedLongs.length);
+				assertArrayEquals(heapLongs, chunkedLongs);
+
+				float[] heapFloats = new float[bytes / Float.BYTES];
+				float[] chunkedFloats = new float[heapFloats.length];
+				at(Buf.wrap(expected), start).readFloats(heapFloats, 0, heapFloats.length);
+				at(composite, start).readFloats(chunkedFloats, 0, chunkedFloats.length);
+				assertArrayEquals(heapFloats, chunkedFloats);
+
+				double[] heapDoubles = new double[bytes / Double.BYTES];
+				double[] chunkedDoubles = new double[heapDoubles.length];
+				at(Buf.wrap(expected), start).readDoubles(heapDoubles, 0, heapDoubles.length);
+				at(composite, start).readDoubles(chunkedDoubles, 0, chunkedDoubles.length);
+				assertArrayEquals(heapDoubles, chunkedDoubles);
+			}
+		}
+	}
+
+	private static BufDataInput at(Buf buf, int start) {
+		var input = BufDataInput.create(buf, DecodeLimits.unlimited());
+		input.skipExact(start);
+		return input;
+	}
+
+	private static byte[] payload() {
+		byte[] bytes = new byte[40];
+		for (int i = 0; i < bytes.length; i++) bytes[i] = (byte) (i * 7 + 1);
+		return bytes;
+	}
+
+	/** Splits {@code bytes} into a heap chunk, a native chunk, and a heap slice with odd boundaries. */
+	private static CompositeBuf split(byte[] bytes, Arena arena) {
+		int first = 6;
+		int second = 11;
+		MemorySegment segment = arena.allocate(second - first);
+		MemorySegment.copy(bytes, first, segment, ValueLayout.JAVA_BYTE, 0, second - first);
+		byte[] padded = new byte[bytes.length - second + 3];
+		System.arraycopy(bytes, second, padded, 3, bytes.length - second);
+		return CompositeBuf.of(Buf.wrap(Arrays.copyOf(bytes, first)), new MemorySegmentBuf(segment),
+				Buf.wrap(padded).subList(3, padded.length));
+	}
+}
@@ -0,0 +1,92 @@
+package it.cavallium.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.datagen.DecodeLimits;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileBufTest {
+
+	private static final int RECORDS = 4096;
+	private static final int RECORD_BYTES = Long.BYTES + Integer.BYTES;
+
+	@Test
+	void sequentialReaderDrivesReadaheadAndReleasesPassedWindows(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("records.bin");
+		BufDataOutput output = BufDataOutput.create(RECORDS * RECORD_BYTES);
+		for (int i = 0; i < RECORDS; i++) {
+			output.writeLong(i * 31L);
+			output.writeInt(i);
+		}
+		Files.write(file, output.asList().asArray());
+
+		MappedFileBuf mapped = MappedFileBuf.openReadOnly(file);
+		assertFalse(mapped.isWritable());
+		assertEquals(RECORDS * RECORD_BYTES, mapped.byteSize());
+		assertThrows(UnsupportedOperationException.class, () -> mapped.slice(0, 4).setInt(0, 1));
+		assertThrows(IndexOutOfBoundsException.class, () -> mapped.slice(mapped.byteSize() - 3, 4));
+
+		var readahead = mapped.startReadahead(4096, 2);
+		assertThrows(IllegalStateException.class, () -> mapped.startReadahead(4096, 2));
+		var cursor = new MemorySegmentBufDataCursor(DecodeLimits.unlimited());
+		for (int i = 0; i < RECORDS; i++) {
+			long offset = (long) i * RECORD_BYTES;
+			readahead.advanceTo(offset);
+			cursor.bind(mapped.segment(), offset, RECORD_BYTES);
+			assertEquals(i * 31L, cursor.readLong());
+			assertEquals(i, cursor.readInt());
+			cursor.unbind();
+			readahead.releaseBefore(offset);
+		}
+		readahead.advanceTo(mapped.byteSize());
+		awaitLoaded(readahead, mapped.byteSize());
+		readahead.releaseBefore(mapped.byteSize());
+		assertThrows(IndexOutOfBoundsException.class, () -> readahead.advanceTo(mapped.byteSize() + 1));
+		readahead.close();
+		assertThrows(IllegalStateException.class, () -> readahead.advanceTo(0));
+
+		var restarted = mapped.startReadahead();
+		assertEquals(RECORDS - 1, mapped.asBuf().getInt(mapped.asBuf().size() - Integer.BYTES));
+		MemorySegmentBuf view = mapped.slice(RECORD_BYTES, RECORD_BYTES);
+		mapped.close();
+		mapped.close();
+		assertThrows(IllegalStateException.class, () -> restarted.advanceTo(0));
+		assertThrows(IllegalStateException.class, () -> view.getLong(0));
+		assertThrows(IllegalStateException.class, mapped::startReadahead);
+	}
+
+	@Test
+	void readWriteMappingsCreateTheFileAndForceWritesBack(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("written.bin");
+		try (MappedFileBuf mapped = MappedFileBuf.openReadWrite(file, 16)) {
+			assertTrue(mapped.isWritable());
+			MemorySegmentBuf view = mapped.slice(4, 12);
+			view.setInt(0, 0x01020304);
+			view.setLong(4, -1L);
+			mapped.force();
+		}
+		byte[] expected = {0, 0, 0, 0, 1, 2, 3, 4, -1, -1, -1, -1, -1, -1, -1, -1};
+		assertArrayEquals(expected, Files.readAllBytes(file));
+		try (MappedFileBuf reopened = MappedFileBuf.openReadWrite(file)) {
+			assertEquals(16, reopened.byteSize());
+			assertEquals(0x01020304, reopened.asBuf().getInt(4));
+		}
+		assertThrows(IllegalArgumentException.class, () -> MappedFileBuf.openReadWrite(file, -1));
+	}
+
+	private static void awaitLoaded(MappedFileBuf.Readahead readahead, long end) throws InterruptedException {
+		long deadline = System.nanoTime() + 10_000_000_000L;
+		while (readahead.loadedUpTo() < end) {
+			assertTrue(System.nanoTime() < deadline, "readahead stalled at " + readahead.loadedUpTo());
+			Thread.sleep(1);
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package it.cavallium.buffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.datagen.DecodeLimits;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+class OffHeapBufArenaTest {
+
+	@Test
+	void slicesShareTheParentCount() {
+		try (var arena = OffHeapBufArena.ofConfined(1024, true)) {
+			ArenaBuf buf = arena.copyOf(Buf.wrap(new byte[] {1, 2, 3, 4, 5}));
+			assertTrue(buf.asMemorySegment().isNative());
+			assertEquals(1, buf.refCount());
+
+			ArenaBuf slice = buf.retainedSlice(1, 4);
+			assertEquals(2, buf.refCount());
+			assertArrayEquals(new byte[] {2, 3, 4}, slice.asArray());
+			assertSame(buf, buf.subList(0, 5));
+			ArenaBuf frozen = slice.freeze();
+			assertFalse(frozen.isMutable());
+			assertEquals(2, frozen.refCount());
+
+			assertFalse(buf.release());
+			assertEquals(3, slice.getByte(1));
+			assertTrue(frozen.release());
+			assertTrue(slice.isReleased());
+			assertThrows(IllegalStateException.class, slice::release);
+			assertThrows(IllegalStateException.class, buf::retain);
+			assertThrows(IllegalStateException.class, () -> buf.getByte(0));
+			assertEquals(0, arena.liveBuffers());
+		}
+	}
+
+	@Test
+	void slabsAreSharedAndReadersWorkOverArenaBuffers() {
+		try (var arena = OffHeapBufArena.ofShared(256, false)) {
+			ArenaBuf first = arena.allocate(16);
+			ArenaBuf second = arena.allocate(16);
+			assertEquals(16, second.asMemorySegment().address() - first.asMemorySegment().address());
+			ArenaBuf large = arena.allocate(1000);
+			assertEquals(1000, large.size());
+
+			second.setInt(0, 0x01020304);
+			var input = BufDataInput.create(second, DecodeLimits.unlimited());
+			assertEquals(0x01020304, input.readInt());
+
+			assertTrue(first.release());
+			assertTrue(second.release());
+			assertTrue(large.release());
+			assertEquals(0, arena.liveBuffers());
+		}
+	}
+
+	@Test
+	void sharedBuffersMayBeReleasedOnOtherThreads() throws Exception {
+		try (var arena = OffHeapBufArena.ofShared(); var executor = Executors.newSingleThreadExecutor()) {
+			ArenaBuf buf = arena.allocate(64).retain();
+			assertFalse(executor.submit(buf::release).get());
+			assertTrue(executor.submit(buf::release).get());
+			assertEquals(0, arena.liveBuffers());
+		}
+	}
+
+	@Test
+	void leakDetectionReportsUnreleasedBuffersOnClose() {
+		var arena = OffHeapBufArena.ofShared(1024, true);
+		ArenaBuf leaked = arena.allocate(8);
+		arena.allocate(8).release();
+		IllegalStateException failure = assertThrows(IllegalStateException.class, arena::close);
+		assertTrue(failure.getMessage().startsWith("1 "), failure.getMessage());
+		assertEquals(1, failure.getSuppressed().length);
+		assertThrows(IllegalStateException.class, () -> leaked.getByte(0));
+		assertThrows(IllegalStateException.class, () -> arena.allocate(1));
+		assertThrows(IllegalArgumentException.class, () -> OffHeapBufArena.ofShared(0, false));
+	}
+}
@@ -148,6 +148,32 @@ class ZeroAllocationEncoderTest {
         testDecodeString("lorem ipsum dolor sit amet".repeat(10));
     }
 
+    @Test
+    void virtualThreadsShareAStripedScratchPool() throws InterruptedException {
+        var encoder = new ZeroAllocationEncoder(16, 4);
+        var failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        var threads = new ArrayList<Thread>();
+        for (int t = 0; t < 1000; t++) {
+            String word = WORDS.get(t % WORDS.size());
+            threads.add(Thread.ofVirtual().start(() -> {
+                try {
+                    var bdo = BufDataOutput.create();
+                    encoder.encodeTo(word, bdo);
+                    var in = BufDataInput.create(bdo.asList(), DecodeLimits.unlimited());
+                    assertEquals(word, encoder.decodeFrom(in, in.available()));
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(List.of(), failures);
+        assertTrue(encoder.pooledScratch() >= 1);
+        assertTrue(encoder.pooledScratch() <= 4);
+    }
+
     public void testEncodeString(String s) {
         var bdo = BufDataOutput.create();
         INSTANCE.encodeTo(s, bdo);
@@ -0,0 +1,66 @@
+package it.cavallium.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.datagen.nativedata.ArrayStringSerializer;
+import it.cavallium.datagen.nativedata.ArraydoubleSerializer;
+import it.cavallium.datagen.nativedata.ArrayintSerializer;
+import it.cavallium.datagen.nativedata.ArraylongSerializer;
+import java.util.List;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class ArrayStreamWriterTest {
+
+	@Test
+	void streamedArraysMatchTheArrayCodecs() {
+		int size = 3 * ArrayStreamWriter.CHUNK_ELEMENTS + 17;
+		long[] longs = LongStream.range(0, size).map(i -> i * 0x1_0000_0001L).toArray();
+		int[] ints = IntStream.range(0, size).map(i -> -i).toArray();
+		double[] doubles = DoubleStream.iterate(0.5, d -> d * 1.5).limit(40).toArray();
+		String[] strings = {"a", "", "ccc"};
+
+		BufDataOutput expected = BufDataOutput.create();
+		new ArraylongSerializer().serialize(expected, longs);
+		new ArrayintSerializer().serialize(expected, ints);
+		new ArraydoubleSerializer().serialize(expected, doubles);
+		new ArrayStringSerializer().serialize(expected, strings);
+
+		BufDataOutput streamed = BufDataOutput.create();
+		var longWriter = ArraylongSerializer.streamWriter(streamed, size);
+		longWriter.write(longs[0]);
+		longWriter.write(longs, 1, 99);
+		longWriter.writeAll(LongStream.of(longs).skip(100));
+		longWriter.finish();
+		var intWriter = ArrayintSerializer.streamWriter(streamed, size);
+		intWriter.writeAll(IntStream.of(ints));
+		intWriter.finish();
+		var doubleWriter = ArraydoubleSerializer.streamWriter(streamed, doubles.length);
+		doubleWriter.writeAll(DoubleStream.of(doubles).iterator());
+		doubleWriter.finish();
+		var stringWriter = ArrayStringSerializer.streamWriter(streamed, strings.length);
+		stringWriter.writeAll(List.of(strings).iterator());
+		stringWriter.finish();
+
+		assertArrayEquals(expected.toList().toByteArray(), streamed.toList().toByteArray());
+	}
+
+	@Test
+	void countsAreEnforced() {
+		BufDataOutput output = BufDataOutput.create();
+		assertThrows(IllegalArgumentException.class, () -> ArrayStreamWriter.ofLongs(output, -1));
+		var writer = ArrayStreamWriter.ofLongs(output, 3);
+		assertThrows(IllegalStateException.class, () -> writer.writeAll(LongStream.range(0, 4)));
+		assertEquals(3, writer.remaining());
+		var shortWriter = ArrayStreamWriter.ofInts(BufDataOutput.create(), 2);
+		shortWriter.write(1);
+		assertThrows(IllegalStateException.class, shortWriter::finish);
+		assertThrows(IndexOutOfBoundsException.class, () -> shortWriter.write(new int[1], 1, 1));
+		assertEquals(1, shortWriter.remaining());
+	}
+}
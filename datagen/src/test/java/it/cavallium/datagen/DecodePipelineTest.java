@@ -0,0 +1,137 @@
+package it.cavallium.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.stream.SafeDataInputStream;
+import it.cavallium.stream.SafeInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class DecodePipelineTest {
+
+	@Test
+	void recordsAreDecodedOnLaneThreadsAndConsumedInOrder() {
+		Set<Thread> decodeThreads = ConcurrentHashMap.newKeySet();
+		AtomicInteger lanes = new AtomicInteger();
+		try (var pipeline = new DecodePipeline<Integer>(() -> {
+			lanes.incrementAndGet();
+			return (version, source, offset, length) -> {
+				decodeThreads.add(Thread.currentThread());
+				assertEquals(Integer.BYTES, length);
+				return source.getInt(offset);
+			};
+		}, 3, 7, 4)) {
+			assertEquals(3, lanes.get());
+			for (int round = 0; round < 2; round++) {
+				List<Integer> values = new ArrayList<>();
+				long count = pipeline.run(RecordFrames.of(frames(1000, -1), RecordFraming.LENGTH_PREFIXED), values::add);
+				assertEquals(1000, count);
+				for (int i = 0; i < 1000; i++) {
+					assertEquals(i, values.get(i));
+				}
+			}
+		}
+		assertFalse(decodeThreads.isEmpty());
+		assertTrue(decodeThreads.size() <= 3);
+		decodeThreads.forEach(thread -> assertFalse(thread.isVirtual()));
+	}
+
+	@Test
+	void stageFailuresStopTheRunAndLeaveThePipelineReusable() {
+		var failure = new MalformedDataException("bad record");
+		try (var pipeline = new DecodePipeline<Integer>(() -> (version, source, offset, length) -> {
+			int value = source.getInt(offset);
+			if (value == 500) throw failure;
+			return value;
+		}, 2, 16, 3)) {
+			assertSame(failure, assertThrows(MalformedDataException.class,
+					() -> pipeline.run(RecordFrames.of(frames(1000, -1), RecordFraming.LENGTH_PREFIXED), value -> {})));
+
+			assertThrows(MalformedDataException.class,
+					() -> pipeline.run(RecordFrames.of(frames(100, 42), RecordFraming.LENGTH_PREFIXED), value -> {}));
+
+			var consumerFailure = new IllegalStateException("consumer");
+			assertSame(consumerFailure, assertThrows(IllegalStateException.class,
+					() -> pipeline.run(RecordFrames.of(frames(1000, -1), RecordFraming.LENGTH_PREFIXED), value -> {
+						if (value == 100) throw consumerFailure;
+					})));
+
+			AtomicInteger consumed = new AtomicInteger();
+			assertEquals(400, pipeline.run(RecordFrames.of(frames(400, -1), RecordFraming.LENGTH_PREFIXED),
+					value -> consumed.incrementAndGet()));
+			assertEquals(400, consumed.get());
+		}
+	}
+
+	@Test
+	void failedRunsReleaseReadersBlockedInUninterruptibleIo() {
+		byte[] prefix = frames(1000, -1).toByteArray();
+		var closed = new Semaphore(0);
+		var blocking = new SafeInputStream() {
+			private int position;
+
+			@Override
+			public int read() {
+				if (position < prefix.length) {
+					return prefix[position++] & 0xFF;
+				}
+				// Ignores interrupts like blocking socket or pipe reads: only close() releases it.
+				closed.acquireUninterruptibly();
+				closed.release();
+				return -1;
+			}
+
+			@Override
+			public void close() {
+				closed.release();
+			}
+		};
+		try (var pipeline = new DecodePipeline<Integer>(() -> (version, source, offset, length) ->
+				length == Integer.BYTES ? source.getInt(offset) : -length, 2, 16, 3)) {
+			var consumerFailure = new IllegalStateException("consumer");
+			var input = new SafeDataInputStream(blocking, DecodeLimits.unlimited());
+			// After the prefix the source blocks instead of ending, so only closing it releases the reader.
+			assertSame(consumerFailure, assertThrows(IllegalStateException.class,
+					() -> pipeline.run(RecordFrames.of(input, RecordFraming.LENGTH_PREFIXED, 1024), value -> {
+						if (value == 100) throw consumerFailure;
+					})));
+			assertEquals(0, consumerFailure.getSuppressed().length);
+
+			BufDataOutput oversized = BufDataOutput.create();
+			oversized.writeInt(DecodePipeline.DEFAULT_BATCH_BYTES + 1);
+			oversized.write(new byte[DecodePipeline.DEFAULT_BATCH_BYTES + 1]);
+			frames(10, -1).writeTo(oversized);
+			List<Integer> values = new ArrayList<>();
+			assertEquals(11, pipeline.run(RecordFrames.of(oversized.asList(), RecordFraming.LENGTH_PREFIXED),
+					values::add));
+			assertEquals(-(DecodePipeline.DEFAULT_BATCH_BYTES + 1), values.getFirst());
+			assertEquals(9, values.getLast());
+		}
+	}
+
+	/** Frames holding one int each; the frame at {@code truncateAt} declares more bytes than remain. */
+	private static Buf frames(int count, int truncateAt) {
+		BufDataOutput output = BufDataOutput.create();
+		for (int i = 0; i < count; i++) {
+			if (i == truncateAt) {
+				output.writeInt(Integer.BYTES * 2);
+				output.writeInt(i);
+				break;
+			}
+			output.writeInt(Integer.BYTES);
+			output.writeInt(i);
+		}
+		return output.asList();
+	}
+}
@@ -0,0 +1,118 @@
+package it.cavallium.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.buffer.RandomAccessDataInput;
+import it.cavallium.datagen.nativedata.ArrayintSerializer;
+import it.cavallium.stream.SafeByteArrayInputStream;
+import it.cavallium.stream.SafeDataInput;
+import it.cavallium.stream.SafeDataInputStream;
+import it.cavallium.stream.SafeDataOutput;
+import org.junit.jupiter.api.Test;
+
+class FramedStreamReaderTest {
+
+	@Test
+	void framesAreDecodedThroughARandomAccessCursorAndTheWindowGrows() {
+		var codec = new ArrayintSerializer();
+		BufDataOutput output = BufDataOutput.create();
+		int[][] records = new int[40][];
+		for (int i = 0; i < records.length; i++) {
+			records[i] = new int[i * i];
+			for (int j = 0; j < records[i].length; j++) records[i][j] = i * 1000 + j;
+			BufDataOutput body = BufDataOutput.create();
+			codec.serialize(body, records[i]);
+			output.writeInt(body.size());
+			output.write(body.toList().toByteArray());
+		}
+
+		var inputs = new int[1];
+		DataCodec<int[]> probing = new DataCodec<>() {
+			@Override
+			public void serialize(SafeDataOutput dataOutput, int[] data) {
+				codec.serialize(dataOutput, data);
+			}
+
+			@Override
+			public int[] read(SafeDataInput dataInput) {
+				assertInstanceOf(RandomAccessDataInput.class, dataInput);
+				inputs[0]++;
+				return codec.read(dataInput);
+			}
+
+			@Override
+			public void skip(SafeDataInput dataInput) {
+				codec.skip(dataInput);
+			}
+		};
+		try (var reader = new FramedStreamReader<>(stream(output.toList().toByteArray()), probing,
+				DecodeLimits.unlimited())) {
+			for (int[] record : records) {
+				assertArrayEquals(record, reader.read());
+				assertEquals(RecordFrames.UNVERSIONED, reader.version());
+			}
+			assertNull(reader.read());
+		}
+		assertEquals(records.length, inputs[0]);
+	}
+
+	@Test
+	void versionTaggedFramesAndMalformedFramesAreChecked() {
+		var codec = new ArrayintSerializer();
+		BufDataOutput output = BufDataOutput.create();
+		output.writeInt(7);
+		output.writeInt(12);
+		codec.serialize(output, new int[] {1, 2});
+		output.writeInt(7);
+		output.writeInt(12);
+		codec.serialize(output, new int[] {3});
+		output.writeInt(0);
+		try (var reader = new FramedStreamReader<>(stream(output.toList().toByteArray()),
+				RecordFraming.VERSION_TAGGED, 64, 7, RecordFrames.UNTYPED, codec, DecodeLimits.unlimited())) {
+			assertArrayEquals(new int[] {1, 2}, reader.read());
+			assertEquals(7, reader.version());
+			var trailing = assertThrows(MalformedDataException.class, reader::read);
+			assertTrue(trailing.getMessage().contains("Trailing bytes"));
+		}
+
+		BufDataOutput oversized = BufDataOutput.create();
+		oversized.writeInt(65);
+		try (var reader = new FramedStreamReader<>(stream(oversized.toList().toByteArray()),
+				RecordFraming.LENGTH_PREFIXED, 64, RecordFrames.UNVERSIONED, RecordFrames.UNTYPED, codec,
+				DecodeLimits.unlimited())) {
+			assertThrows(MalformedDataException.class, reader::read);
+		}
+	}
+
+	@Test
+	void framesOfAnotherVersionAreRejectedInsteadOfMisdecoded() {
+		var codec = new ArrayintSerializer();
+		BufDataOutput output = BufDataOutput.create();
+		output.writeInt(2);
+		output.writeInt(8);
+		codec.serialize(output, new int[] {5});
+		output.writeInt(1);
+		output.writeInt(8);
+		codec.serialize(output, new int[] {6});
+		try (var reader = new FramedStreamReader<>(stream(output.toList().toByteArray()),
+				RecordFraming.VERSION_TAGGED, 64, 2, RecordFrames.UNTYPED, codec, DecodeLimits.unlimited())) {
+			assertArrayEquals(new int[] {5}, reader.read());
+			var mismatch = assertThrows(MalformedDataException.class, reader::read);
+			assertTrue(mismatch.getMessage().contains("Unexpected frame version"), mismatch.getMessage());
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> new FramedStreamReader<>(stream(new byte[0]),
+				RecordFraming.VERSION_TAGGED, 64, RecordFrames.UNVERSIONED, RecordFrames.UNTYPED, codec,
+				DecodeLimits.unlimited()));
+	}
+
+	private static SafeDataInputStream stream(byte[] bytes) {
+		return new SafeDataInputStream(new SafeByteArrayInputStream(bytes), DecodeLimits.unlimited());
+	}
+}
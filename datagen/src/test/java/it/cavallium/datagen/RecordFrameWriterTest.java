@@ -0,0 +1,128 @@
+package it.cavallium.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.datagen.nativedata.ArrayintSerializer;
+import it.cavallium.stream.SafeByteArrayInputStream;
+import it.cavallium.stream.SafeDataInputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import org.junit.jupiter.api.Test;
+
+class RecordFrameWriterTest {
+
+	@Test
+	void checksummedFramesRoundTripOnHeapAndNativeStorage() {
+		var codec = new ArrayintSerializer();
+		BufDataOutput output = BufDataOutput.create();
+		var writer = new RecordFrameWriter<>(output, RecordFraming.CHECKSUMMED, codec);
+		for (int i = 0; i < 20; i++) {
+			writer.write(i % 3, 100 + i, new int[i]);
+		}
+		byte[] bytes = output.toList().toByteArray();
+
+		// The second frame holds one int: the checksum covers its first 12 header bytes and then its body.
+		int second = RecordFraming.CHECKSUMMED.headerBytes() + 4;
+		var crc = new CRC32C();
+		crc.update(bytes, second, 12);
+		crc.update(bytes, second + RecordFraming.CHECKSUMMED.headerBytes(), 8);
+		assertEquals((int) crc.getValue(), Buf.wrap(bytes).getInt(second + 12));
+		var body = new CRC32C();
+		body.update(bytes, second + RecordFraming.CHECKSUMMED.headerBytes(), 8);
+		assertEquals((int) body.getValue(),
+				Buf.wrap(bytes).crc32c(second + RecordFraming.CHECKSUMMED.headerBytes(), 8));
+
+		var direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+		for (Buf source : new Buf[] {Buf.wrap(bytes), Buf.wrap(direct)}) {
+			try (var frames = RecordFrames.of(source, RecordFraming.CHECKSUMMED)) {
+				for (int i = 0; i < 20; i++) {
+					assertTrue(frames.next());
+					assertEquals(i % 3, frames.version());
+					assertEquals(100 + i, frames.typeId());
+					assertEquals(i, frames.source().getInt(frames.offset()));
+				}
+				assertFalse(frames.next());
+			}
+		}
+
+		BufDataOutput sameType = BufDataOutput.create();
+		var sameTypeWriter = new RecordFrameWriter<>(sameType, RecordFraming.CHECKSUMMED, codec);
+		for (int i = 0; i < 20; i++) {
+			sameTypeWriter.write(1, 9, new int[i]);
+		}
+		try (var reader = new FramedStreamReader<>(new SafeDataInputStream(
+				new SafeByteArrayInputStream(sameType.toList().toByteArray()), DecodeLimits.unlimited()),
+				RecordFraming.CHECKSUMMED, 1024, 1, 9, codec, DecodeLimits.unlimited())) {
+			for (int i = 0; i < 20; i++) {
+				assertArrayEquals(new int[i], reader.read());
+				assertEquals(9, reader.typeId());
+			}
+		}
+	}
+
+	@Test
+	void corruptBodiesFailUnlessTrusted() {
+		BufDataOutput output = BufDataOutput.create();
+		var writer = new RecordFrameWriter<>(output, RecordFraming.CHECKSUMMED, new ArrayintSerializer());
+		writer.write(1, 2, new int[] {5, 6, 7});
+		byte[] bytes = output.toList().toByteArray();
+		bytes[bytes.length - 1] ^= 1;
+
+		try (var frames = RecordFrames.of(Buf.wrap(bytes), RecordFraming.CHECKSUMMED)) {
+			var error = assertThrows(MalformedDataException.class, frames::next);
+			assertTrue(error.getMessage().contains("checksum"));
+		}
+		var stream = new SafeDataInputStream(new SafeByteArrayInputStream(bytes), DecodeLimits.unlimited());
+		try (var frames = RecordFrames.of(stream, RecordFraming.CHECKSUMMED, 64)) {
+			assertThrows(MalformedDataException.class, frames::next);
+		}
+		try (var frames = RecordFrames.of(Buf.wrap(bytes), RecordFraming.CHECKSUMMED, false)) {
+			assertTrue(frames.next());
+			assertEquals(6, frames.source().getInt(frames.offset() + 2 * Integer.BYTES));
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> writer.write(0, -1, new int[0]));
+	}
+
+	@Test
+	void corruptHeadersFailTheChecksum() {
+		BufDataOutput output = BufDataOutput.create();
+		var writer = new RecordFrameWriter<>(output, RecordFraming.CHECKSUMMED, new ArrayintSerializer());
+		writer.write(1, 2, new int[] {5, 6, 7});
+		byte[] bytes = output.toList().toByteArray();
+
+		for (int field : new int[] {0, Integer.BYTES}) {
+			byte[] corrupt = bytes.clone();
+			corrupt[field + Integer.BYTES - 1] ^= 1;
+			try (var frames = RecordFrames.of(Buf.wrap(corrupt), RecordFraming.CHECKSUMMED)) {
+				var error = assertThrows(MalformedDataException.class, frames::next);
+				assertTrue(error.getMessage().contains("checksum"));
+			}
+			var stream = new SafeDataInputStream(new SafeByteArrayInputStream(corrupt), DecodeLimits.unlimited());
+			try (var frames = RecordFrames.of(stream, RecordFraming.CHECKSUMMED, 64)) {
+				assertThrows(MalformedDataException.class, frames::next);
+			}
+		}
+	}
+
+	@Test
+	void plainFramingsKeepTheirLayout() {
+		BufDataOutput output = BufDataOutput.create();
+		new RecordFrameWriter<>(output, RecordFraming.VERSION_TAGGED, new ArrayintSerializer())
+				.write(7, 9, new int[] {1});
+		Buf bytes = output.toList();
+		assertEquals(16, bytes.size());
+		assertEquals(7, bytes.getInt(0));
+		assertEquals(8, bytes.getInt(4));
+		try (var frames = RecordFrames.of(bytes, RecordFraming.VERSION_TAGGED)) {
+			assertTrue(frames.next());
+			assertEquals(RecordFrames.UNTYPED, frames.typeId());
+		}
+	}
+}
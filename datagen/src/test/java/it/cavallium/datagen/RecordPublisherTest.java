@@ -0,0 +1,187 @@
+package it.cavallium.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.stream.SafeByteArrayInputStream;
+import it.cavallium.stream.SafeDataInputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RecordPublisherTest {
+
+	private static final RecordDecoder<String> DECODER = (version, source, offset, length) ->
+			version + ":" + source.getInt(offset) + ":" + length;
+
+	private ExecutorService executor;
+
+	@BeforeEach
+	void setUp() {
+		executor = Executors.newSingleThreadExecutor();
+	}
+
+	@AfterEach
+	void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	void publisherEmitsOnlyRequestedRecordsAndCompletes() throws Exception {
+		Buf frames = versionTagged(10);
+		var source = new SafeByteArrayInputStream(frames.toByteArray());
+		var input = new SafeDataInputStream(source, DecodeLimits.unlimited());
+		var subscriber = new RecordingSubscriber();
+		new RecordPublisher<>(RecordFrames.of(input, RecordFraming.VERSION_TAGGED, 1024), DECODER, executor, 3)
+				.subscribe(subscriber);
+		awaitIdle();
+		assertEquals(0, source.position(), "the source must not be read before any demand");
+		assertTrue(subscriber.values.isEmpty());
+
+		subscriber.subscription.request(2);
+		assertTrue(subscriber.awaitCount(2));
+		awaitIdle();
+		assertEquals(List.of("0:0:4", "1:1:8"), subscriber.values);
+		// Only the frame after the last requested one is read ahead, to detect completion.
+		assertEquals(3 * Integer.BYTES * 2 + (1 + 2 + 3) * Integer.BYTES, source.position());
+		assertFalse(subscriber.completed.await(0, TimeUnit.MILLISECONDS));
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+		assertEquals(10, subscriber.values.size());
+		assertEquals("9:9:40", subscriber.values.get(9));
+		assertNull(subscriber.error);
+	}
+
+	@Test
+	void streamFramesAreDecodedFromAReusableWindow() throws InterruptedException {
+		Buf frames = lengthPrefixed(50);
+		var input = new SafeDataInputStream(new SafeByteArrayInputStream(frames.toByteArray()),
+				DecodeLimits.unlimited());
+		var subscriber = new RecordingSubscriber();
+		new RecordPublisher<>(RecordFrames.of(input, RecordFraming.LENGTH_PREFIXED, 1024), DECODER, executor, 7)
+				.subscribe(subscriber);
+
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertTrue(subscriber.completed.await(5, TimeUnit.SECONDS));
+		assertEquals(50, subscriber.values.size());
+		for (int i = 0; i < 50; i++) {
+			assertEquals(RecordFrames.UNVERSIONED + ":" + i + ":" + (i + 1) * Integer.BYTES, subscriber.values.get(i));
+		}
+	}
+
+	@Test
+	void truncatedFramesAndInvalidRequestsFailTheSubscription() throws InterruptedException {
+		Buf complete = versionTagged(3);
+		Buf truncated = complete.subList(0, complete.size() - 1);
+		var subscriber = new RecordingSubscriber();
+		new RecordPublisher<>(RecordFrames.of(truncated, RecordFraming.VERSION_TAGGED), DECODER, executor)
+				.subscribe(subscriber);
+		subscriber.subscription.request(Long.MAX_VALUE);
+		assertTrue(subscriber.failed.await(5, TimeUnit.SECONDS));
+		assertInstanceOf(MalformedDataException.class, subscriber.error);
+		assertEquals(2, subscriber.values.size());
+
+		var invalid = new RecordingSubscriber();
+		var publisher = new RecordPublisher<>(RecordFrames.of(complete, RecordFraming.VERSION_TAGGED), DECODER,
+				executor);
+		publisher.subscribe(invalid);
+		invalid.subscription.request(-1);
+		assertTrue(invalid.failed.await(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalArgumentException.class, invalid.error);
+		assertEquals("Non-positive request: -1", invalid.error.getMessage());
+
+		var zero = new RecordingSubscriber();
+		new RecordPublisher<>(RecordFrames.of(complete, RecordFraming.VERSION_TAGGED), DECODER, executor)
+				.subscribe(zero);
+		zero.subscription.request(0);
+		assertTrue(zero.failed.await(5, TimeUnit.SECONDS));
+		assertEquals("Non-positive request: 0", zero.error.getMessage());
+
+		var second = new RecordingSubscriber();
+		publisher.subscribe(second);
+		assertTrue(second.failed.await(5, TimeUnit.SECONDS));
+		assertInstanceOf(IllegalStateException.class, second.error);
+	}
+
+	/** Waits until every task submitted to the single-threaded executor so far has run. */
+	private void awaitIdle() throws Exception {
+		executor.submit(() -> {}).get(5, TimeUnit.SECONDS);
+	}
+
+	/** Frame {@code i} has version {@code i} and {@code i + 1} ints, the first being {@code i}. */
+	private static Buf versionTagged(int count) {
+		BufDataOutput output = BufDataOutput.create();
+		for (int i = 0; i < count; i++) {
+			output.writeInt(i);
+			writeBody(output, i);
+		}
+		return output.asList();
+	}
+
+	private static Buf lengthPrefixed(int count) {
+		BufDataOutput output = BufDataOutput.create();
+		for (int i = 0; i < count; i++) {
+			writeBody(output, i);
+		}
+		return output.asList();
+	}
+
+	private static void writeBody(BufDataOutput output, int i) {
+		output.writeInt((i + 1) * Integer.BYTES);
+		for (int j = 0; j <= i; j++) {
+			output.writeInt(i);
+		}
+	}
+
+	private static final class RecordingSubscriber implements Flow.Subscriber<String> {
+
+		private final List<String> values = new CopyOnWriteArrayList<>();
+		private final CountDownLatch completed = new CountDownLatch(1);
+		private final CountDownLatch failed = new CountDownLatch(1);
+		private volatile Flow.Subscription subscription;
+		private volatile Throwable error;
+
+		@Override
+		public void onSubscribe(Flow.Subscription subscription) {
+			this.subscription = subscription;
+		}
+
+		@Override
+		public void onNext(String item) {
+			values.add(item);
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			error = throwable;
+			failed.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			completed.countDown();
+		}
+
+		private boolean awaitCount(int count) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (values.size() < count) {
+				if (System.nanoTime() > deadline) return false;
+				Thread.sleep(1);
+			}
+			return true;
+		}
+	}
+}
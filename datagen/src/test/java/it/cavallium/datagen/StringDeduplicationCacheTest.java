@@ -0,0 +1,81 @@
+package it.cavallium.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.buffer.MemorySegmentBuf;
+import it.cavallium.datagen.nativedata.StringSerializer;
+import it.cavallium.stream.SafeByteArrayInputStream;
+import it.cavallium.stream.SafeDataInputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class StringDeduplicationCacheTest {
+
+	@Test
+	void repeatedHeapAndNativePayloadsReturnTheCanonicalInstance() {
+		Buf wire = stringWire("IT");
+		DataCodec.Reader<String> reader = StringSerializer.INSTANCE.newReader(DecodeLimits.unlimited());
+		assertNotSame(reader.read(wire), reader.read(wire));
+
+		reader.decodeBudget().enableStringDeduplication(64, 16);
+		String first = reader.read(wire);
+		assertSame(first, reader.read(Buf.wrap(wire.asArray())));
+		try (var arena = Arena.ofConfined()) {
+			MemorySegment segment = arena.allocate(wire.size(), 1);
+			MemorySegment.copy(wire.asMemorySegment(), 0, segment, 0, wire.size());
+			assertSame(first, reader.read(new MemorySegmentBuf(segment)));
+		}
+		StringDeduplicationCache cache = reader.decodeBudget().stringDeduplicationCache();
+		assertEquals(1, cache.misses());
+		assertEquals(2, cache.hits());
+	}
+
+	@Test
+	void forwardOnlyInputUsesTheLaneCache() {
+		Buf wire = stringWire("active");
+		var input = new SafeDataInputStream(new SafeByteArrayInputStream(concat(wire, wire)),
+				DecodeLimits.unlimited());
+		input.decodeBudget().enableStringDeduplication(8, 16);
+		assertSame(StringSerializer.INSTANCE.read(input), StringSerializer.INSTANCE.read(input));
+	}
+
+	@Test
+	void longPayloadsAndCollisionsStayCorrect() {
+		var cache = new StringDeduplicationCache(1, 4);
+		byte[] a = "ab".getBytes(StandardCharsets.UTF_8);
+		byte[] b = "cd".getBytes(StandardCharsets.UTF_8);
+		assertEquals("ab", cache.intern(a, 0, a.length));
+		assertEquals("cd", cache.intern(b, 0, b.length));
+		assertEquals("ab", cache.intern(a, 0, a.length));
+		assertEquals(3, cache.misses());
+
+		DataCodec.Reader<String> reader = StringSerializer.INSTANCE.newReader(DecodeLimits.unlimited());
+		reader.decodeBudget().enableStringDeduplication(8, 4);
+		Buf longWire = stringWire("too long for the cache");
+		assertNotSame(reader.read(longWire), reader.read(longWire));
+		assertEquals(0, reader.decodeBudget().stringDeduplicationCache().misses());
+
+		assertThrows(IllegalArgumentException.class, () -> new StringDeduplicationCache(0, 4));
+		assertThrows(IllegalArgumentException.class, () -> new StringDeduplicationCache(4, -1));
+	}
+
+	private static Buf stringWire(String value) {
+		var output = BufDataOutput.create();
+		StringSerializer.INSTANCE.serialize(output, value);
+		return output.toList();
+	}
+
+	private static byte[] concat(Buf a, Buf b) {
+		byte[] result = new byte[a.size() + b.size()];
+		a.getElements(0, result, 0, a.size());
+		b.getElements(0, result, a.size(), b.size());
+		return result;
+	}
+}
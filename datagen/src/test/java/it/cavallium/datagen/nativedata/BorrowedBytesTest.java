@@ -0,0 +1,126 @@
+package it.cavallium.datagen.nativedata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.buffer.MemorySegmentBuf;
+import it.cavallium.datagen.DataCodec;
+import it.cavallium.datagen.DecodeLimitExceededException;
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import it.cavallium.stream.SafeByteArrayInputStream;
+import it.cavallium.stream.SafeDataInputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class BorrowedBytesTest {
+
+	private static final byte[] PAYLOAD = "borrowed payload".getBytes(StandardCharsets.UTF_8);
+
+	@Test
+	void heapPayloadIsAViewUntilTheNextRootRead() {
+		byte[] wire = binaryStringWire(PAYLOAD);
+		DataCodec.Reader<BorrowedBytes> reader = BorrowedBinaryStringSerializer.INSTANCE
+				.newReader(DecodeLimits.unlimited());
+		BorrowedBytes first = reader.read(Buf.wrap(wire));
+		assertTrue(first.isValid());
+		assertArrayEquals(PAYLOAD, first.toByteArray());
+		assertFalse(first.view().isMutable());
+
+		wire[Integer.BYTES] = 'B';
+		assertEquals('B', first.view().getByte(0), "heap payload must not be copied");
+
+		BorrowedBytes second = reader.read(Buf.wrap(binaryStringWire(PAYLOAD)));
+		assertFalse(first.isValid());
+		assertThrows(IllegalStateException.class, first::view);
+		assertEquals(new BinaryString(PAYLOAD), second.toBinaryString());
+	}
+
+	@Test
+	void nativePayloadIsASegmentSliceWithoutHeapCopy() {
+		byte[] wire = byteArrayWire(PAYLOAD);
+		try (var arena = Arena.ofConfined()) {
+			MemorySegment segment = arena.allocate(wire.length + 3, 1);
+			MemorySegment.copy(MemorySegment.ofArray(wire), 0, segment, 3, wire.length);
+			DataCodec.Reader<BorrowedBytes> reader = BorrowedByteArraySerializer.INSTANCE
+					.newReader(DecodeLimits.unlimited());
+			BorrowedBytes borrowed = reader.read(new MemorySegmentBuf(segment), 3, wire.length);
+			Buf view = borrowed.view();
+			assertNull(view.asArrayStrict());
+			assertEquals(segment.address() + 3 + Integer.BYTES, view.asMemorySegmentStrict().address());
+			assertArrayEquals(PAYLOAD, borrowed.toByteArray());
+		}
+	}
+
+	@Test
+	void equalityFollowsTheViewedBytesOnAnyStorage() {
+		byte[] wire = byteArrayWire(PAYLOAD);
+		try (var arena = Arena.ofConfined()) {
+			MemorySegment segment = arena.allocate(wire.length, 1);
+			MemorySegment.copy(MemorySegment.ofArray(wire), 0, segment, 0, wire.length);
+			DataCodec.Reader<BorrowedBytes> heapReader = BorrowedByteArraySerializer.INSTANCE
+					.newReader(DecodeLimits.unlimited());
+			DataCodec.Reader<BorrowedBytes> nativeReader = BorrowedByteArraySerializer.INSTANCE
+					.newReader(DecodeLimits.unlimited());
+			BorrowedBytes onHeap = heapReader.read(Buf.wrap(wire));
+			BorrowedBytes onSegment = nativeReader.read(new MemorySegmentBuf(segment));
+			assertEquals(onHeap, onSegment);
+			assertEquals(onHeap.hashCode(), onSegment.hashCode());
+			assertEquals(new BinaryString(PAYLOAD).hashCode(), onHeap.hashCode());
+
+			BorrowedBytes other = BorrowedByteArraySerializer.INSTANCE.newReader(DecodeLimits.unlimited())
+					.read(Buf.wrap(byteArrayWire(Arrays.copyOf(PAYLOAD, PAYLOAD.length - 1))));
+			assertNotEquals(onHeap, other);
+
+			heapReader.read(Buf.wrap(wire));
+			assertThrows(IllegalStateException.class, () -> onHeap.equals(onSegment));
+			assertThrows(IllegalStateException.class, onHeap::hashCode);
+		}
+	}
+
+	@Test
+	void forwardOnlyInputCopiesAndOutputIsByteIdentical() {
+		byte[] wire = binaryStringWire(PAYLOAD);
+		var input = new SafeDataInputStream(new SafeByteArrayInputStream(wire), DecodeLimits.unlimited());
+		BorrowedBytes borrowed = BorrowedBinaryStringSerializer.INSTANCE.read(input);
+		assertArrayEquals(PAYLOAD, borrowed.toByteArray());
+
+		var output = BufDataOutput.create();
+		BorrowedBinaryStringSerializer.INSTANCE.serialize(output, borrowed);
+		assertArrayEquals(wire, output.toList().toByteArray());
+	}
+
+	@Test
+	void borrowedReadsKeepTheOwnedBudgetAndValidation() {
+		byte[] wire = byteArrayWire(PAYLOAD);
+		var tight = new DecodeLimits(PAYLOAD.length - 1, Integer.MAX_VALUE, Integer.MAX_VALUE,
+				Integer.MAX_VALUE, 8);
+		assertThrows(DecodeLimitExceededException.class,
+				() -> BorrowedByteArraySerializer.INSTANCE.newReader(tight).read(Buf.wrap(wire)));
+		byte[] truncated = Arrays.copyOf(wire, wire.length - 1);
+		assertThrows(MalformedDataException.class, () -> BorrowedByteArraySerializer.INSTANCE
+				.newReader(DecodeLimits.unlimited()).read(Buf.wrap(truncated)));
+	}
+
+	private static byte[] binaryStringWire(byte[] payload) {
+		var output = BufDataOutput.create();
+		BinaryStringSerializer.INSTANCE.serialize(output, new BinaryString(payload));
+		return output.toList().toByteArray();
+	}
+
+	private static byte[] byteArrayWire(byte[] payload) {
+		var output = BufDataOutput.create();
+		new ArraybyteSerializer().serialize(output, payload);
+		return output.toList().toByteArray();
+	}
+}
@@ -0,0 +1,82 @@
+package it.cavallium.datagen.nativedata;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.buffer.MemorySegmentBuf;
+import it.cavallium.datagen.DataCodec;
+import it.cavallium.datagen.DecodeLimitExceededException;
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import it.cavallium.stream.SafeByteArrayInputStream;
+import it.cavallium.stream.SafeDataInputStream;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EnumeratedStringCodecTest {
+
+	private static final EnumeratedStringCodec STATUS =
+			new EnumeratedStringCodec("ACTIVE", "SUSPENDED", "DELETED", "NEW", "OLD");
+
+	@Test
+	void knownValuesReturnCanonicalConstantsOnEveryStorage() {
+		DataCodec.Reader<String> reader = STATUS.newReader(DecodeLimits.unlimited());
+		for (String value : STATUS.values()) {
+			Buf wire = wire(new String(value.toCharArray()));
+			assertSame(value, reader.read(wire));
+			try (var arena = Arena.ofConfined()) {
+				MemorySegment segment = arena.allocate(wire.size(), 1);
+				MemorySegment.copy(wire.asMemorySegment(), 0, segment, 0, wire.size());
+				assertSame(value, reader.read(new MemorySegmentBuf(segment)));
+			}
+			var stream = new SafeDataInputStream(new SafeByteArrayInputStream(wire.asArray()),
+					DecodeLimits.unlimited());
+			assertSame(value, STATUS.read(stream));
+		}
+		assertSame("OLD", reader.read(wire("OLD")));
+	}
+
+	@Test
+	void unknownValuesFallBackAndWireMatchesStringSerializer() {
+		DataCodec.Reader<String> reader = STATUS.newReader(DecodeLimits.unlimited());
+		for (String unknown : List.of("", "NEV", "ARCHIVED", "äctive")) {
+			Buf wire = wire(unknown);
+			var plain = BufDataOutput.create();
+			StringSerializer.INSTANCE.serialize(plain, unknown);
+			assertArrayEquals(plain.toList().asArray(), wire.asArray());
+			assertEquals(unknown, reader.read(wire));
+			assertEquals(-1, STATUS.ordinal(unknown));
+		}
+		String copy = new String("SUSPENDED".toCharArray());
+		assertNotSame("SUSPENDED", copy);
+		assertEquals(1, STATUS.ordinal(copy));
+		assertSame("SUSPENDED", STATUS.canonical(copy));
+		assertSame("DELETED", STATUS.value(2));
+	}
+
+	@Test
+	void budgetAndTruncationMatchPlainStrings() {
+		Buf wire = wire("ACTIVE");
+		var tight = new DecodeLimits(Integer.MAX_VALUE, 5, Integer.MAX_VALUE, Integer.MAX_VALUE, 8);
+		assertThrows(DecodeLimitExceededException.class, () -> STATUS.newReader(tight).read(wire));
+		byte[] truncated = Arrays.copyOf(wire.asArray(), wire.size() - 1);
+		assertThrows(MalformedDataException.class,
+				() -> STATUS.newReader(DecodeLimits.unlimited()).read(Buf.wrap(truncated)));
+		assertThrows(IllegalArgumentException.class, () -> new EnumeratedStringCodec("A", "A"));
+		assertThrows(IllegalArgumentException.class, EnumeratedStringCodec::new);
+	}
+
+	private static Buf wire(String value) {
+		var output = BufDataOutput.create();
+		STATUS.serialize(output, value);
+		return output.toList();
+	}
+}
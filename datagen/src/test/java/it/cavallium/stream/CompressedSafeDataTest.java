@@ -0,0 +1,134 @@
+package it.cavallium.stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import it.cavallium.buffer.Buf;
+import it.cavallium.buffer.BufDataInput;
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class CompressedSafeDataTest {
+
+	@Test
+	void blocksRoundTripAcrossLengthsAndEntropy() {
+		var random = new Random(0x1234);
+		int[] table = LzBlocks.newHashTable();
+		for (int length : new int[] {0, 1, 5, 12, 13, 17, 100, 255, 270, 4096, 65536, 200_000}) {
+			for (int alphabet : new int[] {1, 2, 4, 256}) {
+				byte[] raw = new byte[length];
+				for (int i = 0; i < length; i++) {
+					raw[i] = i > 64 && random.nextInt(4) != 0 ? raw[i - 1 - random.nextInt(64)]
+							: (byte) random.nextInt(alphabet);
+				}
+				byte[] compressed = new byte[3 + LzBlocks.maxCompressedLength(length)];
+				int size = LzBlocks.compress(raw, length, compressed, 3, table);
+				assertTrue(size <= LzBlocks.maxCompressedLength(length));
+				byte[] restored = new byte[length + 2];
+				LzBlocks.decompress(compressed, 3, size, restored, 1, length);
+				assertArrayEquals(raw, Arrays.copyOfRange(restored, 1, length + 1), length + "/" + alphabet);
+				if (alphabet == 1 && length > 1000) {
+					assertTrue(size < length / 50, "runs must compress: " + size);
+				}
+			}
+		}
+	}
+
+	@Test
+	void corruptBlocksFailAsMalformedData() {
+		var random = new Random(99);
+		byte[] raw = "the quick brown fox jumps over the lazy dog, ".repeat(40).getBytes(StandardCharsets.UTF_8);
+		byte[] compressed = new byte[LzBlocks.maxCompressedLength(raw.length)];
+		int size = LzBlocks.compress(raw, raw.length, compressed, 0, LzBlocks.newHashTable());
+		byte[] out = new byte[raw.length];
+		assertThrows(MalformedDataException.class,
+				() -> LzBlocks.decompress(compressed, 0, size, out, 0, raw.length - 1));
+		assertThrows(MalformedDataException.class,
+				() -> LzBlocks.decompress(compressed, 0, size - 1, out, 0, raw.length));
+		for (int round = 0; round < 2000; round++) {
+			byte[] damaged = Arrays.copyOf(compressed, size);
+			damaged[random.nextInt(size)] ^= (byte) (1 + random.nextInt(255));
+			try {
+				LzBlocks.decompress(damaged, 0, size, out, 0, raw.length);
+			} catch (MalformedDataException expected) {
+				// Damage that still decodes to the right length is undetectable without a checksum.
+			}
+		}
+	}
+
+	@Test
+	void compressedStreamsRoundTripValuesAndBlocks() {
+		var sink = new SafeByteArrayOutputStream();
+		var out = new CompressedSafeDataOutput(sink, 256);
+		var ints = new int[1000];
+		for (int i = 0; i < ints.length; i++) ints[i] = i / 10;
+		var noise = new byte[3000];
+		new Random(7).nextBytes(noise);
+		for (int i = 0; i < 50; i++) {
+			out.writeInt(i);
+			out.writeLong(-i);
+			out.writeInt52(0xfffff00000000L + i);
+			out.writeShortText("record " + i, StandardCharsets.UTF_8);
+			out.writeDouble(i / 3.0);
+		}
+		out.writeInts(ints, 0, ints.length);
+		out.write(noise);
+		out.writeBoolean(true);
+		out.close();
+		assertTrue(out.storedBytes() < out.rawBytes());
+		assertEquals(sink.toByteArray().length, out.storedBytes());
+
+		var in = new CompressedSafeDataInput(new SafeByteArrayInputStream(sink.toByteArray()),
+				DecodeLimits.unlimited(), 256);
+		for (int i = 0; i < 50; i++) {
+			assertEquals(i, in.readInt());
+			assertEquals(-i, in.readLong());
+			assertEquals(0xfffff00000000L + i, in.readInt52());
+			assertEquals("record " + i, in.readShortText(StandardCharsets.UTF_8));
+			assertEquals(i / 3.0, in.readDouble());
+		}
+		var restoredInts = new int[ints.length];
+		in.readInts(restoredInts, 0, restoredInts.length);
+		assertArrayEquals(ints, restoredInts);
+		var restoredNoise = new byte[noise.length];
+		in.readFully(restoredNoise);
+		assertArrayEquals(noise, restoredNoise);
+		assertTrue(in.readBoolean());
+		assertEquals(-1, in.read());
+
+		byte[] truncated = Arrays.copyOf(sink.toByteArray(), sink.toByteArray().length - 3);
+		var partial = new CompressedSafeDataInput(new SafeByteArrayInputStream(truncated), DecodeLimits.unlimited(), 256);
+		assertThrows(MalformedDataException.class, () -> partial.skipBytes(Integer.MAX_VALUE));
+	}
+
+	@Test
+	void endedBlocksAreReadableAsWholeBuffers() {
+		var sink = new SafeByteArrayOutputStream();
+		var out = new CompressedSafeDataOutput(sink);
+		for (int record = 0; record < 5; record++) {
+			for (int i = 0; i <= record * 100; i++) {
+				out.writeInt(record);
+			}
+			out.endBlock();
+		}
+		out.close();
+
+		var in = new CompressedSafeDataInput(new SafeByteArrayInputStream(sink.toByteArray()), DecodeLimits.unlimited());
+		for (int record = 0; record < 5; record++) {
+			Buf block = in.readBlock();
+			assertEquals((record * 100 + 1) * Integer.BYTES, block.size());
+			var cursor = BufDataInput.create(block, DecodeLimits.unlimited());
+			for (int i = 0; i <= record * 100; i++) {
+				assertEquals(record, cursor.readInt());
+			}
+		}
+		assertNull(in.readBlock());
+	}
+}
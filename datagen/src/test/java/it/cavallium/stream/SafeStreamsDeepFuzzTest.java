@@ -2,6 +2,7 @@ package it.cavallium.stream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -153,6 +154,26 @@ class SafeStreamsDeepFuzzTest {
 		}
 	}
 
+	@Test
+	void ownedStorageGrowsOnlyWhenAllowed() {
+		byte[] storage = new byte[4];
+		var fixed = new SafeByteArrayOutputStream(storage, false) {};
+		fixed.write(new byte[] {1, 2, 3}, 0, 3);
+		assertEquals(3, fixed.length());
+		assertThrows(IndexOutOfBoundsException.class, () -> fixed.write(new byte[2], 0, 2));
+		fixed.write(4);
+		assertThrows(IndexOutOfBoundsException.class, () -> fixed.write(5));
+		fixed.trim();
+		assertSame(storage, fixed.array);
+		assertArrayEquals(new byte[] {1, 2, 3, 4}, fixed.toByteArray());
+		fixed.reset();
+		assertEquals(0, fixed.length());
+
+		var growable = new SafeByteArrayOutputStream(new byte[2], true) {};
+		growable.write(new byte[] {1, 2, 3}, 0, 3);
+		assertArrayEquals(new byte[] {1, 2, 3}, growable.toByteArray());
+	}
+
 	@Test
 	void growableByteArrayOutputStateMachineFuzzesSparseOverwriteResetTrimAndCapacity() {
 		var random = new Random(OUTPUT_SEED);
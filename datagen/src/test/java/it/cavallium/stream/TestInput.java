@@ -10,11 +10,13 @@ import it.cavallium.buffer.Buf;
 import it.cavallium.buffer.BufDataInput;
 import it.cavallium.datagen.DecodeLimits;
 import it.cavallium.datagen.MalformedDataException;
+import it.cavallium.datagen.ProjectionReadSupport;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Random;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -30,6 +32,7 @@ public class TestInput {
         return Stream.of(
                 new SafeDataInputStream(new SafeByteArrayInputStream(DATA), DecodeLimits.unlimited()),
                 new SafeByteArrayInputStream(DATA),
+                new BufferedSafeDataInputStream(new SafeByteArrayInputStream(DATA), DecodeLimits.unlimited(), 16),
                 BufDataInput.create(Buf.wrap(DATA), DecodeLimits.unlimited()),
                 BufDataInput.create(Buf.wrap(dataLarge).subList(2, 12), DecodeLimits.unlimited()));
     }
@@ -166,6 +169,89 @@ public class TestInput {
         }
     }
 
+    @Test
+    public void testBufferedInputMatchesUnbufferedAcrossRefills() throws IOException {
+        var baos = new ByteArrayOutputStream();
+        var daos = new DataOutputStream(baos);
+        var random = new Random(0x5EED_B0F1L);
+        var ints = new int[37];
+        var doubles = new double[19];
+        for (int i = 0; i < ints.length; i++) ints[i] = random.nextInt();
+        for (int i = 0; i < doubles.length; i++) doubles[i] = random.nextDouble();
+        var payload = new byte[100];
+        random.nextBytes(payload);
+        for (int round = 0; round < 5; round++) {
+            daos.writeByte(round);
+            daos.writeShort(-round);
+            daos.writeChar('\u00e8');
+            daos.writeInt(0x89abcdef + round);
+            daos.writeLong(-7L * round);
+            daos.write(new byte[] {0x0f, (byte) 0xff, (byte) 0xff, 0, 0, 0, (byte) round});
+            daos.writeFloat(round / 4f);
+            daos.writeDouble(round / 3d);
+            daos.writeBoolean(round % 2 == 0);
+            daos.writeInt(ints.length);
+            for (int value : ints) daos.writeInt(value);
+            daos.writeInt(doubles.length);
+            for (double value : doubles) daos.writeDouble(value);
+            daos.writeUTF("windowed \u00e8 text " + round);
+            daos.write(payload);
+        }
+        var bytes = baos.toByteArray();
+
+        for (int windowBytes : new int[] {16, 17, 64, 8192}) {
+            var trickle = new SafeInputStream() {
+                private int position;
+
+                @Override
+                public int read() {
+                    return position < bytes.length ? bytes[position++] & 0xff : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) return 0;
+                    if (position == bytes.length) return -1;
+                    int count = Math.min(Math.min(len, 1 + position % 5), bytes.length - position);
+                    System.arraycopy(bytes, position, b, off, count);
+                    position += count;
+                    return count;
+                }
+            };
+            var input = new BufferedSafeDataInputStream(trickle, DecodeLimits.unlimited(), windowBytes);
+            assertEquals(-1, input.remainingBytesIfKnown());
+            for (int round = 0; round < 5; round++) {
+                assertEquals(round, input.readByte());
+                assertEquals(-round, input.readShort());
+                assertEquals('\u00e8', input.readChar());
+                assertEquals(0x89abcdef + round, input.readInt());
+                assertEquals(-7L * round, input.readLong());
+                assertEquals(0xfffff00000000L + round, input.readInt52());
+                assertEquals(round / 4f, input.readFloat());
+                assertEquals(round / 3d, input.readDouble());
+                assertEquals(round % 2 == 0, input.readBoolean());
+                assertArrayEquals(ints, ProjectionReadSupport.readIntArray(input, input.readInt()));
+                assertArrayEquals(doubles, ProjectionReadSupport.readDoubleArray(input, input.readInt()));
+                //noinspection deprecation
+                assertEquals("windowed \u00e8 text " + round, input.readUTF());
+                var read = new byte[payload.length];
+                input.readFully(read);
+                assertArrayEquals(payload, read, "window=" + windowBytes);
+            }
+            assertEquals(-1, input.read());
+            assertThrows(MalformedDataException.class, input::readInt);
+        }
+
+        var measured = new BufferedSafeDataInputStream(new SafeByteArrayInputStream(bytes), DecodeLimits.unlimited(), 16);
+        assertEquals(bytes.length, measured.remainingBytesIfKnown());
+        measured.readInt();
+        assertEquals(bytes.length - 4, measured.remainingBytesIfKnown());
+        assertEquals(bytes.length - 4, measured.skip(Long.MAX_VALUE));
+        assertThrows(MalformedDataException.class, () -> measured.readString(1, StandardCharsets.UTF_8));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BufferedSafeDataInputStream(new SafeByteArrayInputStream(bytes), DecodeLimits.unlimited(), 8));
+    }
+
     @ParameterizedTest
     @MethodSource("provideStreams")
     public void testSkip(SafeInputStream is) {
@@ -8,21 +8,165 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import it.cavallium.buffer.Buf;
 import it.cavallium.buffer.BufDataOutput;
+import it.cavallium.buffer.MemorySegmentBuf;
+import it.cavallium.datagen.DecodeLimits;
+import it.cavallium.datagen.MalformedDataException;
+import it.cavallium.datagen.ProjectionReadSupport;
 import it.cavallium.datagen.nativedata.Int52;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 public class TestOutput {
 
+    @Test
+    public void testBulkPrimitiveWritesMatchSingleWritesAndCombine() throws IOException {
+        var booleans = new boolean[10_000];
+        var shorts = new short[5_000];
+        var chars = new char[5_000];
+        var ints = new int[3_000];
+        var longs = new long[2_000];
+        var floats = new float[3_000];
+        var doubles = new double[2_000];
+        for (int i = 0; i < 10_000; i++) booleans[i] = i % 3 == 0;
+        for (int i = 0; i < 5_000; i++) {
+            shorts[i] = (short) (i * 31);
+            chars[i] = (char) (i * 17);
+        }
+        for (int i = 0; i < 3_000; i++) {
+            ints[i] = i * 0x9E3779B9;
+            floats[i] = i == 7 ? Float.intBitsToFloat(0x7fc00001) : i * 0.5f;
+        }
+        for (int i = 0; i < 2_000; i++) {
+            longs[i] = i * 0x9E3779B97F4A7C15L;
+            doubles[i] = i == 7 ? Double.longBitsToDouble(0x7ff8000000000001L) : i * 0.25;
+        }
+
+        var expectedBytes = new ByteArrayOutputStream();
+        var expected = new DataOutputStream(expectedBytes);
+        for (boolean v : booleans) expected.writeBoolean(v);
+        for (short v : shorts) expected.writeShort(v);
+        for (char v : chars) expected.writeChar(v);
+        for (int i = 100; i < 2_100; i++) expected.writeInt(ints[i]);
+        for (long v : longs) expected.writeLong(v);
+        for (float v : floats) expected.writeFloat(v);
+        for (double v : doubles) expected.writeDouble(v);
+
+        var writes = new int[1];
+        var sink = new SafeByteArrayOutputStream() {
+            @Override
+            public void write(int b) {
+                writes[0]++;
+                super.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                writes[0]++;
+                super.write(b, off, len);
+            }
+        };
+        var out = new SafeDataOutputStream(sink);
+        out.writeBooleans(booleans, 0, booleans.length);
+        out.writeShorts(shorts, 0, shorts.length);
+        out.writeChars(chars, 0, chars.length);
+        out.writeInts(ints, 100, 2_000);
+        out.writeLongs(longs, 0, longs.length);
+        out.writeFloats(floats, 0, floats.length);
+        out.writeDoubles(doubles, 0, doubles.length);
+
+        assertArrayEquals(expectedBytes.toByteArray(), sink.toByteArray());
+        assertEquals(expectedBytes.size(), out.size());
+        assertTrue(writes[0] <= expectedBytes.size() / SafeDataOutputStream.COMBINE_BUFFER_BYTES + 7,
+                "one write per combined buffer, got " + writes[0]);
+        assertThrows(IndexOutOfBoundsException.class, () -> out.writeInts(ints, 2_999, 2));
+
+        var limited = BufDataOutput.createLimited(7);
+        assertThrows(IndexOutOfBoundsException.class, () -> limited.writeLongs(longs, 0, 1));
+        assertEquals(0, limited.size());
+        limited.writeInts(ints, 0, 1);
+        limited.writeShorts(shorts, 1, 1);
+        assertEquals(6, limited.size());
+    }
+
+    @Test
+    public void testChannelOutputAndInputRoundTrip(@TempDir Path dir) throws IOException {
+        var longs = new long[] {0, -1, Long.MIN_VALUE, 0x1122334455667788L, 42};
+        var large = new byte[100];
+        for (int i = 0; i < large.length; i++) large[i] = (byte) (i * 3);
+        var expected = BufDataOutput.create();
+        Path file = dir.resolve("channel.bin");
+        try (var arena = Arena.ofConfined();
+                var output = new ChannelSafeDataOutput(FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE), 16)) {
+            var nativePayload = new MemorySegmentBuf(arena.allocate(large.length));
+            nativePayload.setElements(0, large, 0, large.length);
+            for (var out : new SafeDataOutput[] {expected, output}) {
+                out.writeByte(7);
+                out.writeShort(-2);
+                out.writeInt(0x89abcdef);
+                out.writeInt52(Int52.MAX_VALUE_L);
+                out.writeDouble(1.5d);
+                out.writeInt(longs.length);
+                for (long value : longs) out.writeLong(value);
+                out.writeShortText("channel text", StandardCharsets.UTF_8);
+            }
+            expected.write(new byte[] {1, 2, 3});
+            output.transferFrom(Buf.wrap((byte) 1, (byte) 2, (byte) 3));
+            expected.write(large);
+            output.transferFrom(nativePayload);
+            output.writeBoolean(true);
+            expected.writeBoolean(true);
+            assertEquals(1, output.bufferedBytes());
+        }
+        byte[] expectedBytes = expected.asList().toByteArray();
+        assertArrayEquals(expectedBytes, Files.readAllBytes(file));
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var input = new ChannelSafeDataInput(channel, 1, DecodeLimits.unlimited(), 16);
+            assertEquals(expectedBytes.length - 1, input.remainingBytesIfKnown());
+            assertEquals(-2, input.readShort());
+            assertEquals(0x89abcdef, input.readInt());
+            assertEquals(Int52.MAX_VALUE_L, input.readInt52());
+            assertEquals(1.5d, input.readDouble());
+            assertArrayEquals(longs, ProjectionReadSupport.readLongArray(input, input.readInt()));
+            assertEquals("channel text", input.readShortText(StandardCharsets.UTF_8));
+            var small = Buf.createZeroes(3);
+            input.transferTo(small, 0, 3);
+            assertArrayEquals(new byte[] {1, 2, 3}, small.toByteArray());
+            var payload = Buf.createZeroes(large.length + 2);
+            input.transferTo(payload, 1, large.length);
+            assertArrayEquals(large, payload.subList(1, 1 + large.length).toByteArray());
+            assertThrows(UnsupportedOperationException.class, () -> input.transferTo(payload.freeze(), 0, 1));
+            assertTrue(input.readBoolean());
+            assertEquals(0, input.remainingBytesIfKnown());
+            assertEquals(-1, input.read());
+            assertThrows(MalformedDataException.class, input::readLong);
+            assertEquals(0, channel.position());
+        }
+
+        try (var input = new ChannelSafeDataInput(FileChannel.open(file, StandardOpenOption.READ),
+                DecodeLimits.unlimited(), 16)) {
+            assertEquals(7, input.readByte());
+            assertEquals(expectedBytes.length - 2, input.skip(expectedBytes.length - 2));
+            assertTrue(input.readBoolean());
+        }
+    }
+
     @Test
     public void testBufOutputStream() throws IOException {
         var buf = Buf.createZeroes(Integer.BYTES * 3 + Short.BYTES + Character.BYTES + 4);